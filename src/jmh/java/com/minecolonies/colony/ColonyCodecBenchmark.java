@@ -0,0 +1,256 @@
+package com.minecolonies.colony;
+
+import net.minecraft.nbt.CompressedStreamTools;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.nbt.NBTTagString;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encoding and decoding a colony as NBT and with the {@link ColonyCodec}, on colonies shaped like saved ones.
+ * The sizes of both formats, raw and compressed like the colony files, are reported as secondary results, see
+ * {@link Sizes}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ColonyCodecBenchmark
+{
+    private static final String[] JOBS = {
+            "com.minecolonies.colony.jobs.JobBuilder", "com.minecolonies.colony.jobs.JobMiner",
+            "com.minecolonies.colony.jobs.JobLumberjack", "com.minecolonies.colony.jobs.JobFarmer",
+            "com.minecolonies.colony.jobs.JobFisherman", "com.minecolonies.colony.jobs.JobDeliveryman"};
+
+    /**
+     * A saved colony in both formats.
+     */
+    @State(Scope.Benchmark)
+    public static class ColonyState
+    {
+        @Param({"50", "500"})
+        public int citizens;
+
+        /**
+         * Mine nodes per miner.
+         */
+        @Param({"1000"})
+        public int nodes;
+
+        NBTTagCompound compound;
+        byte[]         nbt;
+        byte[]         compact;
+        int            nbtCompressed;
+        int            compactCompressed;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException
+        {
+            compound = createColony(new Random(42), citizens, nodes);
+            nbt = writeNbt(compound);
+            compact = ColonyCodec.encode(compound);
+            nbtCompressed = gzip(nbt).length;
+            compactCompressed = gzip(compact).length;
+        }
+    }
+
+    /**
+     * Bytes of the colony in both formats, reported by JMH next to the times.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Sizes
+    {
+        public long nbtBytes;
+        public long nbtCompressedBytes;
+        public long compactBytes;
+        public long compactCompressedBytes;
+
+        @Setup(Level.Iteration)
+        public void setUp(ColonyState colony)
+        {
+            nbtBytes = colony.nbt.length;
+            nbtCompressedBytes = colony.nbtCompressed;
+            compactBytes = colony.compact.length;
+            compactCompressedBytes = colony.compactCompressed;
+        }
+    }
+
+    @Benchmark
+    public byte[] encodeNbt(ColonyState colony, Sizes sizes) throws IOException
+    {
+        return writeNbt(colony.compound);
+    }
+
+    @Benchmark
+    public NBTTagCompound decodeNbt(ColonyState colony, Sizes sizes) throws IOException
+    {
+        return CompressedStreamTools.read(new DataInputStream(new ByteArrayInputStream(colony.nbt)));
+    }
+
+    @Benchmark
+    public byte[] encodeCompact(ColonyState colony, Sizes sizes)
+    {
+        return ColonyCodec.encode(colony.compound);
+    }
+
+    @Benchmark
+    public NBTTagCompound decodeCompact(ColonyState colony, Sizes sizes) throws IOException
+    {
+        return ColonyCodec.decode(colony.compact);
+    }
+
+    private static byte[] writeNbt(NBTTagCompound compound) throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes))
+        {
+            CompressedStreamTools.write(compound, out);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes))
+        {
+            out.write(data);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * A colony with the tags {@link Colony#writeToNBT} writes: one hut per citizen, every
+     * sixth of them a mine with its nodes, and a few work orders.
+     */
+    static NBTTagCompound createColony(Random random, int citizenCount, int nodeCount)
+    {
+        NBTTagCompound colony = new NBTTagCompound();
+        colony.setInteger("id", 1);
+        colony.setInteger("dimension", 0);
+        colony.setString("name", "Benchmark Colony");
+        colony.setTag("center", position(1000, 64, -2000));
+        colony.setBoolean("manualHiring", false);
+        colony.setInteger("maxCitizens", citizenCount);
+
+        NBTTagList owners = new NBTTagList();
+        NBTTagCompound owner = new NBTTagCompound();
+        owner.setString("id", new UUID(random.nextLong(), random.nextLong()).toString());
+        owner.setString("rank", "OWNER");
+        owners.appendTag(owner);
+        colony.setTag("owners", owners);
+
+        NBTTagList citizens = new NBTTagList();
+        NBTTagList buildings = new NBTTagList();
+        for (int id = 1; id <= citizenCount; ++id)
+        {
+            String job = JOBS[id % JOBS.length];
+            citizens.appendTag(createCitizen(random, id, job));
+            buildings.appendTag(createBuilding(random, id, job, nodeCount));
+        }
+        colony.setTag("citizens", citizens);
+        colony.setTag("buildings", buildings);
+
+        NBTTagList orders = new NBTTagList();
+        for (int id = 1; id <= citizenCount / 10; ++id)
+        {
+            NBTTagCompound order = new NBTTagCompound();
+            order.setString("type", "build");
+            order.setInteger("id", id);
+            order.setInteger("claimedBy", random.nextInt(citizenCount) + 1);
+            order.setInteger("upgradeLevel", random.nextInt(5) + 1);
+            order.setString("upgradeName", "classic/Miner" + (random.nextInt(5) + 1));
+            order.setTag("location", randomPosition(random));
+            orders.appendTag(order);
+        }
+        NBTTagCompound work = new NBTTagCompound();
+        work.setTag("workOrders", orders);
+        colony.setTag("work", work);
+        return colony;
+    }
+
+    private static NBTTagCompound createCitizen(Random random, int id, String job)
+    {
+        NBTTagCompound citizen = new NBTTagCompound();
+        citizen.setInteger("id", id);
+        citizen.setString("name", "Citizen " + id);
+        citizen.setBoolean("female", random.nextBoolean());
+        citizen.setInteger("texture", random.nextInt(3));
+        citizen.setInteger("level", random.nextInt(10));
+        citizen.setInteger("experience", random.nextInt(1000));
+        citizen.setFloat("health", 20F);
+        citizen.setFloat("maxHealth", 20F);
+
+        NBTTagCompound skills = new NBTTagCompound();
+        for (String skill : new String[]{"strength", "endurance", "charisma", "intelligence", "dexterity"})
+        {
+            skills.setInteger(skill, random.nextInt(5) + 1);
+        }
+        citizen.setTag("skills", skills);
+
+        NBTTagCompound jobTag = new NBTTagCompound();
+        jobTag.setString("type", job);
+        citizen.setTag("job", jobTag);
+        return citizen;
+    }
+
+    private static NBTTagCompound createBuilding(Random random, int worker, String job, int nodeCount)
+    {
+        NBTTagCompound building = new NBTTagCompound();
+        building.setString("type", job.substring(job.lastIndexOf("Job") + 3));
+        building.setTag("location", randomPosition(random));
+        building.setInteger("level", random.nextInt(5) + 1);
+        building.setInteger("rotation", random.nextInt(4));
+        building.setString("style", "classic");
+        building.setInteger("worker", worker);
+
+        if (job.endsWith("JobMiner"))
+        {
+            //  Mine nodes lie next to each other along the shafts
+            NBTTagList nodes = new NBTTagList();
+            int x = random.nextInt(200);
+            int z = random.nextInt(200);
+            for (int i = 0; i < nodeCount; ++i)
+            {
+                x += random.nextInt(3) - 1;
+                z += random.nextInt(3) - 1;
+                nodes.appendTag(position(x * 5, 40 - i / 100 * 4, z * 5));
+            }
+            building.setTag("nodes", nodes);
+            building.setTag("ladderLocation", randomPosition(random));
+            building.setTag("shaftStart", randomPosition(random));
+        }
+        else
+        {
+            NBTTagList materials = new NBTTagList();
+            for (int i = 0; i < 8; ++i)
+            {
+                materials.appendTag(new NBTTagString("minecraft:" + (random.nextBoolean() ? "cobblestone" : "planks")));
+            }
+            building.setTag("materials", materials);
+        }
+        return building;
+    }
+
+    private static NBTTagCompound randomPosition(Random random)
+    {
+        return position(random.nextInt(400) + 800, random.nextInt(40) + 50, random.nextInt(400) - 2200);
+    }
+
+    private static NBTTagCompound position(int x, int y, int z)
+    {
+        NBTTagCompound pos = new NBTTagCompound();
+        pos.setInteger("x", x);
+        pos.setInteger("y", y);
+        pos.setInteger("z", z);
+        return pos;
+    }
+}
@@ -0,0 +1,420 @@
+package com.minecolonies.entity.pathfinding;
+
+import net.minecraft.block.BlockLadder;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.BlockPos;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.world.IBlockAccess;
+import net.minecraft.world.WorldType;
+import net.minecraft.world.biome.BiomeGenBase;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Random;
+
+/**
+ * Synthetic worlds for the pathfinding benchmarks, generated from a fixed seed so every run sees the same blocks.
+ * Each terrain covers {@link #SIZE} x {@link #SIZE} blocks from the origin and knows a start and a goal on
+ * opposite corners.
+ */
+enum BenchmarkTerrain
+{
+    /**
+     * Flat grass, the best case for the search.
+     */
+    OPEN_PLAIN
+            {
+                @Override
+                void generate(Blocks3D blocks, Random random)
+                {
+                    blocks.fillGround(GROUND);
+                }
+            },
+
+    /**
+     * Trees every few blocks, so the search keeps walking around trunks and under leaves.
+     */
+    DENSE_FOREST
+            {
+                @Override
+                void generate(Blocks3D blocks, Random random)
+                {
+                    blocks.fillGround(GROUND);
+                    for (int x = 4; x < SIZE - 4; x += 3)
+                    {
+                        for (int z = 4; z < SIZE - 4; z += 3)
+                        {
+                            if (random.nextInt(10) < 7)
+                            {
+                                blocks.tree(x + random.nextInt(2), z + random.nextInt(2), 4 + random.nextInt(3));
+                            }
+                        }
+                    }
+                }
+            },
+
+    /**
+     * A perfect maze of two block wide corridors, the worst case for the heuristic.
+     */
+    MAZE
+            {
+                @Override
+                void generate(Blocks3D blocks, Random random)
+                {
+                    blocks.fillGround(GROUND);
+                    int cells = (SIZE - 1) / MAZE_PITCH;
+
+                    //  Start with walls everywhere, then carve corridors with a randomized depth first walk
+                    for (int x = 0; x <= cells * MAZE_PITCH; ++x)
+                    {
+                        for (int z = 0; z <= cells * MAZE_PITCH; ++z)
+                        {
+                            if (x % MAZE_PITCH == 0 || z % MAZE_PITCH == 0)
+                            {
+                                blocks.column(x, z, GROUND + 1, GROUND + MAZE_WALL_HEIGHT, Blocks.cobblestone.getDefaultState());
+                            }
+                        }
+                    }
+
+                    boolean[] visited = new boolean[cells * cells];
+                    Deque<int[]> stack = new ArrayDeque<>();
+                    stack.push(new int[]{0, 0});
+                    visited[0] = true;
+                    while (!stack.isEmpty())
+                    {
+                        int[] cell = stack.peek();
+                        int[] next = pickUnvisitedNeighbour(cell, cells, visited, random);
+                        if (next == null)
+                        {
+                            stack.pop();
+                            continue;
+                        }
+
+                        visited[next[0] * cells + next[1]] = true;
+                        //  Open the wall between the two cells
+                        int wallX = Math.max(cell[0], next[0]) * MAZE_PITCH;
+                        int wallZ = Math.max(cell[1], next[1]) * MAZE_PITCH;
+                        for (int i = 1; i < MAZE_PITCH; ++i)
+                        {
+                            int x = cell[0] == next[0] ? cell[0] * MAZE_PITCH + i : wallX;
+                            int z = cell[1] == next[1] ? cell[1] * MAZE_PITCH + i : wallZ;
+                            blocks.column(x, z, GROUND + 1, GROUND + MAZE_WALL_HEIGHT, Blocks.air.getDefaultState());
+                        }
+                        stack.push(next);
+                    }
+                }
+
+                @Override
+                BlockPos getStart()
+                {
+                    return new BlockPos(1, GROUND + 1, 1);
+                }
+
+                @Override
+                BlockPos getGoal()
+                {
+                    int last = ((SIZE - 1) / MAZE_PITCH - 1) * MAZE_PITCH + 1;
+                    return new BlockPos(last, GROUND + 1, last);
+                }
+            },
+
+    /**
+     * Three stacked floors joined by a few ladder shafts; the route starts on the top floor and ends on the ground.
+     */
+    MULTI_LEVEL
+            {
+                @Override
+                void generate(Blocks3D blocks, Random random)
+                {
+                    blocks.fillGround(GROUND);
+                    for (int level = 1; level < LEVELS; ++level)
+                    {
+                        int floorY = GROUND + level * LEVEL_HEIGHT;
+                        for (int x = 0; x < SIZE; ++x)
+                        {
+                            for (int z = 0; z < SIZE; ++z)
+                            {
+                                blocks.set(x, floorY, z, Blocks.planks.getDefaultState());
+                            }
+                        }
+
+                        for (int shaft = 0; shaft < SHAFTS_PER_LEVEL; ++shaft)
+                        {
+                            int x = 8 + random.nextInt(SIZE - 16);
+                            int z = 8 + random.nextInt(SIZE - 16);
+                            blocks.ladder(x, z, floorY - LEVEL_HEIGHT + 1, floorY);
+                        }
+                    }
+                }
+
+                @Override
+                BlockPos getStart()
+                {
+                    return new BlockPos(2, GROUND + (LEVELS - 1) * LEVEL_HEIGHT + 1, 2);
+                }
+            },
+
+    /**
+     * Rolling land with flooded hollows, so routes wade or swim through water and ponds are around for fishermen.
+     */
+    FLOODED
+            {
+                @Override
+                void generate(Blocks3D blocks, Random random)
+                {
+                    for (int x = 0; x < SIZE; ++x)
+                    {
+                        for (int z = 0; z < SIZE; ++z)
+                        {
+                            int height = GROUND + (int) Math.round(4 * Math.sin(x / 9.0) * Math.cos(z / 11.0)) - 1;
+                            blocks.column(x, z, Blocks3D.MIN_Y, height - 1, Blocks.dirt.getDefaultState());
+                            blocks.set(x, height, z, height < GROUND ? Blocks.sand.getDefaultState() : Blocks.grass.getDefaultState());
+                            blocks.column(x, z, height + 1, GROUND, Blocks.water.getDefaultState());
+                        }
+                    }
+                }
+
+                @Override
+                BlockPos getStart()
+                {
+                    return findDryLand(2, 2, 1);
+                }
+
+                @Override
+                BlockPos getGoal()
+                {
+                    return findDryLand(SIZE - 3, SIZE - 3, -1);
+                }
+            };
+
+    /**
+     * Blocks along x and z.
+     */
+    static final int SIZE = 128;
+
+    private static final int GROUND            = 63;
+    private static final int MAZE_PITCH        = 3;
+    private static final int MAZE_WALL_HEIGHT  = 3;
+    private static final int LEVELS            = 3;
+    private static final int LEVEL_HEIGHT      = 6;
+    private static final int SHAFTS_PER_LEVEL  = 3;
+    private static final long SEED             = 0x5EED_C0105L;
+
+    private Blocks3D blocks;
+
+    abstract void generate(Blocks3D blocks, Random random);
+
+    /**
+     * @return the blocks of this terrain, generated on first use.
+     */
+    IBlockAccess getBlocks()
+    {
+        if (blocks == null)
+        {
+            blocks = new Blocks3D();
+            generate(blocks, new Random(SEED));
+        }
+        return blocks;
+    }
+
+    /**
+     * @return a snapshot of the whole terrain, as a path job would get it.
+     */
+    PathingSnapshot snapshot()
+    {
+        return PathingSnapshot.copyOf(getBlocks(), 0, 0, SIZE - 1, SIZE - 1, WorldType.DEFAULT);
+    }
+
+    BlockPos getStart()
+    {
+        return new BlockPos(2, GROUND + 1, 2);
+    }
+
+    BlockPos getGoal()
+    {
+        return new BlockPos(SIZE - 3, GROUND + 1, SIZE - 3);
+    }
+
+    /**
+     * Walk along the diagonal until the ground is above the water.
+     */
+    BlockPos findDryLand(int x, int z, int step)
+    {
+        Blocks3D terrain = (Blocks3D) getBlocks();
+        for (int i = 0; i < SIZE; ++i)
+        {
+            BlockPos pos = new BlockPos(x + i * step, Blocks3D.MAX_Y, z + i * step);
+            while (terrain.isAirBlock(pos.down()))
+            {
+                pos = pos.down();
+            }
+            if (terrain.getBlockState(pos.down()).getBlock() == Blocks.grass)
+            {
+                return pos;
+            }
+        }
+        throw new IllegalStateException("No dry land on the diagonal of " + name());
+    }
+
+    private static int[] pickUnvisitedNeighbour(int[] cell, int cells, boolean[] visited, Random random)
+    {
+        int[][] neighbours = {{cell[0] + 1, cell[1]}, {cell[0] - 1, cell[1]}, {cell[0], cell[1] + 1}, {cell[0], cell[1] - 1}};
+        int offset = random.nextInt(neighbours.length);
+        for (int i = 0; i < neighbours.length; ++i)
+        {
+            int[] next = neighbours[(i + offset) % neighbours.length];
+            if (next[0] >= 0 && next[0] < cells && next[1] >= 0 && next[1] < cells && !visited[next[0] * cells + next[1]])
+            {
+                return next;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Block storage of a terrain. Below {@link #MIN_Y} everything is stone, above {@link #MAX_Y} and outside of the
+     * area everything is air.
+     */
+    static final class Blocks3D implements IBlockAccess
+    {
+        private static final int MIN_Y = 48;
+        private static final int MAX_Y = 96;
+
+        private final IBlockState[] states = new IBlockState[SIZE * SIZE * (MAX_Y - MIN_Y)];
+
+        private Blocks3D()
+        {
+            Arrays.fill(states, Blocks.air.getDefaultState());
+        }
+
+        private static int index(int x, int y, int z)
+        {
+            return ((y - MIN_Y) * SIZE + z) * SIZE + x;
+        }
+
+        void set(int x, int y, int z, IBlockState state)
+        {
+            if (x >= 0 && x < SIZE && z >= 0 && z < SIZE && y >= MIN_Y && y < MAX_Y)
+            {
+                states[index(x, y, z)] = state;
+            }
+        }
+
+        void column(int x, int z, int fromY, int toY, IBlockState state)
+        {
+            for (int y = fromY; y <= toY; ++y)
+            {
+                set(x, y, z, state);
+            }
+        }
+
+        void fillGround(int groundY)
+        {
+            for (int x = 0; x < SIZE; ++x)
+            {
+                for (int z = 0; z < SIZE; ++z)
+                {
+                    column(x, z, MIN_Y, groundY - 1, Blocks.dirt.getDefaultState());
+                    set(x, groundY, z, Blocks.grass.getDefaultState());
+                }
+            }
+        }
+
+        void tree(int x, int z, int height)
+        {
+            int top = GROUND + height;
+            for (int dx = -2; dx <= 2; ++dx)
+            {
+                for (int dz = -2; dz <= 2; ++dz)
+                {
+                    for (int y = top - 1; y <= top + 1; ++y)
+                    {
+                        int radius = y > top ? 1 : 2;
+                        if (Math.abs(dx) <= radius && Math.abs(dz) <= radius)
+                        {
+                            set(x + dx, y, z + dz, Blocks.leaves.getDefaultState());
+                        }
+                    }
+                }
+            }
+            column(x, z, GROUND + 1, top, Blocks.log.getDefaultState());
+        }
+
+        /**
+         * A ladder from one floor through the hole in the next, against a pillar on its south side.
+         */
+        void ladder(int x, int z, int fromY, int toY)
+        {
+            column(x, z + 1, fromY, toY, Blocks.planks.getDefaultState());
+            column(x, z, fromY, toY, Blocks.ladder.getDefaultState().withProperty(BlockLadder.FACING, EnumFacing.NORTH));
+        }
+
+        @Override
+        public IBlockState getBlockState(BlockPos pos)
+        {
+            int x = pos.getX();
+            int y = pos.getY();
+            int z = pos.getZ();
+            if (y < MIN_Y)
+            {
+                return y < 0 ? Blocks.air.getDefaultState() : Blocks.stone.getDefaultState();
+            }
+            if (y >= MAX_Y || x < 0 || x >= SIZE || z < 0 || z >= SIZE)
+            {
+                return Blocks.air.getDefaultState();
+            }
+            return states[index(x, y, z)];
+        }
+
+        @Override
+        public TileEntity getTileEntity(BlockPos pos)
+        {
+            return null;
+        }
+
+        @Override
+        public int getCombinedLight(BlockPos pos, int lightValue)
+        {
+            return 0;
+        }
+
+        @Override
+        public boolean isAirBlock(BlockPos pos)
+        {
+            return getBlockState(pos).getBlock() == Blocks.air;
+        }
+
+        @Override
+        public BiomeGenBase getBiomeGenForCoords(BlockPos pos)
+        {
+            return BiomeGenBase.plains;
+        }
+
+        @Override
+        public boolean extendedLevelsInChunkCache()
+        {
+            return false;
+        }
+
+        @Override
+        public int getStrongPower(BlockPos pos, EnumFacing direction)
+        {
+            return 0;
+        }
+
+        @Override
+        public WorldType getWorldType()
+        {
+            return WorldType.DEFAULT;
+        }
+
+        @Override
+        public boolean isSideSolid(BlockPos pos, EnumFacing side, boolean defaultValue)
+        {
+            return getBlockState(pos).getBlock().isSideSolid(this, pos, side);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.minecolonies.entity.pathfinding;
+
+import com.minecolonies.configuration.Configurations;
+import net.minecraft.init.Bootstrap;
+import net.minecraft.pathfinding.PathEntity;
+import net.minecraft.util.BlockPos;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the path jobs on the {@link BenchmarkTerrain}s, without a running game.
+ * Besides jobs per second, every benchmark reports the nodes it expanded per second; run with the gc profiler
+ * (the default of the gradle jmh task) for the allocation rate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class PathfindingBenchmark
+{
+    /**
+     * Step limit of the searches, large enough to cross any terrain by its longest route.
+     */
+    private static final int RANGE = 4096;
+
+    /**
+     * How far the move away job has to go.
+     */
+    private static final int AVOID_DISTANCE = 40;
+
+    /**
+     * The terrain of a trial, snapshotted once like a path job would get it from the world.
+     */
+    @State(Scope.Benchmark)
+    public static class Terrain
+    {
+        @Param({"OPEN_PLAIN", "DENSE_FOREST", "MAZE", "MULTI_LEVEL", "FLOODED"})
+        public BenchmarkTerrain terrain;
+
+        PathingSnapshot snapshot;
+        BlockPos        start;
+        BlockPos        goal;
+
+        @Setup(Level.Trial)
+        public void setUp()
+        {
+            Bootstrap.register();
+            //  Measure whole searches, not the timeout
+            Configurations.pathfindingJobTimeToLive = 0;
+
+            snapshot = terrain.snapshot();
+            start = terrain.getStart();
+            goal = terrain.getGoal();
+        }
+    }
+
+    /**
+     * Nodes expanded by the benchmark, reported per second.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Nodes
+    {
+        public long nodes;
+
+        @Setup(Level.Iteration)
+        public void reset()
+        {
+            nodes = 0;
+        }
+    }
+
+    @Benchmark
+    public PathEntity moveToLocation(Terrain terrain, Nodes nodes)
+    {
+        return run(new PathJobMoveToLocation(terrain.snapshot, terrain.start, terrain.goal, RANGE), nodes);
+    }
+
+    @Benchmark
+    public PathEntity moveAwayFromLocation(Terrain terrain, Nodes nodes)
+    {
+        return run(new PathJobMoveAwayFromLocation(terrain.snapshot, terrain.goal, terrain.start, AVOID_DISTANCE, RANGE), nodes);
+    }
+
+    @Benchmark
+    public PathEntity findWater(Terrain terrain, Nodes nodes)
+    {
+        return run(new PathJobFindWater(terrain.snapshot, terrain.start, terrain.start, RANGE, Collections.emptyList()), nodes);
+    }
+
+    private static PathEntity run(AbstractPathJob job, Nodes nodes)
+    {
+        PathEntity path = job.call();
+        nodes.nodes += job.getNodesVisited();
+        return path;
+    }
+}
@@ -2,6 +2,7 @@ package com.minecolonies;
 
 import com.minecolonies.achievements.ModAchievements;
 import com.minecolonies.colony.Schematics;
+import com.minecolonies.commands.CommandProfiler;
 import com.minecolonies.configuration.ConfigurationHandler;
 import com.minecolonies.configuration.Configurations;
 import com.minecolonies.lib.Constants;
@@ -15,6 +16,7 @@ import net.minecraftforge.fml.common.SidedProxy;
 import net.minecraftforge.fml.common.event.FMLInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLPostInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLPreInitializationEvent;
+import net.minecraftforge.fml.common.event.FMLServerStartingEvent;
 import net.minecraftforge.fml.common.network.NetworkRegistry;
 import net.minecraftforge.fml.common.network.simpleimpl.SimpleNetworkWrapper;
 import net.minecraftforge.fml.relauncher.Side;
@@ -144,4 +146,15 @@ public class MineColonies
     {
         // Load unimportant resources
     }
+
+    /**
+     * Event handler for forge server starting event.
+     *
+     * @param event the forge server starting event.
+     */
+    @Mod.EventHandler
+    public void serverStarting(FMLServerStartingEvent event)
+    {
+        event.registerServerCommand(new CommandProfiler());
+    }
 }
@@ -118,7 +118,7 @@ public abstract class AbstractBlockHut extends Block implements ITileEntityProvi
          */
         if (worldIn.isRemote)
         {
-            final AbstractBuilding.View building = ColonyManager.getBuildingView(pos);
+            final AbstractBuilding.View building = ColonyManager.getBuildingView(worldIn, pos);
 
             if (building != null)
             {
@@ -0,0 +1,116 @@
+package com.minecolonies.colony;
+
+import com.minecolonies.colony.jobs.JobBuilder;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * The builders of a colony, by the level of their hut and whether they are working on a work order.
+ * Kept up to date by the {@link WorkManager} as citizens get or lose the builder job, claim or finish
+ * work orders, and builder huts are upgraded.
+ */
+public final class BuilderRegistry
+{
+    /**
+     * Hut level of every builder.
+     */
+    private final Map<CitizenData, Integer>             levels      = new LinkedHashMap<>();
+    /**
+     * Builders without a work order by the level of their hut.
+     */
+    private final TreeMap<Integer, Set<CitizenData>>    freeByLevel = new TreeMap<>();
+
+    /**
+     * Add, move or remove a citizen according to its current job, hut and work order.
+     *
+     * @param citizen the citizen.
+     * @return true if the citizen is a builder without a work order now.
+     */
+    boolean update(CitizenData citizen)
+    {
+        remove(citizen);
+
+        JobBuilder job = citizen.getJob(JobBuilder.class);
+        if (job == null || citizen.getWorkBuilding() == null || citizen.getColony().getCitizen(citizen.getId()) != citizen)
+        {
+            return false;
+        }
+
+        int level = citizen.getWorkBuilding().getBuildingLevel();
+        levels.put(citizen, level);
+        if (job.hasWorkOrder())
+        {
+            return false;
+        }
+
+        freeByLevel.computeIfAbsent(level, key -> new LinkedHashSet<>()).add(citizen);
+        return true;
+    }
+
+    /**
+     * Remove a citizen.
+     *
+     * @param citizen the citizen.
+     */
+    void remove(CitizenData citizen)
+    {
+        Integer level = levels.remove(citizen);
+        if (level == null)
+        {
+            return;
+        }
+
+        Set<CitizenData> free = freeByLevel.get(level);
+        if (free != null && free.remove(citizen) && free.isEmpty())
+        {
+            freeByLevel.remove(level);
+        }
+    }
+
+    /**
+     * Get a free builder whose hut has at least the given level; the lowest such level is picked, keeping
+     * better builders available for orders that need them.
+     *
+     * @param minLevel the minimum hut level.
+     * @return the builder, or null if there is none.
+     */
+    @Nullable
+    public CitizenData getFreeBuilder(int minLevel)
+    {
+        Map.Entry<Integer, Set<CitizenData>> entry = freeByLevel.ceilingEntry(minLevel);
+        return entry == null ? null : entry.getValue().iterator().next();
+    }
+
+    /**
+     * Is a citizen a builder without a work order?
+     *
+     * @param citizen the citizen.
+     * @return true if so.
+     */
+    public boolean isFree(CitizenData citizen)
+    {
+        Integer level = levels.get(citizen);
+        Set<CitizenData> free = level == null ? null : freeByLevel.get(level);
+        return free != null && free.contains(citizen);
+    }
+
+    /**
+     * Is there a builder, busy or not, whose hut has at least the given level?
+     *
+     * @param minLevel the minimum hut level.
+     * @return true if so.
+     */
+    public boolean hasBuilder(int minLevel)
+    {
+        return levels.values().stream().anyMatch(level -> level >= minLevel);
+    }
+
+    /**
+     * @return true if the colony has no builder.
+     */
+    public boolean isEmpty()
+    {
+        return levels.isEmpty();
+    }
+}
@@ -0,0 +1,70 @@
+package com.minecolonies.colony;
+
+import net.minecraft.util.BlockPos;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Buildings of all colonies by dimension and location, so a building can be found without asking every colony.
+ * Used by the {@link ColonyManager} for buildings on the server and building views on the client.
+ *
+ * @param <B> the building type.
+ */
+final class BuildingIndex<B>
+{
+    private final Map<Integer, Map<BlockPos, B>> byDimension = new HashMap<>();
+
+    /**
+     * Add a building, replacing any other building at its location.
+     *
+     * @param dimension dimension of the building.
+     * @param pos       location of the building.
+     * @param building  the building.
+     */
+    void put(int dimension, BlockPos pos, B building)
+    {
+        byDimension.computeIfAbsent(dimension, dim -> new HashMap<>()).put(pos, building);
+    }
+
+    /**
+     * Remove a building, unless another building took its place already.
+     *
+     * @param dimension dimension of the building.
+     * @param pos       location of the building.
+     * @param building  the building.
+     */
+    void remove(int dimension, BlockPos pos, B building)
+    {
+        Map<BlockPos, B> buildings = byDimension.get(dimension);
+        if (buildings != null)
+        {
+            buildings.remove(pos, building);
+            if (buildings.isEmpty())
+            {
+                byDimension.remove(dimension);
+            }
+        }
+    }
+
+    /**
+     * @param dimension the dimension.
+     * @param pos       the location.
+     * @return the building at the location, or null.
+     */
+    @Nullable
+    B get(int dimension, BlockPos pos)
+    {
+        Map<BlockPos, B> buildings = byDimension.get(dimension);
+        return buildings == null ? null : buildings.get(pos);
+    }
+
+    /**
+     * Remove all buildings.
+     */
+    void clear()
+    {
+        byDimension.clear();
+    }
+}
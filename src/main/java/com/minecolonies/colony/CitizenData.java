@@ -62,7 +62,7 @@ public class CitizenData
     /**
      * Tags
      */
-    private static final String TAG_ID         = "id";
+    static final         String TAG_ID         = "id";
     private static final String TAG_NAME       = "name";
     private static final String TAG_FEMALE     = "female";
     private static final String TAG_TEXTURE    = "texture";
@@ -299,6 +299,7 @@ public class CitizenData
         else if(homeBuilding != building)
         {
             homeBuilding = building;
+            colony.getCitizenPools().onCitizenChanged(this);
             markDirty();
         }
     }
@@ -345,6 +346,8 @@ public class CitizenData
                 colony.getWorkManager().clearWorkForCitizen(this);
             }
 
+            colony.getCitizenPools().onCitizenChanged(this);
+            colony.getWorkManager().onCitizenChanged(this);
             markDirty();
         }
     }
@@ -386,6 +389,7 @@ public class CitizenData
     public void setCitizenEntity(EntityCitizen citizen)
     {
         entity = citizen;
+        colony.onCitizenEntityChanged(this);
         markDirty();
     }
 
@@ -395,6 +399,7 @@ public class CitizenData
     public void clearCitizenEntity()
     {
         entity = null;
+        colony.onCitizenEntityChanged(this);
     }
 
     /**
@@ -435,6 +440,7 @@ public class CitizenData
     public void setJob(AbstractJob job)
     {
         this.job = job;
+        colony.getWorkManager().onCitizenChanged(this);
 
         EntityCitizen localEntity = getCitizenEntity();
         if(localEntity != null)
@@ -443,6 +449,7 @@ public class CitizenData
         }
 
         markDirty();
+        ColonyJournal.onCitizenChanged(colony, this);
     }
 
     /**
@@ -0,0 +1,168 @@
+package com.minecolonies.colony;
+
+import com.minecolonies.colony.buildings.AbstractBuilding;
+import com.minecolonies.colony.buildings.AbstractBuildingWorker;
+import com.minecolonies.colony.buildings.BuildingHome;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Jobless and homeless citizens of a colony, and its huts and homes with room for them.
+ * Citizens and buildings report changes of their assignments; {@link #match()} pairs the pools up, but only
+ * after something changed, instead of every hut scanning all citizens on every tick.
+ * Both pools keep the order in which entries joined, so citizens which waited longest are served first.
+ */
+public final class CitizenPools
+{
+    private final Colony colony;
+
+    private final Set<CitizenData>            jobless          = new LinkedHashSet<>();
+    private final Set<CitizenData>            homeless         = new LinkedHashSet<>();
+    private final Set<AbstractBuildingWorker> vacantWorkplaces = new LinkedHashSet<>();
+    private final Set<BuildingHome>           vacantHomes      = new LinkedHashSet<>();
+
+    /**
+     * Whether a pool changed since the last {@link #match()}.
+     */
+    private boolean changed = false;
+
+    CitizenPools(Colony colony)
+    {
+        this.colony = colony;
+    }
+
+    /**
+     * Called when a citizen joined the colony or its work or home building changed.
+     *
+     * @param citizen the citizen.
+     */
+    public void onCitizenChanged(CitizenData citizen)
+    {
+        if (colony.getCitizen(citizen.getId()) != citizen)
+        {
+            //  Not (or no longer) part of the colony
+            removeCitizen(citizen);
+            return;
+        }
+
+        update(jobless, citizen, citizen.getWorkBuilding() == null);
+        update(homeless, citizen, citizen.getHomeBuilding() == null);
+    }
+
+    /**
+     * Called when a citizen left the colony.
+     *
+     * @param citizen the citizen.
+     */
+    void removeCitizen(CitizenData citizen)
+    {
+        jobless.remove(citizen);
+        homeless.remove(citizen);
+    }
+
+    /**
+     * Called when a building was added, or its level, worker or residents changed.
+     *
+     * @param building the building.
+     */
+    public void onBuildingChanged(AbstractBuilding building)
+    {
+        if (colony.getBuilding(building.getID()) != building)
+        {
+            //  Still being loaded, or removed already
+            removeBuilding(building);
+            return;
+        }
+
+        if (building instanceof AbstractBuildingWorker)
+        {
+            AbstractBuildingWorker workplace = (AbstractBuildingWorker) building;
+            update(vacantWorkplaces, workplace, workplace.needsWorker());
+        }
+        else if (building instanceof BuildingHome)
+        {
+            BuildingHome home = (BuildingHome) building;
+            update(vacantHomes, home, home.hasFreeBed());
+        }
+    }
+
+    /**
+     * Called when a building was removed from the colony.
+     *
+     * @param building the building.
+     */
+    void removeBuilding(AbstractBuilding building)
+    {
+        vacantWorkplaces.remove(building);
+        vacantHomes.remove(building);
+    }
+
+    /**
+     * Called when job allocation switched between manual and automatic.
+     */
+    void onHiringChanged()
+    {
+        changed = true;
+    }
+
+    private <T> void update(Set<T> pool, T entry, boolean inPool)
+    {
+        if (inPool ? pool.add(entry) : pool.remove(entry))
+        {
+            changed = true;
+        }
+    }
+
+    /**
+     * Give jobless citizens a job and homeless citizens a home, if there is room for them.
+     * Does nothing unless a pool changed since the last call.
+     */
+    void match()
+    {
+        if (!changed)
+        {
+            return;
+        }
+        changed = false;
+
+        if (!colony.isManualHiring())
+        {
+            for (AbstractBuildingWorker workplace : new ArrayList<>(vacantWorkplaces))
+            {
+                CitizenData citizen = getJoblessCitizen();
+                if (citizen == null)
+                {
+                    break;
+                }
+                workplace.setWorker(citizen);
+            }
+        }
+
+        for (BuildingHome home : new ArrayList<>(vacantHomes))
+        {
+            if (homeless.isEmpty())
+            {
+                break;
+            }
+            home.addHomelessCitizens();
+        }
+    }
+
+    /**
+     * @return the citizen which is jobless the longest, or null if everyone has a job.
+     */
+    @Nullable
+    public CitizenData getJoblessCitizen()
+    {
+        return jobless.isEmpty() ? null : jobless.iterator().next();
+    }
+
+    /**
+     * @return the homeless citizens, those homeless the longest first.
+     */
+    public Collection<CitizenData> getHomelessCitizens()
+    {
+        return Collections.unmodifiableSet(homeless);
+    }
+}
@@ -4,12 +4,17 @@ import com.minecolonies.MineColonies;
 import com.minecolonies.achievements.ModAchievements;
 import com.minecolonies.colony.buildings.AbstractBuilding;
 import com.minecolonies.colony.buildings.BuildingHome;
+import com.minecolonies.colony.buildings.BuildingLumberjack;
 import com.minecolonies.colony.buildings.BuildingTownHall;
 import com.minecolonies.colony.materials.MaterialSystem;
 import com.minecolonies.colony.permissions.Permissions;
 import com.minecolonies.colony.workorders.AbstractWorkOrder;
 import com.minecolonies.configuration.Configurations;
 import com.minecolonies.entity.EntityCitizen;
+import com.minecolonies.entity.ai.citizen.lumberjack.TreeIndex;
+import com.minecolonies.entity.pathfinding.ColonyRouteGraph;
+import com.minecolonies.entity.pathfinding.DistanceFields;
+import com.minecolonies.entity.pathfinding.PathCache;
 import com.minecolonies.network.messages.*;
 import com.minecolonies.tileentities.TileEntityColonyBuilding;
 import com.minecolonies.util.*;
@@ -40,7 +45,13 @@ public class Colony implements IColony
 
     //  Updates and Subscriptions
     private Set<EntityPlayerMP> subscribers      = new HashSet<>();
+    //  Subscribers which did not get the full view yet
+    private Set<EntityPlayerMP> newSubscribers   = new HashSet<>();
+    //  Whether every online player has to be checked again, e.g. after a rank changed
+    private boolean             subscriptionsStale = true;
     private boolean             isDirty          = false;
+    //  Whether the colony changed since it was saved
+    private boolean             saveNeeded         = true;
     private boolean             isCitizensDirty  = false;
     private boolean             isBuildingsDirty = false;
     private boolean             manualHiring     = false;
@@ -64,10 +75,31 @@ public class Colony implements IColony
     private int                       maxCitizens  = Configurations.maxCitizens;
 
     //  Settings
-    private static final int CITIZEN_CLEANUP_TICK_INCREMENT = 5 * 20;
+    private static final int CITIZEN_CHECK_PERIOD           = 20;
+    /**
+     * Citizens are only considered lost while every chunk this far from the center is loaded.
+     */
+    private static final int CITIZEN_LOST_RANGE             = 48 /* 3 chunks */ + 15 /* round up a chunk */;
+    private static final int BUILDING_CHECK_PERIOD          = 20;
+    private static final int BUILDING_AUDIT_PERIOD          = 60 * 20;
+    private static final int BUILDING_TICK_PERIOD           = 20;
+    private static final int RESPAWN_CHECK_PERIOD           = 20;
+    private static final int SUBSCRIBER_UPDATE_PERIOD       = 5;
+
+    //  Periodic work, see ColonyScheduler
+    private final Map<BlockPos, ColonyScheduler.Task> buildingTasks = new HashMap<>();
+    private final Set<AbstractBuilding>               changedBuildings = new HashSet<>();
+    private int ticksSinceRespawn = 0;
+    private ColonyScheduler.Task treeTask;
+
+    //  Citizens without an entity, and the chunks in which their entities could be, see respawnLostCitizens
+    private final Set<CitizenData> absentCitizens = new HashSet<>();
+    private LoadedChunkMap loadedChunks;
+    private boolean        lostCitizenCheckNeeded = false;
 
     //  Workload and Jobs
-    private final WorkManager workManager = new WorkManager(this);
+    private final WorkManager  workManager  = new WorkManager(this);
+    private final CitizenPools citizenPools = new CitizenPools(this);
 
     private final MaterialSystem materialSystem = new MaterialSystem();
 
@@ -76,9 +108,9 @@ public class Colony implements IColony
     private static final String TAG_DIMENSION     = "dimension";
     private static final String TAG_CENTER        = "center";
     private static final String TAG_MAX_CITIZENS  = "maxCitizens";
-    private static final String TAG_BUILDINGS     = "buildings";
-    private static final String TAG_CITIZENS      = "citizens";
-    private static final String TAG_WORK          = "work";
+    static final         String TAG_BUILDINGS     = "buildings";
+    static final         String TAG_CITIZENS      = "citizens";
+    static final         String TAG_WORK          = "work";
     private static final String TAG_MANUAL_HIRING = "manualHiring";
 
     /**
@@ -93,6 +125,7 @@ public class Colony implements IColony
         this(id, w.provider.getDimensionId());
         center = c;
         world = w;
+        getLoadedChunks().reset(w);
     }
 
     /**
@@ -105,6 +138,46 @@ public class Colony implements IColony
     {
         this.id = id;
         this.dimensionId = dim;
+        scheduleTasks();
+    }
+
+    /**
+     * Register the periodic work of the colony with the {@link ColonyScheduler}.
+     * Cost estimates are in microseconds and only matter until the tasks have been measured.
+     */
+    private void scheduleTasks()
+    {
+        scheduleInWorld("lostCitizens", CITIZEN_CHECK_PERIOD, 20, this::respawnLostCitizens);
+        scheduleInWorld("buildings", BUILDING_CHECK_PERIOD, 10, this::checkChangedBuildings);
+        scheduleInWorld("buildingAudit", BUILDING_AUDIT_PERIOD, 500, () -> cleanUpBuildings(buildings.values()));
+        scheduleInWorld("respawn", RESPAWN_CHECK_PERIOD, 10, this::respawnCitizens);
+        scheduleInWorld("hiring", 1, 5, citizenPools::match);
+        scheduleInWorld("workOrders", WorkManager.WORK_ORDER_FULFILL_INCREMENT, 100, workManager::onColonyTick);
+        ColonyScheduler.registerPlanned(getTaskGroup(), getTaskName("subscribers"), SUBSCRIBER_UPDATE_PERIOD, 200, this::planSubscriberUpdate);
+    }
+
+    /**
+     * Register a task which only runs while the colony's world is loaded.
+     */
+    private ColonyScheduler.Task scheduleInWorld(String name, int period, long costEstimate, Runnable work)
+    {
+        return ColonyScheduler.register(getTaskGroup(), getTaskName(name), period, costEstimate, () ->
+        {
+            if (world != null)
+            {
+                work.run();
+            }
+        });
+    }
+
+    private String getTaskName(String name)
+    {
+        return String.format("%s %s", getTaskGroup(), name);
+    }
+
+    private String getTaskGroup()
+    {
+        return String.format("colony %d", id);
     }
 
     /**
@@ -119,6 +192,7 @@ public class Colony implements IColony
         int dimensionId = compound.getInteger(TAG_DIMENSION);
         Colony c = new Colony(id, dimensionId);
         c.readFromNBT(compound);
+        c.saveNeeded = false;
         return c;
     }
 
@@ -145,6 +219,8 @@ public class Colony implements IColony
             NBTTagCompound citizenCompound = citizenTagList.getCompoundTagAt(i);
             CitizenData data = CitizenData.createFromNBT(citizenCompound, this);
             citizens.put(data.getId(), data);
+            citizenPools.onCitizenChanged(data);
+            onCitizenEntityChanged(data);
             topCitizenId = Math.max(topCitizenId, data.getId());
         }
 
@@ -226,6 +302,7 @@ public class Colony implements IColony
      *
      * @return Dimension ID.
      */
+    @Override
     public int getDimensionId()
     {
         return dimensionId;
@@ -264,6 +341,7 @@ public class Colony implements IColony
      *
      * @return Chunk Coordinates of the center of the colony.
      */
+    @Override
     public BlockPos getCenter()
     {
         return center;
@@ -275,6 +353,7 @@ public class Colony implements IColony
     private void markDirty()
     {
         isDirty = true;
+        saveNeeded = true;
     }
 
     /**
@@ -283,6 +362,7 @@ public class Colony implements IColony
     public void markCitizensDirty()
     {
         isCitizensDirty = true;
+        saveNeeded = true;
     }
 
     /**
@@ -291,6 +371,67 @@ public class Colony implements IColony
     public void markBuildingsDirty()
     {
         isBuildingsDirty = true;
+        saveNeeded = true;
+    }
+
+    /**
+     * Marks the colony changed, without updating the views.
+     */
+    void markSaveNeeded()
+    {
+        saveNeeded = true;
+    }
+
+    /**
+     * @return true if the colony changed since it was saved.
+     */
+    public boolean isSaveNeeded()
+    {
+        return saveNeeded || permissions.isDirty();
+    }
+
+    /**
+     * A colony is active while any of its citizens is loaded; their jobs then change without marking the colony.
+     *
+     * @return true if the colony is active.
+     */
+    public boolean isActive()
+    {
+        return absentCitizens.size() < citizens.size();
+    }
+
+    /**
+     * Called when the colony was saved.
+     */
+    void onSaved()
+    {
+        saveNeeded = false;
+    }
+
+    /**
+     * An idle colony has no loaded chunks, citizens or subscribers, so nothing happens in it.
+     *
+     * @return true if the colony is idle.
+     */
+    boolean isIdle()
+    {
+        return subscribers.isEmpty() && !isActive() && (world == null || getLoadedChunks().isEmpty());
+    }
+
+    /**
+     * Called when the colony is dropped from memory, see {@link ColonyManager}; stops its tasks.
+     */
+    void onUnload()
+    {
+        ColonyScheduler.cancelGroup(getTaskGroup());
+        buildingTasks.clear();
+        treeTask = null;
+        world = null;
+
+        TreeIndex.onColonyUnload(this);
+        DistanceFields.onColonyUnload(this);
+        PathCache.onColonyUnload(this);
+        ColonyRouteGraph.onColonyUnload(this);
     }
 
     @Override
@@ -324,6 +465,9 @@ public class Colony implements IColony
         if (w.provider.getDimensionId() == dimensionId)
         {
             world = w;
+            getLoadedChunks().reset(w);
+            lostCitizenCheckNeeded = true;
+            subscriptionsStale = true;
         }
     }
 
@@ -340,307 +484,388 @@ public class Colony implements IColony
         }
 
         world = null;
+        getLoadedChunks().clear();
+    }
+
+    private LoadedChunkMap getLoadedChunks()
+    {
+        if (loadedChunks == null)
+        {
+            loadedChunks = new LoadedChunkMap(center, Configurations.workingRangeTownHall + CITIZEN_LOST_RANGE);
+        }
+        return loadedChunks;
     }
 
     /**
-     * Any per-server-tick logic should be performed here.
+     * Called when a chunk of the colony's world loaded or unloaded.
      *
-     * @param event {@link net.minecraftforge.fml.common.gameevent.TickEvent.ServerTickEvent}
+     * @param chunkX   chunk x.
+     * @param chunkZ   chunk z.
+     * @param isLoaded true if it loaded, false if it unloaded.
      */
-    public void onServerTick(TickEvent.ServerTickEvent event)
+    public void onChunkChanged(int chunkX, int chunkZ, boolean isLoaded)
     {
-        for (AbstractBuilding b : buildings.values())
+        if (world != null && getLoadedChunks().set(chunkX, chunkZ, isLoaded) && isLoaded && !absentCitizens.isEmpty())
         {
-            b.onServerTick(event);
+            lostCitizenCheckNeeded = true;
         }
+    }
 
-        if (event.phase == TickEvent.Phase.END)
+    /**
+     * Called when the entity of a citizen was set or cleared.
+     *
+     * @param citizen the citizen.
+     */
+    public void onCitizenEntityChanged(CitizenData citizen)
+    {
+        saveNeeded = true;
+        if (citizen.getCitizenEntity() != null || citizens.get(citizen.getId()) != citizen)
         {
-            updateSubscribers();
+            absentCitizens.remove(citizen);
+        }
+        else if (absentCitizens.add(citizen))
+        {
+            lostCitizenCheckNeeded = true;
         }
     }
 
     /**
-     * Any per-world-tick logic should be performed here.
-     * NOTE: If the Colony's world isn't loaded, it won't have a world tick.
-     * Use onServerTick for logic that should _always_ run.
+     * Any per-server-tick logic should be performed here.
      *
-     * @param event {@link TickEvent.WorldTickEvent}
+     * @param event {@link net.minecraftforge.fml.common.gameevent.TickEvent.ServerTickEvent}
      */
-    public void onWorldTick(TickEvent.WorldTickEvent event)
+    public void onServerTick(TickEvent.ServerTickEvent event)
     {
-        if (event.world != getWorld())
+        for (AbstractBuilding b : buildings.values())
         {
-            throw new IllegalStateException("Colony's world does not match the event.");
+            b.onServerTick(event);
         }
+    }
 
-        if (event.phase == TickEvent.Phase.START)
+    /**
+     * Respawn disappeared citizens, after a citizen lost its entity or a chunk of the colony loaded.
+     * It would be really nice if we didn't have to do this... but Citizens can disappear without dying!
+     */
+    private void respawnLostCitizens()
+    {
+        if (!lostCitizenCheckNeeded || !getLoadedChunks().isFullyLoaded())
         {
-            //  Detect CitizenData whose EntityCitizen no longer exist in world, and clear the mapping
-            //  Consider handing this in an ChunkUnload Event instead?
-            citizens.values()
-                    .stream()
-                    .filter(Colony::isCitizenMissingFromWorld)
-                    .forEach(CitizenData::clearCitizenEntity);
-
-            //  Cleanup disappeared citizens
-            //  It would be really nice if we didn't have to do this... but Citizens can disappear without dying!
-            //  Every CITIZEN_CLEANUP_TICK_INCREMENT, cleanup any 'lost' citizens
-            if ((event.world.getWorldTime() % CITIZEN_CLEANUP_TICK_INCREMENT) == 0 && areAllColonyChunksLoaded(event))
-            {
-                //  All chunks within a good range of the colony should be loaded, so all citizens should be loaded
-                //  If we don't have any references to them, destroy the citizen
-                citizens.values().stream().filter(citizen -> citizen.getCitizenEntity() == null)
-                        .forEach(citizen -> {
-                            Log.logger.warn(String.format("Citizen #%d:%d has gone AWOL, respawning them!", getID(), citizen.getId()));
-                            spawnCitizen(citizen);
-                        });
-            }
-
-            //  Cleanup Buildings whose Blocks have gone AWOL
-            cleanUpBuildings(event);
-
-            //  Spawn Citizens
-            if (townHall != null && citizens.size() < maxCitizens)
-            {
-                int respawnInterval = Configurations.citizenRespawnInterval * 20;
-                respawnInterval -= (60 * townHall.getBuildingLevel());
-
-                if (event.world.getWorldTime() % respawnInterval == 0)
-                {
-                    spawnCitizen();
-                }
-            }
+            //  Loading the last chunk sets the flag again
+            return;
         }
 
-        //  Tick Buildings
-        for (AbstractBuilding building : buildings.values())
+        //  All chunks within a good range of the colony are loaded, so all citizens should be loaded
+        //  If we don't have any references to them, respawn the citizen
+        for (CitizenData citizen : new ArrayList<>(absentCitizens))
         {
-            building.onWorldTick(event);
+            Log.logger.warn(String.format("Citizen #%d:%d has gone AWOL, respawning them!", getID(), citizen.getId()));
+            spawnCitizen(citizen);
         }
 
-        workManager.onWorldTick(event);
+        //  Try again later if a spawn failed
+        lostCitizenCheckNeeded = !absentCitizens.isEmpty();
     }
 
     /**
-     * Update Subscribers with Colony, Citizen, and AbstractBuilding Views.
+     * Spawn a new citizen once the respawn interval passed, if there is room for one.
      */
-    public void updateSubscribers()
+    private void respawnCitizens()
     {
-        //  Recompute subscribers every frame (for now)
-        //  Subscribers = Owners + Players within (double working town hall range)
-        Set<EntityPlayerMP> oldSubscribers = subscribers;
-        subscribers = new HashSet<>();
+        if (townHall == null || citizens.size() >= maxCitizens)
+        {
+            ticksSinceRespawn = 0;
+            return;
+        }
 
-        // Add owners
-        subscribers.addAll(
-                MinecraftServer.getServer().getConfigurationManager().playerEntityList
-                        .stream()
-                        .filter(permissions::isSubscriber)
-                        .collect(Collectors.toList()));
+        int respawnInterval = Configurations.citizenRespawnInterval * 20;
+        respawnInterval -= (60 * townHall.getBuildingLevel());
 
-        //  Add nearby players
-        if (world != null)
+        ticksSinceRespawn += RESPAWN_CHECK_PERIOD;
+        if (ticksSinceRespawn >= respawnInterval)
         {
-            for (EntityPlayer o : world.playerEntities)
+            ticksSinceRespawn = 0;
+            spawnCitizen();
+        }
+    }
+
+    /**
+     * Prepare the update of the Subscribers with Colony, Citizen, and AbstractBuilding Views.
+     * Runs in the plan phase of the {@link ColonyScheduler}, possibly on a planner thread, so it only reads the
+     * colony and the players: it checks who should be subscribed, scans for dirty data and serializes the views.
+     * The returned update changes the subscriptions, sends the packets and clears the dirty flags.
+     *
+     * @return the update to apply on the server thread.
+     */
+    private Runnable planSubscriberUpdate()
+    {
+        final boolean refresh = subscriptionsStale || permissions.isDirty();
+        final List<EntityPlayerMP> joining = new ArrayList<>();
+        final List<EntityPlayerMP> leaving = new ArrayList<>();
+        if (refresh)
+        {
+            for (EntityPlayerMP player : MinecraftServer.getServer().getConfigurationManager().playerEntityList)
             {
-                if (o instanceof EntityPlayerMP)
+                boolean isSubscribed = subscribers.contains(player);
+                if (shouldSubscribe(player, isSubscribed) != isSubscribed)
                 {
-                    EntityPlayerMP player = (EntityPlayerMP) o;
-
-                    if (subscribers.contains(player))
-                    {
-                        //  Already a subscriber
-                        continue;
-                    }
-
-                    double distance = player.getDistanceSq(center);
-                    if (distance < MathUtils.square(Configurations.workingRangeTownHall + 16D) ||
-                            (oldSubscribers.contains(player) && distance < MathUtils.square(Configurations.workingRangeTownHall * 2D)))
-                    {
-                        // Players become subscribers if they come within 16 blocks of the edge of the colony
-                        // Players remain subscribers while they remain within double the colony's radius
-                        subscribers.add(player);
-                    }
+                    (isSubscribed ? leaving : joining).add(player);
                 }
             }
         }
 
-        if (!subscribers.isEmpty())
+        final ViewUpdate update = new ViewUpdate(subscribers, newSubscribers, joining, leaving);
+        if (!update.subscribers.isEmpty())
         {
-            //  Determine if any new subscribers were added this pass
-            boolean hasNewSubscribers = hasNewSubscribers(oldSubscribers, subscribers);
-
             //  Send each type of update packet as appropriate:
             //      - To Subscribers if the data changes
             //      - To New Subscribers even if it hasn't changed
 
             //ColonyView
-            sendColonyViewPackets(oldSubscribers, hasNewSubscribers);
+            planColonyViewPackets(update);
 
             //Permissions
-            sendPermissionsPackets(oldSubscribers, hasNewSubscribers);
+            planPermissionsPackets(update);
 
             //WorkOrders
-            sendWorkOrderPackets(oldSubscribers, hasNewSubscribers);
+            planWorkOrderPackets(update);
 
             //Citizens
-            sendCitizenPackets(oldSubscribers, hasNewSubscribers);
+            planCitizenPackets(update);
 
             //Buildings
-            sendBuildingPackets(oldSubscribers, hasNewSubscribers);
+            planBuildingPackets(update);
         }
 
-        isDirty = false;
-        isCitizensDirty = false;
-        isBuildingsDirty = false;
-        permissions.clearDirty();
+        return () ->
+        {
+            if (refresh)
+            {
+                subscriptionsStale = false;
+            }
+            leaving.forEach(this::unsubscribe);
+            subscribers.addAll(joining);
+
+            update.send();
+
+            newSubscribers.clear();
+            if (!update.subscribers.isEmpty())
+            {
+                workManager.setDirty(false);
+            }
+            isDirty = false;
+            isCitizensDirty = false;
+            isBuildingsDirty = false;
+            if (permissions.isDirty())
+            {
+                saveNeeded = true;
+                ColonyJournal.onPermissionsChanged(this);
+                permissions.clearDirty();
+            }
 
-        buildings.values().forEach(AbstractBuilding::clearDirty);
-        citizens.values().forEach(CitizenData::clearDirty);
+            buildings.values().forEach(AbstractBuilding::clearDirty);
+            citizens.values().forEach(CitizenData::clearDirty);
+        };
     }
 
     /**
-     * Sends packages to update the buildings.
+     * Prepares packets to update the buildings.
      *
-     * @param oldSubscribers    the existing subscribers.
-     * @param hasNewSubscribers the new subscribers.
+     * @param update the update to add the packets to.
      */
-    private void sendBuildingPackets(Set<EntityPlayerMP> oldSubscribers, boolean hasNewSubscribers)
+    private void planBuildingPackets(ViewUpdate update)
     {
-        if (isBuildingsDirty || hasNewSubscribers)
+        if (isBuildingsDirty || update.hasNewSubscribers())
         {
             for (AbstractBuilding building : buildings.values())
             {
-                if (building.isDirty() || hasNewSubscribers)
+                if (building.isDirty() || update.hasNewSubscribers())
                 {
-                    subscribers.stream()
-                            .filter(player -> building.isDirty() || !oldSubscribers.contains(player))
-                            .forEach(player -> MineColonies.getNetwork().sendTo(new ColonyViewBuildingViewMessage(building), player));
+                    update.add(new ColonyViewBuildingViewMessage(building), update.getRecipients(building.isDirty()));
                 }
             }
         }
     }
 
     /**
-     * Sends packages to update the citizens.
+     * Prepares packets to update the citizens.
      *
-     * @param oldSubscribers    the existing subscribers.
-     * @param hasNewSubscribers the new subscribers.
+     * @param update the update to add the packets to.
      */
-    private void sendCitizenPackets(Set<EntityPlayerMP> oldSubscribers, boolean hasNewSubscribers)
+    private void planCitizenPackets(ViewUpdate update)
     {
-        if (isCitizensDirty || hasNewSubscribers)
+        if (isCitizensDirty || update.hasNewSubscribers())
         {
             for (CitizenData citizen : citizens.values())
             {
-                if (citizen.isDirty() || hasNewSubscribers)
+                if (citizen.isDirty() || update.hasNewSubscribers())
                 {
-                    subscribers.stream()
-                            .filter(player -> citizen.isDirty() || !oldSubscribers.contains(player))
-                            .forEach(player -> MineColonies.getNetwork().sendTo(new ColonyViewCitizenViewMessage(this, citizen), player));
+                    update.add(new ColonyViewCitizenViewMessage(this, citizen), update.getRecipients(citizen.isDirty()));
                 }
             }
         }
     }
 
     /**
-     * Sends packages to update the workOrders.
+     * Prepares packets to update the workOrders.
      *
-     * @param oldSubscribers    the existing subscribers.
-     * @param hasNewSubscribers the new subscribers.
+     * @param update the update to add the packets to.
      */
-    private void sendWorkOrderPackets(Set<EntityPlayerMP> oldSubscribers, boolean hasNewSubscribers)
+    private void planWorkOrderPackets(ViewUpdate update)
     {
-        if (getWorkManager().isDirty() || hasNewSubscribers)
+        if (workManager.isDirty() || update.hasNewSubscribers())
         {
-            for (AbstractWorkOrder workOrder : getWorkManager().getWorkOrders().values())
+            for (AbstractWorkOrder workOrder : workManager.getWorkOrders().values())
             {
-                subscribers.stream().filter(player -> workManager.isDirty() || !oldSubscribers.contains(player))
-                        .forEach(player -> MineColonies.getNetwork().sendTo(new ColonyViewWorkOrderMessage(this, workOrder), player));
+                update.add(new ColonyViewWorkOrderMessage(this, workOrder), update.getRecipients(workManager.isDirty()));
             }
-
-            getWorkManager().setDirty(false);
         }
     }
 
     /**
-     * Sends packages to update the permissions.
+     * Prepares packets to update the permissions, one per rank of the recipients.
      *
-     * @param oldSubscribers    the existing subscribers.
-     * @param hasNewSubscribers the new subscribers.
+     * @param update the update to add the packets to.
      */
-    private void sendPermissionsPackets(Set<EntityPlayerMP> oldSubscribers, boolean hasNewSubscribers)
+    private void planPermissionsPackets(ViewUpdate update)
     {
-        if (permissions.isDirty() || hasNewSubscribers)
+        if (permissions.isDirty() || update.hasNewSubscribers())
         {
-            subscribers
-                    .stream()
-                    .filter(player -> permissions.isDirty() || !oldSubscribers.contains(player)).forEach(player -> {
-                Permissions.Rank rank = getPermissions().getRank(player);
-                MineColonies.getNetwork().sendTo(new PermissionsMessage.View(this, rank), player);
-            });
+            update.getRecipients(permissions.isDirty())
+                  .stream()
+                  .collect(Collectors.groupingBy(player -> permissions.getRank(player)))
+                  .forEach((rank, players) -> update.add(new PermissionsMessage.View(this, rank), players));
         }
     }
 
-    private void sendColonyViewPackets(Set<EntityPlayerMP> oldSubscribers, boolean hasNewSubscribers)
+    /**
+     * Prepares packets to update the ColonyView; new subscribers get the full view.
+     *
+     * @param update the update to add the packets to.
+     */
+    private void planColonyViewPackets(ViewUpdate update)
     {
-        if (isDirty || hasNewSubscribers)
+        if (update.hasNewSubscribers())
         {
-            for (EntityPlayerMP player : subscribers)
+            update.add(new ColonyViewMessage(this, true), update.newSubscribers);
+        }
+        if (isDirty)
+        {
+            List<EntityPlayerMP> players = update.subscribers.stream()
+                                                             .filter(player -> !update.newSubscribers.contains(player))
+                                                             .collect(Collectors.toList());
+            if (!players.isEmpty())
             {
-                boolean isNewSubscriber = !oldSubscribers.contains(player);
-                if (isDirty || isNewSubscriber)
-                {
-                    MineColonies.getNetwork().sendTo(new ColonyViewMessage(this, isNewSubscriber), player);
-                }
+                update.add(new ColonyViewMessage(this, false), players);
             }
         }
     }
 
-    private static boolean hasNewSubscribers(Set<EntityPlayerMP> oldSubscribers, Set<EntityPlayerMP> subscribers)
+    /**
+     * Check whether a player should be subscribed to the colony, and subscribe or unsubscribe it.
+     * Called when the player logged in, crossed a chunk border or changed dimension, see {@link ColonyManager}.
+     *
+     * @param player the player.
+     */
+    public void updateSubscription(EntityPlayerMP player)
     {
-        for (EntityPlayerMP player : subscribers)
+        boolean isSubscribed = subscribers.contains(player);
+        if (shouldSubscribe(player, isSubscribed))
         {
-            if (!oldSubscribers.contains(player))
+            if (!isSubscribed)
             {
-                return true;
+                subscribe(player);
             }
         }
-        return false;
+        else if (isSubscribed)
+        {
+            unsubscribe(player);
+        }
+    }
+
+    /**
+     * Subscribers = Owners + Players within (double working town hall range).
+     */
+    private boolean shouldSubscribe(EntityPlayerMP player, boolean isSubscribed)
+    {
+        if (permissions.isSubscriber(player))
+        {
+            return true;
+        }
+        if (world == null || player.worldObj != world)
+        {
+            return false;
+        }
+
+        // Players become subscribers if they come within 16 blocks of the edge of the colony
+        // Players remain subscribers while they remain within double the colony's radius
+        double distance = player.getDistanceSq(center);
+        return distance < MathUtils.square(Configurations.workingRangeTownHall + 16D) ||
+                (isSubscribed && distance < MathUtils.square(Configurations.workingRangeTownHall * 2D));
     }
 
-    private static boolean isCitizenMissingFromWorld(CitizenData citizen)
+    /**
+     * Subscribe a player; it gets the full view of the colony on the next subscriber update.
+     *
+     * @param player the player.
+     */
+    private void subscribe(EntityPlayerMP player)
     {
-        EntityCitizen entity = citizen.getCitizenEntity();
+        subscribers.add(player);
+        newSubscribers.add(player);
+    }
 
-        return entity != null && entity.worldObj.getEntityByID(entity.getEntityId()) != entity;
+    /**
+     * Unsubscribe a player, and any earlier entity of the same player, e.g. from before it respawned.
+     *
+     * @param player the player.
+     */
+    public void unsubscribe(EntityPlayer player)
+    {
+        subscribers.removeIf(subscriber -> subscriber.getUniqueID().equals(player.getUniqueID()));
+        newSubscribers.removeIf(subscriber -> subscriber.getUniqueID().equals(player.getUniqueID()));
     }
 
-    private boolean areAllColonyChunksLoaded(TickEvent.WorldTickEvent event)
+    /**
+     * Called when the block at the location of one of the colony's buildings changed, see
+     * {@link ColonyManager#onBlockChanged(World, BlockPos)}. The building is checked on the next building check.
+     *
+     * @param building the building.
+     */
+    public void onBuildingBlockChanged(AbstractBuilding building)
     {
-        int distanceFromCenter = Configurations.workingRangeTownHall + 48 /* 3 chunks */ + 15 /* round up a chunk */;
-        for (int x = -distanceFromCenter; x <= distanceFromCenter; x += 16)
+        changedBuildings.add(building);
+    }
+
+    /**
+     * Cleanup Buildings whose Blocks changed since the last check.
+     * Blocks can also change without the colony hearing about it, e.g. when a chunk is edited outside of the
+     * game; those are caught by the audit every {@link #BUILDING_AUDIT_PERIOD} ticks.
+     */
+    private void checkChangedBuildings()
+    {
+        if (!changedBuildings.isEmpty())
         {
-            for (int z = -distanceFromCenter; z <= distanceFromCenter; z += 16)
-            {
-                if (!event.world.isBlockLoaded(new BlockPos(getCenter().getX() + x, 128, getCenter().getZ() + z)))
-                {
-                    return false;
-                }
-            }
+            List<AbstractBuilding> changed = new ArrayList<>(changedBuildings);
+            changedBuildings.clear();
+            //  Might have been removed already, e.g. when a player broke the hut
+            changed.removeIf(building -> buildings.get(building.getID()) != building);
+            cleanUpBuildings(changed);
         }
-        return true;
     }
 
-    private void cleanUpBuildings(TickEvent.WorldTickEvent event)
+    /**
+     * Cleanup Buildings whose Blocks have gone AWOL.
+     *
+     * @param candidates buildings to check.
+     */
+    private void cleanUpBuildings(Collection<AbstractBuilding> candidates)
     {
         List<AbstractBuilding> removedBuildings = null;
 
-        for (AbstractBuilding building : buildings.values())
+        for (AbstractBuilding building : candidates)
         {
             BlockPos loc = building.getLocation();
-            if (event.world.isBlockLoaded(loc) && !building.isMatchingBlock(event.world.getBlockState(loc).getBlock()))
+            if (world.isBlockLoaded(loc) && !building.isMatchingBlock(world.getBlockState(loc).getBlock()))
             {
                 //  Sanity cleanup
                 if (removedBuildings == null)
@@ -692,6 +917,8 @@ public class Colony implements IColony
                 citizenData.initializeFromEntity(entity);
 
                 citizens.put(citizenData.getId(), citizenData);
+                citizenPools.onCitizenChanged(citizenData);
+                ColonyJournal.onCitizenChanged(this, citizenData);
 
                 if (getMaxCitizens() == getCitizens().size())
                 {
@@ -811,6 +1038,18 @@ public class Colony implements IColony
     {
         buildings.put(building.getID(), building);
         building.markDirty();
+        ColonyManager.onBuildingAdded(this, building);
+        citizenPools.onBuildingChanged(building);
+        DistanceFields.forColony(this).register(building.getLocation());
+        String taskName = "building " + building.getSchematicName() + " " + building.getID();
+        buildingTasks.put(building.getID(), scheduleInWorld(taskName, BUILDING_TICK_PERIOD, 20,
+                () -> building.onColonyTick(world)));
+
+        if (building instanceof BuildingLumberjack && treeTask == null)
+        {
+            //  Only colonies with a lumberjack need to know their trees
+            treeTask = scheduleInWorld("trees", 1, 200, () -> TreeIndex.forColony(this).onColonyTick(this, world));
+        }
 
         //  Limit 1 town hall
         if (building instanceof BuildingTownHall && townHall == null)
@@ -834,6 +1073,7 @@ public class Colony implements IColony
         {
             addBuilding(building);
             tileEntity.setBuilding(building);
+            ColonyJournal.onBuildingChanged(this, building);
 
             Log.logger.info(String.format("Colony %d - new AbstractBuilding for %s at %s",
                     getID(),
@@ -849,7 +1089,6 @@ public class Colony implements IColony
         }
 
         calculateMaxCitizens();
-        ColonyManager.markDirty();
 
         return building;
     }
@@ -863,6 +1102,25 @@ public class Colony implements IColony
     {
         if (buildings.remove(building.getID()) != null)
         {
+            DistanceFields.forColony(this).unregister(building.getLocation());
+            ColonyManager.onBuildingRemoved(this, building);
+            ColonyJournal.onBuildingRemoved(this, building);
+            changedBuildings.remove(building);
+            citizenPools.removeBuilding(building);
+            ColonyScheduler.Task task = buildingTasks.remove(building.getID());
+            if (task != null)
+            {
+                task.cancel();
+            }
+
+            if (treeTask != null && building instanceof BuildingLumberjack &&
+                    buildings.values().stream().noneMatch(BuildingLumberjack.class::isInstance))
+            {
+                treeTask.cancel();
+                treeTask = null;
+                TreeIndex.onColonyUnload(this);
+            }
+
             for (EntityPlayerMP player : subscribers)
             {
                 MineColonies.getNetwork().sendTo(new ColonyViewRemoveBuildingMessage(this, building.getID()), player);
@@ -886,8 +1144,7 @@ public class Colony implements IColony
         }
 
         calculateMaxCitizens();
-
-        ColonyManager.markDirty();
+        markSaveNeeded();
     }
 
     /**
@@ -908,6 +1165,7 @@ public class Colony implements IColony
     public void setManualHiring(boolean manualHiring)
     {
         this.manualHiring = manualHiring;
+        citizenPools.onHiringChanged();
         markDirty();
     }
 
@@ -964,6 +1222,9 @@ public class Colony implements IColony
     {
         //Remove the Citizen
         citizens.remove(citizen.getId());
+        ColonyJournal.onCitizenRemoved(this, citizen);
+        citizenPools.removeCitizen(citizen);
+        absentCitizens.remove(citizen);
 
         for (AbstractBuilding building : buildings.values())
         {
@@ -1005,21 +1266,23 @@ public class Colony implements IColony
     }
 
     /**
-     * Get the first unemployed citizen.
+     * Get the citizen which is unemployed the longest.
      *
      * @return Citizen with no current job.
      */
     public CitizenData getJoblessCitizen()
     {
-        for (CitizenData citizen : citizens.values())
-        {
-            if (citizen.getWorkBuilding() == null)
-            {
-                return citizen;
-            }
-        }
+        return citizenPools.getJoblessCitizen();
+    }
 
-        return null;
+    /**
+     * Get the pools of jobless and homeless citizens.
+     *
+     * @return the pools of the colony.
+     */
+    public CitizenPools getCitizenPools()
+    {
+        return citizenPools;
     }
 
     /**
@@ -0,0 +1,598 @@
+package com.minecolonies.colony;
+
+import net.minecraft.nbt.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Compact binary form of colony data, converted from and to the NBT which {@link Colony#writeToNBT} and the
+ * classes it saves write, so their layout stays the only schema.
+ * <p>
+ * Compared to NBT, every string (tag names like {@code buildings}, and values like type names) is stored once in a
+ * table and referenced by index, numbers are variable length, and the position compounds of {@code BlockPosUtil}
+ * are packed, lists of them as delta encoded columns.
+ * <p>
+ * Layout: {@code "MCC", version, varint string count, strings (varint length, UTF-8), root compound}; a compound is
+ * {@code varint entry count, entries (varint name, type, payload)}.
+ */
+final class ColonyCodec
+{
+    /**
+     * Version of the layout; data of a newer version is refused.
+     */
+    static final int VERSION = 1;
+
+    private static final byte[] MAGIC = {'M', 'C', 'C'};
+
+    //  NBT tag ids, and the packed types
+    private static final int TYPE_END        = 0;
+    private static final int TYPE_BYTE       = 1;
+    private static final int TYPE_SHORT      = 2;
+    private static final int TYPE_INT        = 3;
+    private static final int TYPE_LONG       = 4;
+    private static final int TYPE_FLOAT      = 5;
+    private static final int TYPE_DOUBLE     = 6;
+    private static final int TYPE_BYTE_ARRAY = 7;
+    private static final int TYPE_STRING     = 8;
+    private static final int TYPE_LIST       = 9;
+    private static final int TYPE_COMPOUND   = 10;
+    private static final int TYPE_INT_ARRAY  = 11;
+    private static final int TYPE_POS        = 12;
+    private static final int TYPE_POS_LIST   = 13;
+
+    private static final String POS_X = "x";
+    private static final String POS_Y = "y";
+    private static final String POS_Z = "z";
+
+    private ColonyCodec()
+    {
+        //  Hides default constructor.
+    }
+
+    /**
+     * Encode a compound.
+     *
+     * @param compound the compound.
+     * @return its compact form.
+     */
+    static byte[] encode(NBTTagCompound compound)
+    {
+        Encoder encoder = new Encoder();
+        encoder.writeCompound(compound);
+
+        Output out = new Output(encoder.body.size + encoder.table.size() * 8 + 16);
+        out.writeBytes(MAGIC, MAGIC.length);
+        out.writeByte(VERSION);
+        out.writeVarInt(encoder.table.size());
+        for (String string : encoder.table)
+        {
+            byte[] utf8 = string.getBytes(StandardCharsets.UTF_8);
+            out.writeVarInt(utf8.length);
+            out.writeBytes(utf8, utf8.length);
+        }
+        out.writeBytes(encoder.body.data, encoder.body.size);
+        return out.toByteArray();
+    }
+
+    /**
+     * @param data some data.
+     * @return true if the data was written by {@link #encode}.
+     */
+    static boolean isEncoded(byte[] data)
+    {
+        return data.length > MAGIC.length && data[0] == MAGIC[0] && data[1] == MAGIC[1] && data[2] == MAGIC[2];
+    }
+
+    /**
+     * Decode a compound.
+     *
+     * @param data the compact form.
+     * @return the compound.
+     * @throws IOException if the data is not valid or of a newer version.
+     */
+    static NBTTagCompound decode(byte[] data) throws IOException
+    {
+        if (!isEncoded(data))
+        {
+            throw new IOException("Not a compact colony file");
+        }
+
+        Input in = new Input(data, MAGIC.length);
+        int version = in.readByte() & 0xff;
+        if (version > VERSION)
+        {
+            throw new IOException(String.format("Compact colony file of version %d, only %d is supported", version, VERSION));
+        }
+
+        String[] table = new String[in.readLength()];
+        for (int i = 0; i < table.length; ++i)
+        {
+            int length = in.readLength();
+            table[i] = new String(data, in.skip(length), length, StandardCharsets.UTF_8);
+        }
+        return new Decoder(in, table).readCompound();
+    }
+
+    /**
+     * @return true if the compound is a position written by {@code BlockPosUtil}, and nothing else.
+     */
+    private static boolean isPosition(NBTTagCompound compound)
+    {
+        return compound.getKeySet().size() == 3
+                && compound.hasKey(POS_X, TYPE_INT) && compound.hasKey(POS_Y, TYPE_INT) && compound.hasKey(POS_Z, TYPE_INT);
+    }
+
+    private static boolean isPositionList(NBTTagList list)
+    {
+        if (list.getTagType() != TYPE_COMPOUND || list.tagCount() == 0)
+        {
+            return false;
+        }
+        for (int i = 0; i < list.tagCount(); ++i)
+        {
+            if (!isPosition(list.getCompoundTagAt(i)))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static NBTTagCompound position(int x, int y, int z)
+    {
+        NBTTagCompound compound = new NBTTagCompound();
+        compound.setInteger(POS_X, x);
+        compound.setInteger(POS_Y, y);
+        compound.setInteger(POS_Z, z);
+        return compound;
+    }
+
+    /**
+     * Writes the body and collects the string table.
+     */
+    private static final class Encoder
+    {
+        private final Map<String, Integer> indices = new HashMap<>();
+        private final List<String>         table   = new ArrayList<>();
+        private final Output               body    = new Output(4096);
+
+        private int intern(String string)
+        {
+            Integer index = indices.get(string);
+            if (index == null)
+            {
+                index = table.size();
+                indices.put(string, index);
+                table.add(string);
+            }
+            return index;
+        }
+
+        private void writeCompound(NBTTagCompound compound)
+        {
+            Set<String> keys = compound.getKeySet();
+            body.writeVarInt(keys.size());
+            for (String key : keys)
+            {
+                NBTBase tag = compound.getTag(key);
+                int type = getType(tag);
+                body.writeVarInt(intern(key));
+                body.writeByte(type);
+                writePayload(type, tag);
+            }
+        }
+
+        private static int getType(NBTBase tag)
+        {
+            int type = tag.getId();
+            if (type == TYPE_COMPOUND && isPosition((NBTTagCompound) tag))
+            {
+                return TYPE_POS;
+            }
+            if (type == TYPE_LIST && isPositionList((NBTTagList) tag))
+            {
+                return TYPE_POS_LIST;
+            }
+            return type;
+        }
+
+        private void writePayload(int type, NBTBase tag)
+        {
+            switch (type)
+            {
+                case TYPE_BYTE:
+                    body.writeByte(((NBTBase.NBTPrimitive) tag).getByte());
+                    break;
+                case TYPE_SHORT:
+                    body.writeSignedVarLong(((NBTBase.NBTPrimitive) tag).getShort());
+                    break;
+                case TYPE_INT:
+                    body.writeSignedVarLong(((NBTBase.NBTPrimitive) tag).getInt());
+                    break;
+                case TYPE_LONG:
+                    body.writeSignedVarLong(((NBTBase.NBTPrimitive) tag).getLong());
+                    break;
+                case TYPE_FLOAT:
+                    body.writeFixed(Float.floatToIntBits(((NBTBase.NBTPrimitive) tag).getFloat()), 4);
+                    break;
+                case TYPE_DOUBLE:
+                    body.writeFixed(Double.doubleToLongBits(((NBTBase.NBTPrimitive) tag).getDouble()), 8);
+                    break;
+                case TYPE_BYTE_ARRAY:
+                    byte[] bytes = ((NBTTagByteArray) tag).getByteArray();
+                    body.writeVarInt(bytes.length);
+                    body.writeBytes(bytes, bytes.length);
+                    break;
+                case TYPE_STRING:
+                    body.writeVarInt(intern(((NBTTagString) tag).getString()));
+                    break;
+                case TYPE_INT_ARRAY:
+                    writeIntArray(((NBTTagIntArray) tag).getIntArray());
+                    break;
+                case TYPE_COMPOUND:
+                    writeCompound((NBTTagCompound) tag);
+                    break;
+                case TYPE_POS:
+                    NBTTagCompound pos = (NBTTagCompound) tag;
+                    body.writeSignedVarLong(pos.getInteger(POS_X));
+                    body.writeSignedVarLong(pos.getInteger(POS_Y));
+                    body.writeSignedVarLong(pos.getInteger(POS_Z));
+                    break;
+                case TYPE_LIST:
+                    writeList((NBTTagList) tag);
+                    break;
+                case TYPE_POS_LIST:
+                    writePositionList((NBTTagList) tag);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown NBT tag type " + type);
+            }
+        }
+
+        private void writeIntArray(int[] values)
+        {
+            body.writeVarInt(values.length);
+            for (int value : values)
+            {
+                body.writeSignedVarLong(value);
+            }
+        }
+
+        private void writeList(NBTTagList list)
+        {
+            int type = list.getTagType();
+            body.writeVarInt(list.tagCount());
+            body.writeByte(type);
+            switch (type)
+            {
+                case TYPE_END:
+                    break;
+                case TYPE_COMPOUND:
+                    for (int i = 0; i < list.tagCount(); ++i)
+                    {
+                        writeCompound(list.getCompoundTagAt(i));
+                    }
+                    break;
+                case TYPE_STRING:
+                    for (int i = 0; i < list.tagCount(); ++i)
+                    {
+                        body.writeVarInt(intern(list.getStringTagAt(i)));
+                    }
+                    break;
+                case TYPE_INT_ARRAY:
+                    for (int i = 0; i < list.tagCount(); ++i)
+                    {
+                        writeIntArray(list.getIntArrayAt(i));
+                    }
+                    break;
+                default:
+                    //  Lists of other types have no getter of their own; take them apart from the end
+                    NBTTagList copy = (NBTTagList) list.copy();
+                    NBTBase[] elements = new NBTBase[copy.tagCount()];
+                    for (int i = elements.length - 1; i >= 0; --i)
+                    {
+                        elements[i] = copy.removeTag(i);
+                    }
+                    for (NBTBase element : elements)
+                    {
+                        writePayload(type, element);
+                    }
+                    break;
+            }
+        }
+
+        private void writePositionList(NBTTagList list)
+        {
+            int count = list.tagCount();
+            body.writeVarInt(count);
+            for (String axis : new String[]{POS_X, POS_Y, POS_Z})
+            {
+                //  Neighbouring positions are close, so their differences are small
+                int last = 0;
+                for (int i = 0; i < count; ++i)
+                {
+                    int value = list.getCompoundTagAt(i).getInteger(axis);
+                    body.writeSignedVarLong((long) value - last);
+                    last = value;
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the body.
+     */
+    private static final class Decoder
+    {
+        private final Input    in;
+        private final String[] table;
+
+        private Decoder(Input in, String[] table)
+        {
+            this.in = in;
+            this.table = table;
+        }
+
+        private String readString() throws IOException
+        {
+            int index = in.readLength();
+            if (index >= table.length)
+            {
+                throw new IOException("String index out of range: " + index);
+            }
+            return table[index];
+        }
+
+        private NBTTagCompound readCompound() throws IOException
+        {
+            NBTTagCompound compound = new NBTTagCompound();
+            int count = in.readLength();
+            for (int i = 0; i < count; ++i)
+            {
+                String key = readString();
+                compound.setTag(key, readPayload(in.readByte()));
+            }
+            return compound;
+        }
+
+        private NBTBase readPayload(int type) throws IOException
+        {
+            switch (type)
+            {
+                case TYPE_BYTE:
+                    return new NBTTagByte(in.readByte());
+                case TYPE_SHORT:
+                    return new NBTTagShort((short) in.readSignedVarLong());
+                case TYPE_INT:
+                    return new NBTTagInt((int) in.readSignedVarLong());
+                case TYPE_LONG:
+                    return new NBTTagLong(in.readSignedVarLong());
+                case TYPE_FLOAT:
+                    return new NBTTagFloat(Float.intBitsToFloat((int) in.readFixed(4)));
+                case TYPE_DOUBLE:
+                    return new NBTTagDouble(Double.longBitsToDouble(in.readFixed(8)));
+                case TYPE_BYTE_ARRAY:
+                    int length = in.readLength();
+                    return new NBTTagByteArray(Arrays.copyOfRange(in.data, in.skip(length), in.pos));
+                case TYPE_STRING:
+                    return new NBTTagString(readString());
+                case TYPE_INT_ARRAY:
+                    return new NBTTagIntArray(readIntArray());
+                case TYPE_COMPOUND:
+                    return readCompound();
+                case TYPE_POS:
+                    return position((int) in.readSignedVarLong(), (int) in.readSignedVarLong(), (int) in.readSignedVarLong());
+                case TYPE_LIST:
+                    return readList();
+                case TYPE_POS_LIST:
+                    return readPositionList();
+                default:
+                    throw new IOException("Unknown tag type " + type);
+            }
+        }
+
+        private int[] readIntArray() throws IOException
+        {
+            int[] values = new int[in.readLength()];
+            for (int i = 0; i < values.length; ++i)
+            {
+                values[i] = (int) in.readSignedVarLong();
+            }
+            return values;
+        }
+
+        private NBTTagList readList() throws IOException
+        {
+            int count = in.readLength();
+            int type = in.readByte();
+            NBTTagList list = new NBTTagList();
+            for (int i = 0; i < count; ++i)
+            {
+                list.appendTag(readPayload(type));
+            }
+            return list;
+        }
+
+        private NBTTagList readPositionList() throws IOException
+        {
+            int count = in.readLength();
+            int[][] axes = new int[3][count];
+            for (int[] axis : axes)
+            {
+                int last = 0;
+                for (int i = 0; i < count; ++i)
+                {
+                    last += (int) in.readSignedVarLong();
+                    axis[i] = last;
+                }
+            }
+
+            NBTTagList list = new NBTTagList();
+            for (int i = 0; i < count; ++i)
+            {
+                list.appendTag(position(axes[0][i], axes[1][i], axes[2][i]));
+            }
+            return list;
+        }
+    }
+
+    /**
+     * Growing byte buffer with variable length numbers.
+     */
+    private static final class Output
+    {
+        private byte[] data;
+        private int    size = 0;
+
+        private Output(int capacity)
+        {
+            data = new byte[Math.max(capacity, 16)];
+        }
+
+        private void ensure(int extra)
+        {
+            if (size + extra > data.length)
+            {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, size + extra));
+            }
+        }
+
+        private void writeByte(int value)
+        {
+            ensure(1);
+            data[size++] = (byte) value;
+        }
+
+        private void writeBytes(byte[] bytes, int length)
+        {
+            ensure(length);
+            System.arraycopy(bytes, 0, data, size, length);
+            size += length;
+        }
+
+        private void writeVarInt(int value)
+        {
+            writeVarLong(value & 0xffffffffL);
+        }
+
+        /**
+         * Seven bits per byte, low bits first; the high bit marks that more bytes follow.
+         */
+        private void writeVarLong(long value)
+        {
+            ensure(10);
+            long rest = value;
+            while ((rest & ~0x7fL) != 0)
+            {
+                data[size++] = (byte) ((rest & 0x7f) | 0x80);
+                rest >>>= 7;
+            }
+            data[size++] = (byte) rest;
+        }
+
+        /**
+         * Zigzag encoded, so small negative numbers are short too.
+         */
+        private void writeSignedVarLong(long value)
+        {
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        private void writeFixed(long value, int bytes)
+        {
+            ensure(bytes);
+            for (int i = bytes - 1; i >= 0; --i)
+            {
+                data[size++] = (byte) (value >>> (i * 8));
+            }
+        }
+
+        private byte[] toByteArray()
+        {
+            return Arrays.copyOf(data, size);
+        }
+    }
+
+    /**
+     * Reader of {@link Output}.
+     */
+    private static final class Input
+    {
+        private final byte[] data;
+        private int pos;
+
+        private Input(byte[] data, int pos)
+        {
+            this.data = data;
+            this.pos = pos;
+        }
+
+        /**
+         * Skip some bytes.
+         *
+         * @return the position of the first.
+         */
+        private int skip(int length) throws IOException
+        {
+            if (length < 0 || length > data.length - pos)
+            {
+                throw new IOException("Compact colony file is cut short");
+            }
+            int start = pos;
+            pos += length;
+            return start;
+        }
+
+        private byte readByte() throws IOException
+        {
+            return data[skip(1)];
+        }
+
+        private long readVarLong() throws IOException
+        {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7)
+            {
+                byte b = readByte();
+                value |= (long) (b & 0x7f) << shift;
+                if ((b & 0x80) == 0)
+                {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed number in compact colony file");
+        }
+
+        private long readSignedVarLong() throws IOException
+        {
+            long value = readVarLong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        /**
+         * @return a count or length, which can not be larger than the rest of the data.
+         */
+        private int readLength() throws IOException
+        {
+            long value = readVarLong();
+            if (value < 0 || value > data.length)
+            {
+                throw new IOException("Malformed length in compact colony file");
+            }
+            return (int) value;
+        }
+
+        private long readFixed(int bytes) throws IOException
+        {
+            int start = skip(bytes);
+            long value = 0;
+            for (int i = 0; i < bytes; ++i)
+            {
+                value = (value << 8) | (data[start + i] & 0xff);
+            }
+            return value;
+        }
+    }
+}
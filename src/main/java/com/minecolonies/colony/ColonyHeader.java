@@ -0,0 +1,163 @@
+package com.minecolonies.colony;
+
+import com.minecolonies.colony.permissions.Permissions;
+import com.minecolonies.configuration.Configurations;
+import com.minecolonies.util.BlockPosUtil;
+import com.minecolonies.util.MathUtils;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.nbt.NBTTagString;
+import net.minecraft.util.BlockPos;
+import net.minecraft.world.World;
+import net.minecraftforge.common.util.Constants.NBT;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * What is known about a colony without loading it: where it is and which players it belongs to.
+ * Headers are kept in the index of the {@link ColonyStorage}; the {@link ColonyManager} keeps those of the colonies
+ * which are not loaded in a {@link ColonyIndex} of their own, to find them by position.
+ */
+final class ColonyHeader implements IColonyArea
+{
+    private static final String TAG_ID          = "id";
+    private static final String TAG_DIMENSION   = "dimension";
+    private static final String TAG_CENTER      = "center";
+    private static final String TAG_NAME        = "name";
+    private static final String TAG_OWNER       = "owner";
+    private static final String TAG_SUBSCRIBERS = "subscribers";
+
+    private final int       id;
+    private final int       dimension;
+    private final BlockPos  center;
+    private final String    name;
+    @Nullable
+    private final UUID      owner;
+    private final Set<UUID> subscribers;
+
+    private ColonyHeader(int id, int dimension, BlockPos center, String name, @Nullable UUID owner, Set<UUID> subscribers)
+    {
+        this.id = id;
+        this.dimension = dimension;
+        this.center = center;
+        this.name = name;
+        this.owner = owner;
+        this.subscribers = subscribers;
+    }
+
+    /**
+     * @param colony a colony.
+     * @return the header of the colony as it is now.
+     */
+    static ColonyHeader of(Colony colony)
+    {
+        Set<UUID> subscribers = new HashSet<>();
+        for (Permissions.Player player : colony.getPermissions().getPlayers().values())
+        {
+            if (player.getRank().isSubscriber)
+            {
+                subscribers.add(player.getID());
+            }
+        }
+        return new ColonyHeader(colony.getID(), colony.getDimensionId(), colony.getCenter(), colony.getName(),
+                colony.getPermissions().getOwner(), subscribers);
+    }
+
+    /**
+     * Read a header from the index.
+     *
+     * @param compound the compound.
+     * @return the header.
+     */
+    static ColonyHeader readFromNBT(NBTTagCompound compound)
+    {
+        Set<UUID> subscribers = new HashSet<>();
+        NBTTagList list = compound.getTagList(TAG_SUBSCRIBERS, NBT.TAG_STRING);
+        for (int i = 0; i < list.tagCount(); ++i)
+        {
+            subscribers.add(UUID.fromString(list.getStringTagAt(i)));
+        }
+        UUID owner = compound.hasKey(TAG_OWNER) ? UUID.fromString(compound.getString(TAG_OWNER)) : null;
+        return new ColonyHeader(compound.getInteger(TAG_ID), compound.getInteger(TAG_DIMENSION),
+                BlockPosUtil.readFromNBT(compound, TAG_CENTER), compound.getString(TAG_NAME), owner, subscribers);
+    }
+
+    /**
+     * Write the header to the index.
+     *
+     * @param compound the compound.
+     */
+    void writeToNBT(NBTTagCompound compound)
+    {
+        compound.setInteger(TAG_ID, id);
+        compound.setInteger(TAG_DIMENSION, dimension);
+        BlockPosUtil.writeToNBT(compound, TAG_CENTER, center);
+        compound.setString(TAG_NAME, name);
+        if (owner != null)
+        {
+            compound.setString(TAG_OWNER, owner.toString());
+        }
+
+        NBTTagList list = new NBTTagList();
+        subscribers.stream().map(UUID::toString).sorted().forEach(player -> list.appendTag(new NBTTagString(player)));
+        compound.setTag(TAG_SUBSCRIBERS, list);
+    }
+
+    /**
+     * Indexes of older versions had no players.
+     *
+     * @return true if the header knows the owner of the colony.
+     */
+    boolean isComplete()
+    {
+        return owner != null;
+    }
+
+    int getId()
+    {
+        return id;
+    }
+
+    @Override
+    public int getDimensionId()
+    {
+        return dimension;
+    }
+
+    @Override
+    public BlockPos getCenter()
+    {
+        return center;
+    }
+
+    @Nullable
+    UUID getOwner()
+    {
+        return owner;
+    }
+
+    /**
+     * @return the players which are subscribed to the colony wherever they are.
+     */
+    Set<UUID> getSubscribers()
+    {
+        return Collections.unmodifiableSet(subscribers);
+    }
+
+    @Override
+    public boolean isCoordInColony(World w, BlockPos pos)
+    {
+        return w.provider.getDimensionId() == dimension &&
+                getDistanceSquared(pos) <= MathUtils.square(Configurations.workingRangeTownHall);
+    }
+
+    @Override
+    public float getDistanceSquared(BlockPos pos)
+    {
+        return BlockPosUtil.getDistanceSquared(center, new BlockPos(pos.getX(), center.getY(), pos.getZ()));
+    }
+}
@@ -0,0 +1,275 @@
+package com.minecolonies.colony;
+
+import com.minecolonies.configuration.Configurations;
+import net.minecraft.util.BlockPos;
+import net.minecraft.world.ChunkCoordIntPair;
+import net.minecraft.world.World;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.function.LongConsumer;
+
+/**
+ * Spatial index of colonies per dimension, so looking up the colony at or closest to a position does not
+ * go through every colony.
+ * Every chunk touched by a colony's working range maps to that colony, which answers {@link #getColony}
+ * with one map lookup. {@link #getClosest} searches a coarse grid of town hall positions ring by ring outward.
+ * Colonies are indexed by their center at the time they are added; re-add a colony after its center changed.
+ *
+ * @param <C> {@link Colony} or the {@link ColonyHeader} of an unloaded one on the server, {@link ColonyView} on the
+ *            client.
+ */
+final class ColonyIndex<C extends IColonyArea>
+{
+    /**
+     * Shift from block to grid cell coordinates; cells are 512 blocks wide.
+     */
+    private static final int CELL_SHIFT = 9;
+    private static final int CELL_SIZE  = 1 << CELL_SHIFT;
+
+    private final Map<Integer, Dimension<C>> dimensions = new HashMap<>();
+
+    /**
+     * Dimension and center each colony was indexed with, to find its entries again when it is removed.
+     */
+    private final Map<C, Placement> placements = new HashMap<>();
+
+    /**
+     * Add a colony, or move it to its current center if it was indexed before.
+     *
+     * @param colony the colony.
+     */
+    void add(C colony)
+    {
+        remove(colony);
+
+        Placement placement = new Placement(colony.getDimensionId(), colony.getCenter());
+        placements.put(colony, placement);
+        dimensions.computeIfAbsent(placement.dimension, id -> new Dimension<>()).add(colony, placement.center);
+    }
+
+    /**
+     * Remove a colony.
+     *
+     * @param colony the colony.
+     */
+    void remove(C colony)
+    {
+        Placement placement = placements.remove(colony);
+        if (placement == null)
+        {
+            return;
+        }
+
+        Dimension<C> dimension = dimensions.get(placement.dimension);
+        dimension.remove(colony, placement.center);
+        if (dimension.isEmpty())
+        {
+            dimensions.remove(placement.dimension);
+        }
+    }
+
+    /**
+     * Remove all colonies.
+     */
+    void clear()
+    {
+        dimensions.clear();
+        placements.clear();
+    }
+
+    /**
+     * Get the colony whose working range contains a position.
+     *
+     * @param w   world of the position.
+     * @param pos the position.
+     * @return the colony, or null if there is none.
+     */
+    @Nullable
+    C getColony(World w, BlockPos pos)
+    {
+        Dimension<C> dimension = dimensions.get(w.provider.getDimensionId());
+        if (dimension == null)
+        {
+            return null;
+        }
+
+        List<C> candidates = dimension.byChunk.get(ChunkCoordIntPair.chunkXZ2Int(pos.getX() >> 4, pos.getZ() >> 4));
+        if (candidates != null)
+        {
+            for (C colony : candidates)
+            {
+                if (colony.isCoordInColony(w, pos))
+                {
+                    return colony;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get the colonies whose working range touches a chunk.
+     *
+     * @param dimensionId dimension of the chunk.
+     * @param chunkX      chunk x.
+     * @param chunkZ      chunk z.
+     * @return a copy of the list of colonies, empty if there are none.
+     */
+    List<C> getColonies(int dimensionId, int chunkX, int chunkZ)
+    {
+        Dimension<C> dimension = dimensions.get(dimensionId);
+        List<C> colonies = dimension == null ? null : dimension.byChunk.get(ChunkCoordIntPair.chunkXZ2Int(chunkX, chunkZ));
+        return colonies == null ? Collections.emptyList() : new ArrayList<>(colonies);
+    }
+
+    /**
+     * Get the colony whose center is closest to a position, in (x, z).
+     *
+     * @param dimensionId dimension of the position.
+     * @param pos         the position.
+     * @return the colony, or null if the dimension has none.
+     */
+    @Nullable
+    C getClosest(int dimensionId, BlockPos pos)
+    {
+        Dimension<C> dimension = dimensions.get(dimensionId);
+        if (dimension == null)
+        {
+            return null;
+        }
+
+        int cellX = pos.getX() >> CELL_SHIFT;
+        int cellZ = pos.getZ() >> CELL_SHIFT;
+        int maxRing = Math.max(Math.max(cellX - dimension.minCellX, dimension.maxCellX - cellX),
+                               Math.max(cellZ - dimension.minCellZ, dimension.maxCellZ - cellZ));
+
+        C closest = null;
+        float closestDist = Float.MAX_VALUE;
+        for (int ring = 0; ring <= maxRing; ++ring)
+        {
+            for (int dx = -ring; dx <= ring; ++dx)
+            {
+                //  Only the border of the ring, the inside was searched before
+                int step = Math.abs(dx) == ring ? 1 : 2 * ring;
+                for (int dz = -ring; dz <= ring; dz += step)
+                {
+                    List<C> cell = dimension.byCell.get(ChunkCoordIntPair.chunkXZ2Int(cellX + dx, cellZ + dz));
+                    if (cell == null)
+                    {
+                        continue;
+                    }
+
+                    for (C colony : cell)
+                    {
+                        float dist = colony.getDistanceSquared(pos);
+                        if (dist < closestDist)
+                        {
+                            closest = colony;
+                            closestDist = dist;
+                        }
+                    }
+                }
+            }
+
+            //  Every cell of the next ring is at least this far away
+            float nextRingDist = (float) ring * CELL_SIZE;
+            if (closest != null && nextRingDist * nextRingDist >= closestDist)
+            {
+                break;
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * Where a colony was indexed.
+     */
+    private static final class Placement
+    {
+        private final int      dimension;
+        private final BlockPos center;
+
+        private Placement(int dimension, BlockPos center)
+        {
+            this.dimension = dimension;
+            this.center = center;
+        }
+    }
+
+    /**
+     * The colonies of one dimension.
+     */
+    private static final class Dimension<C>
+    {
+        /**
+         * Colonies by the key of every chunk their working range touches.
+         */
+        private final Map<Long, List<C>> byChunk = new HashMap<>();
+
+        /**
+         * Colonies by the key of the grid cell of their center.
+         */
+        private final Map<Long, List<C>> byCell = new HashMap<>();
+
+        private int minCellX = Integer.MAX_VALUE;
+        private int minCellZ = Integer.MAX_VALUE;
+        private int maxCellX = Integer.MIN_VALUE;
+        private int maxCellZ = Integer.MIN_VALUE;
+
+        private void add(C colony, BlockPos center)
+        {
+            forEachChunk(center, chunk -> byChunk.computeIfAbsent(chunk, key -> new ArrayList<>(1)).add(colony));
+
+            int cellX = center.getX() >> CELL_SHIFT;
+            int cellZ = center.getZ() >> CELL_SHIFT;
+            byCell.computeIfAbsent(ChunkCoordIntPair.chunkXZ2Int(cellX, cellZ), key -> new ArrayList<>(1)).add(colony);
+            minCellX = Math.min(minCellX, cellX);
+            minCellZ = Math.min(minCellZ, cellZ);
+            maxCellX = Math.max(maxCellX, cellX);
+            maxCellZ = Math.max(maxCellZ, cellZ);
+        }
+
+        private void remove(C colony, BlockPos center)
+        {
+            forEachChunk(center, chunk -> removeFrom(byChunk, chunk, colony));
+            removeFrom(byCell, ChunkCoordIntPair.chunkXZ2Int(center.getX() >> CELL_SHIFT, center.getZ() >> CELL_SHIFT), colony);
+            //  The cell bounds only limit the search, leaving them wider is harmless
+        }
+
+        private boolean isEmpty()
+        {
+            return byCell.isEmpty();
+        }
+
+        private static <C> void removeFrom(Map<Long, List<C>> map, long key, C colony)
+        {
+            List<C> list = map.get(key);
+            if (list != null && list.remove(colony) && list.isEmpty())
+            {
+                map.remove(key);
+            }
+        }
+
+        /**
+         * Call an action with the key of every chunk which has a column within the working range of a center.
+         */
+        private static void forEachChunk(BlockPos center, LongConsumer action)
+        {
+            int range = Configurations.workingRangeTownHall;
+            for (int chunkX = (center.getX() - range) >> 4; chunkX <= (center.getX() + range) >> 4; ++chunkX)
+            {
+                for (int chunkZ = (center.getZ() - range) >> 4; chunkZ <= (center.getZ() + range) >> 4; ++chunkZ)
+                {
+                    //  Distance from the center to the closest column of the chunk
+                    long dx = Math.max(0, Math.max((chunkX << 4) - center.getX(), center.getX() - ((chunkX << 4) + 15)));
+                    long dz = Math.max(0, Math.max((chunkZ << 4) - center.getZ(), center.getZ() - ((chunkZ << 4) + 15)));
+                    if (dx * dx + dz * dz <= (long) range * range)
+                    {
+                        action.accept(ChunkCoordIntPair.chunkXZ2Int(chunkX, chunkZ));
+                    }
+                }
+            }
+        }
+    }
+}
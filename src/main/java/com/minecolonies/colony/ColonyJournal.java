@@ -0,0 +1,578 @@
+package com.minecolonies.colony;
+
+import com.minecolonies.colony.buildings.AbstractBuilding;
+import com.minecolonies.colony.workorders.AbstractWorkOrder;
+import com.minecolonies.util.Log;
+import net.minecraft.nbt.CompressedStreamTools;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraftforge.common.util.Constants.NBT;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.util.*;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead journal of colony changes, so they survive a crash between two saves of the colony.
+ * Every change is one record with the new state of what changed, e.g. a building or a citizen, or its removal.
+ * Records are collected during a tick and appended to the journal file in one write, see {@link ColonySaveQueue#append}.
+ * <p>
+ * When colonies are loaded, the records are applied to their saved data, skipping those which the saved data already
+ * contains. Every save of the colonies starts a new journal file; once the colonies are written, the older files are
+ * deleted, see {@link ColonyStorage}.
+ * <p>
+ * A record is {@code int length, [long sequence, int colony, byte kind, boolean removed, NBT data], int crc32}; a
+ * record which is cut short or does not match its checksum ends the file, as it was not written completely.
+ */
+public final class ColonyJournal
+{
+    /**
+     * Tag of the saved colony data which holds the last sequence number the data contains.
+     */
+    static final String TAG_SEQUENCE = "journalSequence";
+
+    private static final String  FILENAME_JOURNAL  = "journal-%d.log";
+    private static final Pattern JOURNAL_PATTERN   = Pattern.compile("journal-(\\d+)\\.log");
+    private static final long    COMPACTION_BYTES  = 4L * 1024 * 1024;
+    private static final int     MAX_RECORD_LENGTH = 16 * 1024 * 1024;
+
+    /**
+     * What a record holds. Records of a list entry replace or remove the entry with the same key.
+     */
+    private enum Kind
+    {
+        BUILDING(null, Colony.TAG_BUILDINGS, AbstractBuilding.TAG_LOCATION),
+        CITIZEN(null, Colony.TAG_CITIZENS, CitizenData.TAG_ID),
+        WORK_ORDER(Colony.TAG_WORK, WorkManager.TAG_WORK_ORDERS, AbstractWorkOrder.TAG_ID),
+        /**
+         * Tags which replace those of the colony.
+         */
+        PERMISSIONS(null, null, null),
+        /**
+         * The whole colony, when it was created.
+         */
+        COLONY(null, null, null);
+
+        @Nullable
+        private final String parent;
+        @Nullable
+        private final String list;
+        @Nullable
+        private final String key;
+
+        Kind(@Nullable String parent, @Nullable String list, @Nullable String key)
+        {
+            this.parent = parent;
+            this.list = list;
+            this.key = key;
+        }
+    }
+
+    @Nullable
+    private static ColonyJournal active;
+
+    private final File            colonyDir;
+    private final ColonySaveQueue queue;
+
+    /**
+     * Records of this tick, not yet handed to the queue.
+     */
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    /**
+     * Colonies with records since the last save, and those with records of this tick.
+     */
+    private final Set<Integer>          journaled   = new HashSet<>();
+    private final Set<Integer>          bufferedIds = new HashSet<>();
+    private long sequence        = 0;
+    private int  generation      = 0;
+    private long generationBytes = 0;
+    /**
+     * Appends which failed so far, as last seen by {@link #flush()}.
+     */
+    private long appendFailures  = 0;
+
+    /**
+     * Create the journal of the colonies of a world.
+     *
+     * @param colonyDir the folder of the colony files.
+     * @param queue     the queue which writes to the journal.
+     */
+    ColonyJournal(File colonyDir, ColonySaveQueue queue)
+    {
+        this.colonyDir = colonyDir;
+        this.queue = queue;
+    }
+
+    /**
+     * Start recording changes in this journal.
+     */
+    void activate()
+    {
+        active = this;
+    }
+
+    /**
+     * Stop recording changes, after writing those of this tick.
+     */
+    void deactivate()
+    {
+        flush();
+        if (active == this)
+        {
+            active = null;
+        }
+    }
+
+    /**
+     * Record a building which was added or changed.
+     *
+     * @param colony   colony of the building.
+     * @param building the building.
+     */
+    public static void onBuildingChanged(Colony colony, AbstractBuilding building)
+    {
+        if (isJournaled(colony))
+        {
+            NBTTagCompound compound = new NBTTagCompound();
+            building.writeToNBT(compound);
+            active.record(colony, Kind.BUILDING, false, compound);
+        }
+    }
+
+    /**
+     * Record a building which was removed.
+     *
+     * @param colony   colony of the building.
+     * @param building the building.
+     */
+    public static void onBuildingRemoved(Colony colony, AbstractBuilding building)
+    {
+        if (isJournaled(colony))
+        {
+            NBTTagCompound compound = new NBTTagCompound();
+            building.writeToNBT(compound);
+            active.record(colony, Kind.BUILDING, true, compound);
+        }
+    }
+
+    /**
+     * Record a citizen which was spawned or changed.
+     *
+     * @param colony  colony of the citizen.
+     * @param citizen the citizen.
+     */
+    public static void onCitizenChanged(Colony colony, CitizenData citizen)
+    {
+        if (isJournaled(colony))
+        {
+            NBTTagCompound compound = new NBTTagCompound();
+            citizen.writeToNBT(compound);
+            active.record(colony, Kind.CITIZEN, false, compound);
+        }
+    }
+
+    /**
+     * Record a citizen which was removed.
+     *
+     * @param colony  colony of the citizen.
+     * @param citizen the citizen.
+     */
+    public static void onCitizenRemoved(Colony colony, CitizenData citizen)
+    {
+        if (isJournaled(colony))
+        {
+            NBTTagCompound compound = new NBTTagCompound();
+            compound.setInteger(CitizenData.TAG_ID, citizen.getId());
+            active.record(colony, Kind.CITIZEN, true, compound);
+        }
+    }
+
+    /**
+     * Record a work order which was added, claimed or changed.
+     *
+     * @param colony colony of the work order.
+     * @param order  the work order.
+     */
+    public static void onWorkOrderChanged(Colony colony, AbstractWorkOrder order)
+    {
+        if (isJournaled(colony))
+        {
+            NBTTagCompound compound = new NBTTagCompound();
+            order.writeToNBT(compound);
+            active.record(colony, Kind.WORK_ORDER, false, compound);
+        }
+    }
+
+    /**
+     * Record a work order which was completed or removed.
+     *
+     * @param colony  colony of the work order.
+     * @param orderId id of the work order.
+     */
+    public static void onWorkOrderRemoved(Colony colony, int orderId)
+    {
+        if (isJournaled(colony))
+        {
+            NBTTagCompound compound = new NBTTagCompound();
+            compound.setInteger(AbstractWorkOrder.TAG_ID, orderId);
+            active.record(colony, Kind.WORK_ORDER, true, compound);
+        }
+    }
+
+    /**
+     * Record the permissions of a colony, after they changed.
+     *
+     * @param colony the colony.
+     */
+    public static void onPermissionsChanged(Colony colony)
+    {
+        if (isJournaled(colony))
+        {
+            NBTTagCompound compound = new NBTTagCompound();
+            colony.getPermissions().savePermissions(compound);
+            active.record(colony, Kind.PERMISSIONS, false, compound);
+        }
+    }
+
+    /**
+     * Record a new colony.
+     *
+     * @param colony the colony.
+     */
+    static void onColonyCreated(Colony colony)
+    {
+        if (isJournaled(colony))
+        {
+            NBTTagCompound compound = new NBTTagCompound();
+            colony.writeToNBT(compound);
+            active.record(colony, Kind.COLONY, false, compound);
+        }
+    }
+
+    /**
+     * Changes are only recorded for registered colonies, not while a colony is loading.
+     */
+    private static boolean isJournaled(Colony colony)
+    {
+        return active != null && ColonyManager.isLoaded(colony);
+    }
+
+    private void record(Colony colony, Kind kind, boolean removed, NBTTagCompound compound)
+    {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(payload))
+        {
+            out.writeLong(++sequence);
+            out.writeInt(colony.getID());
+            out.writeByte(kind.ordinal());
+            out.writeBoolean(removed);
+            CompressedStreamTools.write(compound, out);
+        }
+        catch (IOException e)
+        {
+            //  Cannot happen when writing to memory
+            throw new IllegalStateException(e);
+        }
+
+        byte[] bytes = payload.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+
+        DataOutputStream out = new DataOutputStream(buffer);
+        try
+        {
+            out.writeInt(bytes.length);
+            out.write(bytes);
+            out.writeInt((int) crc.getValue());
+        }
+        catch (IOException e)
+        {
+            throw new IllegalStateException(e);
+        }
+        journaled.add(colony.getID());
+        bufferedIds.add(colony.getID());
+    }
+
+    /**
+     * Hand the records of this tick to the queue, which appends and syncs them together. Once per tick.
+     */
+    void flush()
+    {
+        if (buffer.size() == 0)
+        {
+            return;
+        }
+
+        long failures = queue.getAppendFailureCount();
+        if (failures != appendFailures)
+        {
+            //  A failed append may have left a partial record, which ends the file for replay; the colonies of the
+            //  lost records are saved with the next save, until then their journal files are kept
+            appendFailures = failures;
+            ++generation;
+            generationBytes = 0;
+        }
+
+        queue.append(getFile(generation), buffer.toByteArray(), bufferedIds);
+        generationBytes += buffer.size();
+        buffer.reset();
+        bufferedIds.clear();
+    }
+
+    /**
+     * @return true if the current journal file grew large enough to save the colonies and start a new one.
+     */
+    boolean needsCompaction()
+    {
+        return generationBytes + buffer.size() > COMPACTION_BYTES;
+    }
+
+    /**
+     * Start a new journal file; the colonies with records in the old ones must be saved before they can be deleted.
+     *
+     * @return the colonies with records in the old file.
+     */
+    Set<Integer> rotate()
+    {
+        flush();
+        Set<Integer> ids = new HashSet<>(journaled);
+        journaled.clear();
+        ++generation;
+        generationBytes = 0;
+        return ids;
+    }
+
+    /**
+     * @param colonyId id of a colony.
+     * @return true if the journal has records of the colony since its last save.
+     */
+    boolean hasRecords(int colonyId)
+    {
+        return journaled.contains(colonyId);
+    }
+
+    /**
+     * @return the sequence number of the last record.
+     */
+    long getSequence()
+    {
+        return sequence;
+    }
+
+    /**
+     * Queue deleting the journal files before the current one, to run once everything queued so far is written.
+     *
+     * @param onlyIf checked before deleting, e.g. that no save failed.
+     */
+    void deleteOldFiles(BooleanSupplier onlyIf)
+    {
+        int current = generation;
+        queue.execute(() ->
+        {
+            if (!onlyIf.getAsBoolean())
+            {
+                Log.logger.warn("Colony saves failed, keeping the journal");
+                return;
+            }
+            for (Map.Entry<Integer, File> file : listFiles().entrySet())
+            {
+                if (file.getKey() < current && !file.getValue().delete())
+                {
+                    Log.logger.warn("Could not delete " + file.getValue());
+                }
+            }
+        });
+    }
+
+    /**
+     * Apply the journal to saved colonies. Records are applied unless the saved data contains them already.
+     * Colonies created after their last save are added.
+     *
+     * @param colonies      saved colonies by id, changed in place; colonies with records are added.
+     * @param read          reads a saved colony which is not in the map yet, or returns null.
+     * @param savedSequence the last sequence number of the last save.
+     * @return ids of the colonies which changed.
+     */
+    Set<Integer> replay(Map<Integer, NBTTagCompound> colonies, IntFunction<NBTTagCompound> read, long savedSequence)
+    {
+        //  Files of the last save may contain records whose journal is deleted already
+        sequence = Math.max(sequence, savedSequence);
+        for (NBTTagCompound compound : colonies.values())
+        {
+            sequence = Math.max(sequence, compound.getLong(TAG_SEQUENCE));
+        }
+
+        Set<Integer> changed = new HashSet<>();
+        int records = 0;
+        for (Map.Entry<Integer, File> file : listFiles().entrySet())
+        {
+            generation = Math.max(generation, file.getKey() + 1);
+            records += replay(file.getValue(), colonies, read, changed);
+        }
+
+        if (records > 0)
+        {
+            Log.logger.info(String.format("Applied %d journal records to %d colonies", records, changed.size()));
+        }
+        return changed;
+    }
+
+    private int replay(File file, Map<Integer, NBTTagCompound> colonies, IntFunction<NBTTagCompound> read, Set<Integer> changed)
+    {
+        int records = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file))))
+        {
+            while (true)
+            {
+                byte[] bytes = readRecord(in);
+                if (bytes == null)
+                {
+                    break;
+                }
+
+                DataInputStream record = new DataInputStream(new ByteArrayInputStream(bytes));
+                long seq = record.readLong();
+                int colonyId = record.readInt();
+                Kind kind = Kind.values()[record.readByte()];
+                boolean removed = record.readBoolean();
+                NBTTagCompound data = CompressedStreamTools.read(record);
+                sequence = Math.max(sequence, seq);
+
+                NBTTagCompound colony = colonies.get(colonyId);
+                if (colony == null)
+                {
+                    colony = read.apply(colonyId);
+                    if (colony != null)
+                    {
+                        colonies.put(colonyId, colony);
+                        sequence = Math.max(sequence, colony.getLong(TAG_SEQUENCE));
+                    }
+                }
+                if (colony != null && seq <= colony.getLong(TAG_SEQUENCE))
+                {
+                    continue;
+                }
+                if (colony == null && kind != Kind.COLONY)
+                {
+                    Log.logger.warn(String.format("Journal record %d for unknown colony %d", seq, colonyId));
+                    continue;
+                }
+
+                apply(colonies, colonyId, kind, removed, data);
+                changed.add(colonyId);
+                ++records;
+            }
+        }
+        catch (IOException | RuntimeException e)
+        {
+            Log.logger.error("Exception when reading " + file, e);
+        }
+        return records;
+    }
+
+    /**
+     * @return the payload of the next record, or null at the end of the file or a record which was not written completely.
+     */
+    @Nullable
+    private static byte[] readRecord(DataInputStream in) throws IOException
+    {
+        try
+        {
+            int length = in.readInt();
+            if (length <= 0 || length > MAX_RECORD_LENGTH)
+            {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            in.readFully(bytes);
+            int checksum = in.readInt();
+
+            CRC32 crc = new CRC32();
+            crc.update(bytes);
+            return (int) crc.getValue() == checksum ? bytes : null;
+        }
+        catch (EOFException e)
+        {
+            return null;
+        }
+    }
+
+    private static void apply(Map<Integer, NBTTagCompound> colonies, int colonyId, Kind kind, boolean removed, NBTTagCompound data)
+    {
+        if (kind == Kind.COLONY)
+        {
+            colonies.put(colonyId, data);
+            return;
+        }
+
+        NBTTagCompound colony = colonies.get(colonyId);
+        if (kind == Kind.PERMISSIONS)
+        {
+            for (String key : data.getKeySet())
+            {
+                colony.setTag(key, data.getTag(key).copy());
+            }
+            return;
+        }
+
+        NBTTagCompound parent = colony;
+        if (kind.parent != null)
+        {
+            parent = colony.getCompoundTag(kind.parent);
+            colony.setTag(kind.parent, parent);
+        }
+        NBTTagList list = parent.getTagList(kind.list, NBT.TAG_COMPOUND);
+        parent.setTag(kind.list, list);
+
+        for (int i = 0; i < list.tagCount(); ++i)
+        {
+            if (data.getTag(kind.key).equals(list.getCompoundTagAt(i).getTag(kind.key)))
+            {
+                if (removed)
+                {
+                    list.removeTag(i);
+                }
+                else
+                {
+                    list.set(i, data);
+                }
+                return;
+            }
+        }
+        if (!removed)
+        {
+            list.appendTag(data);
+        }
+    }
+
+    /**
+     * @return the journal files by generation, oldest first.
+     */
+    private SortedMap<Integer, File> listFiles()
+    {
+        SortedMap<Integer, File> files = new TreeMap<>();
+        File[] all = colonyDir.listFiles();
+        if (all != null)
+        {
+            for (File file : all)
+            {
+                Matcher matcher = JOURNAL_PATTERN.matcher(file.getName());
+                if (matcher.matches())
+                {
+                    files.put(Integer.parseInt(matcher.group(1)), file);
+                }
+            }
+        }
+        return files;
+    }
+
+    private File getFile(int gen)
+    {
+        return new File(colonyDir, String.format(FILENAME_JOURNAL, gen));
+    }
+}
@@ -3,24 +3,27 @@ package com.minecolonies.colony;
 import com.minecolonies.colony.buildings.AbstractBuilding;
 import com.minecolonies.colony.permissions.Permissions;
 import com.minecolonies.configuration.Configurations;
+import com.minecolonies.entity.ai.citizen.lumberjack.TreeIndex;
+import com.minecolonies.entity.pathfinding.ColonyRouteGraph;
+import com.minecolonies.entity.pathfinding.DistanceFields;
+import com.minecolonies.entity.pathfinding.PassabilityCache;
+import com.minecolonies.entity.pathfinding.PathCache;
 import com.minecolonies.util.LanguageHandler;
 import com.minecolonies.util.Log;
+import com.minecolonies.util.TickProfiler;
 import io.netty.buffer.ByteBuf;
 import net.minecraft.client.Minecraft;
 import net.minecraft.entity.player.EntityPlayer;
-import net.minecraft.nbt.CompressedStreamTools;
-import net.minecraft.nbt.NBTTagCompound;
-import net.minecraft.nbt.NBTTagList;
+import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraft.util.BlockPos;
 import net.minecraft.world.World;
 import net.minecraftforge.common.DimensionManager;
-import net.minecraftforge.common.util.Constants.NBT;
 import net.minecraftforge.fml.common.gameevent.TickEvent;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
 
 import java.io.File;
-import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Singleton class that links colonies to minecraft.
@@ -29,17 +32,29 @@ public final class ColonyManager
 {
     private static          Map<Integer, Colony>       colonies                     = new HashMap<>();
     private static          Map<Integer, List<Colony>> coloniesByWorld              = new HashMap<>();
+    private static final    BuildingIndex<AbstractBuilding> buildingIndex           = new BuildingIndex<>();
     private static          int                        topColonyId                  = 0;
+    private static final    ColonyIndex<Colony>        colonyIndex                  = new ColonyIndex<>();
 
     private static          Map<Integer, ColonyView>   colonyViews                  = new HashMap<>();
+    private static final    ColonyIndex<ColonyView>    colonyViewIndex              = new ColonyIndex<>();
+    private static final    BuildingIndex<AbstractBuilding.View> buildingViewIndex  = new BuildingIndex<>();
+
+    /**
+     * Saved colonies which are not loaded, see {@link #unloadIdleColonies()}.
+     */
+    private static final    Map<Integer, ColonyHeader>         unloaded                = new HashMap<>();
+    private static final    ColonyIndex<ColonyHeader>          unloadedIndex           = new ColonyIndex<>();
+    private static final    Map<Integer, Long>                 idleSince               = new HashMap<>();
 
     // Used to trigger loading/unloading colonies
     private static          int                         numWorldsLoaded;
-    private static          boolean                     saveNeeded;
+    private static          ColonyStorage               storage;
+
+    //  Once a minute
+    private static final    int                         UNLOAD_CHECK_PERIOD         = 60 * 20;
 
     private static final    String                      FILENAME_MINECOLONIES_PATH  = "minecolonies";
-    private static final    String                      FILENAME_MINECOLONIES       = "colonies.dat";
-    private static final    String                      TAG_COLONIES                = "colonies";
 
     private ColonyManager()
     {
@@ -56,22 +71,14 @@ public final class ColonyManager
      */
     public static Colony createColony(World w, BlockPos pos, EntityPlayer player)
     {
-        ++topColonyId;
-        Colony colony = new Colony(topColonyId, w, pos);
-        colonies.put(colony.getID(), colony);
-
-        if (!coloniesByWorld.containsKey(colony.getDimensionId()))
-        {
-            coloniesByWorld.put(colony.getDimensionId(), new ArrayList<>());
-        }
-
-        coloniesByWorld.get(colony.getDimensionId()).add(colony);
+        Colony colony = new Colony(topColonyId + 1, w, pos);
+        addColony(colony);
 
         String colonyName = LanguageHandler.format("com.minecolonies.gui.townHall.defaultName", player.getDisplayNameString());
         colony.setName(colonyName);
         colony.getPermissions().setPlayerRank(player.getGameProfile().getId(), Permissions.Rank.OWNER);
 
-        markDirty();
+        ColonyJournal.onColonyCreated(colony);
 
         Log.logger.info(String.format("New Colony %d", colony.getID()));
 
@@ -79,14 +86,28 @@ public final class ColonyManager
     }
 
     /**
-     * Get Colony by UUID
+     * Get Colony by UUID, loading it if needed.
      *
      * @param id    ID of colony
      * @return Colony with given ID
      */
     public static Colony getColony(int id)
     {
-        return colonies.get(id);
+        Colony colony = colonies.get(id);
+        if (colony == null && unloaded.containsKey(id))
+        {
+            colony = loadColony(id);
+        }
+        return colony;
+    }
+
+    /**
+     * @param colony    a colony
+     * @return          true if the colony is registered, and not just loading or unloaded
+     */
+    static boolean isLoaded(Colony colony)
+    {
+        return colonies.get(colony.getID()) == colony;
     }
 
     /**
@@ -98,21 +119,16 @@ public final class ColonyManager
      */
     public static Colony getColony(World w, BlockPos pos)
     {
-        List<Colony> coloniesInWorld = coloniesByWorld.get(w.provider.getDimensionId());
-        if (coloniesInWorld == null)
-        {
-            return null;
-        }
-
-        for (Colony c : coloniesInWorld)
+        Colony colony = colonyIndex.getColony(w, pos);
+        if (colony == null)
         {
-            if (c.isCoordInColony(w, pos))
+            ColonyHeader header = unloadedIndex.getColony(w, pos);
+            if (header != null)
             {
-                return c;
+                return loadColony(header.getId());
             }
         }
-
-        return null;
+        return colony;
     }
 
     /**
@@ -124,29 +140,13 @@ public final class ColonyManager
      */
     private static Colony getClosestColony(World w, BlockPos pos)
     {
-        List<Colony> coloniesInWorld = coloniesByWorld.get(w.provider.getDimensionId());
-        if (coloniesInWorld == null)
+        Colony colony = colonyIndex.getClosest(w.provider.getDimensionId(), pos);
+        ColonyHeader header = unloadedIndex.getClosest(w.provider.getDimensionId(), pos);
+        if (header != null && (colony == null || header.getDistanceSquared(pos) < colony.getDistanceSquared(pos)))
         {
-            return null;
+            return loadColony(header.getId());
         }
-
-        Colony closestColony = null;
-        float closestDist = Float.MAX_VALUE;
-
-        for (Colony c : coloniesInWorld)
-        {
-            if (c.getDimensionId() == w.provider.getDimensionId())
-            {
-                float dist = c.getDistanceSquared(pos);
-                if (dist < closestDist)
-                {
-                    closestColony = c;
-                    closestDist = dist;
-                }
-            }
-        }
-
-        return closestColony;
+        return colony;
     }
 
     /**
@@ -157,11 +157,22 @@ public final class ColonyManager
      */
     private static IColony getColonyByOwner(UUID owner)
     {
-        return colonies.values()
+        Colony colony = colonies.values()
                 .stream()
-                .filter(c -> c.getPermissions().getOwner().equals(owner))
+                .filter(c -> owner.equals(c.getPermissions().getOwner()))
                 .findFirst()
                 .orElse(null);
+        if (colony == null)
+        {
+            for (ColonyHeader header : new ArrayList<>(unloaded.values()))
+            {
+                if (owner.equals(header.getOwner()))
+                {
+                    return loadColony(header.getId());
+                }
+            }
+        }
+        return colony;
     }
 
     /**
@@ -173,51 +184,64 @@ public final class ColonyManager
      */
     public static AbstractBuilding getBuilding(World w, BlockPos pos)
     {
-        Colony colony = getColony(w, pos);
-        if (colony != null)
-        {
-            AbstractBuilding building = colony.getBuilding(pos);
-            if (building != null)
-            {
-                return building;
-            }
-        }
+        //  Also finds buildings outside of their owning colony's radius
+        return buildingIndex.get(w.provider.getDimensionId(), pos);
+    }
 
-        //  Fallback - there might be a AbstractBuilding for this block, but it's outside of it's owning colony's radius
-        if (coloniesByWorld.containsKey(w.provider.getDimensionId()))
-        {
-            for (Colony otherColony : coloniesByWorld.get(w.provider.getDimensionId()))
-            {
-                AbstractBuilding building = otherColony.getBuilding(pos);
-                if (building != null)
-                {
-                    return building;
-                }
-            }
-        }
+    /**
+     * Called when a building was added to a colony.
+     *
+     * @param colony    Colony of the building
+     * @param building  the building
+     */
+    static void onBuildingAdded(Colony colony, AbstractBuilding building)
+    {
+        buildingIndex.put(colony.getDimensionId(), building.getLocation(), building);
+    }
 
-        return null;
+    /**
+     * Called when a building was removed from a colony.
+     *
+     * @param colony    Colony of the building
+     * @param building  the building
+     */
+    static void onBuildingRemoved(Colony colony, AbstractBuilding building)
+    {
+        buildingIndex.remove(colony.getDimensionId(), building.getLocation(), building);
     }
 
     /**
-     * Get a AbstractBuilding by position.
+     * Get a AbstractBuilding.View by a World and coordinates.
      *
-     * @param pos    Block position
+     * @param w     World
+     * @param pos   Block position
      * @return      Returns the view belonging to the building at (x, y, z)
      */
-    public static AbstractBuilding.View getBuildingView(BlockPos pos)
+    public static AbstractBuilding.View getBuildingView(World w, BlockPos pos)
     {
-        //  On client we will just check all known views
-        for (ColonyView colony : colonyViews.values())
-        {
-            AbstractBuilding.View building = colony.getBuilding(pos);
-            if (building != null)
-            {
-                return building;
-            }
-        }
+        return buildingViewIndex.get(w.provider.getDimensionId(), pos);
+    }
 
-        return null;
+    /**
+     * Called when a building view was added to or updated in a colony view.
+     *
+     * @param view      ColonyView of the building
+     * @param building  the building view
+     */
+    static void onBuildingViewAdded(ColonyView view, AbstractBuilding.View building)
+    {
+        buildingViewIndex.put(view.getDimensionId(), building.getID(), building);
+    }
+
+    /**
+     * Called when a building view was removed from a colony view.
+     *
+     * @param view      ColonyView of the building
+     * @param building  the building view
+     */
+    static void onBuildingViewRemoved(ColonyView view, AbstractBuilding.View building)
+    {
+        buildingViewIndex.remove(view.getDimensionId(), building.getID(), building);
     }
 
     /**
@@ -241,15 +265,7 @@ public final class ColonyManager
      */
     private static ColonyView getColonyView(World w, BlockPos pos)
     {
-        for (ColonyView c : colonyViews.values())
-        {
-            if (c.isCoordInColony(w, pos))
-            {
-                return c;
-            }
-        }
-
-        return null;
+        return colonyViewIndex.getColony(w, pos);
     }
 
     /**
@@ -261,23 +277,7 @@ public final class ColonyManager
      */
     public static ColonyView getClosestColonyView(World w, BlockPos pos)
     {
-        ColonyView closestColony = null;
-        float closestDist = Float.MAX_VALUE;
-
-        for (ColonyView c : colonyViews.values())
-        {
-            if (c.getDimensionId() == w.provider.getDimensionId())
-            {
-                float dist = c.getDistanceSquared(pos);
-                if (dist < closestDist)
-                {
-                    closestColony = c;
-                    closestDist = dist;
-                }
-            }
-        }
-
-        return closestColony;
+        return colonyViewIndex.getClosest(w.provider.getDimensionId(), pos);
     }
 
     /**
@@ -380,14 +380,21 @@ public final class ColonyManager
      */
     public static void onServerTick(TickEvent.ServerTickEvent event)
     {
-        for (Colony c : colonies.values())
+        //  Colonies may load while others tick
+        for (Colony c : new ArrayList<>(colonies.values()))
         {
             c.onServerTick(event);
         }
 
-        if (saveNeeded)
+        if (event.phase == TickEvent.Phase.END)
         {
-            saveColonies();
+            TickProfiler.onServerTick();
+            ColonyScheduler.onServerTick();
+
+            if (storage != null)
+            {
+                storage.onServerTick(colonies.values(), topColonyId);
+            }
         }
     }
 
@@ -402,146 +409,187 @@ public final class ColonyManager
         {
             //  Player has left the game, clear the Colony View cache
             colonyViews.clear();
+            colonyViewIndex.clear();
+            buildingViewIndex.clear();
         }
     }
 
     /**
-     * On world tick, tick every Colony in that world.
-     * NOTE: Review this for performance
+     * Register a loaded or new colony.
      *
-     * @param event     {@link net.minecraftforge.fml.common.gameevent.TickEvent.WorldTickEvent}
+     * @param colony    the colony
      */
-    public static void onWorldTick(
-            TickEvent.WorldTickEvent event)
+    private static void addColony(Colony colony)
     {
-        colonies.values().stream()
-                .filter(c -> c.getDimensionId() == event.world.provider.getDimensionId())
-                .forEach(c -> c.onWorldTick(event));
-    }
+        colonies.put(colony.getID(), colony);
 
-    /**
-     * Read Colonies from saved NBT data
-     *
-     * @param compound   NBT Tag
-     */
-    public static void readFromNBT(NBTTagCompound compound)
-    {
-        NBTTagList colonyTags = compound.getTagList(TAG_COLONIES, NBT.TAG_COMPOUND);
-        for (int i = 0; i < colonyTags.tagCount(); ++i)
+        if (!coloniesByWorld.containsKey(colony.getDimensionId()))
         {
-            Colony colony = Colony.loadColony(colonyTags.getCompoundTagAt(i));
-            colonies.put(colony.getID(), colony);
-
-            if (!coloniesByWorld.containsKey(colony.getDimensionId()))
-            {
-                coloniesByWorld.put(colony.getDimensionId(), new ArrayList<>());
-            }
-            coloniesByWorld.get(colony.getDimensionId()).add(colony);
-
-            topColonyId = Math.max(topColonyId, colony.getID());
+            coloniesByWorld.put(colony.getDimensionId(), new ArrayList<>());
         }
+        coloniesByWorld.get(colony.getDimensionId()).add(colony);
+        colonyIndex.add(colony);
 
-        Log.logger.info(String.format("Loaded %d colonies", colonies.size()));
+        topColonyId = Math.max(topColonyId, colony.getID());
     }
 
     /**
-     * Write colonies to NBT data for saving
+     * Drop a colony from memory; it is loaded again when it is needed.
      *
-     * @param compound      NBT-Tag
+     * @param colony    the colony
      */
-    public static void writeToNBT(NBTTagCompound compound)
+    private static void removeColony(Colony colony)
     {
-        NBTTagList colonyTagList = new NBTTagList();
-        for(Colony colony : colonies.values())
+        colonies.remove(colony.getID());
+        List<Colony> worldColonies = coloniesByWorld.get(colony.getDimensionId());
+        worldColonies.remove(colony);
+        if (worldColonies.isEmpty())
         {
-            NBTTagCompound colonyTagCompound = new NBTTagCompound();
-            colony.writeToNBT(colonyTagCompound);
-            colonyTagList.appendTag(colonyTagCompound);
+            coloniesByWorld.remove(colony.getDimensionId());
         }
-        compound.setTag(TAG_COLONIES, colonyTagList);
+        colonyIndex.remove(colony);
+        for (AbstractBuilding building : colony.getBuildings().values())
+        {
+            onBuildingRemoved(colony, building);
+        }
+        idleSince.remove(colony.getID());
+
+        colony.onUnload();
     }
 
     /**
-     * Get save location for Minecolonies data, from the world/save directory
-     *
-     * @return      Save file for minecolonies
+     * Load the headers of the colonies of the world and those colonies which are needed right away.
+     * Other colonies are loaded when a chunk in their range loads, one of their players logs in, or they are looked up.
      */
-    private static File getSaveLocation()
+    private static void loadColonies()
     {
         File saveDir = new File(DimensionManager.getWorld(0).getSaveHandler().getWorldDirectory(), FILENAME_MINECOLONIES_PATH);
-        return new File(saveDir, FILENAME_MINECOLONIES);
+        storage = new ColonyStorage(saveDir);
+        storage.load().forEach(ColonyManager::addColony);
+        topColonyId = Math.max(topColonyId, storage.getTopColonyId());
+        for (ColonyHeader header : storage.getHeaders())
+        {
+            if (!colonies.containsKey(header.getId()))
+            {
+                addUnloaded(header);
+            }
+        }
+        ColonyScheduler.register("colony unloading", UNLOAD_CHECK_PERIOD, 100, ColonyManager::unloadIdleColonies);
+
+        Log.logger.info(String.format("Loaded %d of %d colonies", colonies.size(), colonies.size() + unloaded.size()));
     }
 
     /**
-     * Load a file and return the data as an NBTTagCompound
+     * Load a colony which is not loaded.
      *
-     * @param file  The path to the file
-     * @return      the data from the file as an NBTTagCompound, or null
+     * @param id    ID of the colony
+     * @return      the colony, or null if it could not be loaded
      */
-    private static NBTTagCompound loadNBTFromPath(
-            File file)
+    private static Colony loadColony(int id)
     {
-        try
+        //  Removed first, so looking the colony up while it loads does not load it again
+        ColonyHeader header = unloaded.get(id);
+        removeUnloaded(header);
+        Colony colony = storage.loadColony(id);
+        if (colony == null)
         {
-            if (file != null && file.exists())
-            {
-                return CompressedStreamTools.read(file);
-            }
+            addUnloaded(header);
+            return null;
         }
-        catch (IOException exception)
+
+        addColony(colony);
+        World world = DimensionManager.getWorld(colony.getDimensionId());
+        if (world != null)
         {
-            Log.logger.error("Exception when loading ColonyManger", exception);
+            colony.onWorldLoad(world);
         }
-        return null;
+
+        Log.logger.info(String.format("Loaded colony %d", id));
+        return colony;
+    }
+
+    private static void addUnloaded(ColonyHeader header)
+    {
+        unloaded.put(header.getId(), header);
+        unloadedIndex.add(header);
+    }
+
+    private static void removeUnloaded(ColonyHeader header)
+    {
+        unloaded.remove(header.getId());
+        unloadedIndex.remove(header);
     }
 
     /**
-     * Save an NBTTagCompound to a file.  Does so in a safe manner using an intermediate tmp file
-     *
-     * @param file      The destination file to write the data to
-     * @param compound  The NBTTagCompound to write to the file
+     * Unload colonies which were idle for {@link Configurations#colonyUnloadMinutes}, see {@link Colony#isIdle()}.
+     * A colony is only unloaded once its file is written; until then it is saved and checked again next time.
      */
-    private static void saveNBTToPath(File file, NBTTagCompound compound)
+    private static void unloadIdleColonies()
     {
-        try
+        if (Configurations.colonyUnloadMinutes <= 0 || storage == null)
+        {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        long timeout = TimeUnit.MINUTES.toMillis(Configurations.colonyUnloadMinutes);
+        List<Colony> idle = new ArrayList<>();
+        for (Colony colony : colonies.values())
         {
-            if (file != null)
+            if (!colony.isIdle())
+            {
+                idleSince.remove(colony.getID());
+            }
+            else if (now - idleSince.computeIfAbsent(colony.getID(), id -> now) >= timeout)
             {
-                file.getParentFile().mkdir();
-                CompressedStreamTools.safeWrite(compound, file);
+                idle.add(colony);
             }
         }
-        catch (IOException exception)
+
+        if (idle.isEmpty())
+        {
+            return;
+        }
+        if (idle.stream().anyMatch(storage::isUnsaved))
+        {
+            storage.save(colonies.values(), topColonyId, Colony::isSaveNeeded);
+            return;
+        }
+        if (!storage.isSettled())
+        {
+            return;
+        }
+
+        for (Colony colony : idle)
         {
-            Log.logger.error("Exception when saving ColonyManager", exception);
+            removeColony(colony);
+            addUnloaded(ColonyHeader.of(colony));
+            Log.logger.info(String.format("Unloaded idle colony %d", colony.getID()));
         }
     }
 
     /**
-     * Save all the Colonies
+     * Save the Colonies which changed, including those with loaded citizens, whose jobs change all the time.
      */
     private static void saveColonies()
     {
-        NBTTagCompound compound = new NBTTagCompound();
-        writeToNBT(compound);
-
-        File file = getSaveLocation();
-        saveNBTToPath(file, compound);
-
-        saveNeeded = false;
+        if (storage != null)
+        {
+            storage.save(colonies.values(), topColonyId, colony -> colony.isSaveNeeded() || colony.isActive());
+        }
     }
 
     /**
-     * Specify that colonies should be saved.
+     * @return statistics of the colony saves, for reports.
      */
-    public static void markDirty()
+    public static String getSaveReport()
     {
-        saveNeeded = true;
+        return storage == null ? "Colony saves: no world loaded" : storage.getReport();
     }
 
     /**
      * When a world is loaded, Colonies in that world need to grab the reference to the World
-     * Additionally, when loading the first world, load all colonies.
+     * Additionally, when loading the first world, load the colonies, see {@link #loadColonies()}.
      *
      * @param world     World
      */
@@ -551,12 +599,7 @@ public final class ColonyManager
         {
             if (numWorldsLoaded == 0)
             {
-                File file = getSaveLocation();
-                NBTTagCompound data = loadNBTFromPath(file);
-                if (data != null)
-                {
-                    readFromNBT(data);
-                }
+                loadColonies();
             }
             ++numWorldsLoaded;
 
@@ -569,7 +612,144 @@ public final class ColonyManager
                 }
             }
 
-            world.addWorldAccess(new ColonyManagerWorldAccess());
+            world.addWorldAccess(new ColonyManagerWorldAccess(world));
+        }
+    }
+
+    /**
+     * Called for every block change in a server world, see {@link ColonyManagerWorldAccess}.
+     *
+     * @param world     World
+     * @param pos       Block position
+     */
+    public static void onBlockChanged(World world, BlockPos pos)
+    {
+        AbstractBuilding building = buildingIndex.get(world.provider.getDimensionId(), pos);
+        if (building != null)
+        {
+            building.getColony().onBuildingBlockChanged(building);
+        }
+
+        PassabilityCache.onBlockChanged(world, pos);
+        PathCache.onBlockChanged(world, pos);
+        ColonyRouteGraph.onBlockChanged(world, pos);
+        DistanceFields.onBlockChanged(world, pos);
+        TreeIndex.onBlockChanged(world, pos);
+    }
+
+    /**
+     * Called when a player logged in or respawned; checks its subscriptions to all colonies.
+     *
+     * @param player    the player
+     */
+    public static void onPlayerJoined(EntityPlayerMP player)
+    {
+        for (ColonyHeader header : new ArrayList<>(unloaded.values()))
+        {
+            if (header.getSubscribers().contains(player.getGameProfile().getId()))
+            {
+                loadColony(header.getId());
+            }
+        }
+
+        for (Colony c : colonies.values())
+        {
+            //  A respawned player is a new entity; drop the old one first
+            c.unsubscribe(player);
+            c.updateSubscription(player);
+        }
+    }
+
+    /**
+     * Called when a player logged out; unsubscribes it from all colonies.
+     *
+     * @param player    the player
+     */
+    public static void onPlayerLeft(EntityPlayer player)
+    {
+        for (Colony c : colonies.values())
+        {
+            c.unsubscribe(player);
+        }
+    }
+
+    /**
+     * Called when a player changed dimension; checks its subscriptions to the colonies of both dimensions.
+     *
+     * @param player    the player
+     * @param fromDim   the dimension it left
+     */
+    public static void onPlayerChangedDimension(EntityPlayerMP player, int fromDim)
+    {
+        updateSubscriptions(player, fromDim);
+        updateSubscriptions(player, player.dimension);
+    }
+
+    /**
+     * Called when a player entered another chunk; checks its subscriptions to the colonies of its dimension.
+     * Distances are only checked at chunk borders, which is precise enough for subscriptions.
+     *
+     * @param player    the player
+     */
+    public static void onPlayerEnteredChunk(EntityPlayerMP player)
+    {
+        updateSubscriptions(player, player.dimension);
+    }
+
+    private static void updateSubscriptions(EntityPlayerMP player, int dimension)
+    {
+        List<Colony> worldColonies = coloniesByWorld.get(dimension);
+        if (worldColonies != null)
+        {
+            for (Colony c : worldColonies)
+            {
+                c.updateSubscription(player);
+            }
+        }
+    }
+
+    /**
+     * Called when a chunk of a server world loads.
+     *
+     * @param world     World
+     * @param chunkX    chunk x
+     * @param chunkZ    chunk z
+     */
+    public static void onChunkLoad(World world, int chunkX, int chunkZ)
+    {
+        notifyChunkChanged(world, chunkX, chunkZ, true);
+    }
+
+    /**
+     * Called when a chunk of a server world unloads.
+     *
+     * @param world     World
+     * @param chunkX    chunk x
+     * @param chunkZ    chunk z
+     */
+    public static void onChunkUnload(World world, int chunkX, int chunkZ)
+    {
+        PassabilityCache.onChunkUnload(world, chunkX, chunkZ);
+        notifyChunkChanged(world, chunkX, chunkZ, false);
+    }
+
+    private static void notifyChunkChanged(World world, int chunkX, int chunkZ, boolean isLoaded)
+    {
+        if (isLoaded)
+        {
+            for (ColonyHeader header : unloadedIndex.getColonies(world.provider.getDimensionId(), chunkX, chunkZ))
+            {
+                loadColony(header.getId());
+            }
+        }
+
+        List<Colony> worldColonies = coloniesByWorld.get(world.provider.getDimensionId());
+        if (worldColonies != null)
+        {
+            for (Colony c : worldColonies)
+            {
+                c.onChunkChanged(chunkX, chunkZ, isLoaded);
+            }
         }
     }
 
@@ -606,11 +786,29 @@ public final class ColonyManager
                 }
             }
 
+            PassabilityCache.onWorldUnload(world);
+            PathCache.onWorldUnload(world);
+            ColonyRouteGraph.onWorldUnload(world);
+            DistanceFields.onWorldUnload(world);
+            TreeIndex.onWorldUnload(world);
+
             --numWorldsLoaded;
             if (numWorldsLoaded == 0)
             {
                 colonies.clear();
                 coloniesByWorld.clear();
+                unloaded.clear();
+                unloadedIndex.clear();
+                idleSince.clear();
+                colonyIndex.clear();
+                buildingIndex.clear();
+                ColonyScheduler.clear();
+                if (storage != null)
+                {
+                    storage.close();
+                    storage = null;
+                }
+                topColonyId = 0;
             }
         }
     }
@@ -632,7 +830,23 @@ public final class ColonyManager
             colonyViews.put(colonyId, view);
         }
 
-        return view.handleColonyViewMessage(colonyData, isNewSubscription);
+        int oldDimension = view.getDimensionId();
+        BlockPos oldCenter = view.getCenter();
+        //  A new subscription replaces all buildings, and a new dimension moves them
+        for (AbstractBuilding.View building : view.getBuildings().values())
+        {
+            onBuildingViewRemoved(view, building);
+        }
+        IMessage response = view.handleColonyViewMessage(colonyData, isNewSubscription);
+        for (AbstractBuilding.View building : view.getBuildings().values())
+        {
+            onBuildingViewAdded(view, building);
+        }
+        if (oldDimension != view.getDimensionId() || !view.getCenter().equals(oldCenter))
+        {
+            colonyViewIndex.add(view);
+        }
+        return response;
     }
 
     /**
@@ -5,16 +5,29 @@ import net.minecraft.entity.Entity;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.util.BlockPos;
 import net.minecraft.world.IWorldAccess;
+import net.minecraft.world.World;
 
 /**
- * Allows us to respond to entity addition and removal events.
+ * Allows us to respond to entity addition and removal events, and to block changes.
  */
 public class ColonyManagerWorldAccess implements IWorldAccess
 {
+    private final World world;
+
+    /**
+     * Create the access for a world.
+     *
+     * @param world the world this access gets registered with.
+     */
+    public ColonyManagerWorldAccess(World world)
+    {
+        this.world = world;
+    }
+
     @Override
     public void markBlockForUpdate(BlockPos pos)
     {
-        // We don't care about this.
+        ColonyManager.onBlockChanged(world, pos);
     }
 
     @Override
@@ -62,7 +75,8 @@ public class ColonyManagerWorldAccess implements IWorldAccess
         if (entity instanceof EntityCitizen)
         {
             CitizenData citizen = ((EntityCitizen) entity).getCitizenData();
-            if (citizen != null)
+            //  A duplicate which was killed off must not unregister the citizen's entity
+            if (citizen != null && citizen.getCitizenEntity() == entity)
             {
                 citizen.setCitizenEntity(null);
             }
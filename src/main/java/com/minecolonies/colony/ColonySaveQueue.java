@@ -0,0 +1,611 @@
+package com.minecolonies.colony;
+
+import com.minecolonies.configuration.Configurations;
+import com.minecolonies.util.Log;
+import net.minecraft.nbt.CompressedStreamTools;
+import net.minecraft.nbt.NBTTagCompound;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes colony files on a background thread. The server thread only takes a snapshot, the uncompressed NBT bytes;
+ * compressing and writing happens on the writer thread, into a temporary file which then replaces the old file.
+ * A newer snapshot of a file replaces one which is still waiting. If more than {@link #MAX_PENDING_BYTES} wait,
+ * the server thread waits for the writer, instead of piling up snapshots.
+ * Snapshots are NBT, or the format of {@link ColonyCodec} if {@link Configurations#compactColonySaves} is set.
+ * Besides snapshots, the queue appends to files, like the {@link ColonyJournal}, and runs tasks after everything
+ * queued before them was written.
+ */
+final class ColonySaveQueue
+{
+    private static final long   MAX_PENDING_BYTES = 64L * 1024 * 1024;
+    private static final String SUFFIX_TMP        = ".tmp";
+    private static final int    GZIP_MAGIC        = 0x1f8b;
+
+    private final Object           lock    = new Object();
+    /**
+     * Waiting jobs, by file for snapshots and by the job itself otherwise.
+     */
+    private final Map<Object, Job> pending = new LinkedHashMap<>();
+    @Nullable
+    private Job     writing;
+    /**
+     * The last waiting job if it appends, so later appends to its file join it.
+     */
+    @Nullable
+    private Append  openAppend;
+    private long    pendingBytes = 0;
+    private boolean closed       = false;
+
+    /**
+     * Colonies whose snapshot or journal records could not be written; the server thread marks them for the next save.
+     */
+    private final Queue<Integer> failed = new ConcurrentLinkedQueue<>();
+
+    private final Thread thread;
+    private final Thread shutdownHook;
+
+    //  Statistics, guarded by lock
+    private long writes         = 0;
+    private long bytesWritten   = 0;
+    private long totalLatency   = 0;
+    private long maxLatency     = 0;
+    private long coalesced      = 0;
+    private long stalls         = 0;
+    private long failures       = 0;
+    private long appendFailures = 0;
+
+    ColonySaveQueue()
+    {
+        thread = new Thread(this::run, "MineColonies Save");
+        thread.setDaemon(true);
+        thread.start();
+
+        //  Daemon threads stop with the server, so make sure waiting snapshots still get written
+        shutdownHook = new Thread(this::flush, "MineColonies Save Flush");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    /**
+     * Take a snapshot of a compound and queue it to be written. Server thread only.
+     *
+     * @param file     the file.
+     * @param compound the data, which may change again as soon as this returns.
+     * @param colonyId id of the colony of the file, or -1.
+     */
+    void submit(File file, NBTTagCompound compound, int colonyId)
+    {
+        byte[] data = Configurations.compactColonySaves ? ColonyCodec.encode(compound) : toBytes(compound);
+        Snapshot snapshot = new Snapshot(file, data, colonyId);
+        synchronized (lock)
+        {
+            if (closed)
+            {
+                snapshot.run();
+                return;
+            }
+
+            //  Colony files keep their place and the index moves to the end, so the index is never written
+            //  before the files of the colonies it lists
+            Job replaced = colonyId < 0 ? pending.remove(file) : pending.get(file);
+            if (replaced != null)
+            {
+                pendingBytes -= replaced.size();
+                ++coalesced;
+            }
+            add(file, snapshot);
+        }
+    }
+
+    /**
+     * Queue data to be appended to a file, and synced.
+     *
+     * @param file      the file.
+     * @param data      the data.
+     * @param colonyIds the colonies the data is about; if it can not be written, they are saved again.
+     */
+    void append(File file, byte[] data, Collection<Integer> colonyIds)
+    {
+        synchronized (lock)
+        {
+            if (openAppend != null && openAppend.file.equals(file))
+            {
+                //  Written and synced together
+                openAppend.data.write(data, 0, data.length);
+                openAppend.colonyIds.addAll(colonyIds);
+                pendingBytes += data.length;
+                return;
+            }
+
+            Append append = new Append(file);
+            append.data.write(data, 0, data.length);
+            append.colonyIds.addAll(colonyIds);
+            if (closed)
+            {
+                append.run();
+                return;
+            }
+            add(append, append);
+            openAppend = append;
+        }
+    }
+
+    /**
+     * Queue a task which runs on the writer thread, once everything queued before is written.
+     *
+     * @param task the task.
+     */
+    void execute(Runnable task)
+    {
+        Task job = new Task(task);
+        synchronized (lock)
+        {
+            if (closed)
+            {
+                job.run();
+                return;
+            }
+            add(job, job);
+        }
+    }
+
+    private void add(Object key, Job job)
+    {
+        if (pendingBytes > MAX_PENDING_BYTES)
+        {
+            ++stalls;
+            boolean interrupted = false;
+            while (pendingBytes > MAX_PENDING_BYTES && thread.isAlive())
+            {
+                interrupted |= awaitWriter();
+            }
+            restoreInterrupt(interrupted);
+        }
+
+        pending.put(key, job);
+        pendingBytes += job.size();
+        openAppend = null;
+        lock.notifyAll();
+    }
+
+    /**
+     * @return the next colony whose snapshot could not be written, or null.
+     */
+    @Nullable
+    Integer pollFailed()
+    {
+        return failed.poll();
+    }
+
+    /**
+     * @return true if everything queued was written, without failures which still have to be saved again.
+     */
+    boolean isSettled()
+    {
+        synchronized (lock)
+        {
+            return pending.isEmpty() && writing == null && failed.isEmpty();
+        }
+    }
+
+    /**
+     * @return the number of snapshots and appends which could not be written so far.
+     */
+    long getFailureCount()
+    {
+        synchronized (lock)
+        {
+            return failures;
+        }
+    }
+
+    /**
+     * @return the number of appends which could not be written so far.
+     */
+    long getAppendFailureCount()
+    {
+        synchronized (lock)
+        {
+            return appendFailures;
+        }
+    }
+
+    /**
+     * Wait until every queued job is done.
+     */
+    void flush()
+    {
+        synchronized (lock)
+        {
+            boolean interrupted = false;
+            while ((!pending.isEmpty() || writing != null) && thread.isAlive())
+            {
+                interrupted |= awaitWriter();
+            }
+            restoreInterrupt(interrupted);
+
+            //  The writer is gone, e.g. interrupted; write the rest here
+            for (Job job : pending.values())
+            {
+                job.run();
+            }
+            pending.clear();
+            pendingBytes = 0;
+            openAppend = null;
+        }
+    }
+
+    /**
+     * Write everything and stop the writer; later jobs run right away.
+     */
+    void close()
+    {
+        flush();
+        synchronized (lock)
+        {
+            closed = true;
+            lock.notifyAll();
+        }
+        try
+        {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        }
+        catch (IllegalStateException e)
+        {
+            //  Already shutting down, the hook is running
+        }
+    }
+
+    /**
+     * Wait for the writer to finish a job; holding the lock.
+     * An interrupt does not end the wait, the caller still needs the writer to catch up; it only reports it, so the
+     * caller restores the interrupt once it is done waiting, see {@link #restoreInterrupt(boolean)}.
+     *
+     * @return true if the thread was interrupted.
+     */
+    private boolean awaitWriter()
+    {
+        try
+        {
+            lock.wait(TimeUnit.SECONDS.toMillis(1));
+            return false;
+        }
+        catch (InterruptedException e)
+        {
+            return true;
+        }
+    }
+
+    private static void restoreInterrupt(boolean interrupted)
+    {
+        if (interrupted)
+        {
+            Log.logger.warn("Interrupted while waiting for colony saves");
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run()
+    {
+        while (true)
+        {
+            Job job;
+            synchronized (lock)
+            {
+                while (pending.isEmpty() && !closed)
+                {
+                    try
+                    {
+                        lock.wait();
+                    }
+                    catch (InterruptedException e)
+                    {
+                        Log.logger.warn("Colony save thread interrupted", e);
+                        return;
+                    }
+                }
+                if (pending.isEmpty())
+                {
+                    return;
+                }
+
+                Iterator<Job> iterator = pending.values().iterator();
+                job = iterator.next();
+                iterator.remove();
+                pendingBytes -= job.size();
+                if (job == openAppend)
+                {
+                    openAppend = null;
+                }
+                writing = job;
+            }
+
+            job.run();
+
+            synchronized (lock)
+            {
+                writing = null;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    private void recordWrite(Job job, long size)
+    {
+        long latency = System.nanoTime() - job.created;
+        synchronized (lock)
+        {
+            ++writes;
+            bytesWritten += size;
+            totalLatency += latency;
+            maxLatency = Math.max(maxLatency, latency);
+        }
+    }
+
+    private static void move(File from, File to) throws IOException
+    {
+        try
+        {
+            Files.move(from.toPath(), to.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+        catch (AtomicMoveNotSupportedException e)
+        {
+            Files.move(from.toPath(), to.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Serialize a compound, uncompressed.
+     *
+     * @param compound the compound.
+     * @return its bytes.
+     */
+    static byte[] toBytes(NBTTagCompound compound)
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes))
+        {
+            CompressedStreamTools.write(compound, out);
+        }
+        catch (IOException e)
+        {
+            //  Cannot happen when writing to memory
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Load a file written by this queue in either format, or an uncompressed one of an older version.
+     *
+     * @param file  The path to the file
+     * @return      the data from the file as an NBTTagCompound, or null
+     */
+    @Nullable
+    static NBTTagCompound read(File file)
+    {
+        if (!file.exists())
+        {
+            return null;
+        }
+
+        try
+        {
+            byte[] data = Files.readAllBytes(file.toPath());
+            if (isCompressed(data))
+            {
+                data = decompress(data);
+            }
+            if (ColonyCodec.isEncoded(data))
+            {
+                return ColonyCodec.decode(data);
+            }
+            try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data)))
+            {
+                return CompressedStreamTools.read(in);
+            }
+        }
+        catch (IOException exception)
+        {
+            Log.logger.error("Exception when loading " + file, exception);
+            return null;
+        }
+    }
+
+    private static boolean isCompressed(byte[] data)
+    {
+        return data.length >= 2 && (((data[0] & 0xff) << 8) | (data[1] & 0xff)) == GZIP_MAGIC;
+    }
+
+    private static byte[] decompress(byte[] data) throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 4);
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(data)))
+        {
+            byte[] buffer = new byte[8192];
+            for (int read = in.read(buffer); read >= 0; read = in.read(buffer))
+            {
+                out.write(buffer, 0, read);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * @return statistics of the writes so far.
+     */
+    String getReport()
+    {
+        synchronized (lock)
+        {
+            return String.format("Colony saves: %d writes, %d KB, latency(avg/max)=%d/%d ms, %d coalesced, %d stalls, %d KB pending",
+                    writes,
+                    bytesWritten / 1024,
+                    writes == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalLatency / writes),
+                    TimeUnit.NANOSECONDS.toMillis(maxLatency),
+                    coalesced,
+                    stalls,
+                    pendingBytes / 1024);
+        }
+    }
+
+    /**
+     * Work for the writer thread.
+     */
+    private abstract static class Job
+    {
+        final long created = System.nanoTime();
+
+        /**
+         * @return the bytes this job holds.
+         */
+        abstract long size();
+
+        abstract void run();
+    }
+
+    /**
+     * Uncompressed data of a file, as it was when it was saved; compressed into a temporary file, which then
+     * replaces the old file.
+     */
+    private final class Snapshot extends Job
+    {
+        private final File   file;
+        private final byte[] data;
+        private final int    colonyId;
+
+        private Snapshot(File file, byte[] data, int colonyId)
+        {
+            this.file = file;
+            this.data = data;
+            this.colonyId = colonyId;
+        }
+
+        @Override
+        long size()
+        {
+            return data.length;
+        }
+
+        @Override
+        void run()
+        {
+            File tmp = new File(file.getPath() + SUFFIX_TMP);
+            try
+            {
+                file.getParentFile().mkdirs();
+                long size;
+                try (FileOutputStream out = new FileOutputStream(tmp))
+                {
+                    GZIPOutputStream gzip = new GZIPOutputStream(new BufferedOutputStream(out));
+                    gzip.write(data);
+                    gzip.finish();
+                    gzip.flush();
+                    out.getFD().sync();
+                    size = out.getChannel().size();
+                }
+                move(tmp, file);
+                recordWrite(this, size);
+            }
+            catch (IOException exception)
+            {
+                Log.logger.error("Exception when saving " + file, exception);
+                synchronized (lock)
+                {
+                    ++failures;
+                }
+                if (colonyId >= 0)
+                {
+                    failed.add(colonyId);
+                }
+            }
+        }
+    }
+
+    /**
+     * Data to append to a file.
+     */
+    private final class Append extends Job
+    {
+        private final File                  file;
+        private final ByteArrayOutputStream data      = new ByteArrayOutputStream();
+        private final Set<Integer>          colonyIds = new HashSet<>();
+
+        private Append(File file)
+        {
+            this.file = file;
+        }
+
+        @Override
+        long size()
+        {
+            return data.size();
+        }
+
+        @Override
+        void run()
+        {
+            try
+            {
+                file.getParentFile().mkdirs();
+                try (FileOutputStream out = new FileOutputStream(file, true))
+                {
+                    data.writeTo(out);
+                    out.getFD().sync();
+                }
+                recordWrite(this, data.size());
+            }
+            catch (IOException exception)
+            {
+                Log.logger.error("Exception when appending to " + file, exception);
+                synchronized (lock)
+                {
+                    ++failures;
+                    ++appendFailures;
+                }
+                failed.addAll(colonyIds);
+            }
+        }
+    }
+
+    /**
+     * A task to run after what was queued before it.
+     */
+    private static final class Task extends Job
+    {
+        private final Runnable task;
+
+        private Task(Runnable task)
+        {
+            this.task = task;
+        }
+
+        @Override
+        long size()
+        {
+            return 0;
+        }
+
+        @Override
+        void run()
+        {
+            try
+            {
+                task.run();
+            }
+            catch (RuntimeException e)
+            {
+                Log.logger.error("Colony save task failed", e);
+            }
+        }
+    }
+}
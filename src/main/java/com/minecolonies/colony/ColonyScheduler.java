@@ -0,0 +1,485 @@
+package com.minecolonies.colony;
+
+import com.minecolonies.configuration.Configurations;
+import com.minecolonies.util.Log;
+import com.minecolonies.util.TickProfiler;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs the periodic work of all colonies, like building ticks or subscriber updates, spread over the server ticks.
+ * Every task has a period and a cost estimate; new tasks get the phase which adds the least estimated cost to the
+ * ticks they run in. Each tick runs due tasks until {@link Configurations#colonyTickBudget} milliseconds are used;
+ * the rest waits for the next tick and counts as late.
+ * <p>
+ * Planned tasks are split in two phases: after the other due tasks ran, the plans of all due planned tasks run in
+ * parallel on {@link Configurations#colonyPlanThreads} threads while the server thread waits, and then the updates
+ * they returned are applied one after another on the server thread. Plans may read anything, since nothing else
+ * runs meanwhile, but must only change state of their own; world and network changes belong in the update.
+ * Everything else is server thread only.
+ */
+public final class ColonyScheduler
+{
+    /**
+     * Number of ticks over which the estimated cost is tracked when picking the phase of a new task.
+     */
+    private static final int WHEEL_SIZE = 256;
+
+    /**
+     * Weight of the newest measurement in a task's running cost estimate.
+     */
+    private static final double COST_SMOOTHING = 0.1D;
+
+    private static final long[]                  wheelCost = new long[WHEEL_SIZE];
+    private static final PriorityQueue<Task>     due       = new PriorityQueue<>();
+    private static final Set<Task>               tasks     = new LinkedHashSet<>();
+    private static final Map<String, Set<Task>>  groups    = new HashMap<>();
+    private static long                          tick      = 0;
+    private static long                          sequence  = 0;
+    @Nullable
+    private static ForkJoinPool                  planPool;
+
+    private ColonyScheduler()
+    {
+        //Hides default constructor.
+    }
+
+    /**
+     * Register a periodic task.
+     *
+     * @param name          name of the task in reports.
+     * @param period        ticks between two runs, at least 1.
+     * @param costEstimate  estimated run time in microseconds, used until the task has been measured.
+     * @param work          the work to do.
+     * @return the task, to cancel it later.
+     */
+    public static Task register(String name, int period, long costEstimate, Runnable work)
+    {
+        return register(null, name, period, costEstimate, work);
+    }
+
+    /**
+     * Register a periodic task which belongs to a group in the {@link TickProfiler}, e.g. its colony.
+     *
+     * @param group         group of the task, or null.
+     * @param name          name of the task in reports.
+     * @param period        ticks between two runs, at least 1.
+     * @param costEstimate  estimated run time in microseconds, used until the task has been measured.
+     * @param work          the work to do.
+     * @return the task, to cancel it later.
+     */
+    public static Task register(@Nullable String group, String name, int period, long costEstimate, Runnable work)
+    {
+        return add(new Task(group, name, Math.max(1, period), TimeUnit.MICROSECONDS.toNanos(costEstimate), work, null));
+    }
+
+    /**
+     * Register a periodic task which plans its work in parallel with other colonies, see {@link ColonyScheduler}.
+     *
+     * @param group         group of the task, or null.
+     * @param name          name of the task in reports.
+     * @param period        ticks between two runs, at least 1.
+     * @param costEstimate  estimated run time of plan and update in microseconds, used until the task has been measured.
+     * @param plan          reads the state and returns the update to apply on the server thread, or null.
+     * @return the task, to cancel it later.
+     */
+    public static Task registerPlanned(@Nullable String group, String name, int period, long costEstimate, Supplier<Runnable> plan)
+    {
+        return add(new Task(group, name, Math.max(1, period), TimeUnit.MICROSECONDS.toNanos(costEstimate), null, plan));
+    }
+
+    private static Task add(Task task)
+    {
+        task.nextRun = tick + pickPhase(task.period);
+        addToWheel(task, task.costEstimate);
+        tasks.add(task);
+        if (task.group != null)
+        {
+            groups.computeIfAbsent(task.group, key -> new HashSet<>()).add(task);
+        }
+        due.add(task);
+        return task;
+    }
+
+    /**
+     * Pick the offset of a new task within its period whose ticks carry the least estimated cost.
+     */
+    private static int pickPhase(int period)
+    {
+        int bestPhase = 0;
+        long bestCost = Long.MAX_VALUE;
+        for (int phase = 0; phase < Math.min(period, WHEEL_SIZE); ++phase)
+        {
+            long cost = 0;
+            for (int slot = phase; slot < WHEEL_SIZE; slot += period)
+            {
+                cost += wheelCost[(int) ((tick + slot) % WHEEL_SIZE)];
+            }
+            if (cost < bestCost)
+            {
+                bestCost = cost;
+                bestPhase = phase;
+            }
+        }
+        return bestPhase;
+    }
+
+    private static void addToWheel(Task task, long cost)
+    {
+        for (int slot = 0; slot < WHEEL_SIZE; slot += task.period)
+        {
+            wheelCost[(int) ((task.nextRun + slot) % WHEEL_SIZE)] += cost;
+        }
+    }
+
+    /**
+     * Run the tasks which are due, within the tick budget. Called once per server tick.
+     */
+    public static void onServerTick()
+    {
+        ++tick;
+        long budget = TimeUnit.MILLISECONDS.toNanos(Configurations.colonyTickBudget);
+        long tickStart = System.nanoTime();
+        boolean ranAny = false;
+        List<Task> planned = new ArrayList<>();
+        long plannedCost = 0;
+
+        while (!due.isEmpty() && due.peek().nextRun <= tick)
+        {
+            Task task = due.peek();
+            long elapsed = System.nanoTime() - tickStart + plannedCost;
+            //  Always run one task, so an expensive task cannot starve forever
+            if (budget > 0 && ranAny && elapsed + task.costEstimate > budget)
+            {
+                break;
+            }
+
+            due.poll();
+            if (task.cancelled)
+            {
+                continue;
+            }
+
+            if (task.plan == null)
+            {
+                run(task);
+            }
+            else
+            {
+                planned.add(task);
+                plannedCost += task.costEstimate / Math.max(1, Configurations.colonyPlanThreads);
+            }
+            ranAny = true;
+        }
+
+        runPlanned(planned);
+    }
+
+    private static void run(Task task)
+    {
+        task.recordLateness(tick - task.nextRun);
+
+        long start = System.nanoTime();
+        runSafely(task, task.work);
+        reschedule(task, System.nanoTime() - start);
+    }
+
+    /**
+     * Plan the tasks in parallel, then apply their updates in order.
+     */
+    private static void runPlanned(List<Task> planned)
+    {
+        if (planned.isEmpty())
+        {
+            return;
+        }
+
+        Runnable[] updates = new Runnable[planned.size()];
+        ForkJoinPool pool = planned.size() > 1 ? getPlanPool() : null;
+        if (pool == null)
+        {
+            for (int i = 0; i < updates.length; ++i)
+            {
+                updates[i] = plan(planned.get(i));
+            }
+        }
+        else
+        {
+            List<ForkJoinTask<Runnable>> plans = new ArrayList<>(planned.size());
+            for (Task task : planned)
+            {
+                plans.add(pool.submit(() -> plan(task)));
+            }
+            for (int i = 0; i < updates.length; ++i)
+            {
+                updates[i] = plans.get(i).join();
+            }
+        }
+
+        for (int i = 0; i < updates.length; ++i)
+        {
+            Task task = planned.get(i);
+            task.recordLateness(tick - task.nextRun);
+
+            long start = System.nanoTime();
+            if (updates[i] != null && !task.cancelled)
+            {
+                runSafely(task, updates[i]);
+            }
+            reschedule(task, task.planCost + System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Run the plan of a task, on any thread.
+     *
+     * @return the update, or null if there is none or the plan failed.
+     */
+    @Nullable
+    private static Runnable plan(Task task)
+    {
+        long start = System.nanoTime();
+        try
+        {
+            return task.plan.get();
+        }
+        catch (RuntimeException e)
+        {
+            Log.logger.error(String.format("Colony task %s failed to plan", task.name), e);
+            return null;
+        }
+        finally
+        {
+            task.planCost = System.nanoTime() - start;
+        }
+    }
+
+    private static void runSafely(Task task, Runnable work)
+    {
+        try
+        {
+            work.run();
+        }
+        catch (RuntimeException e)
+        {
+            Log.logger.error(String.format("Colony task %s failed", task.name), e);
+        }
+    }
+
+    /**
+     * @return the pool for plans, or null if plans run on the server thread.
+     */
+    @Nullable
+    private static ForkJoinPool getPlanPool()
+    {
+        if (Configurations.colonyPlanThreads <= 0)
+        {
+            return null;
+        }
+        if (planPool == null || planPool.getParallelism() != Configurations.colonyPlanThreads)
+        {
+            shutdownPlanPool();
+            planPool = new ForkJoinPool(Configurations.colonyPlanThreads, pool ->
+            {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName("MineColonies Planner " + thread.getPoolIndex());
+                return thread;
+            }, null, false);
+        }
+        return planPool;
+    }
+
+    private static void shutdownPlanPool()
+    {
+        if (planPool != null)
+        {
+            planPool.shutdown();
+            planPool = null;
+        }
+    }
+
+    /**
+     * Record the cost of a run and put the task back in line.
+     */
+    private static void reschedule(Task task, long cost)
+    {
+        TickProfiler.record(task.group, task.name, cost);
+        if (task.cancelled)
+        {
+            //  Cancelled itself, e.g. a building which was removed by its own tick
+            return;
+        }
+
+        //  Move the task's share of the wheel along with its new estimate
+        addToWheel(task, -task.costEstimate);
+        task.costEstimate = task.runs == 1 ? cost : (long) (task.costEstimate * (1 - COST_SMOOTHING) + cost * COST_SMOOTHING);
+        task.nextRun = Math.max(task.nextRun + task.period, tick + 1);
+        task.sequence = sequence++;
+        addToWheel(task, task.costEstimate);
+        due.add(task);
+    }
+
+    /**
+     * Cancel all tasks of a group, e.g. when its colony unloads.
+     *
+     * @param group the group.
+     */
+    public static void cancelGroup(String group)
+    {
+        Set<Task> members = groups.remove(group);
+        if (members != null)
+        {
+            members.forEach(Task::cancel);
+        }
+    }
+
+    /**
+     * Drop all tasks, e.g. when the server stops.
+     */
+    public static void clear()
+    {
+        due.clear();
+        tasks.clear();
+        groups.clear();
+        Arrays.fill(wheelCost, 0);
+        shutdownPlanPool();
+    }
+
+    /**
+     * @return all registered tasks, for reports.
+     */
+    public static Collection<Task> getTasks()
+    {
+        return Collections.unmodifiableCollection(tasks);
+    }
+
+    /**
+     * @return a summary of the tasks which were late the most on average.
+     */
+    public static String getReport()
+    {
+        StringBuilder report = new StringBuilder(String.format("ColonyScheduler: %d tasks", tasks.size()));
+        tasks.stream()
+             .filter(task -> task.getMaxLateness() > 0)
+             .sorted((first, second) -> Double.compare(second.getAverageLateness(), first.getAverageLateness()))
+             .limit(10)
+             .forEach(task -> report.append(String.format("%n  %s: late(avg/max)=%.1f/%d ticks cost=%dus",
+                     task.name, task.getAverageLateness(), task.getMaxLateness(), TimeUnit.NANOSECONDS.toMicros(task.costEstimate))));
+        return report.toString();
+    }
+
+    /**
+     * A registered periodic task.
+     */
+    public static final class Task implements Comparable<Task>
+    {
+        private final String   group;
+        private final String   name;
+        private final int      period;
+        @Nullable
+        private final Runnable work;
+        @Nullable
+        private final Supplier<Runnable> plan;
+        private long    costEstimate;
+        private long    planCost;
+        private long    nextRun;
+        private long    sequence;
+        private boolean cancelled = false;
+
+        private long runs          = 0;
+        private long totalLateness = 0;
+        private long maxLateness   = 0;
+
+        private Task(String group, String name, int period, long costEstimate, @Nullable Runnable work, @Nullable Supplier<Runnable> plan)
+        {
+            this.group = group;
+            this.name = name;
+            this.period = period;
+            this.costEstimate = costEstimate;
+            this.work = work;
+            this.plan = plan;
+            this.sequence = ColonyScheduler.sequence++;
+        }
+
+        private void recordLateness(long lateness)
+        {
+            ++runs;
+            totalLateness += lateness;
+            maxLateness = Math.max(maxLateness, lateness);
+        }
+
+        /**
+         * Stop running this task.
+         */
+        public void cancel()
+        {
+            if (!cancelled)
+            {
+                cancelled = true;
+                addToWheel(this, -costEstimate);
+                tasks.remove(this);
+                Set<Task> members = group == null ? null : groups.get(group);
+                if (members != null)
+                {
+                    members.remove(this);
+                    if (members.isEmpty())
+                    {
+                        groups.remove(group);
+                    }
+                }
+            }
+        }
+
+        public String getName()
+        {
+            return name;
+        }
+
+        public int getPeriod()
+        {
+            return period;
+        }
+
+        /**
+         * @return the estimated run time in nanoseconds.
+         */
+        public long getCostEstimate()
+        {
+            return costEstimate;
+        }
+
+        public long getRuns()
+        {
+            return runs;
+        }
+
+        /**
+         * @return the average number of ticks the task ran after it was due.
+         */
+        public double getAverageLateness()
+        {
+            return runs == 0 ? 0 : (double) totalLateness / runs;
+        }
+
+        /**
+         * @return the most ticks the task ran after it was due.
+         */
+        public long getMaxLateness()
+        {
+            return maxLateness;
+        }
+
+        @Override
+        public int compareTo(Task other)
+        {
+            int result = Long.compare(nextRun, other.nextRun);
+            return result != 0 ? result : Long.compare(sequence, other.sequence);
+        }
+    }
+}
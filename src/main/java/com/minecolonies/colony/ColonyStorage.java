@@ -0,0 +1,335 @@
+package com.minecolonies.colony;
+
+import com.minecolonies.util.Log;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraftforge.common.util.Constants.NBT;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Saves every colony in a file of its own, so a save only writes the colonies which changed.
+ * An index file lists the saved colonies with their {@link ColonyHeader}, so colonies can be loaded when they are needed.
+ * Files are written in the background by a {@link ColonySaveQueue}. Changes between two saves of a colony are kept
+ * in a {@link ColonyJournal}, which is applied when the colonies are loaded.
+ * Worlds saved by older versions keep all colonies in one colonies.dat; it is split up on the first load and then
+ * renamed to colonies.dat.old.
+ */
+final class ColonyStorage
+{
+    private static final String FILENAME_COLONIES_PATH = "colonies";
+    private static final String FILENAME_INDEX         = "index.dat";
+    private static final String FILENAME_COLONY        = "colony%d.dat";
+    private static final String FILENAME_LEGACY        = "colonies.dat";
+    private static final String SUFFIX_MIGRATED        = ".old";
+
+    private static final String TAG_COLONIES = "colonies";
+    private static final String TAG_TOP_ID   = "topColonyId";
+    private static final String TAG_ID       = "id";
+
+    private final File            saveDir;
+    private final File            colonyDir;
+    private final ColonySaveQueue queue = new ColonySaveQueue();
+    private final ColonyJournal   journal;
+
+    /**
+     * Headers of the colonies which have a file, as they were saved.
+     */
+    private final Map<Integer, ColonyHeader> headers = new TreeMap<>();
+    /**
+     * The index as it was last read or written.
+     */
+    @Nullable
+    private NBTTagCompound index;
+    private int topColonyId = 0;
+
+    /**
+     * Create the storage in a folder.
+     *
+     * @param saveDir the minecolonies folder of the world.
+     */
+    ColonyStorage(File saveDir)
+    {
+        this.saveDir = saveDir;
+        this.colonyDir = new File(saveDir, FILENAME_COLONIES_PATH);
+        this.journal = new ColonyJournal(colonyDir, queue);
+    }
+
+    /**
+     * Read the index and load the colonies which have records in the journal, converting the save of an older
+     * version if there is one. Other colonies are loaded with {@link #loadColony} when they are needed.
+     *
+     * @return the loaded colonies.
+     */
+    List<Colony> load()
+    {
+        Map<Integer, NBTTagCompound> compounds = new TreeMap<>();
+        File legacyFile = new File(saveDir, FILENAME_LEGACY);
+        index = ColonySaveQueue.read(new File(colonyDir, FILENAME_INDEX));
+        boolean migrating = index == null && legacyFile.exists();
+        long sequence = 0;
+        if (index != null)
+        {
+            topColonyId = index.getInteger(TAG_TOP_ID);
+            sequence = index.getLong(ColonyJournal.TAG_SEQUENCE);
+            NBTTagList headerTags = index.getTagList(TAG_COLONIES, NBT.TAG_COMPOUND);
+            for (int i = 0; i < headerTags.tagCount(); ++i)
+            {
+                ColonyHeader header = ColonyHeader.readFromNBT(headerTags.getCompoundTagAt(i));
+                headers.put(header.getId(), header);
+            }
+        }
+        else if (migrating)
+        {
+            readLegacy(legacyFile, compounds);
+        }
+
+        //  Colonies with records in the journal stay loaded until they are saved, so the journal can be deleted
+        Set<Integer> changed = journal.replay(compounds, this::readColony, sequence);
+
+        //  Indexes of older versions do not know the players of a colony; save them again to add them
+        for (ColonyHeader header : headers.values())
+        {
+            if (!header.isComplete() && !compounds.containsKey(header.getId()))
+            {
+                NBTTagCompound compound = readColony(header.getId());
+                if (compound != null)
+                {
+                    compounds.put(header.getId(), compound);
+                    changed.add(header.getId());
+                }
+            }
+        }
+
+        List<Colony> colonies = new ArrayList<>();
+        for (NBTTagCompound compound : compounds.values())
+        {
+            Colony colony = Colony.loadColony(compound);
+            if (changed.contains(colony.getID()))
+            {
+                colony.markSaveNeeded();
+            }
+            colonies.add(colony);
+            topColonyId = Math.max(topColonyId, colony.getID());
+        }
+
+        if (migrating)
+        {
+            migrate(legacyFile, colonies);
+        }
+        journal.activate();
+        return colonies;
+    }
+
+    /**
+     * Load a colony which was not loaded with the others.
+     *
+     * @param id id of the colony.
+     * @return the colony, or null if it could not be read.
+     */
+    @Nullable
+    Colony loadColony(int id)
+    {
+        NBTTagCompound compound = readColony(id);
+        return compound == null ? null : Colony.loadColony(compound);
+    }
+
+    @Nullable
+    private NBTTagCompound readColony(int id)
+    {
+        if (!headers.containsKey(id))
+        {
+            return null;
+        }
+
+        NBTTagCompound compound = ColonySaveQueue.read(getColonyFile(id));
+        if (compound == null)
+        {
+            Log.logger.error(String.format("Colony %d is missing from %s", id, colonyDir));
+        }
+        return compound;
+    }
+
+    /**
+     * @return the headers of all saved colonies.
+     */
+    Collection<ColonyHeader> getHeaders()
+    {
+        return Collections.unmodifiableCollection(headers.values());
+    }
+
+    /**
+     * Read colonies.dat of an older version.
+     */
+    private static void readLegacy(File legacyFile, Map<Integer, NBTTagCompound> compounds)
+    {
+        NBTTagCompound legacy = ColonySaveQueue.read(legacyFile);
+        if (legacy == null)
+        {
+            return;
+        }
+
+        NBTTagList colonyTags = legacy.getTagList(TAG_COLONIES, NBT.TAG_COMPOUND);
+        for (int i = 0; i < colonyTags.tagCount(); ++i)
+        {
+            NBTTagCompound compound = colonyTags.getCompoundTagAt(i);
+            compounds.put(compound.getInteger(TAG_ID), compound);
+        }
+    }
+
+    /**
+     * Write the colonies of colonies.dat of an older version to their own files.
+     */
+    private void migrate(File legacyFile, List<Colony> colonies)
+    {
+        save(colonies, topColonyId, colony -> true);
+        queue.flush();
+
+        //  Keep the old file unless every colony was written
+        if (queue.pollFailed() != null)
+        {
+            colonies.forEach(Colony::markSaveNeeded);
+        }
+        else if (legacyFile.renameTo(new File(saveDir, FILENAME_LEGACY + SUFFIX_MIGRATED)))
+        {
+            Log.logger.info(String.format("Moved %d colonies from %s to %s", colonies.size(), legacyFile, colonyDir));
+        }
+    }
+
+    /**
+     * @return the highest colony id ever used, as saved in the index.
+     */
+    int getTopColonyId()
+    {
+        return topColonyId;
+    }
+
+    /**
+     * Queue colonies to be written, and the index if it changed.
+     * Colonies whose last write failed or which have records in the journal are written too; the journal then starts
+     * a new file and the old ones are deleted once everything is written, unless a write or append failed meanwhile.
+     *
+     * @param colonies    all colonies.
+     * @param topId       the highest colony id ever used.
+     * @param needsSaving which colonies to write.
+     * @return the number of colonies queued.
+     */
+    int save(Collection<Colony> colonies, int topId, Predicate<Colony> needsSaving)
+    {
+        //  Before the journal appends its last records, so their failure keeps the journal too
+        long failures = queue.getFailureCount();
+        Set<Integer> journaled = journal.rotate();
+        long sequence = journal.getSequence();
+
+        Set<Integer> failed = new HashSet<>();
+        for (Integer id = queue.pollFailed(); id != null; id = queue.pollFailed())
+        {
+            failed.add(id);
+        }
+
+        int queued = 0;
+        for (Colony colony : colonies)
+        {
+            if (!needsSaving.test(colony) && !failed.contains(colony.getID()) && !journaled.contains(colony.getID()))
+            {
+                continue;
+            }
+
+            NBTTagCompound compound = new NBTTagCompound();
+            colony.writeToNBT(compound);
+            compound.setLong(ColonyJournal.TAG_SEQUENCE, sequence);
+            queue.submit(getColonyFile(colony.getID()), compound, colony.getID());
+            colony.onSaved();
+            headers.put(colony.getID(), ColonyHeader.of(colony));
+            ++queued;
+        }
+
+        //  Queued after the colonies, so it never lists a colony before its file is written
+        NBTTagCompound newIndex = createIndex(topId, sequence);
+        if (!newIndex.equals(index))
+        {
+            queue.submit(new File(colonyDir, FILENAME_INDEX), newIndex, -1);
+            index = newIndex;
+            topColonyId = topId;
+        }
+
+        journal.deleteOldFiles(() -> queue.getFailureCount() == failures);
+        return queued;
+    }
+
+    /**
+     * A colony may only be dropped from memory once its file holds all of its changes, see {@link #isSettled()}.
+     *
+     * @param colony a loaded colony.
+     * @return true if the colony changed since it was last queued to be written.
+     */
+    boolean isUnsaved(Colony colony)
+    {
+        return colony.isSaveNeeded() || journal.hasRecords(colony.getID()) || !headers.containsKey(colony.getID());
+    }
+
+    /**
+     * @return true if everything queued was written.
+     */
+    boolean isSettled()
+    {
+        return queue.isSettled();
+    }
+
+    /**
+     * Write the journal records of this tick, and save the colonies if the journal grew too large. Once per tick.
+     *
+     * @param colonies all colonies.
+     * @param topId    the highest colony id ever used.
+     */
+    void onServerTick(Collection<Colony> colonies, int topId)
+    {
+        journal.flush();
+        if (journal.needsCompaction())
+        {
+            save(colonies, topId, Colony::isSaveNeeded);
+        }
+    }
+
+    /**
+     * Write everything which is queued and stop the writer, e.g. when the server stops.
+     */
+    void close()
+    {
+        journal.deactivate();
+        queue.close();
+    }
+
+    /**
+     * @return statistics of the writes so far.
+     */
+    String getReport()
+    {
+        return queue.getReport();
+    }
+
+    private NBTTagCompound createIndex(int topId, long sequence)
+    {
+        NBTTagList headerTags = new NBTTagList();
+        for (ColonyHeader header : headers.values())
+        {
+            NBTTagCompound headerTag = new NBTTagCompound();
+            header.writeToNBT(headerTag);
+            headerTags.appendTag(headerTag);
+        }
+
+        NBTTagCompound compound = new NBTTagCompound();
+        compound.setInteger(TAG_TOP_ID, topId);
+        compound.setLong(ColonyJournal.TAG_SEQUENCE, sequence);
+        compound.setTag(TAG_COLONIES, headerTags);
+        return compound;
+    }
+
+    private File getColonyFile(int id)
+    {
+        return new File(colonyDir, String.format(FILENAME_COLONY, id));
+    }
+}
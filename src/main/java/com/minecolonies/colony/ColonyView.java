@@ -83,11 +83,23 @@ public final class ColonyView implements IColony
      *
      * @return      dimension ID of the view.
      */
+    @Override
     public int getDimensionId()
     {
         return dimensionId;
     }
 
+    /**
+     * Returns the center of the view.
+     *
+     * @return      center of the colony.
+     */
+    @Override
+    public BlockPos getCenter()
+    {
+        return center;
+    }
+
     /**
      * Sets the name of the view.
      *
@@ -151,6 +163,17 @@ public final class ColonyView implements IColony
         return buildings.get(buildingId);
     }
 
+    /**
+     * Returns a map with all building views of the colony.
+     * Key is ID (Coordinates), value is building view.
+     *
+     * @return Map with ID (coordinates) as key, and building views as value.
+     */
+    public Map<BlockPos, AbstractBuilding.View> getBuildings()
+    {
+        return Collections.unmodifiableMap(buildings);
+    }
+
     /**
      * Returns a map of players in the colony.
      * Key is the UUID, value is {@link com.minecolonies.colony.permissions.Permissions.Player}
@@ -356,6 +379,10 @@ public final class ColonyView implements IColony
     public IMessage handleColonyViewRemoveBuildingMessage(BlockPos buildingId)
     {
         final AbstractBuilding.View building = buildings.remove(buildingId);
+        if (building != null)
+        {
+            ColonyManager.onBuildingViewRemoved(this, building);
+        }
         if (townHall == building)
         {
             townHall = null;
@@ -391,6 +418,7 @@ public final class ColonyView implements IColony
         if (building != null)
         {
             buildings.put(building.getID(), building);
+            ColonyManager.onBuildingViewAdded(this, building);
 
             if (building instanceof BuildingTownHall.View)
             {
@@ -0,0 +1,41 @@
+package com.minecolonies.colony;
+
+import net.minecraft.util.BlockPos;
+import net.minecraft.world.World;
+
+/**
+ * Where a colony is; what the {@link ColonyIndex} needs to find it by position.
+ */
+public interface IColonyArea
+{
+    /**
+     * Returns the dimension the colony is in
+     *
+     * @return  Dimension id of the colony
+     */
+    int getDimensionId();
+
+    /**
+     * Returns the center of the colony
+     *
+     * @return  Position of the town hall the colony was founded with
+     */
+    BlockPos getCenter();
+
+    /**
+     * Determine if a given chunk coordinate is considered to be within the colony's bounds
+     *
+     * @param w         World to check
+     * @param pos		Block Position
+     * @return          True if inside colony, otherwise false
+     */
+    boolean isCoordInColony(World w, BlockPos pos);
+
+    /**
+     * Returns the squared (x, z) distance to the center
+     *
+     * @param pos		Block Position
+     * @return          Squared distance to the center in (x, z) direction
+     */
+    float getDistanceSquared(BlockPos pos);
+}
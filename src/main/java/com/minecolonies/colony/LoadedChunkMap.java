@@ -0,0 +1,95 @@
+package com.minecolonies.colony;
+
+import net.minecraft.util.BlockPos;
+import net.minecraft.world.World;
+
+import java.util.BitSet;
+
+/**
+ * Which chunks of a square area are loaded, kept up to date from chunk load and unload events
+ * instead of asking the world for every chunk.
+ */
+final class LoadedChunkMap
+{
+    private final int    minChunkX;
+    private final int    minChunkZ;
+    private final int    width;
+    private final BitSet loaded;
+    private final int    size;
+
+    /**
+     * Create a map of the chunks within a distance of a center, none of them loaded.
+     *
+     * @param center the center.
+     * @param radius the distance in blocks.
+     */
+    LoadedChunkMap(BlockPos center, int radius)
+    {
+        minChunkX = (center.getX() - radius) >> 4;
+        minChunkZ = (center.getZ() - radius) >> 4;
+        width = ((center.getX() + radius) >> 4) - minChunkX + 1;
+        size = width * (((center.getZ() + radius) >> 4) - minChunkZ + 1);
+        loaded = new BitSet(size);
+    }
+
+    /**
+     * Ask the world which chunks are loaded, e.g. when the map is created after the world.
+     *
+     * @param world the world.
+     */
+    void reset(World world)
+    {
+        loaded.clear();
+        for (int i = 0; i < size; ++i)
+        {
+            int chunkX = minChunkX + i % width;
+            int chunkZ = minChunkZ + i / width;
+            loaded.set(i, world.isBlockLoaded(new BlockPos(chunkX << 4, 0, chunkZ << 4)));
+        }
+    }
+
+    /**
+     * Mark every chunk unloaded.
+     */
+    void clear()
+    {
+        loaded.clear();
+    }
+
+    /**
+     * Mark a chunk loaded or unloaded.
+     *
+     * @param chunkX   chunk x.
+     * @param chunkZ   chunk z.
+     * @param isLoaded whether it is loaded now.
+     * @return false if the chunk is outside of the area.
+     */
+    boolean set(int chunkX, int chunkZ, boolean isLoaded)
+    {
+        int x = chunkX - minChunkX;
+        int z = chunkZ - minChunkZ;
+        if (x < 0 || x >= width || z < 0 || width * z + x >= size)
+        {
+            return false;
+        }
+
+        loaded.set(width * z + x, isLoaded);
+        return true;
+    }
+
+    /**
+     * @return true if every chunk of the area is loaded.
+     */
+    boolean isFullyLoaded()
+    {
+        return loaded.cardinality() == size;
+    }
+
+    /**
+     * @return true if no chunk of the area is loaded.
+     */
+    boolean isEmpty()
+    {
+        return loaded.isEmpty();
+    }
+}
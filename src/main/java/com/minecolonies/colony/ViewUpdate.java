@@ -0,0 +1,85 @@
+package com.minecolonies.colony;
+
+import com.minecolonies.MineColonies;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+
+import java.util.*;
+
+/**
+ * View packets prepared for the subscribers of a colony, see {@link Colony}. Every packet is serialized once,
+ * while it is prepared, and then sent to all of its recipients.
+ */
+final class ViewUpdate
+{
+    /**
+     * Subscribers after the update, and those of them which get the full view.
+     */
+    final Set<EntityPlayerMP> subscribers;
+    final Set<EntityPlayerMP> newSubscribers;
+
+    private final List<IMessage>                   messages   = new ArrayList<>();
+    private final List<Collection<EntityPlayerMP>> recipients = new ArrayList<>();
+
+    /**
+     * Create an update for the subscribers of a colony, with some players joining or leaving.
+     *
+     * @param subscribers    the current subscribers.
+     * @param newSubscribers the current subscribers which did not get the full view yet.
+     * @param joining        players which subscribe with this update.
+     * @param leaving        players which unsubscribe with this update.
+     */
+    ViewUpdate(Set<EntityPlayerMP> subscribers, Set<EntityPlayerMP> newSubscribers,
+               Collection<EntityPlayerMP> joining, Collection<EntityPlayerMP> leaving)
+    {
+        this.subscribers = new HashSet<>(subscribers);
+        this.subscribers.removeAll(leaving);
+        this.subscribers.addAll(joining);
+        this.newSubscribers = new HashSet<>(newSubscribers);
+        this.newSubscribers.removeAll(leaving);
+        this.newSubscribers.addAll(joining);
+    }
+
+    /**
+     * @return true if any subscriber needs the full view.
+     */
+    boolean hasNewSubscribers()
+    {
+        return !newSubscribers.isEmpty();
+    }
+
+    /**
+     * @param isDirty whether the data of a packet changed.
+     * @return every subscriber if the data changed, else only the new ones.
+     */
+    Set<EntityPlayerMP> getRecipients(boolean isDirty)
+    {
+        return isDirty ? subscribers : newSubscribers;
+    }
+
+    /**
+     * Add a packet.
+     *
+     * @param message the packet.
+     * @param players its recipients.
+     */
+    void add(IMessage message, Collection<EntityPlayerMP> players)
+    {
+        messages.add(message);
+        recipients.add(players);
+    }
+
+    /**
+     * Send all packets. Server thread only.
+     */
+    void send()
+    {
+        for (int i = 0; i < messages.size(); ++i)
+        {
+            for (EntityPlayerMP player : recipients.get(i))
+            {
+                MineColonies.getNetwork().sendTo(messages.get(i), player);
+            }
+        }
+    }
+}
@@ -5,7 +5,6 @@ import com.minecolonies.util.Log;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.nbt.NBTTagList;
 import net.minecraftforge.common.util.Constants.NBT;
-import net.minecraftforge.fml.common.gameevent.TickEvent;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -21,17 +20,23 @@ public class WorkManager
     protected final Colony colony;
     private Map<Integer, AbstractWorkOrder> workOrders      = new LinkedHashMap<>();
     private int                     topWorkOrderId = 0;
+    private final BuilderRegistry   builders       = new BuilderRegistry();
 
-    private static  final   String                  TAG_WORK_ORDERS                 = "workOrders";
+    static          final   String                  TAG_WORK_ORDERS                 = "workOrders";
 
     //  Once a second
-    private static  final   int                     WORK_ORDER_FULFILL_INCREMENT    = 1 * 20;
+    static          final   int                     WORK_ORDER_FULFILL_INCREMENT    = 1 * 20;
 
     /**
      * Checks if there has been changes.
      */
     private boolean dirty = false;
 
+    /**
+     * Whether an order was added or a builder became available since the last fulfillment attempt.
+     */
+    private boolean fulfillNeeded = false;
+
     /**
      * Constructor, saves reference to the colony.
      *
@@ -49,7 +54,7 @@ public class WorkManager
      */
     public void addWorkOrder(AbstractWorkOrder order)
     {
-        dirty = true;
+        markDirty();
 
         if (order.getID() == 0)
         {
@@ -58,6 +63,8 @@ public class WorkManager
         }
 
         workOrders.put(order.getID(), order);
+        fulfillNeeded = true;
+        ColonyJournal.onWorkOrderChanged(colony, order);
     }
 
     /**
@@ -68,6 +75,8 @@ public class WorkManager
     public void removeWorkOrder(int orderId)
     {
         workOrders.remove(orderId);
+        colony.markSaveNeeded();
+        ColonyJournal.onWorkOrderRemoved(colony, orderId);
         colony.removeWorkOrder(orderId);
     }
 
@@ -162,8 +171,37 @@ public class WorkManager
      */
     public void clearWorkForCitizen(CitizenData citizen)
     {
-        dirty = true;
-        workOrders.values().stream().filter(o -> o.isClaimedBy(citizen)).forEach(AbstractWorkOrder::clearClaimedBy);
+        markDirty();
+        workOrders.values().stream().filter(o -> o.isClaimedBy(citizen)).forEach(o ->
+        {
+            o.clearClaimedBy();
+            fulfillNeeded = true;
+        });
+        onCitizenChanged(citizen);
+    }
+
+    /**
+     * Called when a citizen's job, work building or work order changed, or its work building was upgraded.
+     * Keeps the {@link BuilderRegistry} up to date.
+     *
+     * @param citizen       the citizen.
+     */
+    public void onCitizenChanged(CitizenData citizen)
+    {
+        if (builders.update(citizen))
+        {
+            fulfillNeeded = true;
+        }
+    }
+
+    /**
+     * Get the builders of the colony.
+     *
+     * @return          the builder registry.
+     */
+    public BuilderRegistry getBuilders()
+    {
+        return builders;
     }
 
     /**
@@ -215,38 +253,49 @@ public class WorkManager
     }
 
     /**
-     * Process updates on the World Tick
-     * Currently, does periodic Work Order cleanup
-     *
-     * @param event         {@link net.minecraftforge.fml.common.gameevent.TickEvent.WorldTickEvent}
+     * Process updates, every {@link #WORK_ORDER_FULFILL_INCREMENT} ticks, see {@link ColonyScheduler}.
+     * Currently, does periodic Work Order cleanup, and fulfillment if an order was added or a builder
+     * became available since the last attempt; otherwise the waiting orders may remind the players.
      */
-    public void onWorldTick(TickEvent.WorldTickEvent event)
+    public void onColonyTick()
     {
-        if (event.phase == TickEvent.Phase.END)
+        Iterator<AbstractWorkOrder> iter = workOrders.values().iterator();
+        while (iter.hasNext())
         {
-            Iterator<AbstractWorkOrder> iter = workOrders.values().iterator();
-            while (iter.hasNext())
+            AbstractWorkOrder o = iter.next();
+            if (!o.isValid(colony))
             {
-                AbstractWorkOrder o = iter.next();
-                if (!o.isValid(colony))
-                {
-                    iter.remove();
-                    dirty = true;
-                }
-                else if(o.hasChanged())
-                {
-                    dirty = true;
-                    o.resetChange();
-                }
+                iter.remove();
+                markDirty();
+                ColonyJournal.onWorkOrderRemoved(colony, o.getID());
             }
-
-            if ((event.world.getWorldTime() % WORK_ORDER_FULFILL_INCREMENT) == 0)
+            else if(o.hasChanged())
             {
-                workOrders.values().stream().filter(o -> !o.isClaimed())
-                          .sorted((first, second) -> second.getPriority() > first.getPriority() ? 1 : (second.getPriority() < first.getPriority() ? -1 : 0))
-                          .forEach(o -> o.attemptToFulfill(colony));
+                markDirty();
+                o.resetChange();
+                ColonyJournal.onWorkOrderChanged(colony, o);
             }
         }
+
+        if (!fulfillNeeded)
+        {
+            workOrders.values().stream().filter(o -> !o.isClaimed()).forEach(o -> o.onWaiting(colony));
+            return;
+        }
+        fulfillNeeded = false;
+
+        workOrders.values().stream().filter(o -> !o.isClaimed())
+                  .sorted((first, second) -> second.getPriority() > first.getPriority() ? 1 : (second.getPriority() < first.getPriority() ? -1 : 0))
+                  .forEach(o -> o.attemptToFulfill(colony));
+    }
+
+    /**
+     * Marks the work orders changed.
+     */
+    private void markDirty()
+    {
+        dirty = true;
+        colony.markSaveNeeded();
     }
 
     /**
@@ -3,7 +3,7 @@ package com.minecolonies.colony.buildings;
 import com.minecolonies.blocks.*;
 import com.minecolonies.colony.CitizenData;
 import com.minecolonies.colony.Colony;
-import com.minecolonies.colony.ColonyManager;
+import com.minecolonies.colony.ColonyJournal;
 import com.minecolonies.colony.ColonyView;
 import com.minecolonies.colony.materials.MaterialStore;
 import com.minecolonies.colony.materials.MaterialSystem;
@@ -15,6 +15,7 @@ import net.minecraft.block.Block;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.BlockPos;
+import net.minecraft.world.World;
 import net.minecraftforge.fml.common.gameevent.TickEvent;
 
 import java.lang.reflect.Constructor;
@@ -50,7 +51,7 @@ public abstract class AbstractBuilding
 
     private static  final       String                      TAG_BUILDING_TYPE               = "type";
     // Location is unique (within a Colony) and so can double as the Id
-    private static  final       String                      TAG_LOCATION                    = "location";
+    public  static  final       String                      TAG_LOCATION                    = "location";
     private static  final       String                      TAG_BUILDING_LEVEL              = "level";
     private static  final       String                      TAG_ROTATION                    = "rotation";
     private static  final       String                      TAG_STYLE                       = "style";
@@ -350,7 +351,8 @@ public abstract class AbstractBuilding
 
         buildingLevel = level;
         markDirty();
-        ColonyManager.markDirty();
+        ColonyJournal.onBuildingChanged(colony, this);
+        colony.getCitizenPools().onBuildingChanged(this);
     }
 
     /**
@@ -456,11 +458,12 @@ public abstract class AbstractBuilding
     }
 
     /**
-     * On tick of the world
+     * Periodic update of the building, about once a second, see {@link com.minecolonies.colony.ColonyScheduler}.
+     * Only called while the colony's world is loaded.
      *
-     * @param event         {@link net.minecraftforge.fml.common.gameevent.TickEvent.WorldTickEvent}
+     * @param world         the world of the colony
      */
-    public void onWorldTick(TickEvent.WorldTickEvent event)
+    public void onColonyTick(World world)
     {
         // Can be overridden by other buildings.
     }
@@ -2,13 +2,13 @@ package com.minecolonies.colony.buildings;
 
 import com.minecolonies.colony.CitizenData;
 import com.minecolonies.colony.Colony;
+import com.minecolonies.colony.ColonyJournal;
 import com.minecolonies.colony.ColonyView;
 import com.minecolonies.colony.jobs.AbstractJob;
 import com.minecolonies.entity.EntityCitizen;
 import io.netty.buffer.ByteBuf;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.util.BlockPos;
-import net.minecraftforge.fml.common.gameevent.TickEvent;
 import org.jetbrains.annotations.Nullable;
 
 /**
@@ -78,6 +78,17 @@ public abstract class AbstractBuildingWorker extends AbstractBuildingHut
         return worker != null;
     }
 
+    /**
+     * Returns whether the building waits for a worker to be assigned.
+     * Only built huts take workers, except for the builder's hut, whose builder has to build it first.
+     *
+     * @return true if the building has no worker but could use one.
+     */
+    public boolean needsWorker()
+    {
+        return !hasWorker() && (getBuildingLevel() > 0 || this instanceof BuildingBuilder);
+    }
+
     /**
      * Returns the {@link net.minecraft.entity.Entity} of the worker.
      *
@@ -146,7 +157,9 @@ public abstract class AbstractBuildingWorker extends AbstractBuildingHut
             worker.setWorkBuilding(this);
         }
 
+        getColony().getCitizenPools().onBuildingChanged(this);
         markDirty();
+        ColonyJournal.onBuildingChanged(getColony(), this);
     }
 
     @Override
@@ -169,33 +182,6 @@ public abstract class AbstractBuildingWorker extends AbstractBuildingHut
         return citizen == worker;
     }
 
-    /**
-     * @see AbstractBuilding#onUpgradeComplete(int)
-     */
-    @Override
-    public void onWorldTick(TickEvent.WorldTickEvent event)
-    {
-        super.onWorldTick(event);
-
-        if (event.phase != TickEvent.Phase.END)
-        {
-            return;
-        }
-
-        // If we have no active worker, grab one from the Colony
-        // TODO Maybe the Colony should assign jobs out, instead?
-        if (!hasWorker() && (getBuildingLevel() > 0 || this instanceof BuildingBuilder)
-                && !this.getColony().isManualHiring())
-        {
-            final CitizenData joblessCitizen = getColony().getJoblessCitizen();
-            if (joblessCitizen != null)
-            {
-                setWorker(joblessCitizen);
-            }
-
-        }
-    }
-
     /**
      * AbstractBuildingWorker View for clients.
      */
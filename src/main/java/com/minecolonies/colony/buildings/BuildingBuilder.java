@@ -81,6 +81,21 @@ public class BuildingBuilder extends AbstractBuildingWorker
         return new JobBuilder(citizen);
     }
 
+    /**
+     * Informs the work manager, the builder may take other work orders now.
+     *
+     * @param level the new level.
+     */
+    @Override
+    public void setBuildingLevel(int level)
+    {
+        super.setBuildingLevel(level);
+        if (hasWorker())
+        {
+            getColony().getWorkManager().onCitizenChanged(getWorker());
+        }
+    }
+
     /**
      * @see AbstractBuilding#onUpgradeComplete(int)
      */
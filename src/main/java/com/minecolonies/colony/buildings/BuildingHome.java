@@ -4,13 +4,13 @@ import com.minecolonies.achievements.ModAchievements;
 import com.minecolonies.client.gui.WindowHomeBuilding;
 import com.minecolonies.colony.CitizenData;
 import com.minecolonies.colony.Colony;
+import com.minecolonies.colony.ColonyJournal;
 import com.minecolonies.colony.ColonyView;
 import com.minecolonies.util.ServerUtils;
 import io.netty.buffer.ByteBuf;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.util.BlockPos;
-import net.minecraftforge.fml.common.gameevent.TickEvent;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -61,38 +61,29 @@ public class BuildingHome extends AbstractBuildingHut
         super.onDestroyed();
     }
 
-    @Override
-    public void onWorldTick(TickEvent.WorldTickEvent event)
+    /**
+     * Returns whether there is room for another resident.
+     *
+     * @return true if the home is not full.
+     */
+    public boolean hasFreeBed()
     {
-        if (event.phase != TickEvent.Phase.END)
-        {
-            return;
-        }
-
-        if (residents.size() < getMaxInhabitants())
-        {
-            // 'Capture' as many citizens into this house as possible
-            addHomelessCitizens();
-        }
+        return residents.size() < getMaxInhabitants();
     }
 
     /**
-     * Looks for a homeless citizen to add to the current building. Calls
-     * {@link #addResident(CitizenData)}
+     * 'Capture' as many homeless citizens into this house as possible, see
+     * {@link com.minecolonies.colony.CitizenPools}. Calls {@link #addResident(CitizenData)}
      */
     public void addHomelessCitizens()
     {
-        for (CitizenData citizen : getColony().getCitizens().values())
+        for (CitizenData citizen : new ArrayList<>(getColony().getCitizenPools().getHomelessCitizens()))
         {
-            if (citizen.getHomeBuilding() == null)
+            if (!hasFreeBed())
             {
-                addResident(citizen);
-
-                if (residents.size() >= getMaxInhabitants())
-                {
-                    break;
-                }
+                break;
             }
+            addResident(citizen);
         }
     }
 
@@ -105,8 +96,10 @@ public class BuildingHome extends AbstractBuildingHut
     {
         residents.add(citizen);
         citizen.setHomeBuilding(this);
+        getColony().getCitizenPools().onBuildingChanged(this);
 
         markDirty();
+        ColonyJournal.onBuildingChanged(getColony(), this);
     }
 
     @Override
@@ -116,6 +109,8 @@ public class BuildingHome extends AbstractBuildingHut
         {
             citizen.setHomeBuilding(null);
             residents.remove(citizen);
+            getColony().getCitizenPools().onBuildingChanged(this);
+            ColonyJournal.onBuildingChanged(getColony(), this);
         }
     }
 
@@ -135,6 +135,7 @@ public class JobBuilder extends AbstractJob
         {
             workOrderId = order.getID();
         }
+        getColony().getWorkManager().onCitizenChanged(getCitizen());
     }
 
     /**
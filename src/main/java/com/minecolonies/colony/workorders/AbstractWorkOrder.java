@@ -27,7 +27,7 @@ public abstract class AbstractWorkOrder
     private static Map<Class<? extends AbstractWorkOrder>, String> classToNameMap = new HashMap<>();
 
     private static final String TAG_TYPE       = "type";
-    private static final String TAG_ID         = "id";
+    public  static final String TAG_ID         = "id";
     private static final String TAG_CLAIMED_BY = "claimedBy";
 
     private boolean changed = false;
@@ -298,6 +298,17 @@ public abstract class AbstractWorkOrder
      */
     public abstract void attemptToFulfill(Colony colony);
 
+    /**
+     * Called periodically while the Work Order is not claimed, between attempts to fulfill it.
+     * Override this to remind the players why the Work Order is waiting.
+     *
+     * @param colony The colony that owns the Work Order
+     */
+    public void onWaiting(Colony colony)
+    {
+        //  Nothing by default
+    }
+
 
     /**
      * Writes the workOrders data to a byte buf for transition.
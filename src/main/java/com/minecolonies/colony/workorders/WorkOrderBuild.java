@@ -1,14 +1,17 @@
 package com.minecolonies.colony.workorders;
 
+import com.minecolonies.colony.BuilderRegistry;
 import com.minecolonies.colony.CitizenData;
 import com.minecolonies.colony.Colony;
 import com.minecolonies.colony.buildings.AbstractBuilding;
+import com.minecolonies.colony.buildings.BuildingBuilder;
 import com.minecolonies.colony.jobs.JobBuilder;
 import com.minecolonies.util.BlockPosUtil;
 import com.minecolonies.util.LanguageHandler;
 import com.minecolonies.util.ServerUtils;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.util.BlockPos;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Represents one building order to complete.
@@ -151,46 +154,75 @@ public class WorkOrderBuild extends AbstractWorkOrder
     @Override
     public void attemptToFulfill(Colony colony)
     {
-        boolean sendMessage = true;
-        boolean hasBuilder = false;
+        final BuilderRegistry builders = colony.getWorkManager().getBuilders();
+        final CitizenData ownBuilder = getOwnBuilder(colony);
 
-        for (CitizenData citizen : colony.getCitizens().values())
+        //  A Build WorkOrder may be fulfilled by a Builder as long as any ONE of the following is true:
+        //  - The Builder's Work AbstractBuilding is built
+        //  - OR the WorkOrder is for the Builder's Work AbstractBuilding
+        //  - OR the WorkOrder is for the TownHall
+        CitizenData citizen;
+        if (isLocationTownhall(colony, buildingLocation))
         {
-            JobBuilder job = citizen.getJob(JobBuilder.class);
+            citizen = builders.getFreeBuilder(0);
+        }
+        else if (ownBuilder != null && builders.isFree(ownBuilder))
+        {
+            citizen = ownBuilder;
+        }
+        else
+        {
+            citizen = builders.getFreeBuilder(getRequiredBuilderLevel());
+        }
 
-            if (job == null)
-            {
-                continue;
-            }
+        if (citizen != null)
+        {
+            citizen.getJob(JobBuilder.class).setWorkOrder(this);
+            this.setClaimedBy(citizen);
+            return;
+        }
 
-            hasBuilder = true;
+        onWaiting(colony);
+    }
 
-            final int builderLevel = citizen.getWorkBuilding().getBuildingLevel();
+    /**
+     * Tell the players if the colony has no builder, or none which can take this order.
+     *
+     * @param colony The colony that owns the Work Order.
+     */
+    @Override
+    public void onWaiting(Colony colony)
+    {
+        if (hasSentMessageForThisWorkOrder)
+        {
+            return;
+        }
 
-            // don't send a message if we have a valid worker that is busy.
-            if (canBuildHut(builderLevel, citizen, colony))
-            {
-                sendMessage = false;
-            }
+        final BuilderRegistry builders = colony.getWorkManager().getBuilders();
 
-            if (job.hasWorkOrder())
-            {
-                continue;
-            }
+        // don't send a message if we have a valid worker that is busy.
+        final boolean sendMessage = !isLocationTownhall(colony, buildingLocation) && getOwnBuilder(colony) == null
+                && !builders.hasBuilder(getRequiredBuilderLevel());
+        sendBuilderMessage(colony, !builders.isEmpty(), sendMessage);
+    }
 
-            //  A Build WorkOrder may be fulfilled by a Builder as long as any ONE of the following is true:
-            //  - The Builder's Work AbstractBuilding is built
-            //  - OR the WorkOrder is for the Builder's Work AbstractBuilding
-            //  - OR the WorkOrder is for the TownHall
-            if (canBuildHut(builderLevel, citizen, colony))
-            {
-                job.setWorkOrder(this);
-                this.setClaimedBy(citizen);
-                return;
-            }
-        }
+    /**
+     * The hut level a builder needs to take this order, unless it is for the town hall or its own hut.
+     * A builder whose hut is at level 2 can build anything.
+     */
+    private int getRequiredBuilderLevel()
+    {
+        return Math.min(upgradeLevel, 2);
+    }
 
-        sendBuilderMessage(colony, hasBuilder, sendMessage);
+    /**
+     * The builder working in the hut this order is for, if it is a builder's hut.
+     */
+    @Nullable
+    private CitizenData getOwnBuilder(Colony colony)
+    {
+        final AbstractBuilding building = colony.getBuilding(buildingLocation);
+        return building instanceof BuildingBuilder ? ((BuildingBuilder) building).getWorker() : null;
     }
 
     private void sendBuilderMessage(Colony colony, boolean hasBuilder, boolean sendMessage)
@@ -215,18 +247,6 @@ public class WorkOrderBuild extends AbstractWorkOrder
         }
     }
 
-    /**
-     * Checks if a builder may accept this workOrder.
-     * @param builderLevel the builder level.
-     * @return true if he is able to.
-     */
-    private boolean canBuildHut(int builderLevel, CitizenData citizen, Colony colony)
-    {
-        return builderLevel >= upgradeLevel || builderLevel == 2
-                || citizen.getWorkBuilding().getID().equals(buildingLocation)
-                || isLocationTownhall(colony, buildingLocation);
-    }
-
     private boolean isLocationTownhall(Colony colony, BlockPos buildingLocation)
     {
         return colony.hasTownHall() && colony.getTownHall().getID().equals(buildingLocation);
@@ -0,0 +1,132 @@
+package com.minecolonies.commands;
+
+import com.minecolonies.colony.ColonyManager;
+import com.minecolonies.colony.ColonyScheduler;
+import com.minecolonies.entity.pathfinding.Pathfinding;
+import com.minecolonies.util.TickProfiler;
+import net.minecraft.command.CommandBase;
+import net.minecraft.command.CommandException;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.command.WrongUsageException;
+import net.minecraft.util.BlockPos;
+import net.minecraft.util.ChatComponentText;
+import net.minecraftforge.common.DimensionManager;
+
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Operator command for the {@link TickProfiler}:
+ * <ul>
+ * <li>{@code /mcprofile start} and {@code /mcprofile stop} switch timing on and off,</li>
+ * <li>{@code /mcprofile top [count]} prints the colonies, citizens and sections which took the most time,</li>
+ * <li>{@code /mcprofile dump <seconds>} records for a while and writes the full report to a file in the world's
+ * minecolonies folder.</li>
+ * </ul>
+ */
+public class CommandProfiler extends CommandBase
+{
+    private static final String NAME             = "mcprofile";
+    private static final String USAGE            = "/mcprofile <start|stop|top [count]|dump <seconds>>";
+    private static final int    DEFAULT_TOP      = 5;
+    private static final int    MAX_DUMP_SECONDS = 60 * 60;
+    private static final String DUMP_PATH        = "minecolonies";
+
+    @Override
+    public String getCommandName()
+    {
+        return NAME;
+    }
+
+    @Override
+    public String getCommandUsage(ICommandSender sender)
+    {
+        return USAGE;
+    }
+
+    @Override
+    public int getRequiredPermissionLevel()
+    {
+        return 2;
+    }
+
+    @Override
+    public void processCommand(ICommandSender sender, String[] args) throws CommandException
+    {
+        if (args.length == 0)
+        {
+            throw new WrongUsageException(USAGE);
+        }
+
+        switch (args[0])
+        {
+            case "start":
+                TickProfiler.setEnabled(true);
+                send(sender, "Tick profiler started");
+                break;
+            case "stop":
+                TickProfiler.setEnabled(false);
+                send(sender, "Tick profiler stopped");
+                break;
+            case "top":
+                printTop(sender, args.length > 1 ? parseInt(args[1], 1, 100) : DEFAULT_TOP);
+                break;
+            case "dump":
+                if (args.length < 2)
+                {
+                    throw new WrongUsageException(USAGE);
+                }
+                int seconds = parseInt(args[1], 1, MAX_DUMP_SECONDS);
+                File file = getDumpFile();
+                TickProfiler.dumpAfter(file, seconds * 20);
+                send(sender, String.format("Recording for %d seconds, then writing %s", seconds, file.getName()));
+                break;
+            default:
+                throw new WrongUsageException(USAGE);
+        }
+    }
+
+    private static void printTop(ICommandSender sender, int count)
+    {
+        if (!TickProfiler.isEnabled())
+        {
+            send(sender, "Tick profiler is not running, use /mcprofile start");
+            return;
+        }
+
+        send(sender, "Colonies and citizens:");
+        TickProfiler.getTopGroups(count).forEach(line -> send(sender, "  " + line));
+        send(sender, "Sections:");
+        TickProfiler.getTopSections(count).forEach(line -> send(sender, "  " + line));
+        for (String line : ColonyScheduler.getReport().split(String.format("%n")))
+        {
+            send(sender, line);
+        }
+        send(sender, Pathfinding.getMetrics().toString());
+        send(sender, ColonyManager.getSaveReport());
+    }
+
+    private static File getDumpFile()
+    {
+        File saveDir = new File(DimensionManager.getWorld(0).getSaveHandler().getWorldDirectory(), DUMP_PATH);
+        return new File(saveDir, String.format("profile-%s.txt", new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date())));
+    }
+
+    private static void send(ICommandSender sender, String message)
+    {
+        sender.addChatMessage(new ChatComponentText(message));
+    }
+
+    @Override
+    public List<String> addTabCompletionOptions(ICommandSender sender, String[] args, BlockPos pos)
+    {
+        if (args.length == 1)
+        {
+            return getListOfStringsMatchingLastWord(args, "start", "stop", "top", "dump");
+        }
+        return Collections.emptyList();
+    }
+}
@@ -53,6 +53,14 @@ public final class ConfigurationHandler
             maxBlocksCheckedByBuilder =
                     config.get(CATEGORY_GAMEPLAY, "maxBlocksCheckedByBuilder", maxBlocksCheckedByBuilder, "Limits the number of checked blocks per builder update").getInt();
             chatFrequency = config.get(CATEGORY_GAMEPLAY, "chatFrequency", chatFrequency, "Chat Frequency (seconds)").getInt();
+            colonyTickBudget = config.get(CATEGORY_GAMEPLAY, "colonyTickBudget", colonyTickBudget,
+                    "Milliseconds per tick all colonies together may spend on periodic work; the rest waits for the next tick (0 for no limit).").getInt();
+            colonyPlanThreads = config.get(CATEGORY_GAMEPLAY, "colonyPlanThreads", colonyPlanThreads,
+                    "Threads which prepare colony updates, like view packets, in parallel (0 to prepare them on the server thread).").getInt();
+            colonyUnloadMinutes = config.get(CATEGORY_GAMEPLAY, "colonyUnloadMinutes", colonyUnloadMinutes,
+                    "Minutes after which a colony without loaded chunks, citizens or subscribers is unloaded until it is needed again (0 to keep all colonies loaded).").getInt();
+            compactColonySaves = config.get(CATEGORY_GAMEPLAY, "compactColonySaves", compactColonySaves,
+                    "Save colonies in a compact binary format instead of NBT; files of either format are read, and converted when they are saved next.").getBoolean();
 
             enableInDevelopmentFeatures = config.get(CATEGORY_GAMEPLAY, "development", enableInDevelopmentFeatures,
                     "Don't hide in-development features which do not work and may break your game").getBoolean();
@@ -61,6 +69,21 @@ public final class ConfigurationHandler
             pathfindingDebugVerbosity = config.get(CATEGORY_PATHFINDING, "debugVerbosity", pathfindingDebugVerbosity,
                     "Debug output verbosity of pathfinding (0=none, 1=results, 2=live work)").getInt();
             pathfindingMaxThreadCount = config.get(CATEGORY_PATHFINDING, "maxThreads", pathfindingMaxThreadCount, "Maximum number of threads to use for pathfinding.").getInt();
+            pathCacheSize = config.get(CATEGORY_PATHFINDING, "pathCacheSize", pathCacheSize, "Number of routes each colony remembers for reuse.").getInt();
+            passabilityCacheMemory = config.get(CATEGORY_PATHFINDING, "passabilityCacheMemory", passabilityCacheMemory,
+                    "Megabytes of copied chunk sections each world keeps for pathfinding; the least recently used are dropped first.").getInt();
+            hierarchicalPathDistance = config.get(CATEGORY_PATHFINDING, "hierarchicalPathDistance", hierarchicalPathDistance,
+                    "Routes inside a colony at least this long are planned chunk by chunk first (0 to disable).").getInt();
+            distanceFieldCount = config.get(CATEGORY_PATHFINDING, "distanceFieldCount", distanceFieldCount,
+                    "Number of buildings per colony which keep a shared distance field for citizens walking to them.").getInt();
+            distanceFieldMemory = config.get(CATEGORY_PATHFINDING, "distanceFieldMemory", distanceFieldMemory,
+                    "Megabytes the distance fields of all colonies together may take; the least recently used are dropped first.").getInt();
+            pathfindingNodesPerSlice = config.get(CATEGORY_PATHFINDING, "nodesPerSlice", pathfindingNodesPerSlice,
+                    "Nodes a search visits before it lets other searches run (0 for no limit).").getInt();
+            pathfindingNodesPerTick = config.get(CATEGORY_PATHFINDING, "nodesPerTick", pathfindingNodesPerTick,
+                    "Nodes all searches together may visit per server tick (0 for no limit).").getInt();
+            pathfindingJobTimeToLive = config.get(CATEGORY_PATHFINDING, "jobTimeToLive", pathfindingJobTimeToLive,
+                    "Milliseconds after which a search gives up and returns the best partial path (0 for no limit).").getInt();
 
             maleFirstNames = config.get(CATEGORY_NAMES, "maleFirstNames", maleFirstNames, "Male First Names").getStringList();
             femaleFirstNames = config.get(CATEGORY_NAMES, "femaleFirstNames", femaleFirstNames, "Female First Names").getStringList();
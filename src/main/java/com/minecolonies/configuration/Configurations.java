@@ -23,12 +23,24 @@ public class Configurations
     //TODO change count to agreed upon value, possibly remove if we think this shouldn't be a problem
     public static int       maxBlocksCheckedByBuilder       = 1000;
     public static int       chatFrequency                   = 30;
+    public static int       colonyTickBudget                = 5;
+    public static int       colonyPlanThreads               = 2;
+    public static int       colonyUnloadMinutes             = 10;
+    public static boolean   compactColonySaves              = false;
 
     public static boolean   enableInDevelopmentFeatures     = false;
 
     public static boolean   pathfindingDebugDraw            = false;
     public static int       pathfindingDebugVerbosity       = 0;
     public static int       pathfindingMaxThreadCount       = 2;
+    public static int       pathCacheSize                   = 256;
+    public static int       passabilityCacheMemory          = 64;
+    public static int       hierarchicalPathDistance        = 48;
+    public static int       distanceFieldCount              = 8;
+    public static int       distanceFieldMemory             = 64;
+    public static int       pathfindingNodesPerSlice        = 1000;
+    public static int       pathfindingNodesPerTick         = 20000;
+    public static int       pathfindingJobTimeToLive        = 2000;
 
     public static String[] maleFirstNames = new String[]
             {
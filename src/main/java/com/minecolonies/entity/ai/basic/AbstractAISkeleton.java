@@ -6,6 +6,7 @@ import com.minecolonies.entity.ai.util.AIState;
 import com.minecolonies.entity.ai.util.AITarget;
 import com.minecolonies.entity.ai.util.ChatSpamFilter;
 import com.minecolonies.util.Log;
+import com.minecolonies.util.TickProfiler;
 import net.minecraft.entity.ai.EntityAIBase;
 import net.minecraft.world.World;
 import org.jetbrains.annotations.NotNull;
@@ -38,6 +39,13 @@ public abstract class AbstractAISkeleton<J extends AbstractJob> extends EntityAI
      */
     private         AIState             state;
 
+    /**
+     * Names of the citizen and of each target in the {@link TickProfiler}, created when first profiled and grown
+     * with every target registered later.
+     */
+    private String   profilerGroup;
+    private String[] profilerSections;
+
     /**
      * Sets up some important skeleton stuff for every ai.
      *
@@ -76,6 +84,11 @@ public abstract class AbstractAISkeleton<J extends AbstractJob> extends EntityAI
     private void registerTarget(AITarget target)
     {
         targetList.add(target);
+        if (profilerSections != null)
+        {
+            //  Registered after the first profiled tick
+            profilerSections = Arrays.copyOf(profilerSections, targetList.size());
+        }
     }
 
     /**
@@ -151,6 +164,51 @@ public abstract class AbstractAISkeleton<J extends AbstractJob> extends EntityAI
      * @return true if this target worked and we should stop executing this tick
      */
     private boolean checkOnTarget(AITarget target)
+    {
+        if (!TickProfiler.isEnabled())
+        {
+            return runTarget(target);
+        }
+
+        long start = System.nanoTime();
+        boolean result = runTarget(target);
+        TickProfiler.record(getProfilerGroup(), getProfilerSection(target), System.nanoTime() - start);
+        return result;
+    }
+
+    private String getProfilerGroup()
+    {
+        if (profilerGroup == null)
+        {
+            profilerGroup = String.format("colony %d citizen %d", job.getColony().getID(), job.getCitizen().getId());
+        }
+        return profilerGroup;
+    }
+
+    private String getProfilerSection(AITarget target)
+    {
+        if (profilerSections == null)
+        {
+            profilerSections = new String[targetList.size()];
+        }
+
+        int index = targetList.indexOf(target);
+        if (profilerSections[index] == null)
+        {
+            profilerSections[index] = String.format("%s target %d%s", getClass().getSimpleName(), index,
+                    target.getState() == null ? "" : " (" + target.getState() + ")");
+        }
+        return profilerSections[index];
+    }
+
+    /**
+     * Continuation of checkOnTarget.
+     * tests the target if it matches the state, and runs it.
+     *
+     * @param target the target to check
+     * @return true if this target worked and we should stop executing this tick
+     */
+    private boolean runTarget(AITarget target)
     {
         if (state != target.getState() && target.getState() != null)
         {
@@ -4,7 +4,6 @@ import com.minecolonies.colony.jobs.JobLumberjack;
 import com.minecolonies.entity.ai.basic.AbstractEntityAIInteract;
 import com.minecolonies.entity.ai.util.AIState;
 import com.minecolonies.entity.ai.util.AITarget;
-import com.minecolonies.entity.pathfinding.PathJobFindTree;
 import com.minecolonies.util.BlockPosUtil;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockSapling;
@@ -149,10 +148,6 @@ public class EntityAIWorkLumberjack extends AbstractEntityAIInteract<JobLumberja
      * Positions of all items that have to be collected.
      */
     private List<BlockPos> items;
-    /**
-     * The active pathfinding job used to walk to trees
-     */
-    private PathJobFindTree.TreePathResult pathResult;
     /**
      * A counter by how much the tree search radius
      * has been increased by now.
@@ -231,6 +226,12 @@ public class EntityAIWorkLumberjack extends AbstractEntityAIInteract<JobLumberja
      */
     private AIState findTrees()
     {
+        //  Claim the tree again after a reload, unless someone else took it meanwhile
+        if (job.tree != null && !getTreeIndex().claim(job.tree.getLocation(), worker.getCitizenData().getId()))
+        {
+            job.tree = null;
+        }
+
         if (job.tree == null)
         {
             return findTree();
@@ -239,50 +240,47 @@ public class EntityAIWorkLumberjack extends AbstractEntityAIInteract<JobLumberja
     }
 
     /**
-     * Search for a tree
+     * Look up the closest free tree around the hut in the colony's {@link TreeIndex}.
      *
-     * @return LUMBERJACK_GATHERING if job was canceled
+     * @return LUMBERJACK_NO_TREES_FOUND if there are none in range.
      */
     private AIState findTree()
     {
-        if (pathResult == null || pathResult.treeLocation == null)
-        {
-            pathResult = worker.getNavigator().moveToTree(SEARCH_RANGE + searchIncrement, 1.0D);
-            return getState();
-        }
-        if (pathResult.getPathReachesDestination())
-        {
-            return setNewTree();
-        }
-        if (pathResult.isCancelled())
-        {
-            pathResult = null;
-            return LUMBERJACK_GATHERING;
-        }
-        return getState();
-    }
-
-    private AIState setNewTree()
-    {
-        if (pathResult.treeLocation != null)
-        {
-            job.tree = new Tree(world, pathResult.treeLocation);
-            job.tree.findLogs(world);
-        }
-        else
+        TreeIndex index = getTreeIndex();
+        BlockPos location = index.claimNearestTree(worker.getWorkBuilding().getLocation(),
+                SEARCH_RANGE + searchIncrement, worker.getCitizenData().getId());
+        if (location == null)
         {
             setDelay(WAIT_BEFORE_INCREMENT);
+            if (!index.isScanComplete())
+            {
+                //  The trees further away may not be known yet
+                return getState();
+            }
             if (searchIncrement + SEARCH_RANGE > SEARCH_LIMIT)
             {
                 return LUMBERJACK_NO_TREES_FOUND;
             }
             searchIncrement += SEARCH_INCREMENT;
+            return getState();
         }
-        pathResult = null;
 
+        if (!Tree.checkTree(world, location))
+        {
+            index.remove(location);
+            return getState();
+        }
+
+        job.tree = new Tree(world, location);
+        job.tree.findLogs(world);
         return getState();
     }
 
+    private TreeIndex getTreeIndex()
+    {
+        return TreeIndex.forColony(worker.getColony());
+    }
+
     /**
      * Again checks if all preconditions are given to execute chopping.
      * If yes go chopping, else return to previous AIStates.
@@ -349,6 +347,7 @@ public class EntityAIWorkLumberjack extends AbstractEntityAIInteract<JobLumberja
         if (plantSapling(job.tree.getLocation()))
         {
             job.tree = null;
+            getTreeIndex().release(worker.getCitizenData().getId());
         }
     }
 
@@ -228,7 +228,7 @@ public class Tree
     }
 
     /**
-     * For use in PathJobFindTree
+     * For use in TreeIndex
      *
      * @param world the world
      * @param pos   The coordinates
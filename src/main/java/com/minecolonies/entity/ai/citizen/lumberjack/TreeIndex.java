@@ -0,0 +1,309 @@
+package com.minecolonies.entity.ai.citizen.lumberjack;
+
+import com.minecolonies.colony.Colony;
+import com.minecolonies.configuration.Configurations;
+import net.minecraft.block.Block;
+import net.minecraft.util.BlockPos;
+import net.minecraft.world.ChunkCoordIntPair;
+import net.minecraft.world.World;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Trees in a colony's working area, so lumberjacks look up their next tree instead of searching for one.
+ * The area is scanned one chunk per tick in the background; after that, columns in which a block changed are
+ * scanned again on the next tick, which picks up chopped trees as well as grown saplings.
+ * Lumberjacks claim the tree they work on, so two of them never pick the same tree. A claim stays with its tree
+ * while the column is scanned again, e.g. as the tree is chopped, until the column holds no tree any more or the
+ * lumberjack releases it. Server thread only.
+ */
+public final class TreeIndex
+{
+    private static final Map<Integer, TreeIndex> indices = new HashMap<>();
+
+    private final int dimension;
+    private final int minX;
+    private final int minZ;
+    private final int maxX;
+    private final int maxZ;
+
+    /**
+     * Base log of each tree by the key of its column.
+     */
+    private final Map<Long, BlockPos>    trees  = new HashMap<>();
+    /**
+     * Citizen id by claimed base log.
+     */
+    private final Map<BlockPos, Integer> claims = new HashMap<>();
+
+    /**
+     * Chunks which still have to be scanned, and columns which changed since their last scan.
+     */
+    private final Deque<Long> pendingChunks  = new ArrayDeque<>();
+    private final Set<Long>   changedColumns = new HashSet<>();
+
+    private TreeIndex(int dimension, BlockPos center)
+    {
+        this.dimension = dimension;
+        this.minX = center.getX() - Configurations.workingRangeTownHall;
+        this.minZ = center.getZ() - Configurations.workingRangeTownHall;
+        this.maxX = center.getX() + Configurations.workingRangeTownHall;
+        this.maxZ = center.getZ() + Configurations.workingRangeTownHall;
+
+        for (int chunkX = minX >> 4; chunkX <= maxX >> 4; ++chunkX)
+        {
+            for (int chunkZ = minZ >> 4; chunkZ <= maxZ >> 4; ++chunkZ)
+            {
+                pendingChunks.add(ChunkCoordIntPair.chunkXZ2Int(chunkX, chunkZ));
+            }
+        }
+    }
+
+    /**
+     * Get the tree index of a colony.
+     *
+     * @param colony the colony.
+     * @return its index.
+     */
+    public static TreeIndex forColony(Colony colony)
+    {
+        return indices.computeIfAbsent(colony.getID(), id -> new TreeIndex(colony.getDimensionId(), colony.getCenter()));
+    }
+
+    /**
+     * Called when a block changed; its column is scanned again on the next tick.
+     *
+     * @param world the world.
+     * @param pos   the changed block.
+     */
+    public static void onBlockChanged(World world, BlockPos pos)
+    {
+        for (TreeIndex index : indices.values())
+        {
+            if (index.dimension == world.provider.getDimensionId() && index.isInArea(pos.getX(), pos.getZ()))
+            {
+                index.changedColumns.add(ChunkCoordIntPair.chunkXZ2Int(pos.getX(), pos.getZ()));
+            }
+        }
+    }
+
+    /**
+     * Called when a world unloads; drops the indices of its colonies.
+     *
+     * @param world the world.
+     */
+    public static void onWorldUnload(World world)
+    {
+        indices.values().removeIf(index -> index.dimension == world.provider.getDimensionId());
+    }
+
+    /**
+     * Called when a colony unloads or loses its last lumberjack hut; drops its index.
+     *
+     * @param colony the colony.
+     */
+    public static void onColonyUnload(Colony colony)
+    {
+        indices.remove(colony.getID());
+    }
+
+    /**
+     * Scan the changed columns and the next chunk of the background scan.
+     *
+     * @param colony the colony of this index.
+     * @param world  its world.
+     */
+    public void onColonyTick(Colony colony, World world)
+    {
+        for (long column : changedColumns)
+        {
+            scanColumn(world, (int) column, (int) (column >> 32));
+        }
+        changedColumns.clear();
+
+        Long chunk = pendingChunks.poll();
+        if (chunk != null)
+        {
+            int chunkX = (int) (long) chunk;
+            int chunkZ = (int) (chunk >> 32);
+            if (world.isBlockLoaded(new BlockPos(chunkX << 4, 0, chunkZ << 4)))
+            {
+                scanChunk(world, chunkX, chunkZ);
+            }
+            else
+            {
+                //  Try again once the rest is done
+                pendingChunks.add(chunk);
+            }
+        }
+
+        //  Claims of citizens who are gone
+        claims.values().removeIf(citizenId -> colony.getCitizen(citizenId) == null);
+    }
+
+    private void scanChunk(World world, int chunkX, int chunkZ)
+    {
+        for (int x = Math.max(minX, chunkX << 4); x <= Math.min(maxX, (chunkX << 4) + 15); ++x)
+        {
+            for (int z = Math.max(minZ, chunkZ << 4); z <= Math.min(maxZ, (chunkZ << 4) + 15); ++z)
+            {
+                scanColumn(world, x, z);
+            }
+        }
+    }
+
+    /**
+     * Walk down a column from its top to the ground and index the tree standing on it, if any.
+     * The claim of the tree which stood there before moves to the tree found now.
+     */
+    private void scanColumn(World world, int x, int z)
+    {
+        long column = ChunkCoordIntPair.chunkXZ2Int(x, z);
+        BlockPos old = trees.remove(column);
+
+        BlockPos base = null;
+        for (int y = world.getHeight(new BlockPos(x, 0, z)).getY(); y > 0; --y)
+        {
+            BlockPos pos = new BlockPos(x, y, z);
+            Block block = world.getBlockState(pos).getBlock();
+            if (block.isWood(world, pos))
+            {
+                base = pos;
+            }
+            else if (!block.isLeaves(world, pos) && block.getMaterial().isSolid())
+            {
+                break;
+            }
+        }
+
+        BlockPos tree = null;
+        if (base != null && !hasTreeNextTo(base) && Tree.checkTree(world, base))
+        {
+            tree = base;
+            trees.put(column, tree);
+        }
+
+        if (old != null && !old.equals(tree))
+        {
+            Integer claimant = claims.remove(old);
+            if (claimant != null && tree != null && !claims.containsKey(tree))
+            {
+                claims.put(tree, claimant);
+            }
+        }
+    }
+
+    /**
+     * Trees grown from four saplings have four stumps; only one of them is indexed.
+     */
+    private boolean hasTreeNextTo(BlockPos base)
+    {
+        for (int dx = -1; dx <= 1; ++dx)
+        {
+            for (int dz = -1; dz <= 1; ++dz)
+            {
+                BlockPos other = trees.get(ChunkCoordIntPair.chunkXZ2Int(base.getX() + dx, base.getZ() + dz));
+                if ((dx != 0 || dz != 0) && other != null && other.getY() == base.getY())
+                {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Claim the tree closest to a position which nobody else claimed.
+     *
+     * @param center    position to measure from, usually the lumberjack's hut.
+     * @param range     maximum distance of the tree.
+     * @param citizenId id of the claiming citizen.
+     * @return the base log of the claimed tree, or null if there is none in range.
+     */
+    @Nullable
+    public BlockPos claimNearestTree(BlockPos center, int range, int citizenId)
+    {
+        BlockPos nearest = null;
+        double nearestDistance = (double) range * range;
+        for (BlockPos tree : trees.values())
+        {
+            Integer claimant = claims.get(tree);
+            double distance = tree.distanceSq(center);
+            if ((claimant == null || claimant == citizenId) && distance <= nearestDistance)
+            {
+                nearest = tree;
+                nearestDistance = distance;
+            }
+        }
+
+        if (nearest != null)
+        {
+            claim(nearest, citizenId);
+        }
+        return nearest;
+    }
+
+    /**
+     * Claim a tree, e.g. the one a lumberjack was working on before the colony was loaded.
+     * Any other tree the citizen claimed is released.
+     *
+     * @param tree      base log of the tree.
+     * @param citizenId id of the claiming citizen.
+     * @return false if someone else claimed the tree already.
+     */
+    public boolean claim(BlockPos tree, int citizenId)
+    {
+        Integer claimant = claims.get(tree);
+        if (claimant != null)
+        {
+            return claimant == citizenId;
+        }
+
+        release(citizenId);
+        claims.put(tree, citizenId);
+        return true;
+    }
+
+    /**
+     * Release the tree a citizen claimed.
+     *
+     * @param citizenId id of the citizen.
+     */
+    public void release(int citizenId)
+    {
+        claims.values().removeIf(claimant -> claimant == citizenId);
+    }
+
+    /**
+     * Forget a tree which turned out not to be one; its column is scanned again when it changes.
+     *
+     * @param tree base log of the tree.
+     */
+    public void remove(BlockPos tree)
+    {
+        trees.remove(ChunkCoordIntPair.chunkXZ2Int(tree.getX(), tree.getZ()), tree);
+        claims.remove(tree);
+    }
+
+    /**
+     * @return true once every chunk of the area has been scanned.
+     */
+    public boolean isScanComplete()
+    {
+        return pendingChunks.isEmpty();
+    }
+
+    /**
+     * @return the number of trees known.
+     */
+    public int getTreeCount()
+    {
+        return trees.size();
+    }
+
+    private boolean isInArea(int x, int z)
+    {
+        return x >= minX && x <= maxX && z >= minZ && z <= maxZ;
+    }
+}
@@ -3,26 +3,45 @@ package com.minecolonies.entity.pathfinding;
 import com.minecolonies.configuration.Configurations;
 import com.minecolonies.util.Log;
 import net.minecraft.block.*;
-import net.minecraft.block.material.Material;
 import net.minecraft.entity.EntityLiving;
 import net.minecraft.pathfinding.PathEntity;
 import net.minecraft.pathfinding.PathPoint;
 import net.minecraft.util.BlockPos;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.MathHelper;
-import net.minecraft.world.ChunkCache;
 import net.minecraft.world.IBlockAccess;
 import net.minecraft.world.World;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
 import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Abstract class for Jobs that run in the multithreaded path finder.
  */
 public abstract class AbstractPathJob implements Callable<PathEntity>
 {
+    /**
+     * Scheduling priority of a job; jobs with a lower ordinal are run first.
+     */
+    public enum Priority
+    {
+        /**
+         * Movement that must react immediately, e.g. running away.
+         */
+        URGENT,
+        /**
+         * Regular, visible movement of a citizen.
+         */
+        NORMAL,
+        /**
+         * Exploratory searches the citizen can wait for, e.g. looking for trees or water.
+         */
+        BACKGROUND
+    }
+
     private static final int SHIFT_SOUTH = 1;
     private static final int SHIFT_WEST = 2;
     private static final int SHIFT_NORTH = 3;
@@ -30,7 +49,11 @@ public abstract class AbstractPathJob implements Callable<PathEntity>
     protected final BlockPos start;
     private final int maxRange;
 
+    /**
+     * Immutable copy of the blocks around the path, see {@link PassabilityCache}.
+     */
     protected final IBlockAccess world;
+    private final PathingSnapshot snapshot;
 
     //  Job rules/configuration
     private boolean allowSwimming = true;
@@ -38,8 +61,35 @@ public abstract class AbstractPathJob implements Callable<PathEntity>
     //  May be faster, but can produce strange results
     private boolean allowJumpPointSearchTypeWalk = false;
 
-    private final Queue<Node> nodesOpen = new PriorityQueue<>(500);
-    private final Map<Integer, Node> nodesVisited = new HashMap<>();
+    /**
+     * Node storage, open set and visited table of the running search, borrowed from the {@link NodeArena} pool
+     * when the node search starts. Kept between slices, so a search can resume on any worker thread.
+     */
+    private NodeArena nodes;
+    private NodeHeap  nodesOpen;
+
+    /**
+     * State of a search which runs in slices, see {@link #searchSlice(int)}.
+     */
+    private boolean          searchStarted       = false;
+    private boolean          prepared            = false;
+    private boolean          searchDone          = false;
+    private PathEntity       shortcut;
+    private PathEntity       path;
+    private Node             bestNode;
+    private double           bestNodeResultScore;
+    private long             searchStartNanos;
+    private volatile boolean cancelled           = false;
+
+    /**
+     * Visited nodes between two checks of the time-to-live, within a slice.
+     */
+    private static final int EXPIRY_CHECK_INTERVAL = 256;
+
+    /**
+     * Scratch position for the heuristic, so walking a node does not allocate BlockPos objects.
+     */
+    private final BlockPos.MutableBlockPos candidate = new BlockPos.MutableBlockPos(0, 0, 0);
 
     protected final PathResult result;
 
@@ -87,12 +137,21 @@ public abstract class AbstractPathJob implements Callable<PathEntity>
      */
     public AbstractPathJob(World world, BlockPos start, BlockPos end, int range, PathResult result)
     {
-        int minX = Math.min(start.getX(), end.getX());
-        int minZ = Math.min(start.getZ(), end.getZ());
-        int maxX = Math.max(start.getX(), end.getX());
-        int maxZ = Math.max(start.getZ(), end.getZ());
+        this(snapshotAround(world, start, end, range), start, range, result);
+    }
 
-        this.world = new ChunkCache(world, new BlockPos(minX, 0, minZ),new BlockPos(maxX, 256, maxZ), range);
+    /**
+     * Create a job which searches an existing snapshot, e.g. one segment of a longer route.
+     *
+     * @param snapshot the blocks to path through, must contain the whole search area.
+     * @param start    the start position from which to path from
+     * @param range    maximum path range
+     * @param result   path result
+     */
+    AbstractPathJob(PathingSnapshot snapshot, BlockPos start, int range, PathResult result)
+    {
+        this.snapshot = snapshot;
+        this.world = snapshot;
 
         this.start = new BlockPos(start);
         this.maxRange = range;
@@ -111,11 +170,31 @@ public abstract class AbstractPathJob implements Callable<PathEntity>
         }
     }
 
+    static PathingSnapshot snapshotAround(World world, BlockPos start, BlockPos end, int range)
+    {
+        int minX = Math.min(start.getX(), end.getX());
+        int minZ = Math.min(start.getZ(), end.getZ());
+        int maxX = Math.max(start.getX(), end.getX());
+        int maxZ = Math.max(start.getZ(), end.getZ());
+
+        return PassabilityCache.forWorld(world).snapshot(minX - range, minZ - range, maxX + range, maxZ + range);
+    }
+
     public PathResult getResult()
     {
         return result;
     }
 
+    /**
+     * Priority of this job in the pathfinding queue.
+     *
+     * @return the priority, {@link Priority#NORMAL} by default.
+     */
+    public Priority getPriority()
+    {
+        return Priority.NORMAL;
+    }
+
     /**
      * Callable method for initiating asynchronous task
      * @return path to follow or null
@@ -136,21 +215,230 @@ public abstract class AbstractPathJob implements Callable<PathEntity>
     }
 
     /**
-     * Perform the search
+     * Perform the whole search at once.
      *
      * @return PathEntity of a path to the given location, a best-effort, or null
      */
-    protected PathEntity search()
+    protected final PathEntity search()
     {
-        Node bestNode = getAndSetupStartNode();
+        while (!searchSlice(Integer.MAX_VALUE))
+        {
+            //  Only ends early when the node budget runs out, which an unlimited slice never does
+        }
+        return path;
+    }
 
-        double bestNodeResultScore = getNodeResultScore(bestNode);
+    /**
+     * Called once before the node search starts.
+     *
+     * @return a path which ends the job right away, or null to go on with the node search.
+     */
+    protected PathEntity prepareSearch()
+    {
+        return null;
+    }
+
+    /**
+     * Advance the work before the node search, in slices like the node search; calls {@link #prepareSearch()} once
+     * by default. Work which visits nodes of its own counts them with {@link #countNodes(int)}, so they are charged
+     * to the node budget, and stops once the slice's share is used.
+     *
+     * @param nodeBudget maximum number of nodes to visit in this slice.
+     * @return true once the preparation is finished, false if it needs another slice.
+     */
+    protected boolean prepareSlice(int nodeBudget)
+    {
+        setShortcut(prepareSearch());
+        return true;
+    }
+
+    /**
+     * Set the path which ends the job right away once the preparation is finished, see {@link #prepareSlice(int)}.
+     *
+     * @param path the path, or null to go on with the node search.
+     */
+    protected final void setShortcut(@Nullable PathEntity path)
+    {
+        shortcut = path;
+    }
+
+    /**
+     * Count nodes visited outside of the node search, like those of a nested search.
+     *
+     * @param count number of nodes.
+     */
+    protected final void countNodes(int count)
+    {
+        totalNodesVisited += count;
+    }
+
+    /**
+     * Called once when the job ends, however it ends; releases what the preparation still holds.
+     */
+    protected void onSearchEnd()
+    {
+        //  Nothing by default
+    }
+
+    /**
+     * Advance the search by at most the given number of visited nodes.
+     * The open set and visited nodes are kept between slices, so the search resumes where it stopped.
+     * Once the job has run for longer than its time-to-live, it ends with the best partial path found so far.
+     *
+     * @param nodeBudget maximum number of nodes to visit in this slice.
+     * @return true if the search is finished; the path is then returned by {@link #getPath()}.
+     */
+    final boolean searchSlice(int nodeBudget)
+    {
+        if (searchDone)
+        {
+            return true;
+        }
+
+        try
+        {
+            if (!searchStarted)
+            {
+                searchStarted = true;
+                searchStartNanos = System.nanoTime();
+            }
+
+            if (!prepared)
+            {
+                int visitedBefore = totalNodesVisited;
+                boolean done = prepareSlice(nodeBudget);
+                if (isCancelled())
+                {
+                    finish(null);
+                    return true;
+                }
+                if (!done)
+                {
+                    return false;
+                }
+
+                prepared = true;
+                if (shortcut != null)
+                {
+                    finish(shortcut);
+                    return true;
+                }
+
+                //  The node search gets what the preparation left of this slice
+                nodeBudget -= totalNodesVisited - visitedBefore;
+
+                //  Debug rendering keeps nodes around after the search, so those must not be recycled
+                nodes = debugDrawEnabled ? NodeArena.create() : NodeArena.acquire();
+                nodesOpen = nodes.getOpenSet();
+                bestNode = getAndSetupStartNode();
+                bestNodeResultScore = getNodeResultScore(bestNode);
+            }
+
+            return searchNodes(nodeBudget);
+        }
+        catch (RuntimeException e)
+        {
+            finish(null);
+            throw e;
+        }
+    }
+
+    /**
+     * @return the path, once {@link #searchSlice(int)} returned true.
+     */
+    final PathEntity getPath()
+    {
+        return path;
+    }
+
+    /**
+     * @return number of nodes visited so far.
+     */
+    final int getNodesVisited()
+    {
+        return totalNodesVisited;
+    }
+
+    /**
+     * Stop the search as soon as possible; it ends without a path.
+     */
+    final void cancel()
+    {
+        cancelled = true;
+    }
+
+    /**
+     * Give up a search which will not be resumed and hand its nodes back. Must not be called while a slice runs.
+     */
+    final void abandon()
+    {
+        cancelled = true;
+        finish(null);
+    }
+
+    private boolean isCancelled()
+    {
+        return cancelled || Thread.currentThread().isInterrupted();
+    }
+
+    /**
+     * @return true once the job has run for longer than its time-to-live.
+     */
+    protected final boolean hasExpired()
+    {
+        long timeToLive = Configurations.pathfindingJobTimeToLive;
+        return timeToLive > 0 && System.nanoTime() - searchStartNanos > TimeUnit.MILLISECONDS.toNanos(timeToLive);
+    }
+
+    private void finish(PathEntity finalPath)
+    {
+        if (!searchDone)
+        {
+            onSearchEnd();
+        }
+        path = finalPath;
+        searchDone = true;
+        bestNode = null;
+        shortcut = null;
+
+        if (nodes != null)
+        {
+            if (!debugDrawEnabled)
+            {
+                NodeArena.release(nodes);
+            }
+            nodes = null;
+            nodesOpen = null;
+        }
+    }
+
+    private boolean searchNodes(int nodeBudget)
+    {
+        int nodesVisitedBefore = totalNodesVisited;
 
         while (!nodesOpen.isEmpty())
         {
-            if (Thread.currentThread().isInterrupted())
+            if (isCancelled())
             {
-                return null;
+                finish(null);
+                return true;
+            }
+
+            int visitedInSlice = totalNodesVisited - nodesVisitedBefore;
+            if (visitedInSlice > 0 && visitedInSlice % EXPIRY_CHECK_INTERVAL == 0 && hasExpired())
+            {
+                Pathfinding.getMetrics().recordExpired();
+                break;
+            }
+
+            if (visitedInSlice >= nodeBudget)
+            {
+                if (hasExpired())
+                {
+                    Pathfinding.getMetrics().recordExpired();
+                    break;
+                }
+                return false;
             }
 
             Node currentNode = nodesOpen.poll();
@@ -190,15 +478,17 @@ public abstract class AbstractPathJob implements Callable<PathEntity>
 
             if (doDebugSleep())
             {
-                return null;
+                finish(null);
+                return true;
             }
         }
 
-        PathEntity path = finalizePath(bestNode);
+        PathEntity finalPath = finalizePath(bestNode);
 
         handleDebugDraw();
 
-        return path;
+        finish(finalPath);
+        return true;
     }
 
     private void addNodeToDebug(Node currentNode)
@@ -239,57 +529,61 @@ public abstract class AbstractPathJob implements Callable<PathEntity>
 
     private void walkCurrentNode(Node currentNode)
     {
-        BlockPos dPos = new BlockPos(0, 0, 0);
+        int dx = 0;
+        int dy = 0;
+        int dz = 0;
         if (currentNode.parent != null)
         {
-            dPos = currentNode.pos.subtract(currentNode.parent.pos);
+            dx = currentNode.pos.getX() - currentNode.parent.pos.getX();
+            dy = currentNode.pos.getY() - currentNode.parent.pos.getY();
+            dz = currentNode.pos.getZ() - currentNode.parent.pos.getZ();
         }
 
         //  On a ladder, we can go 1 straight-up
-        if (onLadderGoingUp(currentNode, dPos))
+        if (onLadderGoingUp(currentNode, dx, dy, dz))
         {
-            walk(currentNode, new BlockPos(0, 1, 0));
+            walk(currentNode, 0, 1, 0);
         }
 
         //  We can also go down 1, if the lower block is a ladder
-        if (onLadderGoingDown(currentNode, dPos))
+        if (onLadderGoingDown(currentNode, dx, dy, dz))
         {
-            walk(currentNode, new BlockPos(0, -1, 0));
+            walk(currentNode, 0, -1, 0);
         }
 
         // N
-        if (dPos.getZ() <= 0)
+        if (dz <= 0)
         {
-            walk(currentNode, new BlockPos(0, 0, -1));
+            walk(currentNode, 0, 0, -1);
         }
 
         // E
-        if (dPos.getX() >= 0)
+        if (dx >= 0)
         {
-            walk(currentNode, new BlockPos(1, 0, 0));
+            walk(currentNode, 1, 0, 0);
         }
 
         // S
-        if (dPos.getZ() >= 0)
+        if (dz >= 0)
         {
-            walk(currentNode, new BlockPos(0, 0, 1));
+            walk(currentNode, 0, 0, 1);
         }
 
         // W
-        if (dPos.getX() <= 0)
+        if (dx <= 0)
         {
-            walk(currentNode, new BlockPos(-1, 0, 0));
+            walk(currentNode, -1, 0, 0);
         }
     }
 
-    private boolean onLadderGoingDown(Node currentNode, BlockPos dPos)
+    private boolean onLadderGoingDown(Node currentNode, int dx, int dy, int dz)
     {
-        return (dPos.getY() <= 0 || dPos.getX() != 0 || dPos.getZ() != 0) && isLadder(currentNode.pos.down());
+        return (dy <= 0 || dx != 0 || dz != 0) && isLadder(currentNode.pos.getX(), currentNode.pos.getY() - 1, currentNode.pos.getZ());
     }
 
-    private static boolean onLadderGoingUp(Node currentNode, BlockPos dPos)
+    private static boolean onLadderGoingUp(Node currentNode, int dx, int dy, int dz)
     {
-        return currentNode.isLadder && (dPos.getY() >= 0 || dPos.getX() != 0 || dPos.getZ() != 0);
+        return currentNode.isLadder && (dy >= 0 || dx != 0 || dz != 0);
     }
 
     private void handleDebugDraw()
@@ -308,20 +602,20 @@ public abstract class AbstractPathJob implements Callable<PathEntity>
     @NotNull
     private Node getAndSetupStartNode()
     {
-        Node startNode = new Node(start,
-                computeHeuristic(start));
+        double heuristic = computeHeuristic(start);
+        Node startNode = nodes.allocate().init(null, start.getX(), start.getY(), start.getZ(), 0, heuristic, heuristic);
 
         if (isLadder(start))
         {
             startNode.isLadder = true;
         }
-        else if (world.getBlockState(start).getBlock().getMaterial().isLiquid())
+        else if (isLiquid(getFlags(start.getX(), start.getY(), start.getZ())))
         {
             startNode.isSwimming = true;
         }
 
-        nodesOpen.offer(startNode);
-        nodesVisited.put(computeNodeKey(start), startNode);
+        nodesOpen.add(startNode);
+        nodes.putVisited(computeNodeKey(start.getX(), start.getY(), start.getZ()), startNode);
 
         ++totalNodesAdded;
 
@@ -505,26 +799,27 @@ public abstract class AbstractPathJob implements Callable<PathEntity>
      * @param pos BlockPos to generate key from
      * @return key for node in map
      */
-    private static int computeNodeKey(BlockPos pos)
+    private static int computeNodeKey(int x, int y, int z)
     {
-        return ((pos.getX() & 0xFFF) << 20) |
-                ((pos.getY() & 0xFF) << 12) |
-                (pos.getZ() & 0xFFF);
+        return ((x & 0xFFF) << 20) |
+                ((y & 0xFF) << 12) |
+                (z & 0xFFF);
     }
 
     /**
      * Compute the cost (immediate 'g' value) of moving from the parent space to the new space,
      *
-     * @param parent The parent node being moved from
-     * @param dPos The delta from the parent to the new space; assumes dx,dy,dz in range of [-1..1]
+     * @param dx x delta from the parent to the new space, in range of [-1..1]
+     * @param dy y delta from the parent to the new space, in range of [-1..1]
+     * @param dz z delta from the parent to the new space, in range of [-1..1]
      * @param isSwimming true is the current node would require the citizen to swim.
      * @return cost to move from the parent to the new position
      */
-    protected static double computeCost(Node parent, BlockPos dPos, boolean isSwimming)
+    protected static double computeCost(int dx, int dy, int dz, boolean isSwimming)
     {
         double cost = 1D;
 
-        if (dPos.getY() != 0 && (dPos.getX() != 0 || dPos.getZ() != 0))
+        if (dy != 0 && (dx != 0 || dz != 0))
         {
             //  Tax the cost for jumping, dropping (warning: also taxes stairs)
             cost *= 1.1D;
@@ -581,27 +876,43 @@ public abstract class AbstractPathJob implements Callable<PathEntity>
      */
     protected final boolean walk(Node parent, BlockPos dPos)
     {
-        BlockPos pos = parent.pos.add(dPos);
+        return walk(parent, dPos.getX(), dPos.getY(), dPos.getZ());
+    }
+
+    /**
+     * @see AbstractPathJob#walk(Node, BlockPos)
+     *
+     * @param parent Node being walked from
+     * @param dx x delta from parent, expected in range of [-1..1]
+     * @param dy y delta from parent, expected in range of [-1..1]
+     * @param dz z delta from parent, expected in range of [-1..1]
+     * @return true if a node was added or updated when attempting to move in the given direction
+     */
+    private boolean walk(Node parent, int dx, int dy, int dz)
+    {
+        int x = parent.pos.getX() + dx;
+        int y = parent.pos.getY() + dy;
+        int z = parent.pos.getZ() + dz;
 
         //  Cheap test to perform before doing a 'y' test
         //  Has this node been visited?
-        int nodeKey = computeNodeKey(pos);
-        Node node = nodesVisited.get(nodeKey);
+        int nodeKey = computeNodeKey(x, y, z);
+        Node node = nodes.getVisited(nodeKey);
 
         //  Can we traverse into this node?  Fix the y up
-        int newY = getGroundHeight(parent, pos);
+        int newY = getGroundHeight(parent, x, y, z);
 
         if (checkPreconditions(node, newY))
         {
             return false;
         }
 
-        if (pos.getY() != newY)
+        if (y != newY)
         {
             //  Has this node been visited?
-            pos = new BlockPos(pos.getX(), newY, pos.getZ());
-            nodeKey = computeNodeKey(pos);
-            node = nodesVisited.get(nodeKey);
+            y = newY;
+            nodeKey = computeNodeKey(x, y, z);
+            node = nodes.getVisited(nodeKey);
             if (nodeClosed(node))
             {
                 //  Early out on previously visited and closed nodes
@@ -609,12 +920,11 @@ public abstract class AbstractPathJob implements Callable<PathEntity>
             }
         }
 
-
-        boolean isSwimming = calculateSwimming(world, pos, node);
+        boolean isSwimming = calculateSwimming(x, y, z, node);
 
         //  Cost may have changed due to a jump up or drop
-        double stepCost = computeCost(parent, dPos, isSwimming);
-        double heuristic = computeHeuristic(pos);
+        double stepCost = computeCost(dx, dy, dz, isSwimming);
+        double heuristic = computeHeuristic(candidate.set(x, y, z));
         double cost = parent.cost + stepCost;
         double score = cost + heuristic;
 
@@ -625,27 +935,27 @@ public abstract class AbstractPathJob implements Callable<PathEntity>
                 return false;
             }
 
+            nodesOpen.decreaseKey(node);
         }
         else
         {
-            node = createNode(parent, pos, nodeKey, isSwimming, heuristic, cost, score);
+            node = createNode(parent, x, y, z, nodeKey, isSwimming, heuristic, cost, score);
+            nodesOpen.add(node);
         }
 
-        nodesOpen.offer(node);
-
         //  Jump Point Search-ish optimization:
         // If this node was a (heuristic-based) improvement on our parent,
         // lets go another step in the same direction...
-        performJumpPointSearch(parent, dPos, node);
+        performJumpPointSearch(parent, dx, dy, dz, node);
 
         return true;
     }
 
-    private void performJumpPointSearch(Node parent, BlockPos dPos, Node node)
+    private void performJumpPointSearch(Node parent, int dx, int dy, int dz, Node node)
     {
         if (allowJumpPointSearchTypeWalk && node.heuristic <= parent.heuristic)
         {
-            walk(node, dPos);
+            walk(node, dx, dy, dz);
         }
     }
 
@@ -669,23 +979,22 @@ public abstract class AbstractPathJob implements Callable<PathEntity>
         return node != null && node.closed;
     }
 
-    private static boolean calculateSwimming(IBlockAccess world, BlockPos pos, Node node)
+    private boolean calculateSwimming(int x, int y, int z, Node node)
     {
-        return (node != null) ? node.isSwimming : world.getBlockState(pos.down()).getBlock().getMaterial().isLiquid();
+        return (node != null) ? node.isSwimming : isLiquid(getFlags(x, y - 1, z));
     }
 
     @NotNull
-    private Node createNode(Node parent, BlockPos pos, int nodeKey, boolean isSwimming, double heuristic, double cost, double score)
+    private Node createNode(Node parent, int x, int y, int z, int nodeKey, boolean isSwimming, double heuristic, double cost, double score)
     {
-        Node node;
-        node = new Node(parent, pos, cost, heuristic, score);
-        nodesVisited.put(nodeKey, node);
+        Node node = nodes.allocate().init(parent, x, y, z, cost, heuristic, score);
+        nodes.putVisited(nodeKey, node);
         if (debugDrawEnabled)
         {
             debugNodesNotVisited.add(node);
         }
 
-        if (isLadder(pos))
+        if (isLadder(x, y, z))
         {
             node.isLadder = true;
         }
@@ -707,7 +1016,7 @@ public abstract class AbstractPathJob implements Callable<PathEntity>
             return true;
         }
 
-        if (!nodesOpen.remove(node))
+        if (!nodesOpen.contains(node))
         {
             return true;
         }
@@ -728,50 +1037,55 @@ public abstract class AbstractPathJob implements Callable<PathEntity>
      * @return y height of first open, viable block above ground, or -1 if blocked or too far a drop
      */
     protected int getGroundHeight(Node parent, BlockPos pos)
+    {
+        return getGroundHeight(parent, pos.getX(), pos.getY(), pos.getZ());
+    }
+
+    private int getGroundHeight(Node parent, int x, int y, int z)
     {
         //  Check (y+1) first, as it's always needed, either for the upper body (level),
         //  lower body (headroom drop) or lower body (jump up)
-        if (checkHeadBlock(parent, pos))
+        if (checkHeadBlock(parent, x, y, z))
         {
             return -1;
         }
 
         //  Now check the block we want to move to
-        Block target = world.getBlockState(pos).getBlock();
-        if (!isPassable(target, pos))
+        int target = getFlags(x, y, z);
+        if (!isPassable(target))
         {
-            return handleTargeNotPassable(parent, pos, target);
+            return handleTargeNotPassable(parent, x, y, z, target);
         }
 
         //  Do we have something to stand on in the target space?
-        Block below = world.getBlockState(pos.down()).getBlock();
-        if (isWalkableSurface(below, pos.down()))
+        int below = getFlags(x, y - 1, z);
+        if (isWalkableSurface(below))
         {
             //  Level path
-            return pos.getY();
+            return y;
         }
 
-        return handleNotStanding(parent, pos, below);
+        return handleNotStanding(parent, x, y, z, below);
     }
 
-    private int handleNotStanding(Node parent, BlockPos pos, Block below)
+    private int handleNotStanding(Node parent, int x, int y, int z, int below)
     {
         boolean isSwimming = parent != null && parent.isSwimming;
 
-        if (below.getMaterial().isLiquid())
+        if (isLiquid(below))
         {
-            return handleInLiquid(pos, below, isSwimming);
+            return handleInLiquid(y, below, isSwimming);
         }
 
-        if (isLadder(below, pos.down()))
+        if (isLadder(below))
         {
-            return pos.getY();
+            return y;
         }
 
-        return checkDrop(parent, pos, isSwimming);
+        return checkDrop(parent, x, y, z, isSwimming);
     }
 
-    private int checkDrop(Node parent, BlockPos pos, boolean isSwimming)
+    private int checkDrop(Node parent, int x, int y, int z, boolean isSwimming)
     {
         boolean canDrop = parent != null && !parent.isLadder;
         //  Nothing to stand on
@@ -781,70 +1095,69 @@ public abstract class AbstractPathJob implements Callable<PathEntity>
         }
 
         //  How far of a drop?
-        Block below = world.getBlockState(pos.down(2)).getBlock();
-        if (isWalkableSurface(below, pos.down(2)))
+        if (isWalkableSurface(getFlags(x, y - 2, z)))
         {
-            return pos.getY() - 1;
+            return y - 1;
         }
 
         //  Too far
         return -1;
     }
 
-    private int handleInLiquid(BlockPos pos, Block below, boolean isSwimming)
+    private int handleInLiquid(int y, int below, boolean isSwimming)
     {
         if (isSwimming)
         {
             //  Already swimming in something, or allowed to swim and this is water
-            return pos.getY();
+            return y;
         }
 
-        if (allowSwimming && below.getMaterial() == Material.water)
+        if (allowSwimming && (below & SectionSnapshot.WATER) != 0)
         {
             //  This is water, and we are allowed to swim
-            return pos.getY();
+            return y;
         }
 
         //  Not allowed to swim or this isn't water, and we're on dry land
         return -1;
     }
 
-    private int handleTargeNotPassable(Node parent, BlockPos pos, Block target)
+    private int handleTargeNotPassable(Node parent, int x, int y, int z, int target)
     {
         boolean canJump = parent != null && !parent.isLadder && !parent.isSwimming;
         //  Need to try jumping up one, if we can
-        if (!canJump || !isWalkableSurface(target, pos))
+        if (!canJump || !isWalkableSurface(target))
         {
             return -1;
         }
 
         //  Check for headroom in the target space
-        if (!isPassable(pos.up(2)))
+        if (!isPassable(getFlags(x, y + 2, z)))
         {
             return -1;
         }
 
         //  Check for jump room from the origin space
-        if (!isPassable(parent.pos.up(2)))
+        if (!isPassable(getFlags(parent.pos.getX(), parent.pos.getY() + 2, parent.pos.getZ())))
         {
             return -1;
         }
 
         //  Jump up one
-        return pos.getY() + 1;
+        return y + 1;
     }
 
-    private boolean checkHeadBlock(Node parent, BlockPos pos)
+    private boolean checkHeadBlock(Node parent, int x, int y, int z)
     {
-        if (!isPassable(pos.up()))
+        if (!isPassable(getFlags(x, y + 1, z)))
         {
             return true;
         }
 
         if (parent != null)
         {
-            Block here = world.getBlockState(parent.pos.down()).getBlock();
-            if (here.getMaterial().isLiquid() && !isPassable(pos))
+            int here = getFlags(parent.pos.getX(), parent.pos.getY() - 1, parent.pos.getZ());
+            if (isLiquid(here) && !isPassable(getFlags(x, y, z)))
             {
                 return true;
             }
@@ -852,65 +1165,68 @@ public abstract class AbstractPathJob implements Callable<PathEntity>
         return false;
     }
 
+    /**
+     * Get the pathing flags of a block from the snapshot, see {@link SectionSnapshot}.
+     *
+     * @param x x coordinate.
+     * @param y y coordinate.
+     * @param z z coordinate.
+     * @return the flags of the block at that location.
+     */
+    protected final int getFlags(int x, int y, int z)
+    {
+        return snapshot.getFlags(x, y, z);
+    }
+
     /**
      * Is the space passable?
      *
-     * @param block the block we are checking.
-     * @param pos location of the block.
+     * @param flags pathing flags of the block we are checking.
      * @return true if the block does not block movement
      */
-    protected boolean isPassable(Block block, BlockPos pos)
+    protected boolean isPassable(int flags)
     {
-        if (block.getMaterial() != Material.air)
-        {
-            if (block.getMaterial().blocksMovement())
-            {
-                return block instanceof BlockDoor ||
-                        //  block instanceof BlockTrapDoor ||
-                        block instanceof BlockFenceGate;
-            }
-            else if (block.getMaterial().isLiquid())
-            {
-                return false;
-            }
-        }
-
-        return true;
+        return (flags & SectionSnapshot.PASSABLE) != 0;
     }
 
     protected boolean isPassable(BlockPos pos)
     {
-        return isPassable(world.getBlockState(pos).getBlock(), pos);
+        return isPassable(getFlags(pos.getX(), pos.getY(), pos.getZ()));
     }
 
     /**
      * Is the block solid and can be stood upon?
      *
-     * @param block Block to check
-     * @param pos position of block
+     * @param flags pathing flags of the block to check.
      * @return true if the block at that location can be walked on.
      */
-    protected boolean isWalkableSurface(Block block, BlockPos pos)
+    protected boolean isWalkableSurface(int flags)
     {
-        return block.getMaterial().isSolid() &&
-                !(block instanceof BlockFence) &&
-                !(block instanceof BlockFenceGate) &&
-                !(block instanceof BlockWall);
+        return (flags & SectionSnapshot.WALKABLE) != 0;
     }
 
     /**
      * Is the block a ladder?
-     * @param block block to check.
-     * @param pos location of the block.
+     * @param flags pathing flags of the block to check.
      * @return true if the block is a ladder.
      */
-    protected boolean isLadder(Block block, BlockPos pos)
+    protected boolean isLadder(int flags)
     {
-        return block.isLadder(world, pos, null);
+        return (flags & SectionSnapshot.LADDER) != 0;
     }
 
     protected boolean isLadder(BlockPos pos)
     {
-        return isLadder(world.getBlockState(pos).getBlock(), pos);
+        return isLadder(getFlags(pos.getX(), pos.getY(), pos.getZ()));
+    }
+
+    private boolean isLadder(int x, int y, int z)
+    {
+        return isLadder(getFlags(x, y, z));
+    }
+
+    private static boolean isLiquid(int flags)
+    {
+        return (flags & SectionSnapshot.LIQUID) != 0;
     }
 }
@@ -0,0 +1,225 @@
+package com.minecolonies.entity.pathfinding;
+
+import com.minecolonies.colony.Colony;
+import com.minecolonies.configuration.Configurations;
+import net.minecraft.util.BlockPos;
+import net.minecraft.world.ChunkCoordIntPair;
+import net.minecraft.world.World;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Abstract graph of a colony's working area, used to plan long routes chunk by chunk before refining them.
+ * Every chunk column in the area is a {@link RouteCluster}. Clusters are built by the pathfinding threads the first
+ * time a route needs them and dropped again when a block in them changes, so the graph follows the world.
+ * The graph and its hooks are used from the server thread, the clusters from the pathfinding threads.
+ */
+public final class ColonyRouteGraph
+{
+    /**
+     * Blocks from the edge of a chunk within which a change can alter the entrances of the neighbouring chunk.
+     */
+    private static final int BORDER = 1;
+
+    private static final Map<Integer, ColonyRouteGraph> graphs = new HashMap<>();
+
+    private final int dimension;
+    private final int minChunkX;
+    private final int minChunkZ;
+    private final int maxChunkX;
+    private final int maxChunkZ;
+
+    private final Map<Long, RouteCluster> clusters   = new ConcurrentHashMap<>();
+    /**
+     * Change stamp of the last block change by cluster; clusters built from older snapshots are not kept.
+     */
+    private final Map<Long, Long>         lastChange = new ConcurrentHashMap<>();
+    private long changeStamp = 0;
+
+    private ColonyRouteGraph(int dimension, BlockPos center)
+    {
+        this.dimension = dimension;
+        this.minChunkX = (center.getX() - Configurations.workingRangeTownHall) >> 4;
+        this.minChunkZ = (center.getZ() - Configurations.workingRangeTownHall) >> 4;
+        this.maxChunkX = (center.getX() + Configurations.workingRangeTownHall) >> 4;
+        this.maxChunkZ = (center.getZ() + Configurations.workingRangeTownHall) >> 4;
+    }
+
+    /**
+     * Get the route graph of a colony.
+     *
+     * @param colony the colony.
+     * @return its graph.
+     */
+    public static ColonyRouteGraph forColony(Colony colony)
+    {
+        return graphs.computeIfAbsent(colony.getID(), id -> new ColonyRouteGraph(colony.getDimensionId(), colony.getCenter()));
+    }
+
+    /**
+     * Called when a block changed; drops the clusters whose entrances or distances may have changed.
+     *
+     * @param world the world.
+     * @param pos   the changed block.
+     */
+    public static void onBlockChanged(World world, BlockPos pos)
+    {
+        int chunkX = pos.getX() >> 4;
+        int chunkZ = pos.getZ() >> 4;
+        int inChunkX = pos.getX() & 15;
+        int inChunkZ = pos.getZ() & 15;
+
+        for (ColonyRouteGraph graph : graphs.values())
+        {
+            if (graph.dimension != world.provider.getDimensionId() || !graph.isInGraph(chunkX, chunkZ))
+            {
+                continue;
+            }
+
+            graph.invalidate(chunkX, chunkZ);
+            if (inChunkX < BORDER)
+            {
+                graph.invalidate(chunkX - 1, chunkZ);
+            }
+            else if (inChunkX >= 16 - BORDER)
+            {
+                graph.invalidate(chunkX + 1, chunkZ);
+            }
+            if (inChunkZ < BORDER)
+            {
+                graph.invalidate(chunkX, chunkZ - 1);
+            }
+            else if (inChunkZ >= 16 - BORDER)
+            {
+                graph.invalidate(chunkX, chunkZ + 1);
+            }
+        }
+    }
+
+    /**
+     * Called when a world unloads; drops the graphs of its colonies.
+     *
+     * @param world the world.
+     */
+    public static void onWorldUnload(World world)
+    {
+        graphs.values().removeIf(graph -> graph.dimension == world.provider.getDimensionId());
+    }
+
+    /**
+     * Called when a colony unloads; drops its graph.
+     *
+     * @param colony the colony.
+     */
+    public static void onColonyUnload(Colony colony)
+    {
+        graphs.remove(colony.getID());
+    }
+
+    private void invalidate(int chunkX, int chunkZ)
+    {
+        long key = ChunkCoordIntPair.chunkXZ2Int(chunkX, chunkZ);
+        //  Stamp first, so a job which is about to store a cluster built before this change sees it
+        lastChange.put(key, ++changeStamp);
+        clusters.remove(key);
+    }
+
+    /**
+     * Should the route between two positions be planned on this graph?
+     *
+     * @param start start of the route.
+     * @param end   end of the route.
+     * @return true if both ends are in the colony's area and far enough apart.
+     */
+    public boolean isLongRoute(BlockPos start, BlockPos end)
+    {
+        int minDistance = Configurations.hierarchicalPathDistance;
+        if (minDistance <= 0 || !contains(start) || !contains(end))
+        {
+            return false;
+        }
+
+        return Math.abs(start.getX() - end.getX()) + Math.abs(start.getZ() - end.getZ()) >= minDistance;
+    }
+
+    /**
+     * @param pos a position.
+     * @return true if the position lies in a chunk of this graph.
+     */
+    public boolean contains(BlockPos pos)
+    {
+        return isInGraph(pos.getX() >> 4, pos.getZ() >> 4);
+    }
+
+    boolean isInGraph(int chunkX, int chunkZ)
+    {
+        return chunkX >= minChunkX && chunkX <= maxChunkX && chunkZ >= minChunkZ && chunkZ <= maxChunkZ;
+    }
+
+    /**
+     * Take a snapshot of the whole area, for a job which plans on this graph. Server thread only.
+     *
+     * @param world the world of the colony.
+     * @return the snapshot.
+     */
+    PathingSnapshot snapshot(World world)
+    {
+        return PassabilityCache.forWorld(world).snapshot(minChunkX << 4, minChunkZ << 4, (maxChunkX << 4) + 15, (maxChunkZ << 4) + 15);
+    }
+
+    /**
+     * @return the current change stamp; jobs take it along with their snapshot. Server thread only.
+     */
+    long getChangeStamp()
+    {
+        return changeStamp;
+    }
+
+    /**
+     * Get a cluster, building it from the snapshot if it is not known yet. Safe to call from any thread.
+     *
+     * @param snapshot snapshot of the area, taken at the given stamp.
+     * @param stamp    {@link #getChangeStamp()} at the time the snapshot was taken.
+     * @param chunkX   chunk x.
+     * @param chunkZ   chunk z.
+     * @return the cluster, or null if the chunk is not part of the graph.
+     */
+    @Nullable
+    RouteCluster getCluster(PathingSnapshot snapshot, long stamp, int chunkX, int chunkZ)
+    {
+        if (!isInGraph(chunkX, chunkZ))
+        {
+            return null;
+        }
+
+        long key = ChunkCoordIntPair.chunkXZ2Int(chunkX, chunkZ);
+        RouteCluster cluster = clusters.get(key);
+        if (cluster != null)
+        {
+            return cluster;
+        }
+
+        RouteCluster built = RouteCluster.build(snapshot, chunkX, chunkZ, this::isInGraph);
+        clusters.compute(key, (k, current) ->
+        {
+            if (current != null)
+            {
+                return current;
+            }
+            Long changed = lastChange.get(k);
+            return (changed == null || changed <= stamp) ? built : null;
+        });
+        return built;
+    }
+
+    /**
+     * @return the number of clusters currently known.
+     */
+    public int getClusterCount()
+    {
+        return clusters.size();
+    }
+}
@@ -0,0 +1,135 @@
+package com.minecolonies.entity.pathfinding;
+
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The {@link SectionSnapshot}s of one chunk column, copied lazily.
+ * A section is only copied when a path job first reads it, on whichever thread the job runs; from then on every
+ * view holding this column sees the same copy. Like ChunkCache, the copy reads the live chunk from the pathfinding
+ * thread, but only once per section instead of once per block.
+ * When a block changes, {@link PassabilityCache} replaces the column with one that lacks the changed section, so
+ * views taken earlier keep what they already read.
+ */
+final class ColumnSnapshot
+{
+    static final int SECTIONS = PathingSnapshot.WORLD_HEIGHT >> 4;
+
+    private final World                                 world;
+    private final Chunk                                 chunk;
+    private final AtomicReferenceArray<SectionSnapshot> sections;
+
+    /**
+     * Bytes of copied sections of every column in the cache this column belongs to, null once it left the cache.
+     */
+    private AtomicLong memory;
+    private int        copied;
+
+    /**
+     * Create a column which copies its sections from a chunk when they are first read.
+     *
+     * @param world  the world the chunk belongs to.
+     * @param chunk  the chunk.
+     * @param memory memory counter of the owning cache.
+     */
+    ColumnSnapshot(World world, Chunk chunk, AtomicLong memory)
+    {
+        this(world, chunk, new AtomicReferenceArray<>(SECTIONS), memory);
+    }
+
+    /**
+     * Create a column from sections which were already copied.
+     *
+     * @param sections all sections of the column, bottom up.
+     */
+    ColumnSnapshot(SectionSnapshot[] sections)
+    {
+        this(null, null, new AtomicReferenceArray<>(sections), null);
+    }
+
+    private ColumnSnapshot(World world, Chunk chunk, AtomicReferenceArray<SectionSnapshot> sections, AtomicLong memory)
+    {
+        this.world = world;
+        this.chunk = chunk;
+        this.sections = sections;
+        this.memory = memory;
+    }
+
+    /**
+     * Get a section, copying it from the chunk if no job read it before.
+     *
+     * @param sectionY section y, between 0 and 15.
+     * @return the section.
+     */
+    SectionSnapshot getSection(int sectionY)
+    {
+        SectionSnapshot section = sections.get(sectionY);
+        if (section != null)
+        {
+            return section;
+        }
+
+        section = SectionSnapshot.copyOf(world, chunk.getBlockStorageArray()[sectionY], chunk.xPosition << 4, chunk.zPosition << 4);
+        return store(sectionY, section);
+    }
+
+    private synchronized SectionSnapshot store(int sectionY, SectionSnapshot section)
+    {
+        SectionSnapshot existing = sections.get(sectionY);
+        if (existing != null)
+        {
+            //  Another job copied it first, keep theirs so all views agree
+            return existing;
+        }
+
+        sections.set(sectionY, section);
+        if (section != SectionSnapshot.EMPTY)
+        {
+            ++copied;
+            if (memory != null)
+            {
+                memory.addAndGet(SectionSnapshot.MEMORY);
+            }
+        }
+        return section;
+    }
+
+    /**
+     * Create the column which replaces this one in the cache after a block changed.
+     * It shares every section of this column but the changed one; this column leaves the cache.
+     *
+     * @param sectionY y of the changed section.
+     * @return the new column.
+     */
+    synchronized ColumnSnapshot without(int sectionY)
+    {
+        ColumnSnapshot column = new ColumnSnapshot(world, chunk, memory);
+        for (int y = 0; y < SECTIONS; ++y)
+        {
+            SectionSnapshot section = sections.get(y);
+            if (y != sectionY && section != null)
+            {
+                column.store(y, section);
+            }
+        }
+
+        detach();
+        return column;
+    }
+
+    /**
+     * Called when the column leaves the cache; its sections no longer count against the cache's memory.
+     * Views holding the column keep working.
+     */
+    synchronized void detach()
+    {
+        if (memory != null)
+        {
+            memory.addAndGet(-copied * SectionSnapshot.MEMORY);
+            memory = null;
+        }
+    }
+}
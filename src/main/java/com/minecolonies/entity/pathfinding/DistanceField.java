@@ -0,0 +1,574 @@
+package com.minecolonies.entity.pathfinding;
+
+import net.minecraft.pathfinding.PathEntity;
+import net.minecraft.pathfinding.PathPoint;
+import net.minecraft.util.BlockPos;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Walking distance from every standing position in an area to one target, found by a search backwards from
+ * the target. Anyone in the area reaches the target by stepping to a neighbour which is one step closer, so
+ * many citizens share a single search.
+ * Uses the movement model of {@link RouteCluster}: plain walking, one block up or down per step.
+ * Immutable once published; block changes are applied by {@link #repair} to a new field, which shares the
+ * distances of every chunk column without changes with this one.
+ */
+final class DistanceField
+{
+    /**
+     * Largest extent of the area along x or z, limited by the key layout.
+     */
+    static final int MAX_SIZE = 1 << 11;
+
+    private static final int UNREACHED = Integer.MAX_VALUE;
+
+    private static final int[][] DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+    private static final int[]   STEPS_Y    = {0, 1, -1};
+
+    private final BlockPos        target;
+    private final int             minX;
+    private final int             minZ;
+    private final int             maxX;
+    private final int             maxZ;
+    private final PathingSnapshot snapshot;
+    private final long            stamp;
+    private final Distances       distances;
+    private       long            memory;
+
+    private DistanceField(BlockPos target, int minX, int minZ, int maxX, int maxZ, PathingSnapshot snapshot, long stamp, Distances distances)
+    {
+        this.target = target;
+        this.minX = minX;
+        this.minZ = minZ;
+        this.maxX = maxX;
+        this.maxZ = maxZ;
+        this.snapshot = snapshot;
+        this.stamp = stamp;
+        this.distances = distances;
+    }
+
+    /**
+     * Compute the field of a target.
+     *
+     * @param snapshot blocks of the area.
+     * @param stamp    change stamp of the snapshot.
+     * @param target   the target block; if nobody can stand there, the spots next to it are used.
+     * @param minX     smallest block x of the area.
+     * @param minZ     smallest block z of the area.
+     * @param maxX     largest block x of the area.
+     * @param maxZ     largest block z of the area.
+     * @return the field.
+     */
+    static DistanceField compute(PathingSnapshot snapshot, long stamp, BlockPos target, int minX, int minZ, int maxX, int maxZ)
+    {
+        DistanceField field = new DistanceField(target, minX, minZ, maxX, maxZ, snapshot, stamp,
+                new Distances(maxX - minX, maxZ - minZ));
+
+        int[] queue = new int[1024];
+        int head = 0;
+        int tail = 0;
+        for (BlockPos seed : field.getSeeds())
+        {
+            int key = field.key(seed.getX(), seed.getY(), seed.getZ());
+            field.distances.put(key, 0);
+            queue = push(queue, tail++, key);
+        }
+
+        while (head < tail)
+        {
+            int current = queue[head++];
+            int distance = field.distances.get(current);
+            int x = field.keyX(current);
+            int y = keyY(current);
+            int z = field.keyZ(current);
+            for (int[] direction : DIRECTIONS)
+            {
+                for (int dy : STEPS_Y)
+                {
+                    int nx = x + direction[0];
+                    int ny = y + dy;
+                    int nz = z + direction[1];
+                    if (field.isInArea(nx, nz) && RouteCluster.canStep(snapshot, x, y, z, nx, ny, nz))
+                    {
+                        int next = field.key(nx, ny, nz);
+                        if (field.distances.get(next) == NodeTable.NO_VALUE)
+                        {
+                            field.distances.put(next, distance + 1);
+                            queue = push(queue, tail++, next);
+                        }
+                    }
+                }
+            }
+        }
+
+        field.memory = field.distances.getMemory();
+        return field;
+    }
+
+    private static int[] push(int[] queue, int index, int key)
+    {
+        int[] result = queue;
+        if (index >= result.length)
+        {
+            result = new int[result.length << 1];
+            System.arraycopy(queue, 0, result, 0, queue.length);
+        }
+        result[index] = key;
+        return result;
+    }
+
+    /**
+     * Apply block changes to a new field. Only the distances which depended on the changed blocks are
+     * computed again; if the target itself is affected, the field is computed from scratch.
+     *
+     * @param newSnapshot blocks of the area after the changes.
+     * @param newStamp    change stamp of the new snapshot.
+     * @param changes     the changed blocks.
+     * @return the updated field.
+     */
+    DistanceField repair(PathingSnapshot newSnapshot, long newStamp, Collection<BlockPos> changes)
+    {
+        for (BlockPos change : changes)
+        {
+            if (Math.abs(change.getX() - target.getX()) <= 2 && Math.abs(change.getZ() - target.getZ()) <= 2 &&
+                    Math.abs(change.getY() - target.getY()) <= 3)
+            {
+                //  The spots next to the target may have changed
+                return compute(newSnapshot, newStamp, target, minX, minZ, maxX, maxZ);
+            }
+        }
+
+        DistanceField field = new DistanceField(target, minX, minZ, maxX, maxZ, newSnapshot, newStamp, distances.copy());
+
+        //  1. Forget the cells whose standing or steps read a changed block, and every cell which relied on them
+        List<Integer> invalid = new ArrayList<>();
+        for (BlockPos change : changes)
+        {
+            if (!isInArea(change.getX(), change.getZ()))
+            {
+                continue;
+            }
+            for (int y = change.getY() - 2; y <= change.getY() + 1; ++y)
+            {
+                if (y > 0 && y < PathingSnapshot.WORLD_HEIGHT - 1)
+                {
+                    //  Also cells which were not reachable before, they may have become standing positions
+                    int cell = key(change.getX(), y, change.getZ());
+                    field.distances.put(cell, UNREACHED);
+                    invalid.add(cell);
+                }
+            }
+        }
+
+        for (int i = 0; i < invalid.size(); ++i)
+        {
+            int cell = invalid.get(i);
+            int oldDistance = distances.get(cell);
+            if (oldDistance == NodeTable.NO_VALUE || oldDistance == UNREACHED)
+            {
+                continue;
+            }
+
+            field.forEachNeighbour(cell, neighbour ->
+            {
+                if (field.getDistance(neighbour) != UNREACHED && field.getDistance(neighbour) == oldDistance + 1 &&
+                        !field.isSupported(neighbour))
+                {
+                    field.invalidate(neighbour, invalid);
+                }
+            });
+        }
+
+        //  2. Search again from the cells around the forgotten ones
+        PriorityQueue<Long> open = new PriorityQueue<>();
+        for (int cell : invalid)
+        {
+            int best = UNREACHED;
+            int x = keyX(cell);
+            int y = keyY(cell);
+            int z = keyZ(cell);
+            for (int[] direction : DIRECTIONS)
+            {
+                for (int dy : STEPS_Y)
+                {
+                    int nx = x + direction[0];
+                    int ny = y + dy;
+                    int nz = z + direction[1];
+                    if (isInArea(nx, nz) && RouteCluster.canStep(newSnapshot, nx, ny, nz, x, y, z))
+                    {
+                        int distance = field.getDistance(key(nx, ny, nz));
+                        if (distance != UNREACHED)
+                        {
+                            best = Math.min(best, distance + 1);
+                        }
+                    }
+                }
+            }
+
+            if (best != UNREACHED)
+            {
+                field.distances.put(cell, best);
+                open.add(((long) best << 32) | cell);
+            }
+        }
+
+        while (!open.isEmpty())
+        {
+            long entry = open.poll();
+            int cell = (int) entry;
+            int distance = (int) (entry >>> 32);
+            if (field.getDistance(cell) != distance)
+            {
+                continue;
+            }
+
+            int x = keyX(cell);
+            int y = keyY(cell);
+            int z = keyZ(cell);
+            for (int[] direction : DIRECTIONS)
+            {
+                for (int dy : STEPS_Y)
+                {
+                    int nx = x + direction[0];
+                    int ny = y + dy;
+                    int nz = z + direction[1];
+                    if (isInArea(nx, nz) && RouteCluster.canStep(newSnapshot, x, y, z, nx, ny, nz))
+                    {
+                        int next = key(nx, ny, nz);
+                        if (field.getDistance(next) > distance + 1)
+                        {
+                            field.distances.put(next, distance + 1);
+                            open.add(((long) (distance + 1) << 32) | next);
+                        }
+                    }
+                }
+            }
+        }
+
+        field.memory = field.distances.getMemory();
+        return field;
+    }
+
+    private void invalidate(int cell, List<Integer> invalid)
+    {
+        if (getDistance(cell) != UNREACHED)
+        {
+            distances.put(cell, UNREACHED);
+            invalid.add(cell);
+        }
+    }
+
+    /**
+     * @return true if the cell still has a neighbour one step closer to the target, which it can step from.
+     */
+    private boolean isSupported(int cell)
+    {
+        int distance = getDistance(cell);
+        int x = keyX(cell);
+        int y = keyY(cell);
+        int z = keyZ(cell);
+        for (int[] direction : DIRECTIONS)
+        {
+            for (int dy : STEPS_Y)
+            {
+                int nx = x + direction[0];
+                int ny = y + dy;
+                int nz = z + direction[1];
+                if (isInArea(nx, nz) && RouteCluster.canStep(snapshot, nx, ny, nz, x, y, z) &&
+                        getDistance(key(nx, ny, nz)) == distance - 1)
+                {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void forEachNeighbour(int cell, CellConsumer consumer)
+    {
+        int x = keyX(cell);
+        int y = keyY(cell);
+        int z = keyZ(cell);
+        for (int[] direction : DIRECTIONS)
+        {
+            for (int dy : STEPS_Y)
+            {
+                int nx = x + direction[0];
+                int ny = y + dy;
+                if (isInArea(nx, z + direction[1]) && ny > 0 && ny < PathingSnapshot.WORLD_HEIGHT - 1)
+                {
+                    consumer.accept(key(nx, ny, z + direction[1]));
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the positions at distance 0: the target, or the spots next to it.
+     */
+    private List<BlockPos> getSeeds()
+    {
+        List<BlockPos> seeds = new ArrayList<>();
+        if (RouteCluster.canStand(snapshot, target.getX(), target.getY(), target.getZ()))
+        {
+            seeds.add(target);
+            return seeds;
+        }
+
+        for (int dx = -1; dx <= 1; ++dx)
+        {
+            for (int dy = -1; dy <= 1; ++dy)
+            {
+                for (int dz = -1; dz <= 1; ++dz)
+                {
+                    int x = target.getX() + dx;
+                    int y = target.getY() + dy;
+                    int z = target.getZ() + dz;
+                    if (isInArea(x, z) && RouteCluster.canStand(snapshot, x, y, z))
+                    {
+                        seeds.add(new BlockPos(x, y, z));
+                    }
+                }
+            }
+        }
+        return seeds;
+    }
+
+    /**
+     * Walk down the field from a position to the target.
+     *
+     * @param start where to start; must be a standing position.
+     * @return the path, without the start, or null if the target can not be reached from there.
+     */
+    @Nullable
+    PathEntity follow(BlockPos start)
+    {
+        if (!isInArea(start.getX(), start.getZ()) || !RouteCluster.canStand(snapshot, start.getX(), start.getY(), start.getZ()))
+        {
+            return null;
+        }
+
+        int distance = getDistance(key(start.getX(), start.getY(), start.getZ()));
+        if (distance == UNREACHED || distance == 0)
+        {
+            return null;
+        }
+
+        PathPoint[] points = new PathPoint[distance];
+        int x = start.getX();
+        int y = start.getY();
+        int z = start.getZ();
+        for (int i = 0; i < points.length; ++i)
+        {
+            int bestX = 0;
+            int bestY = 0;
+            int bestZ = 0;
+            double bestDistanceSq = Double.MAX_VALUE;
+            for (int[] direction : DIRECTIONS)
+            {
+                for (int dy : STEPS_Y)
+                {
+                    int nx = x + direction[0];
+                    int ny = y + dy;
+                    int nz = z + direction[1];
+                    if (isInArea(nx, nz) && RouteCluster.canStep(snapshot, x, y, z, nx, ny, nz) &&
+                            getDistance(key(nx, ny, nz)) == distance - 1)
+                    {
+                        //  Of the equally short ways, head straight for the target
+                        double distanceSq = target.distanceSq(nx, ny, nz);
+                        if (distanceSq < bestDistanceSq)
+                        {
+                            bestDistanceSq = distanceSq;
+                            bestX = nx;
+                            bestY = ny;
+                            bestZ = nz;
+                        }
+                    }
+                }
+            }
+
+            if (bestDistanceSq == Double.MAX_VALUE)
+            {
+                return null;
+            }
+
+            x = bestX;
+            y = bestY;
+            z = bestZ;
+            --distance;
+            points[i] = new PathPointExtended(new BlockPos(x, y, z));
+        }
+
+        return new PathEntity(points);
+    }
+
+    /**
+     * Check that every step of a path is still possible.
+     *
+     * @param current blocks as they are now.
+     * @param start   where the path starts.
+     * @param path    the path.
+     * @return true if the path can be walked.
+     */
+    static boolean isWalkable(PathingSnapshot current, BlockPos start, PathEntity path)
+    {
+        int x = start.getX();
+        int y = start.getY();
+        int z = start.getZ();
+        for (int i = 0; i < path.getCurrentPathLength(); ++i)
+        {
+            PathPoint point = path.getPathPointFromIndex(i);
+            if (!RouteCluster.canStep(current, x, y, z, point.xCoord, point.yCoord, point.zCoord))
+            {
+                return false;
+            }
+            x = point.xCoord;
+            y = point.yCoord;
+            z = point.zCoord;
+        }
+        return true;
+    }
+
+    BlockPos getTarget()
+    {
+        return target;
+    }
+
+    /**
+     * @return change stamp of the snapshot this field was computed from.
+     */
+    long getStamp()
+    {
+        return stamp;
+    }
+
+    /**
+     * @return bytes taken by the distances, counting columns shared with other fields too.
+     */
+    long getMemory()
+    {
+        return memory;
+    }
+
+    private int getDistance(int cell)
+    {
+        int distance = distances.get(cell);
+        return distance == NodeTable.NO_VALUE ? UNREACHED : distance;
+    }
+
+    private boolean isInArea(int x, int z)
+    {
+        return x >= minX && x <= maxX && z >= minZ && z <= maxZ;
+    }
+
+    private int key(int x, int y, int z)
+    {
+        return ((x - minX) << 19) | ((z - minZ) << 8) | (y & 0xFF);
+    }
+
+    private int keyX(int key)
+    {
+        return (key >>> 19) + minX;
+    }
+
+    private static int keyY(int key)
+    {
+        return key & 0xFF;
+    }
+
+    private int keyZ(int key)
+    {
+        return ((key >>> 8) & (MAX_SIZE - 1)) + minZ;
+    }
+
+    /**
+     * Distances by cell key, in one {@link NodeTable} per chunk column of the area. A copy shares all columns with
+     * the original and copies a column only when it writes to it, so a repair costs in proportion to the columns it
+     * touches, not to the area.
+     */
+    private static final class Distances
+    {
+        private static final int COLUMN_CAPACITY = 64;
+        private static final int COLUMNS_PER_ROW = MAX_SIZE >> 4;
+        private static final int BYTES_PER_SLOT  = 12;
+
+        private final NodeTable[] columns;
+        private final int         sizeZ;
+
+        /**
+         * Columns which belong to this instance alone, and may be written to.
+         */
+        private final BitSet owned = new BitSet();
+
+        /**
+         * @param spanX largest x offset in the area.
+         * @param spanZ largest z offset in the area.
+         */
+        private Distances(int spanX, int spanZ)
+        {
+            this.sizeZ = (spanZ >> 4) + 1;
+            this.columns = new NodeTable[((spanX >> 4) + 1) * sizeZ];
+        }
+
+        private Distances(Distances original)
+        {
+            this.sizeZ = original.sizeZ;
+            this.columns = original.columns.clone();
+        }
+
+        private Distances copy()
+        {
+            return new Distances(this);
+        }
+
+        private int get(int cell)
+        {
+            NodeTable column = columns[index(cell)];
+            return column == null ? NodeTable.NO_VALUE : column.get(cell);
+        }
+
+        private void put(int cell, int distance)
+        {
+            int index = index(cell);
+            if (!owned.get(index))
+            {
+                NodeTable shared = columns[index];
+                columns[index] = shared == null ? new NodeTable(COLUMN_CAPACITY) : shared.copy();
+                owned.set(index);
+            }
+            columns[index].put(cell, distance);
+        }
+
+        private long getMemory()
+        {
+            long memory = 0;
+            for (NodeTable column : columns)
+            {
+                if (column != null)
+                {
+                    memory += (long) column.capacity() * BYTES_PER_SLOT;
+                }
+            }
+            return memory;
+        }
+
+        private int index(int cell)
+        {
+            return (cell >>> 23) * sizeZ + ((cell >>> 12) & (COLUMNS_PER_ROW - 1));
+        }
+    }
+
+    /**
+     * Receives cell keys.
+     */
+    private interface CellConsumer
+    {
+        void accept(int cell);
+    }
+}
@@ -0,0 +1,422 @@
+package com.minecolonies.entity.pathfinding;
+
+import com.minecolonies.colony.Colony;
+import com.minecolonies.configuration.Configurations;
+import com.minecolonies.util.Log;
+import net.minecraft.pathfinding.PathEntity;
+import net.minecraft.util.BlockPos;
+import net.minecraft.world.World;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.Future;
+
+/**
+ * Shared {@link DistanceField}s of a colony, one for each registered target which citizens recently walked to.
+ * Fields are computed and repaired on the pathfinding threads; citizens walking to a registered target follow
+ * the field instead of running their own search. Used from the server thread.
+ * Each colony keeps at most {@link Configurations#distanceFieldCount} fields, and all colonies together at most
+ * {@link Configurations#distanceFieldMemory} megabytes; the least recently used fields are dropped first.
+ */
+public final class DistanceFields
+{
+    /**
+     * How many block changes are remembered for repairs; fields older than that are computed from scratch.
+     */
+    private static final int CHANGE_LOG_SIZE = 4096;
+
+    private static final Map<Integer, DistanceFields> services = new HashMap<>();
+
+    /**
+     * Targets with a field or an update, of all colonies, in access order.
+     */
+    private static final LinkedHashMap<Target, DistanceFields> recent = new LinkedHashMap<>(16, 0.75F, true);
+
+    private final int dimension;
+    private final int colonyId;
+    private final int minX;
+    private final int minZ;
+    private final int maxX;
+    private final int maxZ;
+
+    /**
+     * Registered targets in access order, the eldest entry is the least recently used.
+     */
+    private final LinkedHashMap<BlockPos, Target> targets = new LinkedHashMap<>(16, 0.75F, true);
+
+    /**
+     * Changed blocks in the area by change stamp, oldest first.
+     */
+    private final LinkedHashMap<Long, BlockPos> changes = new LinkedHashMap<>();
+    private long changeStamp          = 0;
+    private long forgottenChangeStamp = 0;
+
+    private long hits   = 0;
+    private long misses = 0;
+
+    private DistanceFields(int dimension, int colonyId, BlockPos center)
+    {
+        this.dimension = dimension;
+        this.colonyId = colonyId;
+        this.minX = center.getX() - Configurations.workingRangeTownHall;
+        this.minZ = center.getZ() - Configurations.workingRangeTownHall;
+        this.maxX = center.getX() + Configurations.workingRangeTownHall;
+        this.maxZ = center.getZ() + Configurations.workingRangeTownHall;
+    }
+
+    /**
+     * Get the distance fields of a colony.
+     *
+     * @param colony the colony.
+     * @return its fields.
+     */
+    public static DistanceFields forColony(Colony colony)
+    {
+        return services.computeIfAbsent(colony.getID(), id -> new DistanceFields(colony.getDimensionId(), id, colony.getCenter()));
+    }
+
+    /**
+     * Called when a block changed; fields are repaired the next time they are used.
+     *
+     * @param world the world.
+     * @param pos   the changed block.
+     */
+    public static void onBlockChanged(World world, BlockPos pos)
+    {
+        for (DistanceFields service : services.values())
+        {
+            if (service.dimension == world.provider.getDimensionId() && service.isInArea(pos))
+            {
+                service.recordChange(pos);
+            }
+        }
+    }
+
+    /**
+     * Called when a world unloads; drops the fields of its colonies.
+     *
+     * @param world the world.
+     */
+    public static void onWorldUnload(World world)
+    {
+        Iterator<DistanceFields> it = services.values().iterator();
+        while (it.hasNext())
+        {
+            DistanceFields service = it.next();
+            if (service.dimension == world.provider.getDimensionId())
+            {
+                service.targets.values().forEach(DistanceFields::drop);
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Called when a colony unloads; drops its fields.
+     *
+     * @param colony the colony.
+     */
+    public static void onColonyUnload(Colony colony)
+    {
+        DistanceFields service = services.remove(colony.getID());
+        if (service != null)
+        {
+            service.targets.values().forEach(DistanceFields::drop);
+        }
+    }
+
+    /**
+     * Register a target which citizens walk to often, like a building.
+     *
+     * @param target the target block.
+     */
+    public void register(BlockPos target)
+    {
+        if (maxX - minX >= DistanceField.MAX_SIZE || maxZ - minZ >= DistanceField.MAX_SIZE)
+        {
+            //  Colony too large for the field layout
+            return;
+        }
+
+        if (isInArea(target) && !targets.containsKey(target))
+        {
+            targets.put(target, new Target(target));
+        }
+    }
+
+    /**
+     * Forget a target and its field.
+     *
+     * @param target the target block.
+     */
+    public void unregister(BlockPos target)
+    {
+        Target removed = targets.remove(target);
+        if (removed != null)
+        {
+            drop(removed);
+        }
+    }
+
+    /**
+     * Get a path to a registered target by following its field.
+     * Starts computing or repairing the field if needed, so a later call can use it.
+     *
+     * @param world       the world of the colony.
+     * @param start       start of the path.
+     * @param destination destination of the path.
+     * @return the path, or null if the destination is not a registered target or its field is not ready.
+     */
+    @Nullable
+    public PathEntity getPath(World world, BlockPos start, BlockPos destination)
+    {
+        Target target = targets.get(destination);
+        if (target == null)
+        {
+            return null;
+        }
+
+        DistanceField field = target.field;
+        if (field == null || field.getStamp() != changeStamp)
+        {
+            scheduleUpdate(world, target, field);
+        }
+        else
+        {
+            //  Mark as recently used
+            recent.get(target);
+        }
+
+        PathEntity path = field == null ? null : field.follow(start);
+        if (path != null && field.getStamp() != changeStamp &&
+                !DistanceField.isWalkable(getSnapshot(world, target), start, path))
+        {
+            //  The field is being repaired, and the changes are in the way
+            path = null;
+        }
+
+        if (path == null)
+        {
+            ++misses;
+            return null;
+        }
+
+        ++hits;
+        return path;
+    }
+
+    private void scheduleUpdate(World world, Target target, @Nullable DistanceField field)
+    {
+        if (target.update != null && !target.update.isDone())
+        {
+            return;
+        }
+
+        if (field == null)
+        {
+            limitFields();
+        }
+        recent.put(target, this);
+        limitMemory();
+
+        PathingSnapshot snapshot = getSnapshot(world, target);
+        long stamp = changeStamp;
+        if (field == null || field.getStamp() < forgottenChangeStamp)
+        {
+            target.update = Pathfinding.submit(() -> target.publish(
+                    DistanceField.compute(snapshot, stamp, target.pos, minX, minZ, maxX, maxZ)), AbstractPathJob.Priority.BACKGROUND, colonyId);
+        }
+        else
+        {
+            List<BlockPos> changed = new ArrayList<>();
+            for (Map.Entry<Long, BlockPos> entry : changes.entrySet())
+            {
+                if (entry.getKey() > field.getStamp())
+                {
+                    changed.add(entry.getValue());
+                }
+            }
+            target.update = Pathfinding.submit(() -> target.publish(
+                    field.repair(snapshot, stamp, changed)), AbstractPathJob.Priority.BACKGROUND, colonyId);
+        }
+    }
+
+    /**
+     * Get a view of the colony area which includes every change recorded so far.
+     * The view of the latest update is reused until another block changes, so checking a path against a field
+     * under repair does not take a second view of the whole area.
+     *
+     * @param world  the world of the colony.
+     * @param target the target the view is for.
+     * @return the view.
+     */
+    private PathingSnapshot getSnapshot(World world, Target target)
+    {
+        if (target.snapshot == null || target.snapshotStamp != changeStamp)
+        {
+            target.snapshot = PassabilityCache.forWorld(world).snapshot(minX, minZ, maxX, maxZ);
+            target.snapshotStamp = changeStamp;
+        }
+        return target.snapshot;
+    }
+
+    /**
+     * Make room for one more field by dropping the fields of the least recently used targets.
+     */
+    private void limitFields()
+    {
+        int fields = 0;
+        for (Target target : targets.values())
+        {
+            if (target.field != null || target.update != null)
+            {
+                ++fields;
+            }
+        }
+
+        Iterator<Target> it = targets.values().iterator();
+        while (fields >= Math.max(1, Configurations.distanceFieldCount) && it.hasNext())
+        {
+            Target target = it.next();
+            if (target.field != null || target.update != null)
+            {
+                drop(target);
+                --fields;
+            }
+        }
+    }
+
+    /**
+     * Drop the fields of the least recently used targets of all colonies, until the rest fit in the memory limit.
+     */
+    private static void limitMemory()
+    {
+        long limit = Math.max(1, Configurations.distanceFieldMemory) * 1024L * 1024L;
+        long memory = 0;
+        for (Target target : recent.keySet())
+        {
+            memory += target.getMemory();
+        }
+
+        Iterator<Target> it = recent.keySet().iterator();
+        while (memory > limit && it.hasNext())
+        {
+            Target target = it.next();
+            memory -= target.getMemory();
+            it.remove();
+            target.drop();
+        }
+    }
+
+    private static void drop(Target target)
+    {
+        recent.remove(target);
+        target.drop();
+    }
+
+    private void recordChange(BlockPos pos)
+    {
+        ++changeStamp;
+        changes.put(changeStamp, pos);
+        if (changes.size() > CHANGE_LOG_SIZE)
+        {
+            Iterator<Map.Entry<Long, BlockPos>> it = changes.entrySet().iterator();
+            forgottenChangeStamp = it.next().getKey();
+            it.remove();
+        }
+    }
+
+    private boolean isInArea(BlockPos pos)
+    {
+        return pos.getX() >= minX && pos.getX() <= maxX && pos.getZ() >= minZ && pos.getZ() <= maxZ &&
+                pos.getY() >= 0 && pos.getY() < PathingSnapshot.WORLD_HEIGHT;
+    }
+
+    public long getHits()
+    {
+        return hits;
+    }
+
+    public long getMisses()
+    {
+        return misses;
+    }
+
+    @Override
+    public String toString()
+    {
+        int fields = 0;
+        for (Target target : targets.values())
+        {
+            if (target.field != null)
+            {
+                ++fields;
+            }
+        }
+        return String.format("DistanceFields: targets=%d fields=%d hits=%d misses=%d", targets.size(), fields, hits, misses);
+    }
+
+    /**
+     * A registered target and its field.
+     */
+    private static final class Target
+    {
+        private final BlockPos pos;
+
+        /**
+         * Latest field, written by the pathfinding thread which computed it.
+         */
+        private volatile DistanceField field;
+        private Future<?> update;
+
+        /**
+         * View of the area taken at {@link #snapshotStamp}, only used on the server thread.
+         */
+        private PathingSnapshot snapshot;
+        private long            snapshotStamp;
+
+        private Target(BlockPos pos)
+        {
+            this.pos = pos;
+        }
+
+        private void publish(DistanceField newField)
+        {
+            if (Thread.currentThread().isInterrupted())
+            {
+                //  Dropped while the field was computed
+                return;
+            }
+
+            DistanceField current = field;
+            if (current == null || current.getStamp() <= newField.getStamp())
+            {
+                field = newField;
+            }
+            if (Configurations.pathfindingDebugVerbosity > AbstractPathJob.DEBUG_VERBOSITY_NONE)
+            {
+                Log.logger.info(String.format("Distance field of [%d,%d,%d] updated", pos.getX(), pos.getY(), pos.getZ()));
+            }
+        }
+
+        private long getMemory()
+        {
+            DistanceField current = field;
+            return current == null ? 0 : current.getMemory();
+        }
+
+        /**
+         * Cancel the update and forget the field.
+         */
+        private void drop()
+        {
+            if (update != null)
+            {
+                update.cancel(true);
+                update = null;
+            }
+            field = null;
+            snapshot = null;
+        }
+    }
+}
@@ -2,12 +2,23 @@ package com.minecolonies.entity.pathfinding;
 
 import net.minecraft.util.BlockPos;
 
+/**
+ * A* search node.
+ * Nodes are recycled by {@link NodeArena} between searches, so {@link #pos} is only valid while the
+ * search which owns the node is running; copy it if it has to be kept.
+ */
 public class Node implements Comparable<Node>
 {
+    /**
+     * Heap index of a node which is not in the open set.
+     */
+    static final int NOT_IN_HEAP = -1;
+
     public Node parent;
     public final BlockPos pos;
+    private final BlockPos.MutableBlockPos mutablePos;
 
-    private final int hash;
+    private int hash;
 
     public int counterAdded;
     public int counterVisited;
@@ -26,6 +37,20 @@ public class Node implements Comparable<Node>
     public boolean isLadder = false;
     public boolean isSwimming = false;
 
+    /**
+     * Position of this node in the open set heap, see {@link NodeHeap}.
+     */
+    int heapIndex = NOT_IN_HEAP;
+
+    /**
+     * Create a blank node, to be set up with {@link #init(Node, int, int, int, double, double, double)}.
+     */
+    Node()
+    {
+        this.mutablePos = new BlockPos.MutableBlockPos(0, 0, 0);
+        this.pos = mutablePos;
+    }
+
     /**
      * Create a Node that inherits from a parent, and has a Cost and Heuristic estimate
      * @param parent parent node arrives from
@@ -36,13 +61,8 @@ public class Node implements Comparable<Node>
      */
     public Node(Node parent, BlockPos pos, double cost, double heuristic, double score)
     {
-        this.parent = parent;
-        this.pos = pos;
-        this.steps = parent != null ? (parent.steps + 1) : 0;
-        this.cost = cost;
-        this.heuristic = heuristic;
-        this.score = score;
-        this.hash = pos.getX() ^ ((pos.getZ() << 12) | (pos.getZ() >> 20)) ^ (pos.getY() << 24);
+        this();
+        init(parent, pos.getX(), pos.getY(), pos.getZ(), cost, heuristic, score);
     }
 
     /**
@@ -55,6 +75,36 @@ public class Node implements Comparable<Node>
         this(null, pos, 0, heuristic, heuristic);
     }
 
+    /**
+     * (Re)initialize all fields of the node.
+     *
+     * @param parent    parent node arrives from
+     * @param x         x coordinate of node
+     * @param y         y coordinate of node
+     * @param z         z coordinate of node
+     * @param cost      node cost
+     * @param heuristic heuristic estimate
+     * @param score     node total score
+     * @return this node
+     */
+    Node init(Node parent, int x, int y, int z, double cost, double heuristic, double score)
+    {
+        this.parent = parent;
+        this.mutablePos.set(x, y, z);
+        this.steps = parent != null ? (parent.steps + 1) : 0;
+        this.cost = cost;
+        this.heuristic = heuristic;
+        this.score = score;
+        this.hash = x ^ ((z << 12) | (z >> 20)) ^ (y << 24);
+        this.counterAdded = 0;
+        this.counterVisited = 0;
+        this.closed = false;
+        this.isLadder = false;
+        this.isSwimming = false;
+        this.heapIndex = NOT_IN_HEAP;
+        return this;
+    }
+
     @Override
     public int compareTo(Node o)
     {
@@ -0,0 +1,167 @@
+package com.minecolonies.entity.pathfinding;
+
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reusable storage for the nodes, open set and visited table of one search.
+ * Arenas are borrowed from a shared pool for the duration of a search, which may be resumed on another thread
+ * than the one which started it. Once the pool has warmed up a search allocates no nodes at all.
+ * Nodes handed out by an arena are only valid until the next {@link #reset()}.
+ */
+final class NodeArena
+{
+    private static final int DEFAULT_CAPACITY = 512;
+
+    /**
+     * Searches bigger than this drop their buffers afterwards instead of keeping them for the next search.
+     */
+    private static final int MAX_RETAINED_NODES = 1 << 16;
+
+    /**
+     * Idle arenas kept for reuse; more than this are left to the garbage collector.
+     */
+    private static final int MAX_POOLED_ARENAS = 16;
+
+    private static final Queue<NodeArena> POOL        = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger    pooledCount = new AtomicInteger();
+
+    private final NodeHeap  open    = new NodeHeap();
+    private final NodeTable visited = new NodeTable();
+    private Node[]          nodes   = new Node[DEFAULT_CAPACITY];
+    private int             size    = 0;
+
+    private NodeArena()
+    {
+        //  Use acquire() or create()
+    }
+
+    /**
+     * Borrow an empty arena from the pool; hand it back with {@link #release(NodeArena)} once the search is over.
+     *
+     * @return an arena which is ready for a new search.
+     */
+    static NodeArena acquire()
+    {
+        NodeArena arena = POOL.poll();
+        if (arena == null)
+        {
+            return new NodeArena();
+        }
+
+        pooledCount.decrementAndGet();
+        return arena;
+    }
+
+    /**
+     * Empty an arena and return it to the pool. Its nodes must not be used afterwards.
+     *
+     * @param arena an arena from {@link #acquire()}.
+     */
+    static void release(NodeArena arena)
+    {
+        arena.reset();
+        if (pooledCount.incrementAndGet() <= MAX_POOLED_ARENAS)
+        {
+            POOL.offer(arena);
+        }
+        else
+        {
+            pooledCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * @return a new arena which is not shared with anything else.
+     */
+    static NodeArena create()
+    {
+        return new NodeArena();
+    }
+
+    NodeHeap getOpenSet()
+    {
+        return open;
+    }
+
+    /**
+     * Get a blank node from the arena; it has to be set up with {@link Node#init}.
+     *
+     * @return a node with {@link #indexOf} equal to the number of nodes previously allocated.
+     */
+    Node allocate()
+    {
+        if (size == nodes.length)
+        {
+            nodes = Arrays.copyOf(nodes, size * 2);
+        }
+
+        Node node = nodes[size];
+        if (node == null)
+        {
+            node = new Node();
+            nodes[size] = node;
+        }
+
+        ++size;
+        return node;
+    }
+
+    /**
+     * @return number of nodes allocated since the last reset.
+     */
+    int size()
+    {
+        return size;
+    }
+
+    /**
+     * Look up a previously registered node.
+     *
+     * @param key node key.
+     * @return the node, or null if none was registered for the key.
+     */
+    Node getVisited(int key)
+    {
+        int index = visited.get(key);
+        return index == NodeTable.NO_VALUE ? null : nodes[index];
+    }
+
+    /**
+     * Register the most recently allocated node under a key.
+     *
+     * @param key  node key.
+     * @param node node returned by the last {@link #allocate()} call.
+     */
+    void putVisited(int key, Node node)
+    {
+        int index = size - 1;
+        if (nodes[index] != node)
+        {
+            throw new IllegalArgumentException("Node was not allocated by this arena");
+        }
+        visited.put(key, index);
+    }
+
+    /**
+     * Release all nodes for reuse.
+     */
+    void reset()
+    {
+        open.clear();
+        visited.clear();
+        for (int i = 0; i < size; ++i)
+        {
+            nodes[i].parent = null;
+        }
+        size = 0;
+
+        if (nodes.length > MAX_RETAINED_NODES)
+        {
+            nodes = new Node[DEFAULT_CAPACITY];
+        }
+        visited.trim(MAX_RETAINED_NODES * 2);
+    }
+}
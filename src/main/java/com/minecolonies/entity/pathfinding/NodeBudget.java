@@ -0,0 +1,99 @@
+package com.minecolonies.entity.pathfinding;
+
+import com.minecolonies.configuration.Configurations;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Number of nodes all pathfinding workers together may visit per server tick.
+ * Workers take a share for each slice and hand back what they did not use; once the budget is spent they wait
+ * for the next tick. If the server stops ticking, the budget refills after one tick's worth of time anyway.
+ */
+final class NodeBudget
+{
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final Object lock = new Object();
+    private long remaining   = 0;
+    private long refilledAt  = 0;
+
+    /**
+     * Take up to the given number of nodes, waiting for the next tick if none are left.
+     *
+     * @param wanted nodes the slice would like to visit.
+     * @return nodes the slice may visit; 0 if the thread was interrupted while waiting.
+     */
+    int acquire(int wanted)
+    {
+        if (Configurations.pathfindingNodesPerTick <= 0)
+        {
+            return wanted;
+        }
+
+        synchronized (lock)
+        {
+            while (true)
+            {
+                long now = System.nanoTime();
+                if (now - refilledAt >= TICK_NANOS)
+                {
+                    refill(now);
+                }
+
+                if (remaining > 0)
+                {
+                    int granted = (int) Math.min(wanted, remaining);
+                    remaining -= granted;
+                    return granted;
+                }
+
+                try
+                {
+                    lock.wait(Math.max(1, TimeUnit.NANOSECONDS.toMillis(TICK_NANOS - (now - refilledAt))));
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                    return 0;
+                }
+            }
+        }
+    }
+
+    /**
+     * Hand back nodes a slice did not use.
+     *
+     * @param unused number of nodes.
+     */
+    void refund(int unused)
+    {
+        if (unused <= 0 || Configurations.pathfindingNodesPerTick <= 0)
+        {
+            return;
+        }
+
+        synchronized (lock)
+        {
+            remaining = Math.min(Configurations.pathfindingNodesPerTick, remaining + unused);
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Called at the start of every server tick.
+     */
+    void onTick()
+    {
+        synchronized (lock)
+        {
+            refill(System.nanoTime());
+            lock.notifyAll();
+        }
+    }
+
+    private void refill(long now)
+    {
+        remaining = Configurations.pathfindingNodesPerTick;
+        refilledAt = now;
+    }
+}
@@ -0,0 +1,161 @@
+package com.minecolonies.entity.pathfinding;
+
+import java.util.Arrays;
+
+/**
+ * Indexed binary min-heap of {@link Node}s, used as the A* open set.
+ * Every node remembers its own slot, which makes membership tests O(1) and lets a node whose score improved
+ * move up in place ({@link #decreaseKey(Node)}) instead of being removed and re-inserted.
+ * Ordering follows {@link Node#compareTo(Node)}.
+ */
+class NodeHeap
+{
+    private static final int DEFAULT_CAPACITY = 512;
+
+    private Node[] heap;
+    private int    size = 0;
+
+    NodeHeap()
+    {
+        heap = new Node[DEFAULT_CAPACITY];
+    }
+
+    boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    int size()
+    {
+        return size;
+    }
+
+    /**
+     * @param node node to check.
+     * @return true if the node is currently in this heap.
+     */
+    boolean contains(Node node)
+    {
+        return node.heapIndex != Node.NOT_IN_HEAP && node.heapIndex < size && heap[node.heapIndex] == node;
+    }
+
+    /**
+     * Add a node which is not in the heap yet.
+     *
+     * @param node the node to add.
+     */
+    void add(Node node)
+    {
+        if (size == heap.length)
+        {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+
+        heap[size] = node;
+        node.heapIndex = size;
+        ++size;
+        siftUp(node.heapIndex);
+    }
+
+    /**
+     * Remove and return the smallest node.
+     *
+     * @return the smallest node, or null if the heap is empty.
+     */
+    Node poll()
+    {
+        if (size == 0)
+        {
+            return null;
+        }
+
+        Node top = heap[0];
+        --size;
+        Node last = heap[size];
+        heap[size] = null;
+        if (size > 0)
+        {
+            heap[0] = last;
+            last.heapIndex = 0;
+            siftDown(0);
+        }
+
+        top.heapIndex = Node.NOT_IN_HEAP;
+        return top;
+    }
+
+    /**
+     * Restore the heap order after the score of a node in the heap was lowered.
+     *
+     * @param node the node whose score decreased.
+     */
+    void decreaseKey(Node node)
+    {
+        siftUp(node.heapIndex);
+    }
+
+    /**
+     * Remove all nodes, keeping the backing array for reuse.
+     */
+    void clear()
+    {
+        for (int i = 0; i < size; ++i)
+        {
+            heap[i].heapIndex = Node.NOT_IN_HEAP;
+            heap[i] = null;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int index)
+    {
+        int i = index;
+        Node node = heap[i];
+        while (i > 0)
+        {
+            int parent = (i - 1) >>> 1;
+            Node parentNode = heap[parent];
+            if (node.compareTo(parentNode) >= 0)
+            {
+                break;
+            }
+
+            heap[i] = parentNode;
+            parentNode.heapIndex = i;
+            i = parent;
+        }
+
+        heap[i] = node;
+        node.heapIndex = i;
+    }
+
+    private void siftDown(int index)
+    {
+        int i = index;
+        Node node = heap[i];
+        int half = size >>> 1;
+        while (i < half)
+        {
+            int child = (i << 1) + 1;
+            Node childNode = heap[child];
+            int right = child + 1;
+            if (right < size && heap[right].compareTo(childNode) < 0)
+            {
+                child = right;
+                childNode = heap[child];
+            }
+
+            if (node.compareTo(childNode) <= 0)
+            {
+                break;
+            }
+
+            heap[i] = childNode;
+            childNode.heapIndex = i;
+            i = child;
+        }
+
+        heap[i] = node;
+        node.heapIndex = i;
+    }
+}
@@ -0,0 +1,185 @@
+package com.minecolonies.entity.pathfinding;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash table from node keys (see {@link AbstractPathJob}) to node indices in a {@link NodeArena}.
+ * Keys and values are stored in primitive arrays, so lookups never box.
+ * Slots are tagged with a generation, which makes {@link #clear()} O(1) and lets the table be reused by many searches.
+ */
+class NodeTable
+{
+    /**
+     * Returned by {@link #get(int)} for keys which are not in the table.
+     */
+    static final int NO_VALUE = -1;
+
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private int[] keys;
+    private int[] values;
+    private int[] generations;
+    private int   generation = 1;
+    private int   size       = 0;
+    private int   mask;
+    private int   resizeThreshold;
+
+    NodeTable()
+    {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity initial number of slots, a power of two.
+     */
+    NodeTable(int capacity)
+    {
+        if (capacity > 0)
+        {
+            allocate(capacity);
+        }
+    }
+
+    /**
+     * @return a table with the same entries, which can be changed independently.
+     */
+    NodeTable copy()
+    {
+        NodeTable copy = new NodeTable(0);
+        copy.keys = keys.clone();
+        copy.values = values.clone();
+        copy.generations = generations.clone();
+        copy.generation = generation;
+        copy.size = size;
+        copy.mask = mask;
+        copy.resizeThreshold = resizeThreshold;
+        return copy;
+    }
+
+    private void allocate(int capacity)
+    {
+        keys = new int[capacity];
+        values = new int[capacity];
+        generations = new int[capacity];
+        mask = capacity - 1;
+        //  Keep the load factor at or below 0.5 so probe chains stay short
+        resizeThreshold = capacity >> 1;
+    }
+
+    int size()
+    {
+        return size;
+    }
+
+    int capacity()
+    {
+        return keys.length;
+    }
+
+    /**
+     * @param key node key.
+     * @return the stored index for the key, or {@link #NO_VALUE}.
+     */
+    int get(int key)
+    {
+        int slot = mix(key) & mask;
+        while (generations[slot] == generation)
+        {
+            if (keys[slot] == key)
+            {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NO_VALUE;
+    }
+
+    /**
+     * Store or replace the index for a key.
+     *
+     * @param key   node key.
+     * @param value index of the node, must not be negative.
+     */
+    void put(int key, int value)
+    {
+        if (size >= resizeThreshold)
+        {
+            grow();
+        }
+
+        int slot = mix(key) & mask;
+        while (generations[slot] == generation)
+        {
+            if (keys[slot] == key)
+            {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        generations[slot] = generation;
+        keys[slot] = key;
+        values[slot] = value;
+        ++size;
+    }
+
+    /**
+     * Remove all entries.
+     */
+    void clear()
+    {
+        size = 0;
+        ++generation;
+        if (generation == 0)
+        {
+            //  Wrapped around; old tags could look current again
+            Arrays.fill(generations, 0);
+            generation = 1;
+        }
+    }
+
+    /**
+     * Drop the backing arrays if they grew beyond a limit, so one huge search does not pin memory forever.
+     *
+     * @param maxCapacity largest capacity to keep.
+     */
+    void trim(int maxCapacity)
+    {
+        if (keys.length > maxCapacity)
+        {
+            allocate(DEFAULT_CAPACITY);
+            size = 0;
+            generation = 1;
+        }
+    }
+
+    private void grow()
+    {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        int[] oldGenerations = generations;
+        int oldGeneration = generation;
+
+        allocate(oldKeys.length << 1);
+        generation = 1;
+        size = 0;
+
+        for (int i = 0; i < oldKeys.length; ++i)
+        {
+            if (oldGenerations[i] == oldGeneration)
+            {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    /**
+     * Scramble the key bits; node keys of neighbouring blocks only differ in their low bits.
+     */
+    private static int mix(int key)
+    {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
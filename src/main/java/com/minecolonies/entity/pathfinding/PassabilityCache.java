@@ -0,0 +1,162 @@
+package com.minecolonies.entity.pathfinding;
+
+import com.minecolonies.configuration.Configurations;
+import net.minecraft.util.BlockPos;
+import net.minecraft.world.ChunkCoordIntPair;
+import net.minecraft.world.World;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-world store of {@link ColumnSnapshot}s, from which path jobs take their {@link PathingSnapshot}.
+ * Sections are copied the first time a job reads them and then reused by every later job, until a block in
+ * them changes, their chunk unloads or the cache outgrows {@link Configurations#passabilityCacheMemory}.
+ * Only used from the server thread; the columns themselves are filled from the pathfinding threads.
+ */
+public final class PassabilityCache
+{
+    private static final Map<World, PassabilityCache> caches = new HashMap<>();
+
+    private final World                        world;
+    private final AtomicLong                   memory  = new AtomicLong();
+    //  Access ordered, the least recently used columns are dropped first
+    private final Map<Long, ColumnSnapshot>    columns = new LinkedHashMap<>(16, 0.75F, true);
+
+    private PassabilityCache(World world)
+    {
+        this.world = world;
+    }
+
+    /**
+     * Get the cache of a world.
+     * Client worlds do not receive block updates through {@link #onBlockChanged(World, BlockPos)}, so they get
+     * a fresh cache every time.
+     *
+     * @param world the world.
+     * @return its cache.
+     */
+    public static PassabilityCache forWorld(World world)
+    {
+        if (world.isRemote)
+        {
+            return new PassabilityCache(world);
+        }
+        return caches.computeIfAbsent(world, PassabilityCache::new);
+    }
+
+    /**
+     * Called when a block changed; the section containing it is copied again the next time a job reads it.
+     *
+     * @param world the world.
+     * @param pos   the changed block.
+     */
+    public static void onBlockChanged(World world, BlockPos pos)
+    {
+        PassabilityCache cache = caches.get(world);
+        if (cache == null || pos.getY() < 0 || pos.getY() >= PathingSnapshot.WORLD_HEIGHT)
+        {
+            return;
+        }
+
+        long key = ChunkCoordIntPair.chunkXZ2Int(pos.getX() >> 4, pos.getZ() >> 4);
+        ColumnSnapshot column = cache.columns.get(key);
+        if (column != null)
+        {
+            //  Views taken before keep the old column, so what a job already read never changes under it
+            cache.columns.put(key, column.without(pos.getY() >> 4));
+        }
+    }
+
+    /**
+     * Called when a chunk unloads; drops its sections.
+     *
+     * @param world  the world.
+     * @param chunkX chunk x.
+     * @param chunkZ chunk z.
+     */
+    public static void onChunkUnload(World world, int chunkX, int chunkZ)
+    {
+        PassabilityCache cache = caches.get(world);
+        if (cache != null)
+        {
+            ColumnSnapshot column = cache.columns.remove(ChunkCoordIntPair.chunkXZ2Int(chunkX, chunkZ));
+            if (column != null)
+            {
+                column.detach();
+            }
+        }
+    }
+
+    /**
+     * Called when a world unloads; drops its cache.
+     *
+     * @param world the world.
+     */
+    public static void onWorldUnload(World world)
+    {
+        caches.remove(world);
+    }
+
+    /**
+     * Build a view of all chunk columns overlapping the given block box.
+     * Nothing is copied here; the job copies the sections it reads. Like ChunkCache, this loads chunks which are
+     * not loaded yet.
+     *
+     * @param minX smallest block x.
+     * @param minZ smallest block z.
+     * @param maxX largest block x.
+     * @param maxZ largest block z.
+     * @return an immutable view, safe to hand to another thread.
+     */
+    public PathingSnapshot snapshot(int minX, int minZ, int maxX, int maxZ)
+    {
+        int minChunkX = minX >> 4;
+        int minChunkZ = minZ >> 4;
+        int sizeX = (maxX >> 4) - minChunkX + 1;
+        int sizeZ = (maxZ >> 4) - minChunkZ + 1;
+
+        limitMemory();
+
+        ColumnSnapshot[] view = new ColumnSnapshot[sizeX * sizeZ];
+        for (int cx = 0; cx < sizeX; ++cx)
+        {
+            for (int cz = 0; cz < sizeZ; ++cz)
+            {
+                view[cx * sizeZ + cz] = getColumn(minChunkX + cx, minChunkZ + cz);
+            }
+        }
+
+        return new PathingSnapshot(minChunkX, minChunkZ, sizeX, sizeZ, view, world.getWorldInfo().getTerrainType());
+    }
+
+    private ColumnSnapshot getColumn(int chunkX, int chunkZ)
+    {
+        long key = ChunkCoordIntPair.chunkXZ2Int(chunkX, chunkZ);
+        ColumnSnapshot column = columns.get(key);
+        if (column == null)
+        {
+            column = new ColumnSnapshot(world, world.getChunkFromChunkCoords(chunkX, chunkZ), memory);
+            columns.put(key, column);
+        }
+        return column;
+    }
+
+    /**
+     * Drop the least recently used columns until the copied sections fit into the configured memory.
+     */
+    private void limitMemory()
+    {
+        long limit = Math.max(1, Configurations.passabilityCacheMemory) * 1024L * 1024L;
+        Iterator<ColumnSnapshot> it = columns.values().iterator();
+        while (memory.get() > limit && it.hasNext())
+        {
+            ColumnSnapshot column = it.next();
+            it.remove();
+            column.detach();
+        }
+    }
+}
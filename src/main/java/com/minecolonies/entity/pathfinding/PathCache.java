@@ -0,0 +1,351 @@
+package com.minecolonies.entity.pathfinding;
+
+import com.minecolonies.colony.Colony;
+import com.minecolonies.configuration.Configurations;
+import net.minecraft.pathfinding.PathEntity;
+import net.minecraft.pathfinding.PathPoint;
+import net.minecraft.util.BlockPos;
+import net.minecraft.world.World;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Colony-scoped cache of computed routes, keyed by start and destination block.
+ * An entry is dropped as soon as a block changes in any chunk section the route passes through, and the least
+ * recently used entry is evicted when the cache is full. Only used from the server thread.
+ */
+public final class PathCache
+{
+    /**
+     * How many recently changed sections are remembered, to reject routes computed before a change.
+     */
+    private static final int RECENT_CHANGES_SIZE = 1024;
+
+    /**
+     * Blocks below and above a path point which the route depends on (floor, drop, head room).
+     */
+    private static final int ROUTE_DEPTH  = 2;
+    private static final int ROUTE_HEIGHT = 2;
+
+    private static final int WORLD_HEIGHT = 256;
+
+    private static final Map<Integer, PathCache> caches = new HashMap<>();
+
+    private final int dimension;
+
+    /**
+     * Routes in access order, the eldest entry is the least recently used.
+     */
+    private final LinkedHashMap<RouteKey, Route> routes = new LinkedHashMap<>(16, 0.75F, true);
+
+    /**
+     * Routes by the sections they pass through.
+     */
+    private final Map<Long, Set<RouteKey>> routesBySection = new HashMap<>();
+
+    /**
+     * Change stamp by recently changed section, in insertion order.
+     */
+    private final LinkedHashMap<Long, Long> recentChanges = new LinkedHashMap<>();
+    private long changeStamp          = 0;
+    private long forgottenChangeStamp = 0;
+
+    private long hits          = 0;
+    private long misses        = 0;
+    private long invalidations = 0;
+    private long evictions     = 0;
+
+    private PathCache(int dimension)
+    {
+        this.dimension = dimension;
+    }
+
+    /**
+     * Get the route cache of a colony.
+     *
+     * @param colony the colony.
+     * @return its cache.
+     */
+    public static PathCache forColony(Colony colony)
+    {
+        return caches.computeIfAbsent(colony.getID(), id -> new PathCache(colony.getDimensionId()));
+    }
+
+    /**
+     * Called when a block changed; drops all routes through its section.
+     *
+     * @param world the world.
+     * @param pos   the changed block.
+     */
+    public static void onBlockChanged(World world, BlockPos pos)
+    {
+        if (pos.getY() < 0 || pos.getY() >= WORLD_HEIGHT)
+        {
+            return;
+        }
+
+        long section = SectionSnapshot.sectionKey(pos.getX(), pos.getY(), pos.getZ());
+        for (PathCache cache : caches.values())
+        {
+            if (cache.dimension == world.provider.getDimensionId())
+            {
+                cache.invalidateSection(section);
+            }
+        }
+    }
+
+    /**
+     * Called when a world unloads; drops the caches of its colonies.
+     *
+     * @param world the world.
+     */
+    public static void onWorldUnload(World world)
+    {
+        caches.values().removeIf(cache -> cache.dimension == world.provider.getDimensionId());
+    }
+
+    /**
+     * Called when a colony unloads; drops its cache.
+     *
+     * @param colony the colony.
+     */
+    public static void onColonyUnload(Colony colony)
+    {
+        caches.remove(colony.getID());
+    }
+
+    /**
+     * @return the current change stamp; pass it to {@link #put} for routes computed from the world as it is now.
+     */
+    public long getChangeStamp()
+    {
+        return changeStamp;
+    }
+
+    /**
+     * Look up a route.
+     *
+     * @param start       start block.
+     * @param destination destination block.
+     * @return a new PathEntity following the cached route, or null.
+     */
+    @Nullable
+    public PathEntity get(BlockPos start, BlockPos destination)
+    {
+        Route route = routes.get(new RouteKey(start, destination));
+        if (route == null)
+        {
+            ++misses;
+            return null;
+        }
+
+        ++hits;
+        return new PathEntity(route.points.clone());
+    }
+
+    /**
+     * Store a route which reaches its destination.
+     *
+     * @param start       start block.
+     * @param destination destination block.
+     * @param path        the computed path.
+     * @param stamp       {@link #getChangeStamp()} from before the path was computed.
+     */
+    public void put(BlockPos start, BlockPos destination, PathEntity path, long stamp)
+    {
+        int length = path.getCurrentPathLength();
+        if (length == 0)
+        {
+            return;
+        }
+
+        PathPoint[] points = new PathPoint[length];
+        Set<Long> sections = new HashSet<>();
+        for (int i = 0; i < length; ++i)
+        {
+            PathPoint point = path.getPathPointFromIndex(i);
+            points[i] = point;
+            for (int y = Math.max(0, point.yCoord - ROUTE_DEPTH); y <= Math.min(WORLD_HEIGHT - 1, point.yCoord + ROUTE_HEIGHT); ++y)
+            {
+                sections.add(SectionSnapshot.sectionKey(point.xCoord, y, point.zCoord));
+            }
+        }
+
+        if (changedSince(sections, stamp))
+        {
+            //  The world changed under the route while it was computed
+            return;
+        }
+
+        RouteKey key = new RouteKey(start, destination);
+        removeRoute(key);
+        routes.put(key, new Route(points, sections));
+        for (Long section : sections)
+        {
+            routesBySection.computeIfAbsent(section, s -> new HashSet<>()).add(key);
+        }
+
+        while (routes.size() > Math.max(1, Configurations.pathCacheSize))
+        {
+            RouteKey eldest = routes.keySet().iterator().next();
+            removeRoute(eldest);
+            ++evictions;
+        }
+    }
+
+    private boolean changedSince(Set<Long> sections, long stamp)
+    {
+        if (forgottenChangeStamp > stamp)
+        {
+            //  We no longer know which sections changed since then
+            return true;
+        }
+
+        for (Long section : sections)
+        {
+            Long changed = recentChanges.get(section);
+            if (changed != null && changed > stamp)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void invalidateSection(long section)
+    {
+        ++changeStamp;
+        recentChanges.remove(section);
+        recentChanges.put(section, changeStamp);
+        if (recentChanges.size() > RECENT_CHANGES_SIZE)
+        {
+            Iterator<Map.Entry<Long, Long>> it = recentChanges.entrySet().iterator();
+            forgottenChangeStamp = it.next().getValue();
+            it.remove();
+        }
+
+        Set<RouteKey> keys = routesBySection.remove(section);
+        if (keys != null)
+        {
+            for (RouteKey key : keys)
+            {
+                if (removeRoute(key))
+                {
+                    ++invalidations;
+                }
+            }
+        }
+    }
+
+    private boolean removeRoute(RouteKey key)
+    {
+        Route route = routes.remove(key);
+        if (route == null)
+        {
+            return false;
+        }
+
+        for (Long section : route.sections)
+        {
+            Set<RouteKey> keys = routesBySection.get(section);
+            if (keys != null)
+            {
+                keys.remove(key);
+                if (keys.isEmpty())
+                {
+                    routesBySection.remove(section);
+                }
+            }
+        }
+        return true;
+    }
+
+    public int size()
+    {
+        return routes.size();
+    }
+
+    public long getHits()
+    {
+        return hits;
+    }
+
+    public long getMisses()
+    {
+        return misses;
+    }
+
+    public long getInvalidations()
+    {
+        return invalidations;
+    }
+
+    public long getEvictions()
+    {
+        return evictions;
+    }
+
+    /**
+     * @return share of lookups which found a route, between 0 and 1.
+     */
+    public double getHitRate()
+    {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : ((double) hits / lookups);
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("PathCache: routes=%d hits=%d misses=%d hitRate=%.2f invalidations=%d evictions=%d",
+                size(), hits, misses, getHitRate(), invalidations, evictions);
+    }
+
+    /**
+     * Start and destination of a route.
+     */
+    private static final class RouteKey
+    {
+        private final long start;
+        private final long destination;
+
+        private RouteKey(BlockPos start, BlockPos destination)
+        {
+            this.start = start.toLong();
+            this.destination = destination.toLong();
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (!(o instanceof RouteKey))
+            {
+                return false;
+            }
+            RouteKey other = (RouteKey) o;
+            return start == other.start && destination == other.destination;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * Long.hashCode(start) + Long.hashCode(destination);
+        }
+    }
+
+    /**
+     * A cached route and the sections it depends on.
+     */
+    private static final class Route
+    {
+        private final PathPoint[] points;
+        private final Set<Long>   sections;
+
+        private Route(PathPoint[] points, Set<Long> sections)
+        {
+            this.points = points;
+            this.sections = sections;
+        }
+    }
+}
@@ -40,7 +40,21 @@ public class PathJobFindWater extends AbstractPathJob
      */
     PathJobFindWater(World world, BlockPos start, BlockPos home, int range, List<BlockPos> ponds)
     {
-        super(world, start, start, range, new WaterPathResult());
+        this(snapshotAround(world, start, start, range), start, home, range, ponds);
+    }
+
+    /**
+     * Create a job which searches an existing snapshot.
+     *
+     * @param snapshot the blocks to path through, must contain the whole search area.
+     * @param start the start position from which to path from
+     * @param home   the position of the workers hut
+     * @param range maximum path range
+     * @param ponds already visited fishing places
+     */
+    PathJobFindWater(PathingSnapshot snapshot, BlockPos start, BlockPos home, int range, List<BlockPos> ponds)
+    {
+        super(snapshot, start, range, new WaterPathResult());
         this.ponds = new ArrayList<>(ponds);
         hutLocation = home;
     }
@@ -48,6 +62,12 @@ public class PathJobFindWater extends AbstractPathJob
     @Override
     public WaterPathResult getResult() { return (WaterPathResult)super.getResult(); }
 
+    @Override
+    public Priority getPriority()
+    {
+        return Priority.BACKGROUND;
+    }
+
     @Override
     protected double computeHeuristic(BlockPos pos)
     {
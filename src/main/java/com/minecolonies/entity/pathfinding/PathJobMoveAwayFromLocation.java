@@ -28,7 +28,21 @@ public class PathJobMoveAwayFromLocation extends AbstractPathJob
      */
     public PathJobMoveAwayFromLocation(World world, BlockPos start, BlockPos avoid, int avoidDistance, int range)
     {
-        super(world, start, avoid, range);
+        this(snapshotAround(world, start, avoid, range), start, avoid, avoidDistance, range);
+    }
+
+    /**
+     * Create a job which searches an existing snapshot.
+     *
+     * @param snapshot the blocks to path through, must contain the whole search area.
+     * @param start starting location.
+     * @param avoid location to avoid.
+     * @param avoidDistance how far to move away.
+     * @param range max range to search.
+     */
+    PathJobMoveAwayFromLocation(PathingSnapshot snapshot, BlockPos start, BlockPos avoid, int avoidDistance, int range)
+    {
+        super(snapshot, start, range, new PathResult());
 
         this.avoid = new BlockPos(avoid);
         this.avoidDistance = avoidDistance;
@@ -43,20 +57,21 @@ public class PathJobMoveAwayFromLocation extends AbstractPathJob
         heuristicPoint = new BlockPos(start.getX() + (int)dx, start.getY(), start.getZ() + (int)dz);
     }
 
-    /**
-     * Perform the search
-     *
-     * @return PathEntity of a path to the given location, a best-effort, or null
-     */
     @Override
-    protected PathEntity search()
+    public Priority getPriority()
+    {
+        return Priority.URGENT;
+    }
+
+    @Override
+    protected PathEntity prepareSearch()
     {
         if (Configurations.pathfindingDebugVerbosity > DEBUG_VERBOSITY_NONE)
         {
             Log.logger.info(String.format("Pathfinding from [%d,%d,%d] away from [%d,%d,%d]", start.getX(), start.getY(), start.getZ(), avoid.getX(), avoid.getY(), avoid.getZ()));
         }
 
-        return super.search();
+        return super.prepareSearch();
     }
 
     /**
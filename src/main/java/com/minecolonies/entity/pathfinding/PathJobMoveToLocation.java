@@ -40,12 +40,22 @@ public class PathJobMoveToLocation extends AbstractPathJob
     }
 
     /**
-     * Perform the search
+     * Prepares a search through an existing snapshot, used for the segments of hierarchical routes.
      *
-     * @return PathEntity of a path to the given location, a best-effort, or null
+     * @param snapshot blocks to path through.
+     * @param start    starting location.
+     * @param end      target location.
+     * @param range    max search range.
      */
+    PathJobMoveToLocation(PathingSnapshot snapshot, BlockPos start, BlockPos end, int range)
+    {
+        super(snapshot, start, range, new PathResult());
+
+        this.destination = new BlockPos(end);
+    }
+
     @Override
-    protected PathEntity search()
+    protected PathEntity prepareSearch()
     {
         if (Configurations.pathfindingDebugVerbosity > DEBUG_VERBOSITY_NONE)
         {
@@ -59,7 +69,7 @@ public class PathJobMoveToLocation extends AbstractPathJob
             destinationSlack = DESTINATION_SLACK_ADJACENT;
         }
 
-        return super.search();
+        return super.prepareSearch();
     }
 
     @Override
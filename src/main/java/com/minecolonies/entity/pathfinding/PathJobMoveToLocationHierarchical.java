@@ -0,0 +1,458 @@
+package com.minecolonies.entity.pathfinding;
+
+import com.minecolonies.configuration.Configurations;
+import com.minecolonies.util.Log;
+import net.minecraft.pathfinding.PathEntity;
+import net.minecraft.pathfinding.PathPoint;
+import net.minecraft.util.BlockPos;
+import net.minecraft.world.ChunkCoordIntPair;
+import net.minecraft.world.World;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Job that moves to a distant location inside a colony.
+ * The route is first planned on the colony's {@link ColonyRouteGraph}, from chunk border to chunk border, and only
+ * the short segments between those borders are searched block by block. If the plan fails, e.g. because the route
+ * needs swimming or ladders, the job falls back to a regular search.
+ * The plan and the segment searches run in slices under the node budget, like any search, and the job ends with
+ * the segments found so far once its time-to-live is up.
+ */
+public class PathJobMoveToLocationHierarchical extends PathJobMoveToLocation
+{
+    /**
+     * Search range of a single segment; segments cross one chunk, so this leaves plenty of room for detours.
+     */
+    private static final int SEGMENT_RANGE = 64;
+
+    /**
+     * Nodes charged for work on one chunk of the graph, like building its cluster, against the node budget.
+     */
+    private static final int CLUSTER_NODES = 256;
+
+    /**
+     * Spots next to an unreachable destination where the route may end, like the slack of the regular search.
+     */
+    private static final int[][] DESTINATION_NEIGHBOURS = {
+            {0, 0, 0}, {1, 0, 0}, {-1, 0, 0}, {0, 0, 1}, {0, 0, -1}, {0, 1, 0}, {0, -1, 0},
+            {1, -1, 0}, {-1, -1, 0}, {0, -1, 1}, {0, -1, -1}};
+
+    private final ColonyRouteGraph graph;
+    private final PathingSnapshot  snapshot;
+    private final long             stamp;
+    private final BlockPos         destination;
+
+    /**
+     * Clusters used by this job, so every lookup during one plan sees the same cluster.
+     */
+    private final Map<Long, RouteCluster> clusters = new HashMap<>();
+
+    /**
+     * State of the job, kept between slices: the plan while it runs, then the points to pass ending with the
+     * destination, the search of the current segment and the path joined so far.
+     */
+    @Nullable
+    private Plan                  plan;
+    @Nullable
+    private List<BlockPos>        waypoints;
+    private int                   nextWaypoint = 0;
+    @Nullable
+    private PathJobMoveToLocation segment;
+    private final List<PathPoint> points       = new ArrayList<>();
+    private boolean               failed       = false;
+
+    /**
+     * Prepares the PathJob for the path finding system.
+     *
+     * @param world world the entity is in.
+     * @param graph route graph of the colony, which contains start and end.
+     * @param start starting location.
+     * @param end   target location.
+     * @param range max search range, for the fallback search.
+     */
+    public PathJobMoveToLocationHierarchical(World world, ColonyRouteGraph graph, BlockPos start, BlockPos end, int range)
+    {
+        this(graph, graph.snapshot(world), start, end, range);
+    }
+
+    private PathJobMoveToLocationHierarchical(ColonyRouteGraph graph, PathingSnapshot snapshot, BlockPos start, BlockPos end, int range)
+    {
+        super(snapshot, start, end, range);
+
+        this.graph = graph;
+        this.snapshot = snapshot;
+        this.stamp = graph.getChangeStamp();
+        this.destination = new BlockPos(end);
+    }
+
+    @Override
+    protected boolean prepareSlice(int nodeBudget)
+    {
+        int visitedBefore = getNodesVisited();
+        if (!failed && waypoints == null && !planSlice(nodeBudget))
+        {
+            return false;
+        }
+        if (!failed && !refineSlice(nodeBudget - (getNodesVisited() - visitedBefore)))
+        {
+            return false;
+        }
+
+        if (failed)
+        {
+            if (Configurations.pathfindingDebugVerbosity > DEBUG_VERBOSITY_NONE)
+            {
+                Log.logger.info("Hierarchical plan failed, falling back to a regular search");
+            }
+            setShortcut(prepareSearch());
+        }
+        return true;
+    }
+
+    @Override
+    protected void onSearchEnd()
+    {
+        if (segment != null)
+        {
+            segment.abandon();
+            segment = null;
+        }
+        plan = null;
+    }
+
+    /**
+     * @return true if the job ran out of time.
+     */
+    private boolean checkExpired()
+    {
+        if (hasExpired())
+        {
+            Pathfinding.getMetrics().recordExpired();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return a standing position at or next to the destination, or null.
+     */
+    @Nullable
+    private BlockPos findDestinationAnchor()
+    {
+        for (int[] offset : DESTINATION_NEIGHBOURS)
+        {
+            int x = destination.getX() + offset[0];
+            int y = destination.getY() + offset[1];
+            int z = destination.getZ() + offset[2];
+            if (RouteCluster.canStand(snapshot, x, y, z))
+            {
+                return new BlockPos(x, y, z);
+            }
+        }
+        return null;
+    }
+
+    @Nullable
+    private RouteCluster getCluster(BlockPos pos)
+    {
+        int chunkX = pos.getX() >> 4;
+        int chunkZ = pos.getZ() >> 4;
+        long key = ChunkCoordIntPair.chunkXZ2Int(chunkX, chunkZ);
+        RouteCluster cluster = clusters.get(key);
+        if (cluster == null)
+        {
+            cluster = graph.getCluster(snapshot, stamp, chunkX, chunkZ);
+            countNodes(CLUSTER_NODES);
+            if (cluster != null)
+            {
+                clusters.put(key, cluster);
+            }
+        }
+        return cluster;
+    }
+
+    /**
+     * Start the A* over the entrances of the graph.
+     *
+     * @return the plan, or null if the route can not be planned on the graph.
+     */
+    @Nullable
+    private Plan startPlan()
+    {
+        BlockPos anchor = findDestinationAnchor();
+        if (anchor == null)
+        {
+            return null;
+        }
+
+        RouteCluster startCluster = getCluster(start);
+        RouteCluster goalCluster = getCluster(anchor);
+        if (startCluster == null || goalCluster == null || startCluster == goalCluster)
+        {
+            return null;
+        }
+
+        int[] fromStart = startCluster.distancesFrom(snapshot, start);
+        Plan newPlan = new Plan(anchor, goalCluster, goalCluster.distancesFrom(snapshot, anchor));
+        countNodes(2 * CLUSTER_NODES);
+
+        for (int i = 0; i < startCluster.getEntranceCount(); ++i)
+        {
+            if (fromStart[i] != RouteCluster.UNREACHABLE)
+            {
+                Entrance entrance = new Entrance(startCluster, i, startCluster.getEntrance(i));
+                newPlan.visited.put(entrance.pos.toLong(), entrance);
+                relax(newPlan.open, entrance, null, fromStart[i], anchor);
+            }
+        }
+        return newPlan;
+    }
+
+    /**
+     * Advance the A* over the entrances of the graph. Once it ends, {@link #waypoints} holds the entrances where the
+     * route enters each chunk after the first and then the destination, or {@link #failed} is set.
+     *
+     * @param nodeBudget maximum number of entrances to visit in this slice.
+     * @return true if the plan is finished.
+     */
+    private boolean planSlice(int nodeBudget)
+    {
+        int visitedBefore = getNodesVisited();
+        if (plan == null)
+        {
+            plan = startPlan();
+            if (plan == null)
+            {
+                failed = true;
+                return true;
+            }
+        }
+
+        BlockPos anchor = plan.anchor;
+        while (!plan.open.isEmpty())
+        {
+            if (getNodesVisited() - visitedBefore >= nodeBudget || Thread.currentThread().isInterrupted())
+            {
+                if (checkExpired())
+                {
+                    plan = null;
+                    failed = true;
+                    return true;
+                }
+                return false;
+            }
+
+            Entrance current = plan.open.poll();
+            current.closed = true;
+            countNodes(1);
+            if (current == plan.goal)
+            {
+                waypoints = collectWaypoints(plan.goal);
+                waypoints.add(destination);
+                plan = null;
+
+                if (Configurations.pathfindingDebugVerbosity > DEBUG_VERBOSITY_NONE)
+                {
+                    Log.logger.info(String.format("Hierarchical plan from [%d,%d,%d] to [%d,%d,%d] has %d segments",
+                            start.getX(), start.getY(), start.getZ(), destination.getX(), destination.getY(), destination.getZ(), waypoints.size()));
+                }
+                return true;
+            }
+
+            RouteCluster cluster = current.cluster;
+            if (cluster == plan.goalCluster && plan.toGoal[current.index] != RouteCluster.UNREACHABLE)
+            {
+                relax(plan.open, plan.goal, current, current.cost + plan.toGoal[current.index], anchor);
+            }
+
+            //  Cross the border
+            BlockPos twinPos = cluster.getTwin(current.index);
+            RouteCluster neighbour = getCluster(twinPos);
+            int twinIndex = neighbour == null ? -1 : neighbour.indexOf(twinPos);
+            if (twinIndex >= 0)
+            {
+                Entrance twin = plan.visited.computeIfAbsent(twinPos.toLong(), key -> new Entrance(neighbour, twinIndex, twinPos));
+                relax(plan.open, twin, current, current.cost + 1, anchor);
+            }
+
+            //  Walk through the chunk
+            for (int i = 0; i < cluster.getEntranceCount(); ++i)
+            {
+                int cost = cluster.getCost(current.index, i);
+                if (i != current.index && cost != RouteCluster.UNREACHABLE)
+                {
+                    final int index = i;
+                    Entrance next = plan.visited.computeIfAbsent(cluster.getEntrance(i).toLong(),
+                            key -> new Entrance(cluster, index, cluster.getEntrance(index)));
+                    relax(plan.open, next, current, current.cost + cost, anchor);
+                }
+            }
+        }
+
+        plan = null;
+        failed = true;
+        return true;
+    }
+
+    private static void relax(PriorityQueue<Entrance> open, Entrance entrance, @Nullable Entrance parent, int cost, BlockPos anchor)
+    {
+        if (entrance.closed || cost >= entrance.cost)
+        {
+            return;
+        }
+
+        open.remove(entrance);
+        entrance.parent = parent;
+        entrance.cost = cost;
+        entrance.score = cost + Math.abs(entrance.pos.getX() - anchor.getX())
+                + Math.abs(entrance.pos.getY() - anchor.getY())
+                + Math.abs(entrance.pos.getZ() - anchor.getZ());
+        open.add(entrance);
+    }
+
+    /**
+     * Keep the entrances at which the route enters a new chunk; the segment from one to the next crosses one chunk.
+     */
+    private static List<BlockPos> collectWaypoints(Entrance goal)
+    {
+        LinkedList<BlockPos> waypoints = new LinkedList<>();
+        for (Entrance entrance = goal.parent; entrance != null && entrance.parent != null; entrance = entrance.parent)
+        {
+            if (entrance.cluster != entrance.parent.cluster)
+            {
+                waypoints.addFirst(entrance.pos);
+            }
+        }
+        return new ArrayList<>(waypoints);
+    }
+
+    /**
+     * Advance the searches of the segments of the plan, one after the other, and join their paths.
+     * Once all are found, the joined path becomes the shortcut of the job; if one is not found, {@link #failed} is
+     * set. If the job runs out of time, the path joined so far becomes the shortcut.
+     *
+     * @param nodeBudget maximum number of nodes to visit in this slice.
+     * @return true if the refinement is finished.
+     */
+    private boolean refineSlice(int nodeBudget)
+    {
+        int visitedBefore = getNodesVisited();
+        while (nextWaypoint < waypoints.size())
+        {
+            int remaining = nodeBudget - (getNodesVisited() - visitedBefore);
+            if (remaining <= 0 || Thread.currentThread().isInterrupted())
+            {
+                if (checkExpired())
+                {
+                    endWithPartialPath();
+                    return true;
+                }
+                return false;
+            }
+
+            if (segment == null)
+            {
+                BlockPos from = nextWaypoint == 0 ? start : waypoints.get(nextWaypoint - 1);
+                segment = new PathJobMoveToLocation(snapshot, from, waypoints.get(nextWaypoint), SEGMENT_RANGE);
+            }
+
+            int segmentVisitedBefore = segment.getNodesVisited();
+            boolean done = segment.searchSlice(remaining);
+            countNodes(segment.getNodesVisited() - segmentVisitedBefore);
+            if (!done)
+            {
+                continue;
+            }
+
+            PathEntity path = segment.getPath();
+            boolean reached = segment.getResult().getPathReachesDestination();
+            segment = null;
+            if (path == null || !reached)
+            {
+                failed = true;
+                return true;
+            }
+
+            //  Segment paths do not include their start, which is the end of the previous segment
+            for (int i = 0; i < path.getCurrentPathLength(); ++i)
+            {
+                points.add(path.getPathPointFromIndex(i));
+            }
+            ++nextWaypoint;
+
+            if (nextWaypoint < waypoints.size() && checkExpired())
+            {
+                endWithPartialPath();
+                return true;
+            }
+        }
+
+        setShortcut(new PathEntity(points.toArray(new PathPoint[points.size()])));
+        result.setPathReachesDestination(true);
+        return true;
+    }
+
+    /**
+     * End with the segments found so far, like a regular search ends with its best partial path.
+     */
+    private void endWithPartialPath()
+    {
+        if (points.isEmpty())
+        {
+            failed = true;
+        }
+        else
+        {
+            setShortcut(new PathEntity(points.toArray(new PathPoint[points.size()])));
+        }
+    }
+
+    /**
+     * State of the A* over the entrances, kept between slices.
+     */
+    private static final class Plan
+    {
+        private final BlockPos                anchor;
+        private final RouteCluster            goalCluster;
+        private final int[]                   toGoal;
+        private final Entrance                goal;
+        private final Map<Long, Entrance>     visited = new HashMap<>();
+        private final PriorityQueue<Entrance> open    = new PriorityQueue<>();
+
+        private Plan(BlockPos anchor, RouteCluster goalCluster, int[] toGoal)
+        {
+            this.anchor = anchor;
+            this.goalCluster = goalCluster;
+            this.toGoal = toGoal;
+            this.goal = new Entrance(null, -1, anchor);
+        }
+    }
+
+    /**
+     * Node of the abstract search.
+     */
+    private static final class Entrance implements Comparable<Entrance>
+    {
+        private final RouteCluster cluster;
+        private final int          index;
+        private final BlockPos     pos;
+        private Entrance parent;
+        private int      cost = Integer.MAX_VALUE;
+        private int      score;
+        private boolean  closed;
+
+        private Entrance(RouteCluster cluster, int index, BlockPos pos)
+        {
+            this.cluster = cluster;
+            this.index = index;
+            this.pos = pos;
+        }
+
+        @Override
+        public int compareTo(Entrance o)
+        {
+            return Integer.compare(score, o.score);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.minecolonies.entity.pathfinding;
+
+import com.minecolonies.util.Log;
+import net.minecraft.pathfinding.PathEntity;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Queue entry for a {@link AbstractPathJob}, or other pathing work, in the pathfinding executor.
+ * Orders jobs by priority first, then by their fair-share start tag, then by submission order.
+ * A path job runs in slices of a limited number of nodes; after each slice it goes back into the queue, so
+ * one huge search cannot keep a worker busy while short requests wait.
+ * Cancelling the task removes it from the queue so it does not occupy a worker later on.
+ */
+class PathJobTask extends FutureTask<PathEntity> implements Comparable<PathJobTask>
+{
+    private final AbstractPathJob          job;
+    private final AbstractPathJob.Priority priority;
+    private final int                      colonyId;
+    private long                           startTag;
+    private long                           sequence;
+    private long                           enqueuedAt;
+    private boolean                        started = false;
+
+    /**
+     * Create a new task for the pathfinding executor.
+     *
+     * @param work     the job to run.
+     * @param priority priority of the job.
+     * @param colonyId id of the colony which requested the job.
+     * @param startTag fair-share virtual start time of the job.
+     * @param sequence global submission counter, used as final tie-breaker.
+     */
+    PathJobTask(@NotNull Callable<PathEntity> work, AbstractPathJob.Priority priority, int colonyId, long startTag, long sequence)
+    {
+        super(work);
+        this.job = work instanceof AbstractPathJob ? (AbstractPathJob) work : null;
+        this.priority = priority;
+        this.colonyId = colonyId;
+        this.startTag = startTag;
+        this.sequence = sequence;
+        this.enqueuedAt = System.nanoTime();
+    }
+
+    public int getColonyId()
+    {
+        return colonyId;
+    }
+
+    public long getStartTag()
+    {
+        return startTag;
+    }
+
+    /**
+     * Give the task a new place in the queue before it is queued again. Only called while it is not queued.
+     *
+     * @param newStartTag fair-share virtual start time of the next slice.
+     * @param newSequence global submission counter.
+     */
+    void retag(long newStartTag, long newSequence)
+    {
+        this.startTag = newStartTag;
+        this.sequence = newSequence;
+        this.enqueuedAt = System.nanoTime();
+    }
+
+    @Override
+    public void run()
+    {
+        if (isDone())
+        {
+            abandon();
+            return;
+        }
+
+        long startedAt = System.nanoTime();
+        //  Only the wait before the first slice counts as queue wait
+        Pathfinding.onTaskStarted(this, started ? -1 : (startedAt - enqueuedAt));
+        started = true;
+        try
+        {
+            if (job == null)
+            {
+                super.run();
+            }
+            else
+            {
+                runSlice();
+            }
+        }
+        finally
+        {
+            Pathfinding.getMetrics().recordRun(System.nanoTime() - startedAt);
+        }
+    }
+
+    private void runSlice()
+    {
+        int budget = Pathfinding.acquireNodeBudget();
+        int visitedBefore = job.getNodesVisited();
+        boolean finished;
+        try
+        {
+            finished = job.searchSlice(budget);
+        }
+        catch (RuntimeException e)
+        {
+            Log.logger.debug(e);
+            set(null);
+            return;
+        }
+        finally
+        {
+            Pathfinding.refundNodeBudget(budget - (job.getNodesVisited() - visitedBefore));
+        }
+
+        if (finished)
+        {
+            set(job.getPath());
+        }
+        else if (isDone())
+        {
+            job.abandon();
+        }
+        else
+        {
+            Pathfinding.requeue(this);
+        }
+    }
+
+    /**
+     * Release the resources of a search which will not run again.
+     */
+    void abandon()
+    {
+        if (job != null)
+        {
+            job.abandon();
+        }
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning)
+    {
+        boolean cancelled = super.cancel(mayInterruptIfRunning);
+        if (cancelled)
+        {
+            if (job != null)
+            {
+                job.cancel();
+            }
+            Pathfinding.onTaskCancelled(this);
+        }
+        return cancelled;
+    }
+
+    @Override
+    public int compareTo(@NotNull PathJobTask o)
+    {
+        if (priority != o.priority)
+        {
+            return priority.compareTo(o.priority);
+        }
+
+        if (startTag != o.startTag)
+        {
+            return startTag < o.startTag ? -1 : 1;
+        }
+
+        return Long.compare(sequence, o.sequence);
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        return this == o;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Long.hashCode(sequence);
+    }
+}
@@ -1,5 +1,6 @@
 package com.minecolonies.entity.pathfinding;
 
+import com.minecolonies.colony.Colony;
 import com.minecolonies.entity.EntityCitizen;
 import com.minecolonies.util.BlockPosUtil;
 import com.minecolonies.util.Log;
@@ -30,6 +31,10 @@ public class PathNavigate extends net.minecraft.pathfinding.PathNavigateGround
     private Future<PathEntity> future;
     private PathResult pathResult;
 
+    //  Route being computed which should be stored in the colony's PathCache once done
+    private BlockPos routeStart;
+    private long routeStamp;
+
     private boolean shouldAvoidWater = false;
     private boolean canEnterDoors = false;
     private boolean canBreakDoors = false;
@@ -88,9 +93,58 @@ public class PathNavigate extends net.minecraft.pathfinding.PathNavigateGround
         BlockPos start = AbstractPathJob.prepareStart(entity);
         BlockPos dest = new BlockPos(newX, newY, newZ);
 
-        return setPathJob(
-                new PathJobMoveToLocation(entity.worldObj, start, dest, (int)getPathSearchRange()),
-                dest, speed);
+        PathCache cache = getPathCache();
+        if (cache != null)
+        {
+            PathEntity cachedPath = cache.get(start, dest);
+            if (cachedPath != null)
+            {
+                return setCachedPath(cachedPath, dest, speed);
+            }
+        }
+
+        Colony colony = getColony();
+        PathResult result;
+        if (colony != null && !entity.worldObj.isRemote)
+        {
+            PathEntity fieldPath = DistanceFields.forColony(colony).getPath(entity.worldObj, start, dest);
+            if (fieldPath != null)
+            {
+                return setCachedPath(fieldPath, dest, speed);
+            }
+
+            result = setSharedRoute(colony, start, dest, speed);
+        }
+        else
+        {
+            result = setPathJob(createMoveJob(start, dest), dest, speed);
+        }
+
+        if (cache != null)
+        {
+            routeStart = start;
+            routeStamp = cache.getChangeStamp();
+        }
+
+        return result;
+    }
+
+    /**
+     * Long routes inside the colony are planned on its route graph, everything else is a regular search.
+     */
+    private AbstractPathJob createMoveJob(BlockPos start, BlockPos dest)
+    {
+        Colony colony = getColony();
+        if (colony != null && !entity.worldObj.isRemote)
+        {
+            ColonyRouteGraph graph = ColonyRouteGraph.forColony(colony);
+            if (graph.isLongRoute(start, dest))
+            {
+                return new PathJobMoveToLocationHierarchical(entity.worldObj, graph, start, dest, (int)getPathSearchRange());
+            }
+        }
+
+        return new PathJobMoveToLocation(entity.worldObj, start, dest, (int)getPathSearchRange());
     }
 
     public PathResult moveAwayFromXYZ(BlockPos avoid, double range, double speed)
@@ -102,13 +156,6 @@ public class PathNavigate extends net.minecraft.pathfinding.PathNavigateGround
                 null, speed);
     }
 
-    public PathJobFindTree.TreePathResult moveToTree(int range, double speed)
-    {
-        BlockPos start = AbstractPathJob.prepareStart(entity);
-        return (PathJobFindTree.TreePathResult) setPathJob(
-                new PathJobFindTree(entity.worldObj, start, ((EntityCitizen) entity).getWorkBuilding().getLocation(), range), null, speed);
-    }
-
     public PathJobFindWater.WaterPathResult moveToWater(int range, double speed, List<BlockPos> ponds)
     {
         BlockPos start = AbstractPathJob.prepareStart(entity);
@@ -157,6 +204,8 @@ public class PathNavigate extends net.minecraft.pathfinding.PathNavigateGround
                     //  AbstractPathJob with no destination, did reach it's destination
                     pathResult.setPathReachesDestination(true);
                 }
+
+                storeRoute();
             }
             catch (InterruptedException | ExecutionException e)
             {
@@ -263,6 +312,8 @@ public class PathNavigate extends net.minecraft.pathfinding.PathNavigateGround
             future = null;
         }
 
+        routeStart = null;
+
         if (pathResult != null)
         {
             pathResult.setStatus(PathResult.Status.CANCELLED);
@@ -323,11 +374,79 @@ public class PathNavigate extends net.minecraft.pathfinding.PathNavigateGround
         this.destination = dest;
         this.walkSpeed = speed;
 
-        future = Pathfinding.enqueue(job);
+        Colony colony = getColony();
+        future = Pathfinding.enqueue(job, colony == null ? Pathfinding.NO_COLONY : colony.getID());
         pathResult = job.getResult();
         return pathResult;
     }
 
+    /**
+     * Compute a route for a citizen, sharing the job with other citizens which start close by, see
+     * {@link Pathfinding#requestRoute}.
+     */
+    private PathResult setSharedRoute(Colony colony, BlockPos start, BlockPos dest, double speed)
+    {
+        clearPathEntity();
+
+        this.destination = dest;
+        this.walkSpeed = speed;
+
+        SharedRoute.Subscription route = Pathfinding.requestRoute(colony.getID(), start, dest, () -> createMoveJob(start, dest));
+        future = route;
+        pathResult = route.getResult();
+        return pathResult;
+    }
+
+    /**
+     * Follow a route taken from the {@link PathCache} or a {@link DistanceFields distance field}, without running a job.
+     *
+     * @param path  the known path.
+     * @param dest  destination of the path.
+     * @param speed walk speed.
+     * @return the result for the path, already following.
+     */
+    private PathResult setCachedPath(PathEntity path, BlockPos dest, double speed)
+    {
+        clearPathEntity();
+
+        this.destination = dest;
+        this.walkSpeed = speed;
+
+        pathResult = new PathResult();
+        setPath(path, speed);
+        pathResult.setPathReachesDestination(true);
+        pathResult.setPathLength(path.getCurrentPathLength());
+        pathResult.setStatus(PathResult.Status.IN_PROGRESS_FOLLOWING);
+        return pathResult;
+    }
+
+    /**
+     * Store the path which was just computed in the colony's cache, if it reaches its destination.
+     */
+    private void storeRoute()
+    {
+        PathCache cache = getPathCache();
+        if (routeStart != null && cache != null && destination != null && pathResult.getPathReachesDestination())
+        {
+            cache.put(routeStart, destination, getPath(), routeStamp);
+        }
+        routeStart = null;
+    }
+
+    private Colony getColony()
+    {
+        return entity instanceof EntityCitizen ? ((EntityCitizen) entity).getColony() : null;
+    }
+
+    /**
+     * @return the route cache of the entity's colony, or null if there is none.
+     */
+    private PathCache getPathCache()
+    {
+        Colony colony = getColony();
+        return (colony == null || entity.worldObj.isRemote) ? null : PathCache.forColony(colony);
+    }
+
     public boolean isUnableToReachDestination()
     {
         return pathResult != null && pathResult.failedToReachDestination();
@@ -10,28 +10,58 @@ import net.minecraft.client.renderer.entity.RenderManager;
 import net.minecraft.client.renderer.vertex.DefaultVertexFormats;
 import net.minecraft.entity.Entity;
 import net.minecraft.pathfinding.PathEntity;
+import net.minecraft.util.BlockPos;
 import net.minecraft.util.ResourceLocation;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 import org.lwjgl.opengl.GL11;
 
-import java.util.ConcurrentModificationException;
-import java.util.Set;
+import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
  * Static class the handles all the Pathfinding.
  */
 public final class Pathfinding
 {
-    private static ThreadPoolExecutor executor;
-    private static final BlockingQueue<Runnable> jobQueue = new LinkedBlockingDeque<>();
+    /**
+     * Colony id used for jobs which do not belong to any colony.
+     */
+    public static final int NO_COLONY = 0;
+
+    private static final long KEEP_ALIVE_SECONDS = 10;
+
+    private static final ThreadPoolExecutor        executor;
+    private static final BlockingQueue<Runnable>   jobQueue = new PriorityBlockingQueue<>();
+    private static final PathfindingMetrics        metrics  = new PathfindingMetrics();
+    private static final NodeBudget                nodeBudget = new NodeBudget();
+
+    /**
+     * Fair queueing state, guarded by {@link #fairnessLock}.
+     * Each colony gets a virtual clock; a job is tagged with the later of the global clock and its colony's clock,
+     * so colonies with many queued jobs cannot push the jobs of other colonies back.
+     */
+    private static final Object             fairnessLock      = new Object();
+    private static final Map<Integer, Long> colonyFinishTags  = new HashMap<>();
+    private static long                     globalVirtualTime = 0;
+    private static long                     sequence          = 0;
+
+    /**
+     * Routes requested during the current server tick by destination, which later requests may share.
+     * Server thread only.
+     */
+    private static final Map<BlockPos, List<SharedRoute>> routesThisTick = new HashMap<>();
 
     private static final ResourceLocation TEXTURE = new ResourceLocation("textures/gui/widgets.png");
 
     static
     {
-        executor = new ThreadPoolExecutor(1, Configurations.pathfindingMaxThreadCount, 10, TimeUnit.SECONDS, jobQueue);
+        int threads = Math.max(1, Configurations.pathfindingMaxThreadCount);
+        //  Core size must equal the max size: with an unbounded queue the pool never grows past its core threads
+        executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, jobQueue, new WorkerThreadFactory());
+        executor.allowCoreThreadTimeOut(true);
     }
 
     private Pathfinding()
@@ -47,7 +77,212 @@ public final class Pathfinding
      */
     public static Future<PathEntity> enqueue(AbstractPathJob job)
     {
-        return executor.submit(job);
+        return enqueue(job, NO_COLONY);
+    }
+
+    /**
+     * Add a job to the queue for processing, on behalf of a colony.
+     * Cancelling the returned Future removes the job from the queue, or interrupts it if it is already running.
+     *
+     * @param job      PathJob
+     * @param colonyId id of the colony the job is for, used to share the workers fairly between colonies
+     * @return a Future containing the PathEntity
+     */
+    public static Future<PathEntity> enqueue(AbstractPathJob job, int colonyId)
+    {
+        return schedule(job, job.getPriority(), colonyId);
+    }
+
+    /**
+     * Request a route for a citizen. If another citizen of the same colony asked for a route to the same destination
+     * from close by during this tick, both share one job and each gets the shared path from its own start on.
+     * Server thread only.
+     *
+     * @param colonyId   id of the citizen's colony.
+     * @param start      start of the citizen.
+     * @param dest       destination.
+     * @param jobFactory creates the job if the route cannot be shared.
+     * @return the citizen's share of the route.
+     */
+    static SharedRoute.Subscription requestRoute(int colonyId, BlockPos start, BlockPos dest, Supplier<AbstractPathJob> jobFactory)
+    {
+        List<SharedRoute> routes = routesThisTick.computeIfAbsent(dest, key -> new ArrayList<>());
+        for (SharedRoute route : routes)
+        {
+            if (route.canShare(colonyId, start))
+            {
+                metrics.recordCoalesced();
+                return route.subscribe(start);
+            }
+        }
+
+        AbstractPathJob job = jobFactory.get();
+        SharedRoute route = new SharedRoute(job, enqueue(job, colonyId), colonyId, start);
+        routes.add(route);
+        return route.subscribe(start);
+    }
+
+    /**
+     * Run other pathing work on the pathfinding threads, e.g. building or repairing precomputed data.
+     * The work shares the queue, priorities and fairness with path jobs.
+     *
+     * @param work     the work to run.
+     * @param priority its priority.
+     * @param colonyId id of the colony the work is for.
+     * @return a Future which completes when the work is done.
+     */
+    public static Future<?> submit(Runnable work, AbstractPathJob.Priority priority, int colonyId)
+    {
+        return schedule(() ->
+        {
+            work.run();
+            return null;
+        }, priority, colonyId);
+    }
+
+    private static Future<PathEntity> schedule(Callable<PathEntity> work, AbstractPathJob.Priority priority, int colonyId)
+    {
+        PathJobTask task;
+        synchronized (fairnessLock)
+        {
+            task = new PathJobTask(work, priority, colonyId, nextStartTag(colonyId), sequence++);
+        }
+
+        metrics.recordQueued();
+        executor.execute(task);
+        return task;
+    }
+
+    /**
+     * Put a search which used up its slice back into the queue, behind the work which was queued meanwhile.
+     * Each slice counts against its colony's fair share.
+     *
+     * @param task the task to resume later.
+     */
+    static void requeue(PathJobTask task)
+    {
+        synchronized (fairnessLock)
+        {
+            task.retag(nextStartTag(task.getColonyId()), sequence++);
+        }
+
+        metrics.recordYield();
+        executor.execute(task);
+    }
+
+    /**
+     * Must be called with {@link #fairnessLock} held.
+     */
+    private static long nextStartTag(int colonyId)
+    {
+        Long colonyTag = colonyFinishTags.get(colonyId);
+        long startTag = colonyTag == null ? globalVirtualTime : Math.max(globalVirtualTime, colonyTag);
+        colonyFinishTags.put(colonyId, startTag + 1);
+        return startTag;
+    }
+
+    /**
+     * Take the node budget for one slice of a search, see {@link NodeBudget}.
+     *
+     * @return number of nodes the slice may visit.
+     */
+    static int acquireNodeBudget()
+    {
+        int slice = Configurations.pathfindingNodesPerSlice;
+        return nodeBudget.acquire(slice <= 0 ? Integer.MAX_VALUE : slice);
+    }
+
+    /**
+     * Hand back the part of a slice's node budget it did not use.
+     *
+     * @param unused number of nodes.
+     */
+    static void refundNodeBudget(int unused)
+    {
+        nodeBudget.refund(unused);
+    }
+
+    /**
+     * Called at the start of every server tick; refills the global node budget and closes the window in which
+     * route requests are shared.
+     */
+    public static void onServerTick()
+    {
+        nodeBudget.onTick();
+        routesThisTick.clear();
+    }
+
+    /**
+     * @return the metrics of the pathfinding executor.
+     */
+    public static PathfindingMetrics getMetrics()
+    {
+        return metrics;
+    }
+
+    /**
+     * @return the number of jobs waiting for a worker thread.
+     */
+    public static int getQueueDepth()
+    {
+        return jobQueue.size();
+    }
+
+    /**
+     * Called by a worker when it picks up a task.
+     *
+     * @param task      the task being started.
+     * @param waitNanos time the task spent queued.
+     */
+    static void onTaskStarted(PathJobTask task, long waitNanos)
+    {
+        if (waitNanos >= 0)
+        {
+            metrics.recordWait(waitNanos);
+        }
+
+        synchronized (fairnessLock)
+        {
+            globalVirtualTime = Math.max(globalVirtualTime, task.getStartTag());
+
+            //  Forget colonies which have nothing left in flight, so the map does not grow forever
+            Long colonyTag = colonyFinishTags.get(task.getColonyId());
+            if (colonyTag != null && colonyTag <= globalVirtualTime + 1)
+            {
+                colonyFinishTags.remove(task.getColonyId());
+            }
+        }
+    }
+
+    /**
+     * Called when a task is cancelled; drops it from the queue if it is waiting for its first or next slice.
+     *
+     * @param task the cancelled task.
+     */
+    static void onTaskCancelled(PathJobTask task)
+    {
+        metrics.recordCancelled();
+        if (executor.remove(task))
+        {
+            task.abandon();
+        }
+    }
+
+    /**
+     * Creates low priority daemon threads for the pathfinding executor.
+     */
+    private static class WorkerThreadFactory implements ThreadFactory
+    {
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(Runnable runnable)
+        {
+            Thread thread = new Thread(runnable, "Minecolonies Pathfinding Worker #" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        }
     }
 
     @SideOnly(Side.CLIENT)
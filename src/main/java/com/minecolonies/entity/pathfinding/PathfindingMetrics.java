@@ -0,0 +1,151 @@
+package com.minecolonies.entity.pathfinding;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for the pathfinding executor.
+ * All values are cumulative since server start, times are in nanoseconds.
+ * Safe to update from any worker thread and to read from the server thread.
+ */
+public final class PathfindingMetrics
+{
+    private final LongAdder  jobsQueued     = new LongAdder();
+    private final LongAdder  jobsStarted    = new LongAdder();
+    private final LongAdder  jobsCancelled  = new LongAdder();
+    private final LongAdder  slicesYielded  = new LongAdder();
+    private final LongAdder  jobsExpired    = new LongAdder();
+    private final LongAdder  jobsCoalesced  = new LongAdder();
+    private final LongAdder  totalWaitNanos = new LongAdder();
+    private final LongAdder  totalRunNanos  = new LongAdder();
+    private final AtomicLong maxWaitNanos   = new AtomicLong();
+    private final AtomicLong maxRunNanos    = new AtomicLong();
+
+    PathfindingMetrics()
+    {
+        //Only created by Pathfinding.
+    }
+
+    void recordQueued()
+    {
+        jobsQueued.increment();
+    }
+
+    void recordCancelled()
+    {
+        jobsCancelled.increment();
+    }
+
+    void recordYield()
+    {
+        slicesYielded.increment();
+    }
+
+    void recordExpired()
+    {
+        jobsExpired.increment();
+    }
+
+    void recordCoalesced()
+    {
+        jobsCoalesced.increment();
+    }
+
+    void recordWait(long nanos)
+    {
+        jobsStarted.increment();
+        totalWaitNanos.add(nanos);
+        maxWaitNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    void recordRun(long nanos)
+    {
+        totalRunNanos.add(nanos);
+        maxRunNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    public long getJobsQueued()
+    {
+        return jobsQueued.sum();
+    }
+
+    public long getJobsStarted()
+    {
+        return jobsStarted.sum();
+    }
+
+    public long getJobsCancelled()
+    {
+        return jobsCancelled.sum();
+    }
+
+    /**
+     * @return number of times a search used up its node budget and went back into the queue.
+     */
+    public long getSlicesYielded()
+    {
+        return slicesYielded.sum();
+    }
+
+    /**
+     * @return number of searches which ran out of time and ended with a partial path.
+     */
+    public long getJobsExpired()
+    {
+        return jobsExpired.sum();
+    }
+
+    /**
+     * @return number of route requests which shared the job of an earlier request instead of queueing their own.
+     */
+    public long getJobsCoalesced()
+    {
+        return jobsCoalesced.sum();
+    }
+
+    /**
+     * @return number of jobs currently waiting for a worker.
+     */
+    public int getQueueDepth()
+    {
+        return Pathfinding.getQueueDepth();
+    }
+
+    /**
+     * @return average time a job spent in the queue before a worker picked it up, in nanoseconds.
+     */
+    public long getAverageWaitNanos()
+    {
+        long started = jobsStarted.sum();
+        return started == 0 ? 0 : (totalWaitNanos.sum() / started);
+    }
+
+    public long getMaxWaitNanos()
+    {
+        return maxWaitNanos.get();
+    }
+
+    /**
+     * @return average time workers spent running a job, over all its slices, in nanoseconds.
+     */
+    public long getAverageRunNanos()
+    {
+        long started = jobsStarted.sum();
+        return started == 0 ? 0 : (totalRunNanos.sum() / started);
+    }
+
+    public long getMaxRunNanos()
+    {
+        return maxRunNanos.get();
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("Pathfinding: queued=%d started=%d cancelled=%d yielded=%d expired=%d coalesced=%d depth=%d wait(avg/max)=%d/%dms run(avg/max)=%d/%dms",
+                getJobsQueued(), getJobsStarted(), getJobsCancelled(), getSlicesYielded(), getJobsExpired(), getJobsCoalesced(), getQueueDepth(),
+                TimeUnit.NANOSECONDS.toMillis(getAverageWaitNanos()), TimeUnit.NANOSECONDS.toMillis(getMaxWaitNanos()),
+                TimeUnit.NANOSECONDS.toMillis(getAverageRunNanos()), TimeUnit.NANOSECONDS.toMillis(getMaxRunNanos()));
+    }
+}
@@ -0,0 +1,180 @@
+package com.minecolonies.entity.pathfinding;
+
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.BlockPos;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.world.IBlockAccess;
+import net.minecraft.world.WorldType;
+import net.minecraft.world.biome.BiomeGenBase;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+/**
+ * Read-only view of a box of chunk columns, made of {@link SectionSnapshot}s.
+ * A path job gets its own view when it is created. Each section is copied when a job first reads it and never
+ * changes afterwards, even if the world does, so sections the search never reaches cost nothing.
+ * Like ChunkCache, everything outside of the box or the world height is air.
+ */
+public final class PathingSnapshot implements IBlockAccess
+{
+    static final int WORLD_HEIGHT = 256;
+
+    private final int                 minChunkX;
+    private final int                 minChunkZ;
+    private final int                 sizeX;
+    private final int                 sizeZ;
+    private final ColumnSnapshot[]    columns;
+    private final WorldType           worldType;
+
+    /**
+     * Create a view.
+     *
+     * @param minChunkX smallest chunk x in the view.
+     * @param minChunkZ smallest chunk z in the view.
+     * @param columns   columns by (x - minChunkX) * sizeZ + (z - minChunkZ), copied by reference.
+     * @param sizeX     number of chunks along x.
+     * @param sizeZ     number of chunks along z.
+     * @param worldType type of the world the view belongs to.
+     */
+    PathingSnapshot(int minChunkX, int minChunkZ, int sizeX, int sizeZ, ColumnSnapshot[] columns, WorldType worldType)
+    {
+        this.minChunkX = minChunkX;
+        this.minChunkZ = minChunkZ;
+        this.sizeX = sizeX;
+        this.sizeZ = sizeZ;
+        this.columns = columns;
+        this.worldType = worldType;
+    }
+
+    /**
+     * Copy a box of chunk columns from any block source, e.g. a synthetic world in a benchmark or test.
+     * Worlds take their snapshots from {@link PassabilityCache} instead.
+     *
+     * @param blocks    the block source.
+     * @param minX      smallest block x.
+     * @param minZ      smallest block z.
+     * @param maxX      largest block x.
+     * @param maxZ      largest block z.
+     * @param worldType type of the world the blocks belong to.
+     * @return an immutable view of the blocks.
+     */
+    static PathingSnapshot copyOf(IBlockAccess blocks, int minX, int minZ, int maxX, int maxZ, WorldType worldType)
+    {
+        int minChunkX = minX >> 4;
+        int minChunkZ = minZ >> 4;
+        int sizeX = (maxX >> 4) - minChunkX + 1;
+        int sizeZ = (maxZ >> 4) - minChunkZ + 1;
+
+        ColumnSnapshot[] columns = new ColumnSnapshot[sizeX * sizeZ];
+        for (int cx = 0; cx < sizeX; ++cx)
+        {
+            for (int cz = 0; cz < sizeZ; ++cz)
+            {
+                SectionSnapshot[] sections = new SectionSnapshot[ColumnSnapshot.SECTIONS];
+                for (int sectionY = 0; sectionY < ColumnSnapshot.SECTIONS; ++sectionY)
+                {
+                    sections[sectionY] = SectionSnapshot.copyOf(blocks, (minChunkX + cx) << 4, sectionY << 4, (minChunkZ + cz) << 4);
+                }
+                columns[cx * sizeZ + cz] = new ColumnSnapshot(sections);
+            }
+        }
+
+        return new PathingSnapshot(minChunkX, minChunkZ, sizeX, sizeZ, columns, worldType);
+    }
+
+    private SectionSnapshot getSection(int x, int y, int z)
+    {
+        if (y < 0 || y >= WORLD_HEIGHT)
+        {
+            return SectionSnapshot.EMPTY;
+        }
+
+        int cx = (x >> 4) - minChunkX;
+        int cz = (z >> 4) - minChunkZ;
+        if (cx < 0 || cx >= sizeX || cz < 0 || cz >= sizeZ)
+        {
+            return SectionSnapshot.EMPTY;
+        }
+
+        return columns[cx * sizeZ + cz].getSection(y >> 4);
+    }
+
+    /**
+     * Get the pathing flags of a block, see the constants in {@link SectionSnapshot}.
+     *
+     * @param x block x.
+     * @param y block y.
+     * @param z block z.
+     * @return the flags.
+     */
+    public int getFlags(int x, int y, int z)
+    {
+        return getSection(x, y, z).getFlags(x, y, z);
+    }
+
+    @Override
+    public IBlockState getBlockState(BlockPos pos)
+    {
+        return getSection(pos.getX(), pos.getY(), pos.getZ()).getBlockState(pos.getX(), pos.getY(), pos.getZ());
+    }
+
+    @Override
+    public TileEntity getTileEntity(BlockPos pos)
+    {
+        //  Tile entities are not captured
+        return null;
+    }
+
+    @Override
+    public boolean isAirBlock(BlockPos pos)
+    {
+        return getBlockState(pos).getBlock().isAir(this, pos);
+    }
+
+    @Override
+    public int getStrongPower(BlockPos pos, EnumFacing direction)
+    {
+        IBlockState state = getBlockState(pos);
+        return state.getBlock().getStrongPower(this, pos, state, direction);
+    }
+
+    @Override
+    public boolean isSideSolid(BlockPos pos, EnumFacing side, boolean defaultValue)
+    {
+        if (pos.getY() < 0 || pos.getY() >= WORLD_HEIGHT)
+        {
+            return defaultValue;
+        }
+        return getBlockState(pos).getBlock().isSideSolid(this, pos, side);
+    }
+
+    @Override
+    @SideOnly(Side.CLIENT)
+    public int getCombinedLight(BlockPos pos, int lightValue)
+    {
+        //  Light is not captured
+        return 0;
+    }
+
+    @Override
+    @SideOnly(Side.CLIENT)
+    public BiomeGenBase getBiomeGenForCoords(BlockPos pos)
+    {
+        return BiomeGenBase.plains;
+    }
+
+    @Override
+    @SideOnly(Side.CLIENT)
+    public boolean extendedLevelsInChunkCache()
+    {
+        return false;
+    }
+
+    @Override
+    @SideOnly(Side.CLIENT)
+    public WorldType getWorldType()
+    {
+        return worldType;
+    }
+}
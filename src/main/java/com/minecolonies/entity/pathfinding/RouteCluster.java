@@ -0,0 +1,339 @@
+package com.minecolonies.entity.pathfinding;
+
+import net.minecraft.util.BlockPos;
+
+import java.util.*;
+
+/**
+ * One chunk column of a {@link ColonyRouteGraph}: the entrances on its borders and the walking distance between
+ * each pair of them.
+ * An entrance is a spot a citizen can stand on at the edge of the column, paired with its twin on the other side of
+ * the border. The graph only models plain walking (no swimming or ladders); the segments between entrances are
+ * refined by the regular search, which still knows about everything else.
+ * Immutable once built, so clusters are shared between pathfinding threads.
+ */
+final class RouteCluster
+{
+    /**
+     * Distance of entrances which can not be reached.
+     */
+    static final int UNREACHABLE = -1;
+
+    private static final int SIZE         = 16;
+    private static final int WORLD_HEIGHT = PathingSnapshot.WORLD_HEIGHT;
+    private static final int CELLS        = SIZE * SIZE * WORLD_HEIGHT;
+
+    private static final int[][] DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+
+    /**
+     * Height differences tried when crossing a border, level first.
+     */
+    private static final int[] CROSSING_STEPS = {0, 1, -1};
+    private static final int   NO_CROSSING    = Integer.MIN_VALUE;
+
+    /**
+     * BFS buffers of the current thread, a cluster is built or queried by one thread at a time.
+     */
+    private static final ThreadLocal<int[][]> SCRATCH = ThreadLocal.withInitial(() -> new int[][]{new int[CELLS], new int[CELLS]});
+
+    private final int                 chunkX;
+    private final int                 chunkZ;
+    private final BlockPos[]          entrances;
+    private final BlockPos[]          twins;
+    private final Map<Long, Integer>  indexByPos;
+    private final int[]               costs;
+
+    private RouteCluster(int chunkX, int chunkZ, List<BlockPos> entrances, List<BlockPos> twins)
+    {
+        this.chunkX = chunkX;
+        this.chunkZ = chunkZ;
+        this.entrances = entrances.toArray(new BlockPos[entrances.size()]);
+        this.twins = twins.toArray(new BlockPos[twins.size()]);
+        this.indexByPos = new HashMap<>();
+        for (int i = 0; i < this.entrances.length; ++i)
+        {
+            indexByPos.put(this.entrances[i].toLong(), i);
+        }
+        this.costs = new int[this.entrances.length * this.entrances.length];
+    }
+
+    /**
+     * Find the entrances of a chunk column and the distances between them.
+     *
+     * @param snapshot  blocks of the column and its neighbours.
+     * @param chunkX    chunk x.
+     * @param chunkZ    chunk z.
+     * @param neighbour tells whether the chunk at the given offset takes part in the graph.
+     * @return the cluster.
+     */
+    static RouteCluster build(PathingSnapshot snapshot, int chunkX, int chunkZ, NeighbourFilter neighbour)
+    {
+        List<BlockPos> entrances = new ArrayList<>();
+        List<BlockPos> twins = new ArrayList<>();
+
+        //  Borders are always scanned from their west/north side, so both clusters agree on the entrances
+        if (neighbour.isInGraph(chunkX + 1, chunkZ))
+        {
+            addEntrances(scanBorder(snapshot, chunkX, chunkZ, true), false, entrances, twins);
+        }
+        if (neighbour.isInGraph(chunkX - 1, chunkZ))
+        {
+            addEntrances(scanBorder(snapshot, chunkX - 1, chunkZ, true), true, entrances, twins);
+        }
+        if (neighbour.isInGraph(chunkX, chunkZ + 1))
+        {
+            addEntrances(scanBorder(snapshot, chunkX, chunkZ, false), false, entrances, twins);
+        }
+        if (neighbour.isInGraph(chunkX, chunkZ - 1))
+        {
+            addEntrances(scanBorder(snapshot, chunkX, chunkZ - 1, false), true, entrances, twins);
+        }
+
+        RouteCluster cluster = new RouteCluster(chunkX, chunkZ, entrances, twins);
+        int count = cluster.entrances.length;
+        for (int i = 0; i < count; ++i)
+        {
+            int[] distances = cluster.distancesFrom(snapshot, cluster.entrances[i]);
+            System.arraycopy(distances, 0, cluster.costs, i * count, count);
+        }
+        return cluster;
+    }
+
+    private static void addEntrances(List<BlockPos[]> pairs, boolean mine, List<BlockPos> entrances, List<BlockPos> twins)
+    {
+        //  pair[0] lies in the west/north chunk, pair[1] in the east/south one
+        for (BlockPos[] pair : pairs)
+        {
+            entrances.add(mine ? pair[1] : pair[0]);
+            twins.add(mine ? pair[0] : pair[1]);
+        }
+    }
+
+    /**
+     * Find the crossings of the east or south border of a chunk.
+     * Consecutive crossings at the same height form one entrance, placed in the middle of the run.
+     *
+     * @param snapshot blocks.
+     * @param chunkX   chunk on the west/north side of the border.
+     * @param chunkZ   chunk on the west/north side of the border.
+     * @param east     true for the east border, false for the south border.
+     * @return pairs of positions, west/north side first.
+     */
+    private static List<BlockPos[]> scanBorder(PathingSnapshot snapshot, int chunkX, int chunkZ, boolean east)
+    {
+        List<BlockPos[]> pairs = new ArrayList<>();
+        int x = east ? ((chunkX << 4) + SIZE - 1) : (chunkX << 4);
+        int z = east ? (chunkZ << 4) : ((chunkZ << 4) + SIZE - 1);
+        int stepX = east ? 0 : 1;
+        int stepZ = east ? 1 : 0;
+        int crossX = east ? 1 : 0;
+        int crossZ = east ? 0 : 1;
+
+        for (int y = 1; y < WORLD_HEIGHT - 1; ++y)
+        {
+            int runStart = -1;
+            int runDy = 0;
+            for (int i = 0; i <= SIZE; ++i)
+            {
+                int dy = i < SIZE ? findCrossing(snapshot, x + stepX * i, y, z + stepZ * i, crossX, crossZ) : NO_CROSSING;
+                if (runStart >= 0 && dy != runDy)
+                {
+                    int middle = (runStart + i - 1) / 2;
+                    int fromX = x + stepX * middle;
+                    int fromZ = z + stepZ * middle;
+                    pairs.add(new BlockPos[]{new BlockPos(fromX, y, fromZ), new BlockPos(fromX + crossX, y + runDy, fromZ + crossZ)});
+                    runStart = -1;
+                }
+                if (runStart < 0 && dy != NO_CROSSING)
+                {
+                    runStart = i;
+                    runDy = dy;
+                }
+            }
+        }
+        return pairs;
+    }
+
+    /**
+     * @return the height difference of the step across the border from x,y,z, or NO_CROSSING.
+     */
+    private static int findCrossing(PathingSnapshot snapshot, int x, int y, int z, int crossX, int crossZ)
+    {
+        if (!canStand(snapshot, x, y, z))
+        {
+            return NO_CROSSING;
+        }
+
+        for (int dy : CROSSING_STEPS)
+        {
+            if (canStep(snapshot, x, y, z, x + crossX, y + dy, z + crossZ))
+            {
+                return dy;
+            }
+        }
+        return NO_CROSSING;
+    }
+
+    /**
+     * Can a citizen stand on dry ground at this position?
+     */
+    static boolean canStand(PathingSnapshot snapshot, int x, int y, int z)
+    {
+        return y > 0 && y < WORLD_HEIGHT - 1 &&
+                (snapshot.getFlags(x, y, z) & SectionSnapshot.PASSABLE) != 0 &&
+                (snapshot.getFlags(x, y + 1, z) & SectionSnapshot.PASSABLE) != 0 &&
+                (snapshot.getFlags(x, y - 1, z) & SectionSnapshot.WALKABLE) != 0;
+    }
+
+    /**
+     * Can a citizen walk from one standing position to the adjacent one, stepping at most one block up or down?
+     */
+    static boolean canStep(PathingSnapshot snapshot, int x, int y, int z, int toX, int toY, int toZ)
+    {
+        if (!canStand(snapshot, toX, toY, toZ))
+        {
+            return false;
+        }
+
+        if (toY > y)
+        {
+            //  Jump room above the origin
+            return (snapshot.getFlags(x, y + 2, z) & SectionSnapshot.PASSABLE) != 0;
+        }
+        if (toY < y)
+        {
+            //  Head room above the lower landing
+            return (snapshot.getFlags(toX, y + 1, toZ) & SectionSnapshot.PASSABLE) != 0;
+        }
+        return true;
+    }
+
+    /**
+     * Walking distance from a position inside this cluster to each of its entrances.
+     *
+     * @param snapshot blocks of the cluster.
+     * @param from     a standing position inside the cluster.
+     * @return distance by entrance index, {@link #UNREACHABLE} for entrances which can not be reached.
+     */
+    int[] distancesFrom(PathingSnapshot snapshot, BlockPos from)
+    {
+        int[] result = new int[entrances.length];
+        Arrays.fill(result, UNREACHABLE);
+        if (!contains(from) || !canStand(snapshot, from.getX(), from.getY(), from.getZ()))
+        {
+            return result;
+        }
+
+        int[][] scratch = SCRATCH.get();
+        int[] distance = scratch[0];
+        int[] queue = scratch[1];
+        Arrays.fill(distance, UNREACHABLE);
+
+        int originX = chunkX << 4;
+        int originZ = chunkZ << 4;
+        int head = 0;
+        int tail = 0;
+        int first = cell(from.getX() - originX, from.getY(), from.getZ() - originZ);
+        distance[first] = 0;
+        queue[tail++] = first;
+
+        while (head < tail)
+        {
+            int current = queue[head++];
+            int x = current & 15;
+            int z = (current >> 4) & 15;
+            int y = current >> 8;
+            for (int[] direction : DIRECTIONS)
+            {
+                int nx = x + direction[0];
+                int nz = z + direction[1];
+                if (nx < 0 || nx >= SIZE || nz < 0 || nz >= SIZE)
+                {
+                    continue;
+                }
+
+                for (int ny = y - 1; ny <= y + 1; ++ny)
+                {
+                    if (ny <= 0 || ny >= WORLD_HEIGHT - 1)
+                    {
+                        continue;
+                    }
+
+                    int next = cell(nx, ny, nz);
+                    if (distance[next] == UNREACHABLE &&
+                            canStep(snapshot, originX + x, y, originZ + z, originX + nx, ny, originZ + nz))
+                    {
+                        distance[next] = distance[current] + 1;
+                        queue[tail++] = next;
+                    }
+                }
+            }
+        }
+
+        for (int i = 0; i < entrances.length; ++i)
+        {
+            BlockPos entrance = entrances[i];
+            result[i] = distance[cell(entrance.getX() - originX, entrance.getY(), entrance.getZ() - originZ)];
+        }
+        return result;
+    }
+
+    private static int cell(int x, int y, int z)
+    {
+        return (y << 8) | (z << 4) | x;
+    }
+
+    /**
+     * @param pos a block position.
+     * @return true if the position lies in this cluster's chunk column.
+     */
+    boolean contains(BlockPos pos)
+    {
+        return (pos.getX() >> 4) == chunkX && (pos.getZ() >> 4) == chunkZ;
+    }
+
+    int getEntranceCount()
+    {
+        return entrances.length;
+    }
+
+    BlockPos getEntrance(int index)
+    {
+        return entrances[index];
+    }
+
+    /**
+     * @param index entrance index.
+     * @return the position on the other side of the border, which is an entrance of the neighbouring cluster.
+     */
+    BlockPos getTwin(int index)
+    {
+        return twins[index];
+    }
+
+    /**
+     * @param pos a position.
+     * @return the index of the entrance at that position, or -1.
+     */
+    int indexOf(BlockPos pos)
+    {
+        Integer index = indexByPos.get(pos.toLong());
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * @return the walking distance between two entrances, or {@link #UNREACHABLE}.
+     */
+    int getCost(int from, int to)
+    {
+        return costs[from * entrances.length + to];
+    }
+
+    /**
+     * Tells which chunks take part in a graph.
+     */
+    interface NeighbourFilter
+    {
+        boolean isInGraph(int chunkX, int chunkZ);
+    }
+}
@@ -0,0 +1,268 @@
+package com.minecolonies.entity.pathfinding;
+
+import net.minecraft.block.*;
+import net.minecraft.block.material.Material;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.util.BlockPos;
+import net.minecraft.world.IBlockAccess;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+
+/**
+ * Immutable copy of a 16x16x16 chunk section, as seen by the pathfinder.
+ * Holds the raw block state ids, for the few checks which need the real block, and one byte of
+ * pathing flags per block, which is all the search itself looks at.
+ * Created by the first path job which reads the section and afterwards only read, so it can be shared by any
+ * number of path jobs.
+ */
+final class SectionSnapshot
+{
+    /**
+     * The block does not block movement.
+     */
+    static final int PASSABLE = 1;
+    /**
+     * The block can be stood upon.
+     */
+    static final int WALKABLE = 1 << 1;
+    /**
+     * The block can be climbed.
+     */
+    static final int LADDER   = 1 << 2;
+    /**
+     * The block is a liquid.
+     */
+    static final int LIQUID   = 1 << 3;
+    /**
+     * The block is water.
+     */
+    static final int WATER    = 1 << 4;
+    /**
+     * The block is leaves.
+     */
+    static final int LEAVES   = 1 << 5;
+
+    /**
+     * Flags of an air block, also used for everything outside of the world.
+     */
+    static final int AIR_FLAGS = PASSABLE;
+
+    /**
+     * Marks entries of {@link #flagsByStateId} which were already computed.
+     */
+    private static final int CLASSIFIED = 1 << 7;
+
+    private static final int SECTION_VOLUME = 16 * 16 * 16;
+
+    /**
+     * Bytes taken by a section which is not {@link #EMPTY}.
+     */
+    static final long MEMORY = SECTION_VOLUME * (Character.BYTES + Byte.BYTES);
+
+    /**
+     * Section which contains nothing but air.
+     */
+    static final SectionSnapshot EMPTY = new SectionSnapshot(null, null);
+
+    /**
+     * Flags by block state id, filled lazily from any thread.
+     * Every thread computes the same flags for an id and byte writes do not tear, so races only cost a recomputation.
+     */
+    private static final byte[] flagsByStateId = new byte[Character.MAX_VALUE + 1];
+
+    private final char[] states;
+    private final byte[] flags;
+
+    private SectionSnapshot(char[] states, byte[] flags)
+    {
+        this.states = states;
+        this.flags = flags;
+    }
+
+    /**
+     * Copy a chunk section. May be called from a pathfinding thread; like ChunkCache, it then reads the live section.
+     *
+     * @param world   the world the section belongs to.
+     * @param storage the section to copy, may be null.
+     * @param originX block x of the chunk.
+     * @param originZ block z of the chunk.
+     * @return a snapshot of the section.
+     */
+    static SectionSnapshot copyOf(World world, ExtendedBlockStorage storage, int originX, int originZ)
+    {
+        if (storage == null || storage.isEmpty())
+        {
+            return EMPTY;
+        }
+
+        char[] states = storage.getData().clone();
+        byte[] flags = new byte[SECTION_VOLUME];
+        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos(0, 0, 0);
+        int originY = storage.getYLocation();
+
+        for (int i = 0; i < SECTION_VOLUME; ++i)
+        {
+            int stateId = states[i];
+            int stateFlags = flagsByStateId[stateId];
+            if ((stateFlags & CLASSIFIED) == 0)
+            {
+                pos.set(originX + (i & 15), originY + (i >> 8), originZ + ((i >> 4) & 15));
+                stateFlags = classify(getState(stateId).getBlock(), world, pos) | CLASSIFIED;
+                flagsByStateId[stateId] = (byte) stateFlags;
+            }
+            flags[i] = (byte) (stateFlags & ~CLASSIFIED);
+        }
+
+        return new SectionSnapshot(states, flags);
+    }
+
+    /**
+     * Copy a section from any block source, e.g. a synthetic world in a benchmark.
+     * Slower than {@link #copyOf(World, ExtendedBlockStorage, int, int)}.
+     *
+     * @param blocks  the block source.
+     * @param originX block x of the section.
+     * @param originY block y of the section.
+     * @param originZ block z of the section.
+     * @return a snapshot of the section.
+     */
+    static SectionSnapshot copyOf(IBlockAccess blocks, int originX, int originY, int originZ)
+    {
+        char[] states = new char[SECTION_VOLUME];
+        byte[] flags = new byte[SECTION_VOLUME];
+        boolean empty = true;
+
+        for (int i = 0; i < SECTION_VOLUME; ++i)
+        {
+            BlockPos pos = new BlockPos(originX + (i & 15), originY + (i >> 8), originZ + ((i >> 4) & 15));
+            IBlockState state = blocks.getBlockState(pos);
+            int stateId = Block.BLOCK_STATE_IDS.get(state);
+            int stateFlags = flagsByStateId[stateId];
+            if ((stateFlags & CLASSIFIED) == 0)
+            {
+                stateFlags = classify(state.getBlock(), blocks, pos) | CLASSIFIED;
+                flagsByStateId[stateId] = (byte) stateFlags;
+            }
+            states[i] = (char) stateId;
+            flags[i] = (byte) (stateFlags & ~CLASSIFIED);
+            empty &= state.getBlock() == Blocks.air;
+        }
+
+        return empty ? EMPTY : new SectionSnapshot(states, flags);
+    }
+
+    /**
+     * Compute the pathing flags of a block.
+     *
+     * @param block the block.
+     * @param world the world the block is in.
+     * @param pos   location of the block.
+     * @return the flags.
+     */
+    private static int classify(Block block, IBlockAccess world, BlockPos pos)
+    {
+        Material material = block.getMaterial();
+        int result = 0;
+
+        if (isPassable(block, material))
+        {
+            result |= PASSABLE;
+        }
+
+        if (material.isSolid() &&
+                !(block instanceof BlockFence) &&
+                !(block instanceof BlockFenceGate) &&
+                !(block instanceof BlockWall))
+        {
+            result |= WALKABLE;
+        }
+
+        if (block.isLadder(world, pos, null))
+        {
+            result |= LADDER;
+        }
+
+        if (material.isLiquid())
+        {
+            result |= LIQUID;
+        }
+
+        if (material == Material.water)
+        {
+            result |= WATER;
+        }
+
+        if (block.isLeaves(world, pos))
+        {
+            result |= LEAVES;
+        }
+
+        return result;
+    }
+
+    private static boolean isPassable(Block block, Material material)
+    {
+        if (material != Material.air)
+        {
+            if (material.blocksMovement())
+            {
+                return block instanceof BlockDoor ||
+                        //  block instanceof BlockTrapDoor ||
+                        block instanceof BlockFenceGate;
+            }
+            else if (material.isLiquid())
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static IBlockState getState(int stateId)
+    {
+        IBlockState state = Block.BLOCK_STATE_IDS.getByValue(stateId);
+        return state != null ? state : Blocks.air.getDefaultState();
+    }
+
+    /**
+     * Pack the section coordinates of a block into a key which is unique within a world.
+     *
+     * @param x block x.
+     * @param y block y, between 0 and 255.
+     * @param z block z.
+     * @return the key of the section containing the block.
+     */
+    static long sectionKey(int x, int y, int z)
+    {
+        return (((long) (x >> 4) & 0x3FFFFFL) << 26) | (((long) (z >> 4) & 0x3FFFFFL) << 4) | ((y >> 4) & 0xF);
+    }
+
+    private static int index(int x, int y, int z)
+    {
+        return ((y & 15) << 8) | ((z & 15) << 4) | (x & 15);
+    }
+
+    /**
+     * @param x block x.
+     * @param y block y.
+     * @param z block z.
+     * @return the pathing flags of the block.
+     */
+    int getFlags(int x, int y, int z)
+    {
+        return flags == null ? AIR_FLAGS : flags[index(x, y, z)];
+    }
+
+    /**
+     * @param x block x.
+     * @param y block y.
+     * @param z block z.
+     * @return the block state as it was when the snapshot was taken.
+     */
+    IBlockState getBlockState(int x, int y, int z)
+    {
+        return states == null ? Blocks.air.getDefaultState() : getState(states[index(x, y, z)]);
+    }
+}
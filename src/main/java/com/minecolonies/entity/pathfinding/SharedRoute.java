@@ -0,0 +1,172 @@
+package com.minecolonies.entity.pathfinding;
+
+import net.minecraft.pathfinding.PathEntity;
+import net.minecraft.pathfinding.PathPoint;
+import net.minecraft.util.BlockPos;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * One path job whose result is shared by several citizens which start close to each other and walk to the same
+ * destination, see {@link Pathfinding#requestRoute}.
+ * Every citizen gets its own {@link Subscription}, which trims the shared path to the point closest to its own
+ * start. The job is only cancelled once every subscriber cancelled. Subscribing and cancelling happen on the
+ * server thread.
+ */
+final class SharedRoute
+{
+    /**
+     * Largest horizontal distance, in blocks, between the starts of citizens which share a route.
+     */
+    static final int SHARE_RADIUS = 2;
+
+    private final AbstractPathJob    job;
+    private final Future<PathEntity> future;
+    private final int                colonyId;
+    private final BlockPos           start;
+    private int subscribers = 0;
+
+    SharedRoute(AbstractPathJob job, Future<PathEntity> future, int colonyId, BlockPos start)
+    {
+        this.job = job;
+        this.future = future;
+        this.colonyId = colonyId;
+        this.start = start;
+    }
+
+    /**
+     * Can a citizen of the given colony starting at the given position use this route?
+     *
+     * @param otherColonyId colony of the citizen.
+     * @param otherStart    start of the citizen.
+     * @return true if the route is still wanted and starts close enough.
+     */
+    boolean canShare(int otherColonyId, BlockPos otherStart)
+    {
+        return subscribers > 0 && !future.isCancelled() && colonyId == otherColonyId &&
+                Math.abs(start.getX() - otherStart.getX()) <= SHARE_RADIUS &&
+                Math.abs(start.getZ() - otherStart.getZ()) <= SHARE_RADIUS &&
+                Math.abs(start.getY() - otherStart.getY()) <= 1;
+    }
+
+    /**
+     * Add a citizen to this route.
+     *
+     * @param citizenStart where the citizen starts.
+     * @return the citizen's view of the route.
+     */
+    Subscription subscribe(BlockPos citizenStart)
+    {
+        ++subscribers;
+        return new Subscription(citizenStart);
+    }
+
+    private void unsubscribe()
+    {
+        if (--subscribers == 0)
+        {
+            future.cancel(true);
+        }
+    }
+
+    /**
+     * Drop the points of a path before the one closest to a start.
+     */
+    @Nullable
+    private static PathEntity trim(@Nullable PathEntity path, BlockPos citizenStart)
+    {
+        if (path == null || path.getCurrentPathLength() == 0)
+        {
+            return path;
+        }
+
+        int closest = 0;
+        double closestDistance = Double.MAX_VALUE;
+        for (int i = 0; i < path.getCurrentPathLength(); ++i)
+        {
+            PathPoint point = path.getPathPointFromIndex(i);
+            double distance = citizenStart.distanceSq(point.xCoord, point.yCoord, point.zCoord);
+            if (distance < closestDistance)
+            {
+                closest = i;
+                closestDistance = distance;
+            }
+        }
+
+        PathPoint[] points = new PathPoint[path.getCurrentPathLength() - closest];
+        for (int i = 0; i < points.length; ++i)
+        {
+            points[i] = path.getPathPointFromIndex(closest + i);
+        }
+        return new PathEntity(points);
+    }
+
+    /**
+     * A citizen's view of a shared route. Has its own {@link PathResult}, which is filled when the path is taken.
+     */
+    final class Subscription implements Future<PathEntity>
+    {
+        private final BlockPos   citizenStart;
+        private final PathResult result = new PathResult();
+        private boolean cancelled = false;
+
+        private Subscription(BlockPos citizenStart)
+        {
+            this.citizenStart = citizenStart;
+        }
+
+        /**
+         * @return the result of this citizen's path.
+         */
+        PathResult getResult()
+        {
+            return result;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning)
+        {
+            if (cancelled || future.isDone())
+            {
+                return false;
+            }
+            cancelled = true;
+            unsubscribe();
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled()
+        {
+            return cancelled || future.isCancelled();
+        }
+
+        @Override
+        public boolean isDone()
+        {
+            return cancelled || future.isDone();
+        }
+
+        @Override
+        public PathEntity get() throws InterruptedException, ExecutionException
+        {
+            return take(future.get());
+        }
+
+        @Override
+        public PathEntity get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException
+        {
+            return take(future.get(timeout, unit));
+        }
+
+        private PathEntity take(PathEntity path)
+        {
+            result.setPathReachesDestination(job.getResult().getPathReachesDestination());
+            return trim(path, citizenStart);
+        }
+    }
+}
@@ -11,6 +11,7 @@ import com.minecolonies.util.LanguageHandler;
 import com.minecolonies.util.MathUtils;
 import net.minecraft.block.Block;
 import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraft.util.BlockPos;
 import net.minecraft.world.World;
 import net.minecraftforge.event.entity.EntityEvent;
@@ -18,6 +19,7 @@ import net.minecraftforge.event.entity.EntityJoinWorldEvent;
 import net.minecraftforge.event.entity.living.LivingDeathEvent;
 import net.minecraftforge.event.entity.player.PlayerInteractEvent;
 import net.minecraftforge.event.world.BlockEvent;
+import net.minecraftforge.event.world.ChunkEvent;
 import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 
@@ -280,6 +282,21 @@ public class EventHandler
         }
     }
 
+    /**
+     * Called when an entity moves into another chunk
+     * Players check their colony subscriptions, see {@link ColonyManager#onPlayerEnteredChunk(EntityPlayerMP)}
+     *
+     * @param event     {@link net.minecraftforge.event.entity.EntityEvent.EnteringChunk}
+     */
+    @SubscribeEvent
+    public void onEnteringChunk(EntityEvent.EnteringChunk event)
+    {
+        if(event.entity instanceof EntityPlayerMP)
+        {
+            ColonyManager.onPlayerEnteredChunk((EntityPlayerMP) event.entity);
+        }
+    }
+
     /**
      * Gets called when world loads.
      * Calls {@link ColonyManager#onWorldLoad(World)}
@@ -304,6 +321,36 @@ public class EventHandler
         ColonyManager.onWorldUnload(event.world);
     }
 
+    /**
+     * Gets called when a chunk loads.
+     * Calls {@link ColonyManager#onChunkLoad(World, int, int)}
+     *
+     * @param event     {@link net.minecraftforge.event.world.ChunkEvent.Load}
+     */
+    @SubscribeEvent
+    public void onChunkLoad(ChunkEvent.Load event)
+    {
+        if (!event.world.isRemote)
+        {
+            ColonyManager.onChunkLoad(event.world, event.getChunk().xPosition, event.getChunk().zPosition);
+        }
+    }
+
+    /**
+     * Gets called when a chunk unloads.
+     * Calls {@link ColonyManager#onChunkUnload(World, int, int)}
+     *
+     * @param event     {@link net.minecraftforge.event.world.ChunkEvent.Unload}
+     */
+    @SubscribeEvent
+    public void onChunkUnload(ChunkEvent.Unload event)
+    {
+        if (!event.world.isRemote)
+        {
+            ColonyManager.onChunkUnload(event.world, event.getChunk().xPosition, event.getChunk().zPosition);
+        }
+    }
+
     /**
      * Gets called when world saves.
      * Calls {@link ColonyManager#onWorldSave(World)}
@@ -2,6 +2,7 @@ package com.minecolonies.event;
 
 import com.minecolonies.MineColonies;
 import com.minecolonies.colony.ColonyManager;
+import com.minecolonies.entity.pathfinding.Pathfinding;
 import com.minecolonies.network.messages.ColonyStylesMessage;
 import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
@@ -19,6 +20,10 @@ public class FMLEventHandler
     @SubscribeEvent
     public void onServerTick(TickEvent.ServerTickEvent event)
     {
+        if (event.phase == TickEvent.Phase.START)
+        {
+            Pathfinding.onServerTick();
+        }
         ColonyManager.onServerTick(event);
     }
 
@@ -35,29 +40,60 @@ public class FMLEventHandler
     }
 
     /**
-     * Called when the world ticks
-     * Calls {@link ColonyManager#onWorldTick(TickEvent.WorldTickEvent)}
+     * Called when a player logs in
+     * If the joining player is a MP-Player, sends all possible styles in a message
      *
-     * @param event     {@link net.minecraftforge.fml.common.gameevent.TickEvent.WorldTickEvent}
+     * @param event     {@link net.minecraftforge.fml.common.gameevent.PlayerEvent.PlayerLoggedInEvent}
      */
     @SubscribeEvent
-    public void onWorldTick(TickEvent.WorldTickEvent event)
+    public void onPlayerLogin(PlayerEvent.PlayerLoggedInEvent event)
     {
-        ColonyManager.onWorldTick(event);
+        if(event.player instanceof EntityPlayerMP)
+        {
+            MineColonies.getNetwork().sendTo(new ColonyStylesMessage(), (EntityPlayerMP) event.player);
+            ColonyManager.onPlayerJoined((EntityPlayerMP) event.player);
+        }
     }
 
     /**
-     * Called when a player logs in
-     * If the joining player is a MP-Player, sends all possible styles in a message
+     * Called when a player logs out
+     * Calls {@link ColonyManager#onPlayerLeft(net.minecraft.entity.player.EntityPlayer)}
      *
-     * @param event     {@link net.minecraftforge.fml.common.gameevent.PlayerEvent.PlayerLoggedInEvent}
+     * @param event     {@link net.minecraftforge.fml.common.gameevent.PlayerEvent.PlayerLoggedOutEvent}
      */
     @SubscribeEvent
-    public void onPlayerLogin(PlayerEvent.PlayerLoggedInEvent event)
+    public void onPlayerLogout(PlayerEvent.PlayerLoggedOutEvent event)
+    {
+        ColonyManager.onPlayerLeft(event.player);
+    }
+
+    /**
+     * Called when a player respawns, as a new entity
+     * Calls {@link ColonyManager#onPlayerJoined(EntityPlayerMP)}
+     *
+     * @param event     {@link net.minecraftforge.fml.common.gameevent.PlayerEvent.PlayerRespawnEvent}
+     */
+    @SubscribeEvent
+    public void onPlayerRespawn(PlayerEvent.PlayerRespawnEvent event)
     {
         if(event.player instanceof EntityPlayerMP)
         {
-            MineColonies.getNetwork().sendTo(new ColonyStylesMessage(), (EntityPlayerMP) event.player);
+            ColonyManager.onPlayerJoined((EntityPlayerMP) event.player);
+        }
+    }
+
+    /**
+     * Called when a player changes dimension
+     * Calls {@link ColonyManager#onPlayerChangedDimension(EntityPlayerMP, int)}
+     *
+     * @param event     {@link net.minecraftforge.fml.common.gameevent.PlayerEvent.PlayerChangedDimensionEvent}
+     */
+    @SubscribeEvent
+    public void onPlayerChangedDimension(PlayerEvent.PlayerChangedDimensionEvent event)
+    {
+        if(event.player instanceof EntityPlayerMP)
+        {
+            ColonyManager.onPlayerChangedDimension((EntityPlayerMP) event.player, event.fromDim);
         }
     }
 }
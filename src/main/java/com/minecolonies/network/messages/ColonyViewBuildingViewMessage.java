@@ -38,7 +38,7 @@ public class ColonyViewBuildingViewMessage implements IMessage, IMessageHandler<
     {
         buf.writeInt(colonyId);
         BlockPosUtil.writeToByteBuf(buf, buildingId);
-        buf.writeBytes(buildingData);
+        buf.writeBytes(buildingData, buildingData.readerIndex(), buildingData.readableBytes());
     }
 
     @Override
@@ -39,7 +39,7 @@ public class ColonyViewCitizenViewMessage implements IMessage, IMessageHandler<C
     {
         buf.writeInt(colonyId);
         buf.writeInt(citizenId);
-        buf.writeBytes(citizenBuffer);
+        buf.writeBytes(citizenBuffer, citizenBuffer.readerIndex(), citizenBuffer.readableBytes());
     }
 
     @Override
@@ -39,7 +39,7 @@ public class ColonyViewMessage implements IMessage, IMessageHandler<ColonyViewMe
     {
         buf.writeInt(colonyId);
         buf.writeBoolean(isNewSubscription);
-        buf.writeBytes(colonyBuffer);
+        buf.writeBytes(colonyBuffer, colonyBuffer.readerIndex(), colonyBuffer.readableBytes());
     }
 
     @Override
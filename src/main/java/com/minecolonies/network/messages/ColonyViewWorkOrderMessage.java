@@ -47,7 +47,7 @@ public class ColonyViewWorkOrderMessage implements IMessage, IMessageHandler<Col
     {
         buf.writeInt(colonyId);
         buf.writeInt(workOrderId);
-        buf.writeBytes(workOrderBuffer);
+        buf.writeBytes(workOrderBuffer, workOrderBuffer.readerIndex(), workOrderBuffer.readableBytes());
     }
 
     @Override
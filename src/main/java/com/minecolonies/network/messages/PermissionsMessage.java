@@ -40,7 +40,7 @@ public class PermissionsMessage
         public void toBytes(ByteBuf buf)
         {
             buf.writeInt(colonyID);
-            buf.writeBytes(data);
+            buf.writeBytes(data, data.readerIndex(), data.readableBytes());
         }
 
         @Override
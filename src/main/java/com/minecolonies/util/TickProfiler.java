@@ -0,0 +1,302 @@
+package com.minecolonies.util;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Tick time spent in sections of the colony code, like one building's tick or one target of a citizen's ai.
+ * Every section keeps a histogram of its run times over the last {@link #WINDOW_SLOTS} * {@link #SLOT_TICKS} ticks,
+ * in slots which are dropped as they get too old. Sections can belong to a group, e.g. their colony, whose time
+ * is the sum of its sections.
+ * While disabled, callers only check {@link #isEnabled()}. Server thread only.
+ */
+public final class TickProfiler
+{
+    /**
+     * Ticks per slot, and slots per window; the report covers the last minute.
+     */
+    private static final int SLOT_TICKS   = 10 * 20;
+    private static final int WINDOW_SLOTS = 6;
+
+    /**
+     * Histogram buckets by the highest bit of the run time in nanoseconds, so bucket i holds times below 2^i ns.
+     */
+    private static final int BUCKETS = 40;
+
+    private static boolean enabled = false;
+    private static long    tick    = 0;
+    private static long    enabledSince;
+
+    private static final Map<String, Section> sections = new HashMap<>();
+    private static final Map<String, Section> groups   = new HashMap<>();
+
+    @Nullable
+    private static File    dumpFile;
+    private static long    dumpAtTick;
+    private static boolean enabledBeforeDump;
+
+    private TickProfiler()
+    {
+        //Hides default constructor.
+    }
+
+    /**
+     * @return true if sections should be timed.
+     */
+    public static boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * Start or stop timing. Starting drops earlier results.
+     *
+     * @param enable true to start.
+     */
+    public static void setEnabled(boolean enable)
+    {
+        if (enable && !enabled)
+        {
+            sections.clear();
+            groups.clear();
+            enabledSince = tick;
+        }
+        enabled = enable;
+    }
+
+    /**
+     * Record one run of a section; ignored while disabled.
+     *
+     * @param group   group of the section, or null.
+     * @param section name of the section.
+     * @param nanos   run time.
+     */
+    public static void record(@Nullable String group, String section, long nanos)
+    {
+        if (!enabled)
+        {
+            return;
+        }
+
+        sections.computeIfAbsent(section, Section::new).record(nanos);
+        if (group != null)
+        {
+            groups.computeIfAbsent(group, Section::new).record(nanos);
+        }
+    }
+
+    /**
+     * Advance the window, and write a requested report when it is due. Called once per server tick.
+     */
+    public static void onServerTick()
+    {
+        ++tick;
+        if (!enabled)
+        {
+            return;
+        }
+
+        if (tick % SLOT_TICKS == 0)
+        {
+            int slot = getSlot();
+            sections.values().forEach(section -> section.clearSlot(slot));
+            groups.values().forEach(section -> section.clearSlot(slot));
+        }
+
+        if (dumpFile != null && tick >= dumpAtTick)
+        {
+            writeDump();
+        }
+    }
+
+    /**
+     * Time everything for a number of ticks, then write the full report to a file.
+     *
+     * @param file  the file.
+     * @param ticks how long to record.
+     */
+    public static void dumpAfter(File file, int ticks)
+    {
+        if (dumpFile == null)
+        {
+            enabledBeforeDump = enabled;
+        }
+        setEnabled(true);
+        dumpFile = file;
+        dumpAtTick = tick + ticks;
+    }
+
+    private static void writeDump()
+    {
+        File file = dumpFile;
+        dumpFile = null;
+
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format("Tick profile written %tF %<tT", new Date()));
+        lines.add("");
+        lines.add("Groups:");
+        lines.addAll(getReport(groups, Integer.MAX_VALUE));
+        lines.add("");
+        lines.add("Sections:");
+        lines.addAll(getReport(sections, Integer.MAX_VALUE));
+
+        try
+        {
+            file.getParentFile().mkdirs();
+            try (PrintWriter writer = new PrintWriter(file, StandardCharsets.UTF_8.name()))
+            {
+                lines.forEach(writer::println);
+            }
+            Log.logger.info("Tick profile written to " + file);
+        }
+        catch (IOException e)
+        {
+            Log.logger.error("Could not write tick profile to " + file, e);
+        }
+
+        setEnabled(enabledBeforeDump);
+    }
+
+    /**
+     * @return the tick at which a pending dump is written, or -1 if there is none.
+     */
+    public static long getDumpTick()
+    {
+        return dumpFile == null ? -1 : dumpAtTick;
+    }
+
+    public static long getTick()
+    {
+        return tick;
+    }
+
+    /**
+     * @param count how many lines at most.
+     * @return the groups which took the most time, one line each.
+     */
+    public static List<String> getTopGroups(int count)
+    {
+        return getReport(groups, count);
+    }
+
+    /**
+     * @param count how many lines at most.
+     * @return the sections which took the most time, one line each.
+     */
+    public static List<String> getTopSections(int count)
+    {
+        return getReport(sections, count);
+    }
+
+    private static List<String> getReport(Map<String, Section> map, int count)
+    {
+        long ticks = Math.max(1, Math.min(tick - enabledSince, (long) (WINDOW_SLOTS - 1) * SLOT_TICKS + tick % SLOT_TICKS));
+        return map.values().stream()
+                  .map(Section::summarize)
+                  .filter(summary -> summary.count > 0)
+                  .sorted((first, second) -> Long.compare(second.total, first.total))
+                  .limit(count)
+                  .map(summary -> summary.format(ticks))
+                  .collect(Collectors.toList());
+    }
+
+    private static int getSlot()
+    {
+        return (int) ((tick / SLOT_TICKS) % WINDOW_SLOTS);
+    }
+
+    /**
+     * Run times of one section, per slot.
+     */
+    private static final class Section
+    {
+        private final String   name;
+        private final long[][] buckets = new long[WINDOW_SLOTS][BUCKETS];
+        private final long[]   total   = new long[WINDOW_SLOTS];
+        private final long[]   max     = new long[WINDOW_SLOTS];
+
+        private Section(String name)
+        {
+            this.name = name;
+        }
+
+        private void record(long nanos)
+        {
+            int slot = getSlot();
+            ++buckets[slot][Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(Math.max(0, nanos)))];
+            total[slot] += nanos;
+            max[slot] = Math.max(max[slot], nanos);
+        }
+
+        private void clearSlot(int slot)
+        {
+            Arrays.fill(buckets[slot], 0);
+            total[slot] = 0;
+            max[slot] = 0;
+        }
+
+        private Summary summarize()
+        {
+            long[] merged = new long[BUCKETS];
+            Summary summary = new Summary(name);
+            for (int slot = 0; slot < WINDOW_SLOTS; ++slot)
+            {
+                for (int bucket = 0; bucket < BUCKETS; ++bucket)
+                {
+                    merged[bucket] += buckets[slot][bucket];
+                    summary.count += buckets[slot][bucket];
+                }
+                summary.total += total[slot];
+                summary.max = Math.max(summary.max, max[slot]);
+            }
+
+            //  Upper bound of the bucket holding the 99th percentile
+            long seen = 0;
+            for (int bucket = 0; bucket < BUCKETS; ++bucket)
+            {
+                seen += merged[bucket];
+                if (seen * 100 >= summary.count * 99)
+                {
+                    summary.p99 = Math.min(summary.max, 1L << bucket);
+                    break;
+                }
+            }
+            return summary;
+        }
+    }
+
+    /**
+     * Totals of a section over the window.
+     */
+    private static final class Summary
+    {
+        private final String name;
+        private long count = 0;
+        private long total = 0;
+        private long max   = 0;
+        private long p99   = 0;
+
+        private Summary(String name)
+        {
+            this.name = name;
+        }
+
+        private String format(long ticks)
+        {
+            return String.format("%s: %.3fms/tick, %.2f runs/tick, avg %dus, p99 %dus, max %dus",
+                    name,
+                    total / (double) ticks / TimeUnit.MILLISECONDS.toNanos(1),
+                    count / (double) ticks,
+                    TimeUnit.NANOSECONDS.toMicros(total / count),
+                    TimeUnit.NANOSECONDS.toMicros(p99),
+                    TimeUnit.NANOSECONDS.toMicros(max));
+        }
+    }
+}
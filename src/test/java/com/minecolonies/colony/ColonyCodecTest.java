@@ -0,0 +1,103 @@
+package com.minecolonies.colony;
+
+import net.minecraft.nbt.*;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class ColonyCodecTest
+{
+    private static NBTTagCompound position(int x, int y, int z)
+    {
+        NBTTagCompound pos = new NBTTagCompound();
+        pos.setInteger("x", x);
+        pos.setInteger("y", y);
+        pos.setInteger("z", z);
+        return pos;
+    }
+
+    private static NBTTagCompound createCompound()
+    {
+        NBTTagCompound compound = new NBTTagCompound();
+        compound.setByte("byte", (byte) -3);
+        compound.setShort("short", (short) -300);
+        compound.setInteger("int", Integer.MIN_VALUE);
+        compound.setLong("long", Long.MAX_VALUE);
+        compound.setFloat("float", 1.5F);
+        compound.setDouble("double", -0.25D);
+        compound.setByteArray("bytes", new byte[]{1, 2, 3});
+        compound.setIntArray("ints", new int[]{-1, 0, 1 << 30});
+        compound.setString("string", "colony \u00e9");
+        compound.setTag("center", position(-30000000, 255, 30000000));
+
+        //  Not a position: one more key
+        NBTTagCompound notPosition = position(1, 2, 3);
+        notPosition.setString("name", "string");
+        compound.setTag("notPosition", notPosition);
+
+        NBTTagList positions = new NBTTagList();
+        positions.appendTag(position(10, 64, -10));
+        positions.appendTag(position(11, 64, -10));
+        positions.appendTag(position(-5, 0, 400));
+        compound.setTag("positions", positions);
+
+        NBTTagList strings = new NBTTagList();
+        strings.appendTag(new NBTTagString("string"));
+        strings.appendTag(new NBTTagString("other"));
+        compound.setTag("strings", strings);
+
+        NBTTagList doubles = new NBTTagList();
+        doubles.appendTag(new NBTTagDouble(1D));
+        doubles.appendTag(new NBTTagDouble(2D));
+        compound.setTag("doubles", doubles);
+
+        NBTTagList lists = new NBTTagList();
+        lists.appendTag(strings.copy());
+        lists.appendTag(positions.copy());
+        compound.setTag("lists", lists);
+
+        compound.setTag("empty", new NBTTagList());
+        compound.setTag("emptyCompound", new NBTTagCompound());
+        return compound;
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException
+    {
+        NBTTagCompound compound = createCompound();
+        assertEquals(compound, ColonyCodec.decode(ColonyCodec.encode(compound)));
+    }
+
+    @Test
+    public void testSmallerThanNbt() throws IOException
+    {
+        NBTTagCompound compound = createCompound();
+        ByteArrayOutputStream nbt = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(nbt))
+        {
+            CompressedStreamTools.write(compound, out);
+        }
+        assertTrue(ColonyCodec.encode(compound).length < nbt.size());
+    }
+
+    @Test(expected = IOException.class)
+    public void testRejectsNewerVersion() throws IOException
+    {
+        byte[] data = ColonyCodec.encode(createCompound());
+        data[3] = (byte) (ColonyCodec.VERSION + 1);
+        ColonyCodec.decode(data);
+    }
+
+    @Test(expected = IOException.class)
+    public void testRejectsTruncatedData() throws IOException
+    {
+        byte[] data = ColonyCodec.encode(createCompound());
+        byte[] truncated = new byte[data.length - 5];
+        System.arraycopy(data, 0, truncated, 0, truncated.length);
+        ColonyCodec.decode(truncated);
+    }
+}
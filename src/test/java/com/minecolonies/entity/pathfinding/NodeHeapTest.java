@@ -0,0 +1,85 @@
+package com.minecolonies.entity.pathfinding;
+
+import net.minecraft.util.BlockPos;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class NodeHeapTest
+{
+    private static final int NODE_COUNT = 200;
+
+    private NodeHeap heap;
+
+    @Before
+    public void setup()
+    {
+        heap = new NodeHeap();
+    }
+
+    private static Node node(int counter, double score)
+    {
+        Node node = new Node(null, new BlockPos(counter, 0, 0), 0, 0, score);
+        node.counterAdded = counter;
+        return node;
+    }
+
+    @Test
+    public void testPollsInPriorityQueueOrder()
+    {
+        Random random = new Random(42);
+        PriorityQueue<Node> reference = new PriorityQueue<>();
+        for (int i = 0; i < NODE_COUNT; ++i)
+        {
+            Node node = node(i, random.nextInt(20));
+            heap.add(node);
+            reference.offer(node);
+        }
+
+        while (!reference.isEmpty())
+        {
+            assertSame(reference.poll(), heap.poll());
+        }
+        assertTrue(heap.isEmpty());
+        assertNull(heap.poll());
+    }
+
+    @Test
+    public void testDecreaseKeyMovesNodeUp()
+    {
+        Node first = node(1, 10);
+        Node second = node(2, 20);
+        Node third = node(3, 30);
+        heap.add(first);
+        heap.add(second);
+        heap.add(third);
+
+        third.score = 5;
+        heap.decreaseKey(third);
+
+        assertSame(third, heap.poll());
+        assertSame(first, heap.poll());
+        assertSame(second, heap.poll());
+    }
+
+    @Test
+    public void testContains()
+    {
+        Node first = node(1, 10);
+        Node second = node(2, 20);
+        heap.add(first);
+        heap.add(second);
+
+        assertTrue(heap.contains(second));
+        heap.poll();
+        assertFalse(heap.contains(first));
+
+        heap.clear();
+        assertFalse(heap.contains(second));
+        assertTrue(heap.isEmpty());
+    }
+}